@@ -0,0 +1,96 @@
+package de.mononoize.enigma.machine;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.mononoize.enigma.machine.components.Reflector;
+import de.mononoize.enigma.machine.components.Rotor;
+
+/**
+ * Benchmarks the construction of an {@code Enigma} and the encoding of short and long messages.
+ * 
+ * @author mononoize
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EnigmaBenchmark {
+
+	/**
+	 * The number of letters per message.
+	 */
+	@Param({ "100", "100000" })
+	public int m_length;
+	
+	/**
+	 * {@code True} if the compiled engine shall be used.
+	 */
+	@Param({ "false", "true" })
+	public boolean m_compiled;
+	
+	private Enigma m_enigma;
+	
+	private String m_text;
+	
+	private char[] m_input;
+	
+	private char[] m_output;
+	
+	@Setup
+	public void setup() {
+		this.m_enigma = build(this.m_compiled);
+		
+		final Random random = new Random(this.m_length);
+		final StringBuilder text = new StringBuilder(this.m_length);
+		
+		for (int i = 0; i < this.m_length; i++) {
+			text.append((char) ('A' + random.nextInt(26)));
+		}
+		
+		this.m_text = text.toString();
+		this.m_input = this.m_text.toCharArray();
+		this.m_output = new char[this.m_length];
+	}
+	
+	private static Enigma build(final boolean compiled) {
+		return new Enigma.Builder() //
+				.addCables("AV BS CG DL FU HZ IN KM OW RX") // 
+				.setRotor1(Rotor.getRotorV(), 12, 'A') // 
+				.setRotor2(Rotor.getRotorIV(), 21, 'L') // 
+				.setRotor3(Rotor.getRotorII(), 2, 'B') // 
+				.setReflector(Reflector.getReflectorB()) //
+				.setCompiled(compiled) //
+				.build();
+	}
+	
+	@Benchmark
+	public String encode() {
+		return this.m_enigma.encode(this.m_text);
+	}
+	
+	@Benchmark
+	public int encodeArray() {
+		return this.m_enigma.encode(this.m_input, 0, this.m_length, this.m_output, 0);
+	}
+	
+	@Benchmark
+	public Enigma build() {
+		return build(this.m_compiled);
+	}
+	
+}
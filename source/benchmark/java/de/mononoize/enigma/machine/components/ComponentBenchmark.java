@@ -0,0 +1,91 @@
+package de.mononoize.enigma.machine.components;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the signal path through the {@code Rotor}, the {@code Reflector} and the {@code Plugboard}, and the
+ * wiring of the {@code Plugboard}.
+ * 
+ * @author mononoize
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ComponentBenchmark {
+
+	private Rotor m_rotor;
+	
+	private Reflector m_reflector;
+	
+	private Plugboard m_plugboard;
+	
+	private char m_character;
+	
+	@Setup
+	public void setup() {
+		this.m_rotor = Rotor.getRotorIII().setPositionRing(5).setPosition('Q');
+		this.m_reflector = Reflector.getReflectorB();
+		this.m_plugboard = new Plugboard().addCables("AV BS CG DL FU HZ IN KM OW RX");
+		this.m_character = 'A';
+	}
+	
+	/**
+	 * Returns the next input character, so that the JIT cannot fold the lookups.
+	 * 
+	 * @return The next input character.
+	 */
+	private char next() {
+		this.m_character = (this.m_character == 'Z') ? 'A' : (char) (this.m_character + 1);
+		return this.m_character;
+	}
+	
+	@Benchmark
+	public char rotorGetForward() {
+		return this.m_rotor.getForward(this.next());
+	}
+	
+	@Benchmark
+	public char rotorGetReverse() {
+		return this.m_rotor.getReverse(this.next());
+	}
+	
+	@Benchmark
+	public char reflectorGetForward() {
+		return this.m_reflector.getForward(this.next());
+	}
+	
+	@Benchmark
+	public char reflectorGetReverse() {
+		return this.m_reflector.getReverse(this.next());
+	}
+	
+	@Benchmark
+	public char plugboardGetForward() {
+		return this.m_plugboard.getForward(this.next());
+	}
+	
+	@Benchmark
+	public char plugboardGetReverse() {
+		return this.m_plugboard.getReverse(this.next());
+	}
+	
+	@Benchmark
+	public Plugboard plugboardAddCables() {
+		return new Plugboard().addCables("AV BS CG DL FU HZ IN KM OW RX");
+	}
+	
+}
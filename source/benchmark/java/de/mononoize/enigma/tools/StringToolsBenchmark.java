@@ -0,0 +1,56 @@
+package de.mononoize.enigma.tools;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the grouping of texts by {@code StringTools}.
+ * 
+ * @author mononoize
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StringToolsBenchmark {
+
+	/**
+	 * The number of letters per text.
+	 */
+	@Param({ "100", "100000" })
+	public int m_length;
+	
+	private String m_text;
+	
+	@Setup
+	public void setup() {
+		final Random random = new Random(this.m_length);
+		final StringBuilder text = new StringBuilder(this.m_length);
+		
+		for (int i = 0; i < this.m_length; i++) {
+			text.append((char) ('A' + random.nextInt(26)));
+		}
+		
+		this.m_text = text.toString();
+	}
+	
+	@Benchmark
+	public String format() {
+		return StringTools.format(this.m_text, 5);
+	}
+	
+}
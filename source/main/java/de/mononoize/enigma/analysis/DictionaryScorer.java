@@ -0,0 +1,143 @@
+package de.mononoize.enigma.analysis;
+
+import static de.mononoize.enigma.tools.CharTools.isInRange;
+import static de.mononoize.enigma.tools.CharTools.toIndex;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * <p>Scores candidate decryptions by the fraction of letters that are covered by dictionary words.</p>
+ *
+ * <p>The words are kept in a trie of flat {@code int} arrays. The text is scanned from left to right; at each letter
+ * the longest word that starts there is looked up and skipped as a whole. The score is the number of covered letters
+ * divided by the number of letters, so it lies between 0 and 1. Scoring does not allocate.</p>
+ *
+ * @author mononoize
+ */
+public final class DictionaryScorer implements Scorer {
+
+	/**
+	 * The minimum length of a word. Shorter words occur in random text too often to be of any use.
+	 */
+	public static final int MIN_WORD_LENGTH = 3;
+
+	/**
+	 * The children of the nodes: {@code m_children[node * 26 + letter]} is the child node or 0 if there is none. Node
+	 * 0 is the root, which is never a child.
+	 */
+	private final int[] m_children;
+
+	/**
+	 * The length of the word that ends in the node or 0 if no word ends in the node.
+	 */
+	private final int[] m_lengths;
+
+	/**
+	 * Constructs a new {@code DictionaryScorer}. Characters that are not an element of the Latin alphabet are skipped
+	 * and words shorter than {@link #MIN_WORD_LENGTH} letters are ignored.
+	 *
+	 * @param words The words.
+	 */
+	public DictionaryScorer(final Collection<String> words) {
+		Validate.notNull(words);
+
+		int[] children = new int[26 * 1024];
+		int[] lengths = new int[1024];
+		int nodes = 1;
+
+		for (final String word : words) {
+			int node = 0;
+			int length = 0;
+
+			for (int i = 0; i < word.length(); i++) {
+				final char character = Character.toUpperCase(word.charAt(i));
+
+				if (!isInRange(character)) {
+					continue;
+				}
+
+				final int slot = (node * 26) + toIndex(character);
+
+				if (children[slot] == 0) {
+					if (nodes == lengths.length) {
+						children = Arrays.copyOf(children, children.length * 2);
+						lengths = Arrays.copyOf(lengths, lengths.length * 2);
+					}
+
+					children[slot] = nodes++;
+				}
+
+				node = children[slot];
+				length++;
+			}
+
+			if (length >= MIN_WORD_LENGTH) {
+				lengths[node] = length;
+			}
+		}
+
+		this.m_children = Arrays.copyOf(children, nodes * 26);
+		this.m_lengths = Arrays.copyOf(lengths, nodes);
+	}
+
+	/**
+	 * Reads a dictionary with one word per line.
+	 *
+	 * @param file The dictionary file, encoded in UTF-8.
+	 * @return The scorer.
+	 * @throws IOException If an I/O error occurs.
+	 */
+	public static DictionaryScorer fromFile(final Path file) throws IOException {
+		final List<String> words = Files.readAllLines(file, StandardCharsets.UTF_8);
+
+		return new DictionaryScorer(words);
+	}
+
+	@Override
+	public double score(final byte[] letters, final int offset, final int length) {
+		if (length == 0) {
+			return 0.0;
+		}
+
+		final int[] children = this.m_children;
+		final int[] lengths = this.m_lengths;
+		final int end = offset + length;
+		int covered = 0;
+		int i = offset;
+
+		while (i < end) {
+			int node = 0;
+			int longest = 0;
+
+			for (int j = i; j < end; j++) {
+				node = children[(node * 26) + letters[j]];
+
+				if (node == 0) {
+					break;
+				}
+
+				if (lengths[node] > longest) {
+					longest = lengths[node];
+				}
+			}
+
+			if (longest > 0) {
+				covered += longest;
+				i += longest;
+			} else {
+				i++;
+			}
+		}
+
+		return (double) covered / length;
+	}
+
+}
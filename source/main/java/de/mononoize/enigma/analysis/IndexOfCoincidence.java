@@ -0,0 +1,95 @@
+package de.mononoize.enigma.analysis;
+
+import static de.mononoize.enigma.tools.CharTools.isInRange;
+import static de.mononoize.enigma.tools.CharTools.toIndex;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * <p>Helper class for the index of coincidence.</p>
+ *
+ * <p>The index of coincidence is the probability that two letters drawn at random from a text are equal. It is about
+ * 0.0385 for uniformly distributed letters and considerably higher for natural language (e.g. about 0.076 for German),
+ * which makes it a simple measure of how close a candidate decryption is to plain text.</p>
+ *
+ * @author mononoize
+ */
+public final class IndexOfCoincidence {
+
+	/**
+	 * Enforce non-instantiability.
+	 */
+	private IndexOfCoincidence() {
+	}
+
+	/**
+	 * Returns the index of coincidence of the given text. Characters that are not an element of the Latin alphabet are
+	 * skipped.
+	 *
+	 * @param text The text.
+	 * @return The index of coincidence or {@code 0} if the text contains less than 2 letters.
+	 */
+	public static double compute(final String text) {
+		Validate.notNull(text);
+
+		final int[] counts = new int[26];
+
+		for (int i = 0; i < text.length(); i++) {
+			final char character = text.charAt(i);
+
+			if (isInRange(character)) {
+				counts[toIndex(character)]++;
+			}
+		}
+
+		return compute(counts);
+	}
+
+	/**
+	 * Returns the index of coincidence of the given letter counts.
+	 *
+	 * @param counts The number of occurrences of each letter, indexed from 0 ('A') to 25 ('Z').
+	 * @return The index of coincidence or {@code 0} if there are less than 2 letters.
+	 */
+	public static double compute(final int[] counts) {
+		Validate.isTrue(counts.length == 26);
+
+		long length = 0;
+
+		for (final int count : counts) {
+			length += count;
+		}
+
+		return compute(coincidences(counts), length);
+	}
+
+	/**
+	 * Returns the number of coincidences of the given letter counts, i.e. the sum of {@code n * (n - 1)} over all
+	 * letters. For texts of equal length this number is proportional to the index of coincidence and therefore suffices
+	 * to rank them.
+	 *
+	 * @param counts The number of occurrences of each letter, indexed from 0 ('A') to 25 ('Z').
+	 * @return The number of coincidences.
+	 */
+	public static long coincidences(final int[] counts) {
+		long result = 0;
+
+		for (int i = 0; i < 26; i++) {
+			result += (long) counts[i] * (counts[i] - 1);
+		}
+
+		return result;
+	}
+
+	/**
+	 * Returns the index of coincidence of the given number of coincidences.
+	 *
+	 * @param coincidences The number of coincidences as returned by {@link #coincidences(int[])}.
+	 * @param length The number of letters.
+	 * @return The index of coincidence or {@code 0} if there are less than 2 letters.
+	 */
+	public static double compute(final long coincidences, final long length) {
+		return (length < 2) ? 0.0 : ((double) coincidences / (length * (length - 1)));
+	}
+
+}
@@ -0,0 +1,23 @@
+package de.mononoize.enigma.analysis;
+
+/**
+ * Scores candidate decryptions by their index of coincidence.
+ *
+ * @see IndexOfCoincidence
+ *
+ * @author mononoize
+ */
+public final class IndexOfCoincidenceScorer implements Scorer {
+
+	@Override
+	public double score(final byte[] letters, final int offset, final int length) {
+		final int[] counts = new int[26];
+
+		for (int i = offset; i < offset + length; i++) {
+			counts[letters[i]]++;
+		}
+
+		return IndexOfCoincidence.compute(IndexOfCoincidence.coincidences(counts), length);
+	}
+
+}
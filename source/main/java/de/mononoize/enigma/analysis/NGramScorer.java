@@ -0,0 +1,264 @@
+package de.mononoize.enigma.analysis;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * <p>Scores candidate decryptions by the log-probabilities of their n-grams.</p>
+ *
+ * <p>The table holds the base-10 logarithm of the relative frequency of each n-gram (n = 2, 3 or 4) and is indexed by
+ * the packed letter code {@code l1 * 26^(n-1) + ... + ln}. N-grams that do not occur in the corpus get a floor value.
+ * The score of a text is the sum over all of its n-grams; it is computed with a rolling code and does not allocate.</p>
+ *
+ * <p>A table is built from a corpus of plain text and kept on the heap. It can be saved to a binary file and mapped
+ * from there, in which case it is kept off-heap and shared between processes via the page cache. The binary format is
+ * the order as {@code int}, the floor as {@code float} and the 26^n table entries as {@code float}s, all big-endian.</p>
+ *
+ * @author mononoize
+ */
+public final class NGramScorer implements Scorer {
+
+	/**
+	 * The size of the header of the binary format in bytes.
+	 */
+	private static final int HEADER_SIZE = 8;
+
+	/**
+	 * The order, i.e. the number of letters per n-gram.
+	 */
+	private final int m_order;
+
+	/**
+	 * The number of n-grams, i.e. 26^n.
+	 */
+	private final int m_size;
+
+	/**
+	 * The log-probability of n-grams that do not occur in the corpus.
+	 */
+	private final float m_floor;
+
+	/**
+	 * The table on the heap or {@code null} if the table is mapped.
+	 */
+	private final float[] m_array;
+
+	/**
+	 * The table, either wrapping {@link #m_array} or mapped from a file.
+	 */
+	private final FloatBuffer m_buffer;
+
+	/**
+	 * Constructs a new {@code NGramScorer} on the heap.
+	 *
+	 * @param order The order.
+	 * @param floor The log-probability of n-grams that do not occur in the corpus.
+	 * @param array The table.
+	 */
+	private NGramScorer(final int order, final float floor, final float[] array) {
+		this.m_order = order;
+		this.m_size = array.length;
+		this.m_floor = floor;
+		this.m_array = array;
+		this.m_buffer = FloatBuffer.wrap(array);
+	}
+
+	/**
+	 * Constructs a new {@code NGramScorer} off-heap.
+	 *
+	 * @param order The order.
+	 * @param floor The log-probability of n-grams that do not occur in the corpus.
+	 * @param buffer The table.
+	 */
+	private NGramScorer(final int order, final float floor, final FloatBuffer buffer) {
+		this.m_order = order;
+		this.m_size = buffer.capacity();
+		this.m_floor = floor;
+		this.m_array = null;
+		this.m_buffer = buffer;
+	}
+
+	/**
+	 * Returns the number of n-grams of the given order.
+	 *
+	 * @param order The order.
+	 * @return 26^order.
+	 */
+	private static int size(final int order) {
+		Validate.inclusiveBetween(2, 4, order);
+
+		int result = 1;
+
+		for (int i = 0; i < order; i++) {
+			result *= 26;
+		}
+
+		return result;
+	}
+
+	/**
+	 * Builds a table from the given corpus. The corpus is read as UTF-8; lower case letters are converted to upper
+	 * case and all other characters are skipped, just like the input of the {@code Enigma}.
+	 *
+	 * @param corpus The corpus file.
+	 * @param order The order, 2 (bigrams), 3 (trigrams) or 4 (quadgrams).
+	 * @return The scorer.
+	 * @throws IOException If an I/O error occurs.
+	 */
+	public static NGramScorer fromCorpus(final Path corpus, final int order) throws IOException {
+		final int size = size(order);
+		final long[] counts = new long[size];
+		final int high = size / 26;
+		long total = 0;
+		int code = 0;
+		int letters = 0;
+
+		try (final BufferedReader reader = Files.newBufferedReader(corpus, StandardCharsets.UTF_8)) {
+			int character;
+
+			while ((character = reader.read()) >= 0) {
+				final int letter = Character.toUpperCase(character) - 'A';
+
+				if ((letter < 0) || (letter >= 26)) {
+					continue;
+				}
+
+				code = ((code % high) * 26) + letter;
+
+				if (++letters >= order) {
+					counts[code]++;
+					total++;
+				}
+			}
+		}
+
+		Validate.isTrue(total > 0, "The corpus does not contain any %d-gram.", order);
+
+		final float[] table = new float[size];
+		final float floor = (float) Math.log10(0.01 / total);
+
+		for (int i = 0; i < size; i++) {
+			table[i] = (counts[i] == 0) ? floor : (float) Math.log10((double) counts[i] / total);
+		}
+
+		return new NGramScorer(order, floor, table);
+	}
+
+	/**
+	 * Maps a table that has been saved by {@link #save(Path)}. The table is kept off-heap.
+	 *
+	 * @param file The table file.
+	 * @return The scorer.
+	 * @throws IOException If an I/O error occurs.
+	 */
+	public static NGramScorer map(final Path file) throws IOException {
+		try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			final ByteBuffer mapping = channel.map(MapMode.READ_ONLY, 0, channel.size());
+			final int order = mapping.getInt(0);
+			final float floor = mapping.getFloat(4);
+
+			Validate.isTrue(channel.size() == HEADER_SIZE + (4L * size(order)), "Invalid table file: %s", file);
+
+			return new NGramScorer(order, floor, mapping.position(HEADER_SIZE).slice().asFloatBuffer());
+		}
+	}
+
+	/**
+	 * Saves the table in the binary format, so that it can be mapped by {@link #map(Path)}.
+	 *
+	 * @param file The table file. An existing file is replaced.
+	 * @throws IOException If an I/O error occurs.
+	 */
+	public void save(final Path file) throws IOException {
+		final ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + (4 * this.m_size));
+
+		buffer.putInt(this.m_order).putFloat(this.m_floor);
+
+		for (int i = 0; i < this.m_size; i++) {
+			buffer.putFloat(this.m_buffer.get(i));
+		}
+
+		buffer.flip();
+
+		try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+		}
+	}
+
+	/**
+	 * Returns the order, i.e. the number of letters per n-gram.
+	 *
+	 * @return The order.
+	 */
+	public int getOrder() {
+		return this.m_order;
+	}
+
+	/**
+	 * Returns {@code True} if the table is kept off-heap.
+	 *
+	 * @return {@code True} if the table is kept off-heap.
+	 */
+	public boolean isMapped() {
+		return (this.m_array == null);
+	}
+
+	/**
+	 * Returns the log-probability of the given n-gram.
+	 *
+	 * @param code The packed letter code of the n-gram.
+	 * @return The log-probability of the given n-gram.
+	 */
+	public float get(final int code) {
+		return this.m_buffer.get(code);
+	}
+
+	@Override
+	public double score(final byte[] letters, final int offset, final int length) {
+		if (length < this.m_order) {
+			return 0.0;
+		}
+
+		final int high = this.m_size / 26;
+		final int end = offset + length;
+		int code = 0;
+
+		for (int i = offset; i < offset + this.m_order - 1; i++) {
+			code = (code * 26) + letters[i];
+		}
+
+		double result = 0.0;
+
+		if (this.m_array != null) {
+			final float[] table = this.m_array;
+
+			for (int i = offset + this.m_order - 1; i < end; i++) {
+				code = ((code % high) * 26) + letters[i];
+				result += table[code];
+			}
+		} else {
+			final FloatBuffer table = this.m_buffer;
+
+			for (int i = offset + this.m_order - 1; i < end; i++) {
+				code = ((code % high) * 26) + letters[i];
+				result += table.get(code);
+			}
+		}
+
+		return result;
+	}
+
+}
@@ -0,0 +1,49 @@
+package de.mononoize.enigma.analysis;
+
+import static de.mononoize.enigma.tools.CharTools.isInRange;
+import static de.mononoize.enigma.tools.CharTools.toIndex;
+
+import java.util.Arrays;
+
+/**
+ * <p>Scores candidate decryptions.</p>
+ *
+ * <p>A higher score means that a candidate is closer to plain text. Scores are only comparable between candidates of
+ * equal length that were scored by the same {@code Scorer}. Implementations must be thread-safe.</p>
+ *
+ * @author mononoize
+ */
+public interface Scorer {
+
+	/**
+	 * Returns the score of the given letters.
+	 *
+	 * @param letters The letter indices, from 0 ('A') to 25 ('Z').
+	 * @param offset The index of the first letter.
+	 * @param length The number of letters.
+	 * @return The score.
+	 */
+	double score(byte[] letters, int offset, int length);
+
+	/**
+	 * Returns the score of the given text. Characters that are not an element of the Latin alphabet are skipped.
+	 *
+	 * @param text The text.
+	 * @return The score.
+	 */
+	default double score(final String text) {
+		final byte[] letters = new byte[text.length()];
+		int length = 0;
+
+		for (int i = 0; i < text.length(); i++) {
+			final char character = text.charAt(i);
+
+			if (isInRange(character)) {
+				letters[length++] = (byte) toIndex(character);
+			}
+		}
+
+		return this.score(Arrays.copyOf(letters, length), 0, length);
+	}
+
+}
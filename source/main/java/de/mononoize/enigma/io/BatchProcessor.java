@@ -0,0 +1,490 @@
+package de.mononoize.enigma.io;
+
+import static de.mononoize.enigma.tools.CharTools.isInRange;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.lang3.Validate;
+
+import de.mononoize.enigma.machine.EnigmaSpec;
+import de.mononoize.enigma.machine.PackedKey;
+import de.mononoize.enigma.tools.StringTools;
+
+/**
+ * <p>Encodes/decodes many message files in parallel.</p>
+ *
+ * <p>All files are processed with the same key. The key is compiled into a single immutable {@code EnigmaSpec} that is
+ * shared by the worker threads, and each file is processed from the initial setting like a separate message. The
+ * output is grouped via {@link StringTools#format(String, int)} and written to a file of the same name in the output
+ * directory. Since the input files would be overwritten, the output directory must not contain any of them, and the
+ * names of the input files must be distinct.</p>
+ *
+ * <p>The command line is</p>
+ *
+ * <pre>
+ *  BatchProcessor (encode|decode) &lt;key file&gt; &lt;input directory or glob&gt; &lt;output directory&gt; [threads] [group length]
+ * </pre>
+ *
+ * <p>where the key file contains a {@link PackedKey} as returned by {@link PackedKey#toString()}; empty lines and lines
+ * starting with {@code #} are ignored. A glob such as {@code messages/*.txt} is matched against the names of the files
+ * in its directory.</p>
+ *
+ * @author mononoize
+ */
+public final class BatchProcessor {
+
+	/**
+	 * The {@code BatchProcessor} builder.
+	 */
+	public static class Builder implements org.apache.commons.lang3.builder.Builder<BatchProcessor> {
+
+		private PackedKey m_key;
+
+		private int m_threads = Runtime.getRuntime().availableProcessors();
+
+		private int m_groupLength = 5;
+
+		public Builder() {
+		}
+
+		public Builder setKey(final PackedKey key) {
+			this.m_key = key;
+			return this;
+		}
+
+		public Builder setThreads(final int threads) {
+			this.m_threads = threads;
+			return this;
+		}
+
+		public Builder setGroupLength(final int groupLength) {
+			this.m_groupLength = groupLength;
+			return this;
+		}
+
+		@Override
+		public BatchProcessor build() {
+			Validate.notNull(this.m_key);
+			Validate.inclusiveBetween(1, Integer.MAX_VALUE, this.m_threads);
+			Validate.inclusiveBetween(0, (Integer.MAX_VALUE - 1), this.m_groupLength);
+
+			return new BatchProcessor(this);
+		}
+
+	}
+
+	/**
+	 * The statistics of a single file.
+	 */
+	public static final class FileStatistics {
+
+		/**
+		 * The input file.
+		 */
+		private final Path m_input;
+
+		/**
+		 * The number of bytes read.
+		 */
+		private final long m_inputBytes;
+
+		/**
+		 * The number of bytes written.
+		 */
+		private final long m_outputBytes;
+
+		/**
+		 * The elapsed time in nanoseconds.
+		 */
+		private final long m_nanos;
+
+		/**
+		 * Constructs a new {@code FileStatistics}.
+		 *
+		 * @param input The input file.
+		 * @param inputBytes The number of bytes read.
+		 * @param outputBytes The number of bytes written.
+		 * @param nanos The elapsed time in nanoseconds.
+		 */
+		private FileStatistics(final Path input, final long inputBytes, final long outputBytes, final long nanos) {
+			this.m_input = input;
+			this.m_inputBytes = inputBytes;
+			this.m_outputBytes = outputBytes;
+			this.m_nanos = nanos;
+		}
+
+		/**
+		 * Returns the input file.
+		 *
+		 * @return The input file.
+		 */
+		public Path getInput() {
+			return this.m_input;
+		}
+
+		/**
+		 * Returns the number of bytes read.
+		 *
+		 * @return The number of bytes read.
+		 */
+		public long getInputBytes() {
+			return this.m_inputBytes;
+		}
+
+		/**
+		 * Returns the number of bytes written.
+		 *
+		 * @return The number of bytes written.
+		 */
+		public long getOutputBytes() {
+			return this.m_outputBytes;
+		}
+
+		/**
+		 * Returns the elapsed time in nanoseconds.
+		 *
+		 * @return The elapsed time in nanoseconds.
+		 */
+		public long getNanos() {
+			return this.m_nanos;
+		}
+
+		/**
+		 * Returns the throughput in MB (10^6 bytes) of input per second.
+		 *
+		 * @return The throughput in MB/s.
+		 */
+		public double getThroughput() {
+			return (this.m_nanos == 0) ? 0.0 : ((this.m_inputBytes * 1000.0) / this.m_nanos);
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%s: %d bytes in, %d bytes out, %.3f s, %.2f MB/s", this.m_input, this.m_inputBytes,
+					this.m_outputBytes, (this.m_nanos / 1e9), this.getThroughput());
+		}
+
+	}
+
+	/**
+	 * The statistics of a run.
+	 */
+	public static final class Statistics {
+
+		/**
+		 * The statistics of the files, in the order of the input files.
+		 */
+		private final List<FileStatistics> m_files;
+
+		/**
+		 * The elapsed wall-clock time in nanoseconds.
+		 */
+		private final long m_nanos;
+
+		/**
+		 * Constructs a new {@code Statistics}.
+		 *
+		 * @param files The statistics of the files.
+		 * @param nanos The elapsed wall-clock time in nanoseconds.
+		 */
+		private Statistics(final List<FileStatistics> files, final long nanos) {
+			this.m_files = Collections.unmodifiableList(files);
+			this.m_nanos = nanos;
+		}
+
+		/**
+		 * Returns the statistics of the files, in the order of the input files.
+		 *
+		 * @return The statistics of the files.
+		 */
+		public List<FileStatistics> getFiles() {
+			return this.m_files;
+		}
+
+		/**
+		 * Returns the number of bytes read from all files.
+		 *
+		 * @return The number of bytes read.
+		 */
+		public long getInputBytes() {
+			return this.m_files.stream().mapToLong(FileStatistics::getInputBytes).sum();
+		}
+
+		/**
+		 * Returns the number of bytes written to all files.
+		 *
+		 * @return The number of bytes written.
+		 */
+		public long getOutputBytes() {
+			return this.m_files.stream().mapToLong(FileStatistics::getOutputBytes).sum();
+		}
+
+		/**
+		 * Returns the elapsed wall-clock time in nanoseconds.
+		 *
+		 * @return The elapsed time in nanoseconds.
+		 */
+		public long getNanos() {
+			return this.m_nanos;
+		}
+
+		/**
+		 * Returns the aggregate throughput in MB (10^6 bytes) of input per second of wall-clock time.
+		 *
+		 * @return The throughput in MB/s.
+		 */
+		public double getThroughput() {
+			return (this.m_nanos == 0) ? 0.0 : ((this.getInputBytes() * 1000.0) / this.m_nanos);
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%d files, %d bytes in, %d bytes out, %.3f s, %.2f MB/s", this.m_files.size(),
+					this.getInputBytes(), this.getOutputBytes(), (this.m_nanos / 1e9), this.getThroughput());
+		}
+
+	}
+
+	/**
+	 * The spec that is shared by the worker threads.
+	 */
+	private final EnigmaSpec m_spec;
+
+	/**
+	 * The number of worker threads.
+	 */
+	private final int m_threads;
+
+	/**
+	 * Constructs a new {@code BatchProcessor}.
+	 *
+	 * @param builder The builder that provides the setting.
+	 */
+	private BatchProcessor(final Builder builder) {
+		this.m_spec = builder.m_key.toBuilder().setGroupLength(builder.m_groupLength).buildSpec();
+		this.m_threads = builder.m_threads;
+	}
+
+	/**
+	 * Encodes the given files into the given output directory.
+	 *
+	 * @param inputs The files to be encoded.
+	 * @param output The directory to write the encoded files to. Existing files are replaced, but the directory must not
+	 *        contain any of the input files.
+	 * @return The statistics of the run.
+	 * @throws IOException If an I/O error occurs.
+	 */
+	public Statistics encode(final List<Path> inputs, final Path output) throws IOException {
+		return this.process(inputs, output);
+	}
+
+	/**
+	 * Decodes the given files into the given output directory.
+	 *
+	 * @param inputs The files to be decoded.
+	 * @param output The directory to write the decoded files to. Existing files are replaced, but the directory must not
+	 *        contain any of the input files.
+	 * @return The statistics of the run.
+	 * @throws IOException If an I/O error occurs.
+	 */
+	public Statistics decode(final List<Path> inputs, final Path output) throws IOException {
+		return this.process(inputs, output);
+	}
+
+	/**
+	 * Encodes/decodes the given files into the given output directory.
+	 *
+	 * @param inputs The files to be encoded/decoded.
+	 * @param output The directory to write the encoded/decoded files to.
+	 * @return The statistics of the run.
+	 * @throws IOException If an I/O error occurs.
+	 */
+	private Statistics process(final List<Path> inputs, final Path output) throws IOException {
+		Validate.notNull(inputs);
+		Validate.notNull(output);
+
+		// Each output file is named after its input file, so neither the input files nor other output files may be
+		// overwritten.
+		final Path directory = toRealPath(output);
+		final Set<Path> names = new HashSet<>();
+
+		for (final Path input : inputs) {
+			Validate.isTrue(!directory.equals(toRealPath(input).getParent()),
+					"The output directory must not contain the input file: %s", input);
+			Validate.isTrue(names.add(input.getFileName()), "Duplicate input file name: %s", input.getFileName());
+		}
+
+		final long start = System.nanoTime();
+		final ExecutorService executor = Executors.newFixedThreadPool(this.m_threads);
+
+		Files.createDirectories(output);
+
+		try {
+			final List<Future<FileStatistics>> futures = new ArrayList<>(inputs.size());
+
+			for (final Path input : inputs) {
+				futures.add(executor.submit(() -> this.process(input, output.resolve(input.getFileName()))));
+			}
+
+			final List<FileStatistics> files = new ArrayList<>(inputs.size());
+
+			for (final Future<FileStatistics> future : futures) {
+				files.add(future.get());
+			}
+
+			return new Statistics(files, System.nanoTime() - start);
+		} catch (final ExecutionException e) {
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			}
+
+			throw new IllegalStateException(e.getCause());
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while processing the files.", e);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Returns the real path of the given file if it exists, and its absolute, normalized path otherwise.
+	 *
+	 * @param path The path.
+	 * @return The real path.
+	 * @throws IOException If an I/O error occurs.
+	 */
+	private static Path toRealPath(final Path path) throws IOException {
+		return Files.exists(path) ? path.toRealPath() : path.toAbsolutePath().normalize();
+	}
+
+	/**
+	 * Encodes/decodes the given file.
+	 *
+	 * @param input The file to be encoded/decoded.
+	 * @param output The file to write the encoded/decoded text to.
+	 * @return The statistics of the file.
+	 * @throws IOException If an I/O error occurs.
+	 */
+	private FileStatistics process(final Path input, final Path output) throws IOException {
+		final long start = System.nanoTime();
+		final byte[] bytes = Files.readAllBytes(input);
+		final String text = new String(bytes, StandardCharsets.US_ASCII);
+
+		// The formatting rejects empty texts, therefore files without letters result in empty files.
+		final String result = text.chars().anyMatch(c -> isInRange((char) c)) ? this.m_spec.encode(text) : "";
+		final byte[] resultBytes = result.getBytes(StandardCharsets.US_ASCII);
+
+		Files.write(output, resultBytes);
+
+		return new FileStatistics(input, bytes.length, resultBytes.length, System.nanoTime() - start);
+	}
+
+	/**
+	 * Returns the files of the given directory or the files that match the given glob, sorted by name.
+	 *
+	 * @param pattern A directory or a glob whose last element is matched against the names of the files in its
+	 *        directory, e.g. {@code messages/*.txt}.
+	 * @return The files.
+	 * @throws IOException If an I/O error occurs.
+	 */
+	public static List<Path> resolve(final String pattern) throws IOException {
+		Validate.notEmpty(pattern);
+
+		final Path path = Paths.get(pattern);
+		final Path directory;
+		final String glob;
+
+		if (Files.isDirectory(path)) {
+			directory = path;
+			glob = "*";
+		} else {
+			directory = (path.getParent() != null) ? path.getParent() : Paths.get(".");
+			glob = path.getFileName().toString();
+		}
+
+		final List<Path> result = new ArrayList<>();
+
+		try (final DirectoryStream<Path> stream = Files.newDirectoryStream(directory, glob)) {
+			for (final Path file : stream) {
+				if (Files.isRegularFile(file)) {
+					result.add(file);
+				}
+			}
+		}
+
+		Collections.sort(result);
+		return result;
+	}
+
+	/**
+	 * Reads the key of the given key file.
+	 *
+	 * @param file The key file.
+	 * @return The key.
+	 * @throws IOException If an I/O error occurs.
+	 */
+	public static PackedKey readKey(final Path file) throws IOException {
+		for (final String line : Files.readAllLines(file, StandardCharsets.US_ASCII)) {
+			final String trimmed = line.trim();
+
+			if (!trimmed.isEmpty() && !trimmed.startsWith("#")) {
+				return PackedKey.parse(trimmed);
+			}
+		}
+
+		throw new IllegalArgumentException("The key file does not contain a key: " + file);
+	}
+
+	/**
+	 * Runs the batch processor from the command line and prints the statistics of each file and of the whole run.
+	 *
+	 * @param args The arguments.
+	 * @throws IOException If an I/O error occurs.
+	 */
+	public static void main(final String[] args) throws IOException {
+		if ((args.length < 4) || (args.length > 6) || !("encode".equals(args[0]) || "decode".equals(args[0]))) {
+			System.err.println("Usage: BatchProcessor (encode|decode) <key file> <input directory or glob> "
+					+ "<output directory> [threads] [group length]");
+			System.exit(2);
+			return;
+		}
+
+		final Builder builder = new Builder().setKey(readKey(Paths.get(args[1])));
+
+		if (args.length > 4) {
+			builder.setThreads(Integer.parseInt(args[4]));
+		}
+
+		if (args.length > 5) {
+			builder.setGroupLength(Integer.parseInt(args[5]));
+		}
+
+		final BatchProcessor processor = builder.build();
+		final List<Path> inputs = resolve(args[2]);
+		final Path output = Paths.get(args[3]);
+		final Statistics statistics = "encode".equals(args[0]) ? processor.encode(inputs, output)
+				: processor.decode(inputs, output);
+
+		for (final FileStatistics file : statistics.getFiles()) {
+			System.out.println(file);
+		}
+
+		System.out.println(statistics);
+	}
+
+}
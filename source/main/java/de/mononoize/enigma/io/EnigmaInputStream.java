@@ -0,0 +1,187 @@
+package de.mononoize.enigma.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.apache.commons.lang3.Validate;
+
+import de.mononoize.enigma.machine.Enigma;
+import de.mononoize.enigma.tools.GroupFormatter;
+
+/**
+ * <p>An {@code InputStream} that encodes/decodes all ASCII bytes read from an underlying {@code InputStream} and returns the
+ * grouped result.</p>
+ *
+ * <p>The wheels of the {@code Enigma} are reset once on construction and keep their state across all subsequent
+ * reads, so that the output is identical to {@link Enigma#encode(String)} on the whole input. Bytes that are not an
+ * element of the Latin alphabet are skipped. The final group is padded once the underlying input stream is
+ * exhausted.</p>
+ *
+ * @author mononoize
+ */
+public class EnigmaInputStream extends InputStream {
+
+	/**
+	 * The size of the input buffer.
+	 */
+	private static final int BUFFER_SIZE = 8192;
+
+	/**
+	 * The underlying input stream.
+	 */
+	private final InputStream m_in;
+
+	/**
+	 * The {@code Enigma}.
+	 */
+	private final Enigma m_enigma;
+
+	/**
+	 * The output formatter.
+	 */
+	private final GroupFormatter m_formatter;
+
+	/**
+	 * The input buffer.
+	 */
+	private final byte[] m_buffer = new byte[BUFFER_SIZE];
+
+	/**
+	 * The index of the next byte in the input buffer.
+	 */
+	private int m_position = 0;
+
+	/**
+	 * The number of bytes in the input buffer.
+	 */
+	private int m_limit = 0;
+
+	/**
+	 * The encoded/decoded byte that follows a separator or {@code -1} if there is none.
+	 */
+	private int m_pending = -1;
+
+	/**
+	 * The number of padding characters left or {@code -1} if the underlying input stream is not exhausted yet.
+	 */
+	private int m_padding = -1;
+
+	/**
+	 * {@code True} if this {@code EnigmaInputStream} has been closed.
+	 */
+	private boolean m_closed = false;
+
+	/**
+	 * Constructs a new {@code EnigmaInputStream}.
+	 *
+	 * @param in The underlying input stream.
+	 * @param enigma The {@code Enigma} to be used. The wheels are reset to the initial setting.
+	 */
+	public EnigmaInputStream(final InputStream in, final Enigma enigma) {
+		this.m_in = Validate.notNull(in);
+		this.m_enigma = Validate.notNull(enigma);
+		this.m_formatter = new GroupFormatter.Builder().setLength(enigma.getGroupLength()).build();
+
+		this.m_enigma.reset();
+	}
+
+	@Override
+	public int read() throws IOException {
+		this.ensureOpen();
+
+		return this.next();
+	}
+
+	@Override
+	public int read(final byte[] buffer, final int offset, final int length) throws IOException {
+		this.ensureOpen();
+
+		if (length == 0) {
+			return 0;
+		}
+
+		int count = 0;
+
+		while (count < length) {
+			final int character = this.next();
+
+			if (character < 0) {
+				break;
+			}
+
+			buffer[offset + count++] = (byte) character;
+		}
+
+		return (count == 0) ? -1 : count;
+	}
+
+	@Override
+	public void close() throws IOException {
+		this.m_closed = true;
+		this.m_in.close();
+	}
+
+	/**
+	 * Returns the next output byte.
+	 *
+	 * @return The next output byte or {@code -1} if the end of the stream has been reached.
+	 * @throws IOException If an I/O error occurs.
+	 */
+	private int next() throws IOException {
+		if (this.m_pending >= 0) {
+			final int result = this.m_pending;
+			this.m_pending = -1;
+			return result;
+		}
+
+		while (this.m_padding < 0) {
+			if (this.m_position == this.m_limit) {
+				final int count = this.m_in.read(this.m_buffer, 0, BUFFER_SIZE);
+
+				if (count < 0) {
+					this.m_padding = this.m_formatter.getPaddingLength();
+					break;
+				}
+
+				this.m_position = 0;
+				this.m_limit = count;
+				continue;
+			}
+
+			final byte inputByte = this.m_buffer[this.m_position++];
+
+			if ((inputByte < 'A') || (inputByte > 'Z')) {
+				continue;
+			}
+
+			final boolean separator = this.m_formatter.next();
+			final char outputCharacter = this.m_enigma.press((char) inputByte);
+
+			if (separator) {
+				this.m_pending = outputCharacter;
+				return this.m_formatter.getSeparator();
+			}
+
+			return outputCharacter;
+		}
+
+		if (this.m_padding > 0) {
+			this.m_padding--;
+			return this.m_formatter.getPadding();
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Checks that this {@code EnigmaInputStream} has not been closed.
+	 *
+	 * @throws IOException If this {@code EnigmaInputStream} has been closed.
+	 */
+	private void ensureOpen() throws IOException {
+		if (this.m_closed) {
+			throw new IOException("Stream closed.");
+		}
+	}
+
+}
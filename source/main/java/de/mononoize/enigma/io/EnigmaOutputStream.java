@@ -0,0 +1,151 @@
+package de.mononoize.enigma.io;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.apache.commons.lang3.Validate;
+
+import de.mononoize.enigma.machine.Enigma;
+import de.mononoize.enigma.tools.GroupFormatter;
+
+/**
+ * <p>An {@code OutputStream} that encodes/decodes all ASCII bytes written to it and passes the grouped result on to an
+ * underlying {@code OutputStream}.</p>
+ *
+ * <p>The wheels of the {@code Enigma} are reset once on construction and keep their state across all subsequent
+ * writes, so that the output is identical to {@link Enigma#encode(String)} on the concatenated input. Bytes that are
+ * not an element of the Latin alphabet are skipped. The final group is padded on {@link #close()}.</p>
+ *
+ * @author mononoize
+ */
+public class EnigmaOutputStream extends OutputStream {
+
+	/**
+	 * The size of the output buffer.
+	 */
+	private static final int BUFFER_SIZE = 8192;
+
+	/**
+	 * The underlying output stream.
+	 */
+	private final OutputStream m_out;
+
+	/**
+	 * The {@code Enigma}.
+	 */
+	private final Enigma m_enigma;
+
+	/**
+	 * The output formatter.
+	 */
+	private final GroupFormatter m_formatter;
+
+	/**
+	 * The output buffer.
+	 */
+	private final byte[] m_buffer = new byte[BUFFER_SIZE];
+
+	/**
+	 * The number of bytes in the output buffer.
+	 */
+	private int m_position = 0;
+
+	/**
+	 * {@code True} if this {@code EnigmaOutputStream} has been closed.
+	 */
+	private boolean m_closed = false;
+
+	/**
+	 * Constructs a new {@code EnigmaOutputStream}.
+	 *
+	 * @param out The underlying output stream.
+	 * @param enigma The {@code Enigma} to be used. The wheels are reset to the initial setting.
+	 */
+	public EnigmaOutputStream(final OutputStream out, final Enigma enigma) {
+		this.m_out = Validate.notNull(out);
+		this.m_enigma = Validate.notNull(enigma);
+		this.m_formatter = new GroupFormatter.Builder().setLength(enigma.getGroupLength()).build();
+
+		this.m_enigma.reset();
+	}
+
+	@Override
+	public void write(final int b) throws IOException {
+		this.write(new byte[] { (byte) b }, 0, 1);
+	}
+
+	@Override
+	public void write(final byte[] buffer, final int offset, final int length) throws IOException {
+		this.ensureOpen();
+
+		for (int i = offset; i < offset + length; i++) {
+			final byte inputByte = buffer[i];
+
+			if ((inputByte < 'A') || (inputByte > 'Z')) {
+				continue;
+			}
+
+			if (this.m_position >= (BUFFER_SIZE - 1)) {
+				this.flushBuffer();
+			}
+
+			if (this.m_formatter.next()) {
+				this.m_buffer[this.m_position++] = (byte) this.m_formatter.getSeparator();
+			}
+
+			this.m_buffer[this.m_position++] = (byte) this.m_enigma.press((char) inputByte);
+		}
+	}
+
+	@Override
+	public void flush() throws IOException {
+		this.ensureOpen();
+		this.flushBuffer();
+		this.m_out.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (this.m_closed) {
+			return;
+		}
+
+		try {
+			for (int i = this.m_formatter.getPaddingLength(); i > 0; i--) {
+				if (this.m_position >= BUFFER_SIZE) {
+					this.flushBuffer();
+				}
+				this.m_buffer[this.m_position++] = (byte) this.m_formatter.getPadding();
+			}
+
+			this.flushBuffer();
+		} finally {
+			this.m_closed = true;
+			this.m_out.close();
+		}
+	}
+
+	/**
+	 * Writes the output buffer to the underlying output stream.
+	 *
+	 * @throws IOException If an I/O error occurs.
+	 */
+	private void flushBuffer() throws IOException {
+		if (this.m_position > 0) {
+			this.m_out.write(this.m_buffer, 0, this.m_position);
+			this.m_position = 0;
+		}
+	}
+
+	/**
+	 * Checks that this {@code EnigmaOutputStream} has not been closed.
+	 *
+	 * @throws IOException If this {@code EnigmaOutputStream} has been closed.
+	 */
+	private void ensureOpen() throws IOException {
+		if (this.m_closed) {
+			throw new IOException("Stream closed.");
+		}
+	}
+
+}
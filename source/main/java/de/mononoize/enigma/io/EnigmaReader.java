@@ -0,0 +1,188 @@
+package de.mononoize.enigma.io;
+
+import static de.mononoize.enigma.tools.CharTools.isInRange;
+
+import java.io.IOException;
+import java.io.Reader;
+
+import org.apache.commons.lang3.Validate;
+
+import de.mononoize.enigma.machine.Enigma;
+import de.mononoize.enigma.tools.GroupFormatter;
+
+/**
+ * <p>A {@code Reader} that encodes/decodes all characters read from an underlying {@code Reader} and returns the
+ * grouped result.</p>
+ *
+ * <p>The wheels of the {@code Enigma} are reset once on construction and keep their state across all subsequent
+ * reads, so that the output is identical to {@link Enigma#encode(String)} on the whole input. Characters that are not
+ * an element of the Latin alphabet are skipped. The final group is padded once the underlying reader is
+ * exhausted.</p>
+ *
+ * @author mononoize
+ */
+public class EnigmaReader extends Reader {
+
+	/**
+	 * The size of the input buffer.
+	 */
+	private static final int BUFFER_SIZE = 8192;
+
+	/**
+	 * The underlying reader.
+	 */
+	private final Reader m_in;
+
+	/**
+	 * The {@code Enigma}.
+	 */
+	private final Enigma m_enigma;
+
+	/**
+	 * The output formatter.
+	 */
+	private final GroupFormatter m_formatter;
+
+	/**
+	 * The input buffer.
+	 */
+	private final char[] m_buffer = new char[BUFFER_SIZE];
+
+	/**
+	 * The index of the next character in the input buffer.
+	 */
+	private int m_position = 0;
+
+	/**
+	 * The number of characters in the input buffer.
+	 */
+	private int m_limit = 0;
+
+	/**
+	 * The encoded/decoded character that follows a separator or {@code -1} if there is none.
+	 */
+	private int m_pending = -1;
+
+	/**
+	 * The number of padding characters left or {@code -1} if the underlying reader is not exhausted yet.
+	 */
+	private int m_padding = -1;
+
+	/**
+	 * {@code True} if this {@code EnigmaReader} has been closed.
+	 */
+	private boolean m_closed = false;
+
+	/**
+	 * Constructs a new {@code EnigmaReader}.
+	 *
+	 * @param in The underlying reader.
+	 * @param enigma The {@code Enigma} to be used. The wheels are reset to the initial setting.
+	 */
+	public EnigmaReader(final Reader in, final Enigma enigma) {
+		super(Validate.notNull(in));
+
+		this.m_in = in;
+		this.m_enigma = Validate.notNull(enigma);
+		this.m_formatter = new GroupFormatter.Builder().setLength(enigma.getGroupLength()).build();
+
+		this.m_enigma.reset();
+	}
+
+	@Override
+	public int read(final char[] buffer, final int offset, final int length) throws IOException {
+		synchronized (this.lock) {
+			this.ensureOpen();
+
+			if (length == 0) {
+				return 0;
+			}
+
+			int count = 0;
+
+			while (count < length) {
+				final int character = this.next();
+
+				if (character < 0) {
+					break;
+				}
+
+				buffer[offset + count++] = (char) character;
+			}
+
+			return (count == 0) ? -1 : count;
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		synchronized (this.lock) {
+			this.m_closed = true;
+			this.m_in.close();
+		}
+	}
+
+	/**
+	 * Returns the next output character.
+	 *
+	 * @return The next output character or {@code -1} if the end of the stream has been reached.
+	 * @throws IOException If an I/O error occurs.
+	 */
+	private int next() throws IOException {
+		if (this.m_pending >= 0) {
+			final int result = this.m_pending;
+			this.m_pending = -1;
+			return result;
+		}
+
+		while (this.m_padding < 0) {
+			if (this.m_position == this.m_limit) {
+				final int count = this.m_in.read(this.m_buffer, 0, BUFFER_SIZE);
+
+				if (count < 0) {
+					this.m_padding = this.m_formatter.getPaddingLength();
+					break;
+				}
+
+				this.m_position = 0;
+				this.m_limit = count;
+				continue;
+			}
+
+			final char inputCharacter = this.m_buffer[this.m_position++];
+
+			if (!isInRange(inputCharacter)) {
+				continue;
+			}
+
+			final boolean separator = this.m_formatter.next();
+			final char outputCharacter = this.m_enigma.press(inputCharacter);
+
+			if (separator) {
+				this.m_pending = outputCharacter;
+				return this.m_formatter.getSeparator();
+			}
+
+			return outputCharacter;
+		}
+
+		if (this.m_padding > 0) {
+			this.m_padding--;
+			return this.m_formatter.getPadding();
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Checks that this {@code EnigmaReader} has not been closed.
+	 *
+	 * @throws IOException If this {@code EnigmaReader} has been closed.
+	 */
+	private void ensureOpen() throws IOException {
+		if (this.m_closed) {
+			throw new IOException("Stream closed.");
+		}
+	}
+
+}
@@ -0,0 +1,188 @@
+package de.mononoize.enigma.io;
+
+import static de.mononoize.enigma.tools.CharTools.isInRange;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Objects;
+
+import org.apache.commons.lang3.Validate;
+
+import de.mononoize.enigma.machine.Enigma;
+import de.mononoize.enigma.tools.GroupFormatter;
+
+/**
+ * <p>A {@code Writer} that encodes/decodes all characters written to it and passes the grouped result on to an
+ * underlying {@code Writer}.</p>
+ *
+ * <p>The wheels of the {@code Enigma} are reset once on construction and keep their state across all subsequent
+ * writes, so that the output is identical to {@link Enigma#encode(String)} on the concatenated input. Characters that
+ * are not an element of the Latin alphabet are skipped. The final group is padded on {@link #close()}.</p>
+ *
+ * @author mononoize
+ */
+public class EnigmaWriter extends Writer {
+
+	/**
+	 * The size of the output buffer.
+	 */
+	private static final int BUFFER_SIZE = 8192;
+
+	/**
+	 * The underlying writer.
+	 */
+	private final Writer m_out;
+
+	/**
+	 * The {@code Enigma}.
+	 */
+	private final Enigma m_enigma;
+
+	/**
+	 * The output formatter.
+	 */
+	private final GroupFormatter m_formatter;
+
+	/**
+	 * The output buffer.
+	 */
+	private final char[] m_buffer = new char[BUFFER_SIZE];
+
+	/**
+	 * The number of characters in the output buffer.
+	 */
+	private int m_position = 0;
+
+	/**
+	 * {@code True} if this {@code EnigmaWriter} has been closed.
+	 */
+	private boolean m_closed = false;
+
+	/**
+	 * Constructs a new {@code EnigmaWriter}.
+	 *
+	 * @param out The underlying writer.
+	 * @param enigma The {@code Enigma} to be used. The wheels are reset to the initial setting.
+	 */
+	public EnigmaWriter(final Writer out, final Enigma enigma) {
+		super(Validate.notNull(out));
+
+		this.m_out = out;
+		this.m_enigma = Validate.notNull(enigma);
+		this.m_formatter = new GroupFormatter.Builder().setLength(enigma.getGroupLength()).build();
+
+		this.m_enigma.reset();
+	}
+
+	@Override
+	public void write(final int character) throws IOException {
+		synchronized (this.lock) {
+			this.ensureOpen();
+			this.process((char) character);
+		}
+	}
+
+	@Override
+	public void write(final char[] buffer, final int offset, final int length) throws IOException {
+		synchronized (this.lock) {
+			this.ensureOpen();
+
+			for (int i = offset; i < offset + length; i++) {
+				this.process(buffer[i]);
+			}
+		}
+	}
+
+	@Override
+	public void write(final String text, final int offset, final int length) throws IOException {
+		Objects.checkFromIndexSize(offset, length, text.length());
+
+		synchronized (this.lock) {
+			this.ensureOpen();
+
+			// The text is walked in place, so that writing a slice does not copy the whole text.
+			for (int i = offset; i < offset + length; i++) {
+				this.process(text.charAt(i));
+			}
+		}
+	}
+
+	/**
+	 * Encodes/decodes the given character into the output buffer. Characters that are not an element of the Latin
+	 * alphabet are skipped.
+	 *
+	 * @param inputCharacter The character.
+	 * @throws IOException If an I/O error occurs.
+	 */
+	private void process(final char inputCharacter) throws IOException {
+		if (!isInRange(inputCharacter)) {
+			return;
+		}
+
+		if (this.m_position >= (BUFFER_SIZE - 1)) {
+			this.flushBuffer();
+		}
+
+		if (this.m_formatter.next()) {
+			this.m_buffer[this.m_position++] = this.m_formatter.getSeparator();
+		}
+
+		this.m_buffer[this.m_position++] = this.m_enigma.press(inputCharacter);
+	}
+
+	@Override
+	public void flush() throws IOException {
+		synchronized (this.lock) {
+			this.ensureOpen();
+			this.flushBuffer();
+			this.m_out.flush();
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		synchronized (this.lock) {
+			if (this.m_closed) {
+				return;
+			}
+
+			try {
+				for (int i = this.m_formatter.getPaddingLength(); i > 0; i--) {
+					if (this.m_position >= BUFFER_SIZE) {
+						this.flushBuffer();
+					}
+					this.m_buffer[this.m_position++] = this.m_formatter.getPadding();
+				}
+
+				this.flushBuffer();
+			} finally {
+				this.m_closed = true;
+				this.m_out.close();
+			}
+		}
+	}
+
+	/**
+	 * Writes the output buffer to the underlying writer.
+	 *
+	 * @throws IOException If an I/O error occurs.
+	 */
+	private void flushBuffer() throws IOException {
+		if (this.m_position > 0) {
+			this.m_out.write(this.m_buffer, 0, this.m_position);
+			this.m_position = 0;
+		}
+	}
+
+	/**
+	 * Checks that this {@code EnigmaWriter} has not been closed.
+	 *
+	 * @throws IOException If this {@code EnigmaWriter} has been closed.
+	 */
+	private void ensureOpen() throws IOException {
+		if (this.m_closed) {
+			throw new IOException("Stream closed.");
+		}
+	}
+
+}
@@ -0,0 +1,320 @@
+package de.mononoize.enigma.io;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.apache.commons.lang3.Validate;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import de.mononoize.enigma.machine.Enigma;
+import de.mononoize.enigma.tools.GroupFormatter;
+
+/**
+ * <p>Encodes/decodes files of ASCII text using memory-mapped I/O.</p>
+ *
+ * <p>The input file is mapped in successive windows, so that files larger than 2 GB can be processed. The bytes are
+ * never decoded into {@code String}s: Bytes that are not an element of the Latin alphabet are skipped and the
+ * encoded/decoded letters, the group separators and the final padding are written straight into the mapped output
+ * file. The output is identical to {@link Enigma#encode(String)} on the whole input.</p>
+ *
+ * @author mononoize
+ */
+public class MappedFileProcessor {
+
+	/**
+	 * The statistics of a single run.
+	 */
+	public static final class Statistics {
+
+		/**
+		 * The number of bytes read.
+		 */
+		private final long m_inputBytes;
+
+		/**
+		 * The number of bytes written.
+		 */
+		private final long m_outputBytes;
+
+		/**
+		 * The elapsed time in nanoseconds.
+		 */
+		private final long m_nanos;
+
+		/**
+		 * Constructs a new {@code Statistics}.
+		 *
+		 * @param inputBytes The number of bytes read.
+		 * @param outputBytes The number of bytes written.
+		 * @param nanos The elapsed time in nanoseconds.
+		 */
+		private Statistics(final long inputBytes, final long outputBytes, final long nanos) {
+			this.m_inputBytes = inputBytes;
+			this.m_outputBytes = outputBytes;
+			this.m_nanos = nanos;
+		}
+
+		/**
+		 * Returns the number of bytes read.
+		 *
+		 * @return The number of bytes read.
+		 */
+		public long getInputBytes() {
+			return this.m_inputBytes;
+		}
+
+		/**
+		 * Returns the number of bytes written.
+		 *
+		 * @return The number of bytes written.
+		 */
+		public long getOutputBytes() {
+			return this.m_outputBytes;
+		}
+
+		/**
+		 * Returns the elapsed time in nanoseconds.
+		 *
+		 * @return The elapsed time in nanoseconds.
+		 */
+		public long getNanos() {
+			return this.m_nanos;
+		}
+
+		/**
+		 * Returns the throughput in MB (10^6 bytes) of input per second.
+		 *
+		 * @return The throughput in MB/s.
+		 */
+		public double getThroughput() {
+			return (this.m_nanos == 0) ? 0.0 : ((this.m_inputBytes * 1000.0) / this.m_nanos);
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%d bytes in, %d bytes out, %.3f s, %.2f MB/s", this.m_inputBytes, this.m_outputBytes,
+					(this.m_nanos / 1e9), this.getThroughput());
+		}
+
+	}
+
+	/**
+	 * A mapped output file that is written window by window.
+	 */
+	private static final class MappedOutput {
+
+		/**
+		 * The output channel.
+		 */
+		private final FileChannel m_channel;
+
+		/**
+		 * The total size of the output file.
+		 */
+		private final long m_size;
+
+		/**
+		 * The number of bytes mapped at once.
+		 */
+		private final int m_windowSize;
+
+		/**
+		 * The position of the next window.
+		 */
+		private long m_position = 0;
+
+		/**
+		 * The current window or {@code null} if no window has been mapped yet.
+		 */
+		private MappedByteBuffer m_window = null;
+
+		/**
+		 * Constructs a new {@code MappedOutput}.
+		 *
+		 * @param channel The output channel.
+		 * @param size The total size of the output file.
+		 * @param windowSize The number of bytes mapped at once.
+		 */
+		private MappedOutput(final FileChannel channel, final long size, final int windowSize) {
+			this.m_channel = channel;
+			this.m_size = size;
+			this.m_windowSize = windowSize;
+		}
+
+		/**
+		 * Writes the given byte, mapping the next window if the current one is full.
+		 *
+		 * @param value The byte to be written.
+		 * @throws IOException If an I/O error occurs.
+		 */
+		private void put(final byte value) throws IOException {
+			if ((this.m_window == null) || !this.m_window.hasRemaining()) {
+				this.force();
+				this.m_window = this.m_channel.map(MapMode.READ_WRITE, this.m_position, Math.min(this.m_windowSize, this.m_size - this.m_position));
+				this.m_position += this.m_window.capacity();
+			}
+
+			this.m_window.put(value);
+		}
+
+		/**
+		 * Forces the current window to be written to the storage device.
+		 */
+		private void force() {
+			if (this.m_window != null) {
+				this.m_window.force();
+			}
+		}
+
+	}
+
+	/**
+	 * The logger.
+	 */
+	private static final Logger LOGGER = LogManager.getLogger(MappedFileProcessor.class);
+
+	/**
+	 * The default window size (64 MiB).
+	 */
+	public static final int DEFAULT_WINDOW_SIZE = (1 << 26);
+
+	/**
+	 * The {@code Enigma}.
+	 */
+	private final Enigma m_enigma;
+
+	/**
+	 * The number of bytes mapped at once.
+	 */
+	private final int m_windowSize;
+
+	/**
+	 * Constructs a new {@code MappedFileProcessor} using the default window size.
+	 *
+	 * @param enigma The {@code Enigma} to be used.
+	 */
+	public MappedFileProcessor(final Enigma enigma) {
+		this(enigma, DEFAULT_WINDOW_SIZE);
+	}
+
+	/**
+	 * Constructs a new {@code MappedFileProcessor}.
+	 *
+	 * @param enigma The {@code Enigma} to be used.
+	 * @param windowSize The number of bytes mapped at once.
+	 */
+	public MappedFileProcessor(final Enigma enigma, final int windowSize) {
+		Validate.notNull(enigma);
+		Validate.inclusiveBetween(1, Integer.MAX_VALUE, windowSize);
+
+		this.m_enigma = enigma;
+		this.m_windowSize = windowSize;
+	}
+
+	/**
+	 * Encodes the given input file into the given output file.
+	 *
+	 * @param input The file to be encoded.
+	 * @param output The file to write the encoded text to. An existing file is replaced, but it must not
+	 *        be the input file.
+	 * @return The statistics of the run.
+	 * @throws IOException If an I/O error occurs.
+	 */
+	public Statistics encode(final Path input, final Path output) throws IOException {
+		return this.process(input, output);
+	}
+
+	/**
+	 * Decodes the given input file into the given output file.
+	 *
+	 * @param input The file to be decoded.
+	 * @param output The file to write the decoded text to. An existing file is replaced, but it must not
+	 *        be the input file.
+	 * @return The statistics of the run.
+	 * @throws IOException If an I/O error occurs.
+	 */
+	public Statistics decode(final Path input, final Path output) throws IOException {
+		return this.process(input, output);
+	}
+
+	/**
+	 * Encodes/decodes the given input file into the given output file.
+	 *
+	 * @param input The file to be encoded/decoded.
+	 * @param output The file to write the encoded/decoded text to.
+	 * @return The statistics of the run.
+	 * @throws IOException If an I/O error occurs.
+	 */
+	private Statistics process(final Path input, final Path output) throws IOException {
+		final long start = System.nanoTime();
+		final GroupFormatter formatter = new GroupFormatter.Builder().setLength(this.m_enigma.getGroupLength()).build();
+
+		// The output file is truncated before the input file is read.
+		Validate.isTrue(!Files.exists(output) || !Files.isSameFile(input, output),
+				"The output file must not be the input file: %s", output);
+
+		try (final FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+			 final FileChannel out = FileChannel.open(output, StandardOpenOption.READ, StandardOpenOption.WRITE,
+					 StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			final long inputSize = in.size();
+
+			// PASS 1: Count the letters to size the output file exactly.
+			long letters = 0;
+
+			for (long position = 0; position < inputSize; position += this.m_windowSize) {
+				final MappedByteBuffer window = in.map(MapMode.READ_ONLY, position, Math.min(this.m_windowSize, inputSize - position));
+
+				while (window.hasRemaining()) {
+					final byte inputByte = window.get();
+
+					if ((inputByte >= 'A') && (inputByte <= 'Z')) {
+						letters++;
+					}
+				}
+			}
+
+			final long outputSize = formatter.getFormattedLength(letters);
+
+			// PASS 2: Encode/decode the letters into the mapped output file.
+			final MappedOutput target = new MappedOutput(out, outputSize, this.m_windowSize);
+
+			this.m_enigma.reset();
+
+			for (long position = 0; position < inputSize; position += this.m_windowSize) {
+				final MappedByteBuffer window = in.map(MapMode.READ_ONLY, position, Math.min(this.m_windowSize, inputSize - position));
+
+				while (window.hasRemaining()) {
+					final byte inputByte = window.get();
+
+					if ((inputByte < 'A') || (inputByte > 'Z')) {
+						continue;
+					}
+
+					if (formatter.next()) {
+						target.put((byte) formatter.getSeparator());
+					}
+
+					target.put((byte) this.m_enigma.press((char) inputByte));
+				}
+			}
+
+			for (int i = formatter.getPaddingLength(); i > 0; i--) {
+				target.put((byte) formatter.getPadding());
+			}
+
+			target.force();
+
+			final Statistics result = new Statistics(inputSize, outputSize, (System.nanoTime() - start));
+			LOGGER.info("{} > {}: {}", input, output, result);
+
+			return result;
+		}
+	}
+
+}
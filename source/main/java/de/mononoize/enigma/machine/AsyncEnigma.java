@@ -0,0 +1,479 @@
+package de.mononoize.enigma.machine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * <p>Encodes/decodes messages asynchronously on a bounded executor.</p>
+ *
+ * <p>The messages are processed by the immutable {@code EnigmaSpec} of their key, so that callers need no
+ * synchronization. The executor has a bounded queue; if it is full, the returned future fails with a
+ * {@link RejectedExecutionException}, and callers can use {@link #getQueueDepth()} and {@link #getInFlightCount()} to
+ * apply backpressure before that happens.</p>
+ *
+ * <p>Messages of up to {@link Builder#setBatchLength(int) the batch length} that share a spec are collected into a
+ * single task while the task is waiting in the queue, so that bursts of short messages under the same key do not pay
+ * the scheduling overhead per message. Longer messages are always processed by a task of their own.</p>
+ *
+ * @author mononoize
+ */
+public final class AsyncEnigma implements AutoCloseable {
+
+	/**
+	 * The {@code AsyncEnigma} builder.
+	 */
+	public static class Builder implements org.apache.commons.lang3.builder.Builder<AsyncEnigma> {
+
+		private int m_threads = Runtime.getRuntime().availableProcessors();
+
+		private int m_queueCapacity = 1024;
+
+		private int m_batchLength = 256;
+
+		private int m_batchSize = 64;
+
+		private EnigmaCache m_cache;
+
+		public Builder() {
+		}
+
+		public Builder setThreads(final int threads) {
+			this.m_threads = threads;
+			return this;
+		}
+
+		public Builder setQueueCapacity(final int queueCapacity) {
+			this.m_queueCapacity = queueCapacity;
+			return this;
+		}
+
+		public Builder setBatchLength(final int batchLength) {
+			this.m_batchLength = batchLength;
+			return this;
+		}
+
+		public Builder setBatchSize(final int batchSize) {
+			this.m_batchSize = batchSize;
+			return this;
+		}
+
+		public Builder setCache(final EnigmaCache cache) {
+			this.m_cache = cache;
+			return this;
+		}
+
+		@Override
+		public AsyncEnigma build() {
+			Validate.inclusiveBetween(1, Integer.MAX_VALUE, this.m_threads);
+			Validate.inclusiveBetween(1, Integer.MAX_VALUE, this.m_queueCapacity);
+			Validate.inclusiveBetween(0, Integer.MAX_VALUE, this.m_batchLength);
+			Validate.inclusiveBetween(1, Integer.MAX_VALUE, this.m_batchSize);
+
+			return new AsyncEnigma(this);
+		}
+
+	}
+
+	/**
+	 * A message and the future of its result.
+	 *
+	 * @param <T> The type of the message and the result.
+	 */
+	private static final class Message<T> {
+
+		/**
+		 * The message.
+		 */
+		private final T m_input;
+
+		/**
+		 * The function that encodes/decodes the message.
+		 */
+		private final Function<T, T> m_function;
+
+		/**
+		 * The future of the result.
+		 */
+		private final CompletableFuture<T> m_future = new CompletableFuture<>();
+
+		/**
+		 * The result or {@code null} if the message has not been processed yet or has failed.
+		 */
+		private T m_result;
+
+		/**
+		 * The failure or {@code null} if the message has not been processed yet or has succeeded.
+		 */
+		private RuntimeException m_error;
+
+		/**
+		 * Constructs a new {@code Message}.
+		 *
+		 * @param input The message.
+		 * @param function The function that encodes/decodes the message.
+		 */
+		private Message(final T input, final Function<T, T> function) {
+			this.m_input = input;
+			this.m_function = function;
+		}
+
+		/**
+		 * Encodes/decodes the message without completing the future.
+		 */
+		private void apply() {
+			try {
+				this.m_result = this.m_function.apply(this.m_input);
+			} catch (final RuntimeException e) {
+				this.m_error = e;
+			}
+		}
+
+		/**
+		 * Completes the future with the result of {@link #apply()}.
+		 */
+		private void complete() {
+			if (this.m_error == null) {
+				this.m_future.complete(this.m_result);
+			} else {
+				this.m_future.completeExceptionally(this.m_error);
+			}
+		}
+
+	}
+
+	/**
+	 * The messages of a single task.
+	 */
+	private final class Batch implements Runnable {
+
+		/**
+		 * The spec of the messages or {@code null} if the batch does not accept further messages.
+		 */
+		private final EnigmaSpec m_spec;
+
+		/**
+		 * The messages.
+		 */
+		private final List<Message<?>> m_messages = new ArrayList<>();
+
+		/**
+		 * Constructs a new {@code Batch}.
+		 *
+		 * @param spec The spec of the messages or {@code null} if the batch does not accept further messages.
+		 */
+		private Batch(final EnigmaSpec spec) {
+			this.m_spec = spec;
+		}
+
+		@Override
+		public void run() {
+			final List<Message<?>> messages;
+
+			synchronized (AsyncEnigma.this.m_lock) {
+				// Close the batch, further messages of the spec start a new one.
+				if ((this.m_spec != null) && (AsyncEnigma.this.m_batches.get(this.m_spec) == this)) {
+					AsyncEnigma.this.m_batches.remove(this.m_spec);
+				}
+
+				messages = this.m_messages;
+			}
+
+			AsyncEnigma.this.m_queueDepth.addAndGet(-messages.size());
+			AsyncEnigma.this.m_inFlightCount.addAndGet(messages.size());
+
+			int remaining = messages.size();
+
+			try {
+				// The counters are updated before each future is completed, so that a caller that has joined all
+				// futures observes the final counts.
+				for (final Message<?> message : messages) {
+					message.apply();
+
+					remaining--;
+					AsyncEnigma.this.m_inFlightCount.decrementAndGet();
+					AsyncEnigma.this.m_completedCount.increment();
+
+					if (remaining == 0) {
+						AsyncEnigma.this.m_taskCount.increment();
+					}
+
+					message.complete();
+				}
+			} finally {
+				if (remaining > 0) {
+					AsyncEnigma.this.m_inFlightCount.addAndGet(-remaining);
+					AsyncEnigma.this.m_taskCount.increment();
+				}
+			}
+		}
+
+	}
+
+	/**
+	 * The executor.
+	 */
+	private final ThreadPoolExecutor m_executor;
+
+	/**
+	 * The cache that provides the specs of keys.
+	 */
+	private final EnigmaCache m_cache;
+
+	/**
+	 * The maximum length of a message that is batched.
+	 */
+	private final int m_batchLength;
+
+	/**
+	 * The maximum number of messages per batch.
+	 */
+	private final int m_batchSize;
+
+	/**
+	 * The lock that guards the open batches.
+	 */
+	private final Object m_lock = new Object();
+
+	/**
+	 * The batches that are waiting in the queue and accept further messages, indexed by their spec.
+	 */
+	private final Map<EnigmaSpec, Batch> m_batches = new HashMap<>();
+
+	/**
+	 * The number of messages that are waiting in the queue.
+	 */
+	private final AtomicInteger m_queueDepth = new AtomicInteger();
+
+	/**
+	 * The number of messages that are being processed.
+	 */
+	private final AtomicInteger m_inFlightCount = new AtomicInteger();
+
+	/**
+	 * The number of processed messages.
+	 */
+	private final LongAdder m_completedCount = new LongAdder();
+
+	/**
+	 * The number of executed tasks.
+	 */
+	private final LongAdder m_taskCount = new LongAdder();
+
+	/**
+	 * Constructs a new {@code AsyncEnigma}.
+	 *
+	 * @param builder The builder that provides the setting.
+	 */
+	private AsyncEnigma(final Builder builder) {
+		this.m_executor = new ThreadPoolExecutor(builder.m_threads, builder.m_threads, 0L, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(builder.m_queueCapacity), runnable -> {
+					final Thread thread = new Thread(runnable, "enigma-async");
+					thread.setDaemon(true);
+					return thread;
+				});
+		this.m_cache = (builder.m_cache != null) ? builder.m_cache : new EnigmaCache.Builder().build();
+		this.m_batchLength = builder.m_batchLength;
+		this.m_batchSize = builder.m_batchSize;
+	}
+
+	/**
+	 * Encodes the given text with the given spec.
+	 *
+	 * @param spec The spec.
+	 * @param text The text to be encoded.
+	 * @return The future of the encoded text.
+	 */
+	public CompletableFuture<String> encode(final EnigmaSpec spec, final String text) {
+		return this.submit(spec, text, text.length(), spec::encode);
+	}
+
+	/**
+	 * Decodes the given text with the given spec.
+	 *
+	 * @param spec The spec.
+	 * @param text The text to be decoded.
+	 * @return The future of the decoded text.
+	 */
+	public CompletableFuture<String> decode(final EnigmaSpec spec, final String text) {
+		return this.submit(spec, text, text.length(), spec::decode);
+	}
+
+	/**
+	 * Encodes the given text with the spec of the given key.
+	 *
+	 * @param key The key.
+	 * @param text The text to be encoded.
+	 * @return The future of the encoded text.
+	 */
+	public CompletableFuture<String> encode(final PackedKey key, final String text) {
+		return this.encode(this.m_cache.get(key), text);
+	}
+
+	/**
+	 * Decodes the given text with the spec of the given key.
+	 *
+	 * @param key The key.
+	 * @param text The text to be decoded.
+	 * @return The future of the decoded text.
+	 */
+	public CompletableFuture<String> decode(final PackedKey key, final String text) {
+		return this.decode(this.m_cache.get(key), text);
+	}
+
+	/**
+	 * Encodes the given ASCII bytes with the given spec. Bytes that are not an element of the Latin alphabet are
+	 * skipped and the output is not grouped.
+	 *
+	 * @param spec The spec.
+	 * @param input The bytes to be encoded.
+	 * @return The future of the encoded bytes.
+	 */
+	public CompletableFuture<byte[]> encode(final EnigmaSpec spec, final byte[] input) {
+		return this.submit(spec, input, input.length, bytes -> process(spec, bytes));
+	}
+
+	/**
+	 * Decodes the given ASCII bytes with the given spec. Bytes that are not an element of the Latin alphabet are
+	 * skipped and the output is not grouped.
+	 *
+	 * @param spec The spec.
+	 * @param input The bytes to be decoded.
+	 * @return The future of the decoded bytes.
+	 */
+	public CompletableFuture<byte[]> decode(final EnigmaSpec spec, final byte[] input) {
+		return this.submit(spec, input, input.length, bytes -> process(spec, bytes));
+	}
+
+	/**
+	 * Returns the number of messages that are waiting in the queue.
+	 *
+	 * @return The number of messages that are waiting in the queue.
+	 */
+	public int getQueueDepth() {
+		return this.m_queueDepth.get();
+	}
+
+	/**
+	 * Returns the number of messages that are being processed.
+	 *
+	 * @return The number of messages that are being processed.
+	 */
+	public int getInFlightCount() {
+		return this.m_inFlightCount.get();
+	}
+
+	/**
+	 * Returns the number of processed messages.
+	 *
+	 * @return The number of processed messages.
+	 */
+	public long getCompletedCount() {
+		return this.m_completedCount.sum();
+	}
+
+	/**
+	 * Returns the number of executed tasks. The difference to {@link #getCompletedCount()} is the number of messages
+	 * that have been batched.
+	 *
+	 * @return The number of executed tasks.
+	 */
+	public long getTaskCount() {
+		return this.m_taskCount.sum();
+	}
+
+	/**
+	 * Stops accepting messages. Messages that have already been accepted are still processed.
+	 */
+	@Override
+	public void close() {
+		this.m_executor.shutdown();
+	}
+
+	/**
+	 * Submits the given message.
+	 *
+	 * @param <T> The type of the message and the result.
+	 * @param spec The spec.
+	 * @param input The message.
+	 * @param length The length of the message.
+	 * @param function The function that encodes/decodes the message.
+	 * @return The future of the result.
+	 */
+	private <T> CompletableFuture<T> submit(final EnigmaSpec spec, final T input, final int length,
+			final Function<T, T> function) {
+		Validate.notNull(spec);
+		Validate.notNull(input);
+
+		final Message<T> message = new Message<>(input, function);
+
+		synchronized (this.m_lock) {
+			final boolean batched = (length <= this.m_batchLength);
+			Batch batch = batched ? this.m_batches.get(spec) : null;
+
+			if (batch != null) {
+				batch.m_messages.add(message);
+				this.m_queueDepth.incrementAndGet();
+
+				if (batch.m_messages.size() >= this.m_batchSize) {
+					this.m_batches.remove(spec);
+				}
+
+				return message.m_future;
+			}
+
+			batch = new Batch(batched ? spec : null);
+			batch.m_messages.add(message);
+
+			try {
+				this.m_executor.execute(batch);
+			} catch (final RejectedExecutionException e) {
+				message.m_future.completeExceptionally(e);
+				return message.m_future;
+			}
+
+			this.m_queueDepth.incrementAndGet();
+
+			if (batched && (this.m_batchSize > 1)) {
+				this.m_batches.put(spec, batch);
+			}
+		}
+
+		return message.m_future;
+	}
+
+	/**
+	 * Encodes/decodes the given ASCII bytes with the given spec.
+	 *
+	 * @param spec The spec.
+	 * @param input The bytes to be encoded/decoded.
+	 * @return The encoded/decoded bytes.
+	 */
+	private static byte[] process(final EnigmaSpec spec, final byte[] input) {
+		final CompiledEngine engine = new CompiledEngine(spec.getEngine());
+		final byte[] output = new byte[input.length];
+		int count = 0;
+
+		for (final byte inputByte : input) {
+			// Skip all input bytes that are not an element of the Latin alphabet.
+			if ((inputByte >= 'A') && (inputByte <= 'Z')) {
+				output[count++] = (byte) (engine.process(inputByte - 'A') + 'A');
+			}
+		}
+
+		return (count == output.length) ? output : Arrays.copyOf(output, count);
+	}
+
+}
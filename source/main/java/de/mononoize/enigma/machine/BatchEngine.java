@@ -0,0 +1,380 @@
+package de.mononoize.enigma.machine;
+
+import static de.mononoize.enigma.tools.CharTools.isInRange;
+import static de.mononoize.enigma.tools.CharTools.toIndex;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.lang3.Validate;
+
+import de.mononoize.enigma.tools.StringTools;
+
+/**
+ * <p>Runs many machines in lockstep.</p>
+ *
+ * <p>The state of all machines is kept in structure-of-arrays form: the rotor positions and notches of machine
+ * {@code i} are the {@code i}-th elements of parallel {@code int} arrays, and its rotor tables are the {@code i}-th
+ * block of flat {@code byte} arrays that hold the tables of all machines back to back. The tables have the ring
+ * positions and the plugboard baked in, as in the {@code CompiledEngine}.</p>
+ *
+ * <p>All machines advance together one letter at a time. The inner loop over the machines steps the rotors without
+ * branching on notches and performs seven table lookups per machine, so that the JIT can unroll it and keep the
+ * arrays of all machines hot in the cache. The machines can have different settings and the texts different lengths.
+ * A {@code BatchEngine} is mutable and must not be shared between threads.</p>
+ *
+ * @author mononoize
+ */
+public final class BatchEngine {
+
+	/**
+	 * The {@code BatchEngine} builder.
+	 */
+	public static class Builder implements org.apache.commons.lang3.builder.Builder<BatchEngine> {
+
+		private final List<EnigmaSpec> m_specs = new ArrayList<>();
+
+		public Builder() {
+		}
+
+		public Builder addMachine(final EnigmaSpec spec) {
+			Validate.notNull(spec);
+
+			this.m_specs.add(spec);
+			return this;
+		}
+
+		public Builder addMachine(final Enigma.Builder machine) {
+			return this.addMachine(machine.buildSpec());
+		}
+
+		public Builder addMachines(final List<EnigmaSpec> specs) {
+			for (final EnigmaSpec spec : specs) {
+				this.addMachine(spec);
+			}
+
+			return this;
+		}
+
+		@Override
+		public BatchEngine build() {
+			Validate.notEmpty(this.m_specs);
+
+			return new BatchEngine(this);
+		}
+
+	}
+
+	/**
+	 * The size of the tables of a rotor of one machine.
+	 */
+	private static final int TABLE_SIZE = 26 * 26;
+
+	/**
+	 * The number of machines.
+	 */
+	private final int m_size;
+
+	/**
+	 * The output group lengths.
+	 */
+	private final int[] m_groupLengths;
+
+	/**
+	 * The forward mappings of the plugboard and the 1st (right) rotor of all machines.
+	 */
+	private final byte[] m_rotor1Forward;
+
+	/**
+	 * The reverse mappings of the 1st (right) rotor and the plugboard of all machines.
+	 */
+	private final byte[] m_rotor1Reverse;
+
+	/**
+	 * The forward mappings of the 2nd (middle) rotor of all machines.
+	 */
+	private final byte[] m_rotor2Forward;
+
+	/**
+	 * The reverse mappings of the 2nd (middle) rotor of all machines.
+	 */
+	private final byte[] m_rotor2Reverse;
+
+	/**
+	 * The forward mappings of the 3rd (left) rotor of all machines.
+	 */
+	private final byte[] m_rotor3Forward;
+
+	/**
+	 * The reverse mappings of the 3rd (left) rotor of all machines.
+	 */
+	private final byte[] m_rotor3Reverse;
+
+	/**
+	 * The combined mappings of the 4th (leftmost) rotor and the reflector of all machines.
+	 */
+	private final byte[] m_reflector;
+
+	/**
+	 * The notch positions of the 1st (right) rotors as bit masks.
+	 */
+	private final int[] m_rotor1Notches;
+
+	/**
+	 * The notch positions of the 2nd (middle) rotors as bit masks.
+	 */
+	private final int[] m_rotor2Notches;
+
+	/**
+	 * The initial packed positions as defined by {@link SteppingSchedule#pack(int, int, int)}.
+	 */
+	private final int[] m_settings;
+
+	/**
+	 * The current positions of the 1st (right) rotors.
+	 */
+	private final int[] m_rotor1Positions;
+
+	/**
+	 * The current positions of the 2nd (middle) rotors.
+	 */
+	private final int[] m_rotor2Positions;
+
+	/**
+	 * The current positions of the 3rd (left) rotors.
+	 */
+	private final int[] m_rotor3Positions;
+
+	/**
+	 * Constructs a new {@code BatchEngine}.
+	 *
+	 * @param builder The builder that provides the machines.
+	 */
+	private BatchEngine(final Builder builder) {
+		final int size = builder.m_specs.size();
+
+		this.m_size = size;
+		this.m_groupLengths = new int[size];
+		this.m_rotor1Forward = new byte[size * TABLE_SIZE];
+		this.m_rotor1Reverse = new byte[size * TABLE_SIZE];
+		this.m_rotor2Forward = new byte[size * TABLE_SIZE];
+		this.m_rotor2Reverse = new byte[size * TABLE_SIZE];
+		this.m_rotor3Forward = new byte[size * TABLE_SIZE];
+		this.m_rotor3Reverse = new byte[size * TABLE_SIZE];
+		this.m_reflector = new byte[size * 26];
+		this.m_rotor1Notches = new int[size];
+		this.m_rotor2Notches = new int[size];
+		this.m_settings = new int[size];
+		this.m_rotor1Positions = new int[size];
+		this.m_rotor2Positions = new int[size];
+		this.m_rotor3Positions = new int[size];
+
+		for (int i = 0; i < size; i++) {
+			final EnigmaSpec spec = builder.m_specs.get(i);
+			final CompiledEngine engine = spec.getEngine();
+			final int offset = i * TABLE_SIZE;
+
+			this.m_groupLengths[i] = spec.getGroupLength();
+
+			System.arraycopy(engine.getRotor1Forward(), 0, this.m_rotor1Forward, offset, TABLE_SIZE);
+			System.arraycopy(engine.getRotor1Reverse(), 0, this.m_rotor1Reverse, offset, TABLE_SIZE);
+			System.arraycopy(engine.getRotor2Forward(), 0, this.m_rotor2Forward, offset, TABLE_SIZE);
+			System.arraycopy(engine.getRotor2Reverse(), 0, this.m_rotor2Reverse, offset, TABLE_SIZE);
+			System.arraycopy(engine.getRotor3Forward(), 0, this.m_rotor3Forward, offset, TABLE_SIZE);
+			System.arraycopy(engine.getRotor3Reverse(), 0, this.m_rotor3Reverse, offset, TABLE_SIZE);
+			System.arraycopy(engine.getReflector(), 0, this.m_reflector, i * 26, 26);
+
+			this.m_rotor1Notches[i] = mask(engine.getRotor1Notches());
+			this.m_rotor2Notches[i] = mask(engine.getRotor2Notches());
+			this.m_settings[i] = engine.getInitialPosition();
+		}
+
+		this.reset();
+	}
+
+	/**
+	 * Converts the given notch positions into a bit mask.
+	 *
+	 * @param notches The notch positions.
+	 * @return The bit mask.
+	 */
+	private static int mask(final boolean[] notches) {
+		int result = 0;
+
+		for (int i = 0; i < 26; i++) {
+			result |= notches[i] ? (1 << i) : 0;
+		}
+
+		return result;
+	}
+
+	/**
+	 * Returns the number of machines.
+	 *
+	 * @return The number of machines.
+	 */
+	public int size() {
+		return this.m_size;
+	}
+
+	/**
+	 * Resets the rotors of all machines to their initial positions.
+	 */
+	public void reset() {
+		for (int i = 0; i < this.m_size; i++) {
+			this.m_rotor1Positions[i] = this.m_settings[i] % 26;
+			this.m_rotor2Positions[i] = (this.m_settings[i] / 26) % 26;
+			this.m_rotor3Positions[i] = this.m_settings[i] / 676;
+		}
+	}
+
+	/**
+	 * Encodes the given texts, one per machine, in the order the machines have been added. The results are equal to
+	 * the results of {@link Enigma#encode(String)}.
+	 *
+	 * @param texts The texts to be encoded.
+	 * @return The encoded texts.
+	 */
+	public List<String> encode(final List<String> texts) {
+		return this.process(texts);
+	}
+
+	/**
+	 * Decodes the given texts, one per machine, in the order the machines have been added. The results are equal to
+	 * the results of {@link Enigma#decode(String)}.
+	 *
+	 * @param texts The texts to be decoded.
+	 * @return The decoded texts.
+	 */
+	public List<String> decode(final List<String> texts) {
+		return this.process(texts);
+	}
+
+	/**
+	 * Encodes/decodes the given texts after resetting all machines.
+	 *
+	 * @param texts The texts to be encoded/decoded.
+	 * @return The encoded/decoded texts.
+	 */
+	private List<String> process(final List<String> texts) {
+		Validate.notNull(texts);
+		Validate.isTrue(texts.size() == this.m_size, "Expected %d texts, got %d.", this.m_size, texts.size());
+
+		final int[] lengths = new int[this.m_size];
+		int length = 0;
+
+		for (int i = 0; i < this.m_size; i++) {
+			final String text = texts.get(i);
+
+			for (int j = 0; j < text.length(); j++) {
+				lengths[i] += isInRange(text.charAt(j)) ? 1 : 0;
+			}
+
+			length = Math.max(length, lengths[i]);
+		}
+
+		// Shorter texts are padded, the padding is processed but dropped from the result.
+		final byte[] letters = new byte[this.m_size * length];
+
+		for (int i = 0; i < this.m_size; i++) {
+			final String text = texts.get(i);
+			int count = 0;
+
+			for (int j = 0; j < text.length(); j++) {
+				final char inputCharacter = text.charAt(j);
+
+				// Skip all input characters that are not an element of the Latin alphabet.
+				if (isInRange(inputCharacter)) {
+					letters[(count++ * this.m_size) + i] = (byte) toIndex(inputCharacter);
+				}
+			}
+		}
+
+		this.reset();
+		this.process(letters, letters, length);
+
+		final List<String> result = new ArrayList<>(this.m_size);
+
+		for (int i = 0; i < this.m_size; i++) {
+			final char[] characters = new char[lengths[i]];
+
+			for (int j = 0; j < lengths[i]; j++) {
+				characters[j] = (char) (letters[(j * this.m_size) + i] + 'A');
+			}
+
+			result.add(StringTools.format(new String(characters), this.m_groupLengths[i]));
+		}
+
+		return result;
+	}
+
+	/**
+	 * Encodes/decodes the given letters with all machines in lockstep, continuing from their current positions. The
+	 * letters are interleaved, i.e. the {@code j}-th letter of machine {@code i} is stored at {@code j * size() + i},
+	 * so that the inner loop over the machines walks the arrays with unit stride. The input and the output array may
+	 * be the same.
+	 *
+	 * @param input The letter indices to be encoded/decoded, from 0 ('A') to 25 ('Z').
+	 * @param output The array to write the encoded/decoded letter indices to.
+	 * @param length The number of letters per machine.
+	 */
+	public void process(final byte[] input, final byte[] output, final int length) {
+		Validate.notNull(input);
+		Validate.notNull(output);
+		Validate.isTrue((length >= 0) && (input.length >= this.m_size * length) && (output.length >= this.m_size * length));
+
+		final int size = this.m_size;
+		final byte[] rotor1Forward = this.m_rotor1Forward;
+		final byte[] rotor1Reverse = this.m_rotor1Reverse;
+		final byte[] rotor2Forward = this.m_rotor2Forward;
+		final byte[] rotor2Reverse = this.m_rotor2Reverse;
+		final byte[] rotor3Forward = this.m_rotor3Forward;
+		final byte[] rotor3Reverse = this.m_rotor3Reverse;
+		final byte[] reflector = this.m_reflector;
+		final int[] rotor1Notches = this.m_rotor1Notches;
+		final int[] rotor2Notches = this.m_rotor2Notches;
+		final int[] rotor1Positions = this.m_rotor1Positions;
+		final int[] rotor2Positions = this.m_rotor2Positions;
+		final int[] rotor3Positions = this.m_rotor3Positions;
+
+		for (int j = 0; j < length; j++) {
+			final int base = j * size;
+
+			for (int i = 0; i < size; i++) {
+				int p1 = rotor1Positions[i];
+				int p2 = rotor2Positions[i];
+				int p3 = rotor3Positions[i];
+
+				// STEP 1: Perform the stepping mechanism, including the double step of the 2nd rotor.
+				final int rotor1IsNotchPosition = (rotor1Notches[i] >>> p1) & 1;
+				final int rotor2IsNotchPosition = (rotor2Notches[i] >>> p2) & 1;
+
+				p1 = (p1 == 25) ? 0 : (p1 + 1);
+				p2 += rotor1IsNotchPosition + rotor2IsNotchPosition;
+				p2 = (p2 >= 26) ? (p2 - 26) : p2;
+				p3 += rotor2IsNotchPosition;
+				p3 = (p3 == 26) ? 0 : p3;
+
+				rotor1Positions[i] = p1;
+				rotor2Positions[i] = p2;
+				rotor3Positions[i] = p3;
+
+				// STEP 2: Perform the actual encryption/decryption.
+				final int offset = i * TABLE_SIZE;
+				final int o1 = offset + (p1 * 26);
+				final int o2 = offset + (p2 * 26);
+				final int o3 = offset + (p3 * 26);
+				final int index = base + i;
+
+				int c = rotor1Forward[o1 + input[index]];
+				c = rotor2Forward[o2 + c];
+				c = rotor3Forward[o3 + c];
+				c = reflector[(i * 26) + c];
+				c = rotor3Reverse[o3 + c];
+				c = rotor2Reverse[o2 + c];
+				output[index] = rotor1Reverse[o1 + c];
+			}
+		}
+	}
+
+}
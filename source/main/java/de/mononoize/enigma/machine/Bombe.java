@@ -0,0 +1,774 @@
+package de.mononoize.enigma.machine;
+
+import static de.mononoize.enigma.tools.CharTools.isInRange;
+import static de.mononoize.enigma.tools.CharTools.toChar;
+import static de.mononoize.enigma.tools.CharTools.toIndex;
+import static de.mononoize.enigma.tools.MathTools.mod;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import org.apache.commons.lang3.Validate;
+
+import de.mononoize.enigma.machine.components.Plugboard;
+import de.mononoize.enigma.machine.components.Reflector;
+import de.mononoize.enigma.machine.components.Rotor;
+
+/**
+ * <p>A simulation of the Turing-Welchman Bombe.</p>
+ *
+ * <p>The Bombe searches the rotor order and the start positions of a message for which a piece of known plaintext, the
+ * crib, is available. The crib and the corresponding ciphertext form the menu: a graph whose nodes are letters and
+ * whose edges connect each plaintext letter with its ciphertext letter, labelled with the number of key presses. Every
+ * edge is simulated by a scrambler, i.e. the signal path of the machine without plugboard at the respective position.</p>
+ *
+ * <p>For each rotor order and start position a voltage is applied to one wire of the most connected letter (the test
+ * register), which corresponds to a hypothesis for its plugboard partner. The voltage spreads through the scramblers
+ * and the diagonal board, which connects wire {@code w} of letter {@code c} with wire {@code c} of letter {@code w},
+ * since the plugboard is symmetric. If all 26 wires of the test register become live, every hypothesis contradicts
+ * itself and the position is discarded. If exactly one wire is live, the hypothesis is consistent, and if 25 wires
+ * are live, the remaining wire is the only hypothesis left. In both cases the machine stops and the plugboard
+ * connections implied by the live wires are reported. Between these cases the hypothesis contradicts itself, but
+ * the dead wires may still be consistent: each of them is tested in turn, and a stop is reported for every dead wire
+ * that leaves exactly one wire of the test register live. Positions without such a wire are discarded.</p>
+ *
+ * <p>The 26 * 26 wires are represented by one {@code int} bit mask per letter, so that a completely live test register
+ * is detected with a single comparison. The sweep runs on a {@code ForkJoinPool} with one task per rotor order,
+ * reflector and position of the 3rd rotor. Unlike the historical machine the simulation honours the stepping of the
+ * 2nd and 3rd rotor within the crib, using the configured ring positions.</p>
+ *
+ * @author mononoize
+ */
+public class Bombe {
+
+	/**
+	 * The {@code Bombe} builder.
+	 */
+	public static class Builder implements org.apache.commons.lang3.builder.Builder<Bombe> {
+
+		private String m_ciphertext;
+
+		private String m_crib;
+
+		private int m_cribPosition = 0;
+
+		private List<Rotor> m_rotors = Rotor.getRotors().subList(1, 6);
+
+		private List<Reflector> m_reflectors = Arrays.asList(Reflector.getReflectorB());
+
+		private char[] m_ringPositions = { 'A', 'A', 'A' };
+
+		private ForkJoinPool m_pool = ForkJoinPool.commonPool();
+
+		public Builder() {
+		}
+
+		public Builder setCiphertext(final String ciphertext) {
+			this.m_ciphertext = ciphertext;
+			return this;
+		}
+
+		public Builder setCrib(final String crib) {
+			this.m_crib = crib;
+			return this;
+		}
+
+		public Builder setCribPosition(final int cribPosition) {
+			this.m_cribPosition = cribPosition;
+			return this;
+		}
+
+		public Builder setRotors(final List<Rotor> rotors) {
+			this.m_rotors = rotors;
+			return this;
+		}
+
+		public Builder setReflectors(final List<Reflector> reflectors) {
+			this.m_reflectors = reflectors;
+			return this;
+		}
+
+		public Builder setRingPositions(final char ringPosition1, final char ringPosition2, final char ringPosition3) {
+			Validate.inclusiveBetween('A', 'Z', ringPosition1);
+			Validate.inclusiveBetween('A', 'Z', ringPosition2);
+			Validate.inclusiveBetween('A', 'Z', ringPosition3);
+
+			this.m_ringPositions = new char[] { ringPosition1, ringPosition2, ringPosition3 };
+			return this;
+		}
+
+		public Builder setPool(final ForkJoinPool pool) {
+			this.m_pool = pool;
+			return this;
+		}
+
+		@Override
+		public Bombe build() {
+			Validate.notNull(this.m_ciphertext);
+			Validate.notEmpty(this.m_crib);
+			Validate.notEmpty(this.m_rotors);
+			Validate.isTrue(this.m_rotors.size() >= 3);
+			Validate.notEmpty(this.m_reflectors);
+			Validate.notNull(this.m_pool);
+
+			return new Bombe(this);
+		}
+
+	}
+
+	/**
+	 * A stop of the {@code Bombe}, i.e. a rotor order and start position that is consistent with the menu.
+	 */
+	public static final class Stop {
+
+		/**
+		 * The {@code Bombe} that found the stop.
+		 */
+		private final Bombe m_bombe;
+
+		/**
+		 * The 1st (right) rotor.
+		 */
+		private final Rotor m_rotor1;
+
+		/**
+		 * The 2nd (middle) rotor.
+		 */
+		private final Rotor m_rotor2;
+
+		/**
+		 * The 3rd (left) rotor.
+		 */
+		private final Rotor m_rotor3;
+
+		/**
+		 * The reflector.
+		 */
+		private final Reflector m_reflector;
+
+		/**
+		 * The packed start positions as defined by {@link SteppingSchedule#pack(int, int, int)}.
+		 */
+		private final int m_position;
+
+		/**
+		 * The plugboard partner of the test register.
+		 */
+		private final char m_stecker;
+
+		/**
+		 * The implied plugboard connections in the format of {@link Plugboard#addCables(String)}.
+		 */
+		private final String m_cables;
+
+		/**
+		 * Constructs a new {@code Stop}.
+		 *
+		 * @param bombe The {@code Bombe} that found the stop.
+		 * @param rotor1 The 1st (right) rotor.
+		 * @param rotor2 The 2nd (middle) rotor.
+		 * @param rotor3 The 3rd (left) rotor.
+		 * @param reflector The reflector.
+		 * @param position The packed start positions.
+		 * @param stecker The plugboard partner of the test register.
+		 * @param cables The implied plugboard connections.
+		 */
+		private Stop(final Bombe bombe, final Rotor rotor1, final Rotor rotor2, final Rotor rotor3,
+				final Reflector reflector, final int position, final char stecker, final String cables) {
+			this.m_bombe = bombe;
+			this.m_rotor1 = rotor1;
+			this.m_rotor2 = rotor2;
+			this.m_rotor3 = rotor3;
+			this.m_reflector = reflector;
+			this.m_position = position;
+			this.m_stecker = stecker;
+			this.m_cables = cables;
+		}
+
+		/**
+		 * Returns the 1st (right) rotor.
+		 *
+		 * @return The 1st (right) rotor.
+		 */
+		public Rotor getRotor1() {
+			return this.m_rotor1;
+		}
+
+		/**
+		 * Returns the 2nd (middle) rotor.
+		 *
+		 * @return The 2nd (middle) rotor.
+		 */
+		public Rotor getRotor2() {
+			return this.m_rotor2;
+		}
+
+		/**
+		 * Returns the 3rd (left) rotor.
+		 *
+		 * @return The 3rd (left) rotor.
+		 */
+		public Rotor getRotor3() {
+			return this.m_rotor3;
+		}
+
+		/**
+		 * Returns the reflector.
+		 *
+		 * @return The reflector.
+		 */
+		public Reflector getReflector() {
+			return this.m_reflector;
+		}
+
+		/**
+		 * Returns the start position of the 1st (right) rotor.
+		 *
+		 * @return The start position of the 1st (right) rotor.
+		 */
+		public char getRotor1Position() {
+			return toChar(this.m_position % 26);
+		}
+
+		/**
+		 * Returns the start position of the 2nd (middle) rotor.
+		 *
+		 * @return The start position of the 2nd (middle) rotor.
+		 */
+		public char getRotor2Position() {
+			return toChar((this.m_position / 26) % 26);
+		}
+
+		/**
+		 * Returns the start position of the 3rd (left) rotor.
+		 *
+		 * @return The start position of the 3rd (left) rotor.
+		 */
+		public char getRotor3Position() {
+			return toChar(this.m_position / 676);
+		}
+
+		/**
+		 * Returns the plugboard partner of the test register.
+		 *
+		 * @return The plugboard partner of the test register.
+		 */
+		public char getStecker() {
+			return this.m_stecker;
+		}
+
+		/**
+		 * Returns the implied plugboard connections in the format of {@link Plugboard#addCables(String)}. The
+		 * connections of letters that do not occur in the menu are unknown and therefore missing.
+		 *
+		 * @return The implied plugboard connections.
+		 */
+		public String getCables() {
+			return this.m_cables;
+		}
+
+		/**
+		 * Returns an {@code Enigma.Builder} that is configured with the setting of this stop. The rotors and the
+		 * reflector are shared between all stops of a run, so use {@link Enigma.Builder#buildSpec()} if more than one
+		 * machine shall be built from them.
+		 *
+		 * @return An {@code Enigma.Builder} that is configured with the setting of this stop.
+		 */
+		public Enigma.Builder toBuilder() {
+			final Bombe bombe = this.m_bombe;
+			final Enigma.Builder result = new Enigma.Builder() //
+					.setRotor1(this.m_rotor1, bombe.m_ringPositions[0], this.getRotor1Position()) //
+					.setRotor2(this.m_rotor2, bombe.m_ringPositions[1], this.getRotor2Position()) //
+					.setRotor3(this.m_rotor3, bombe.m_ringPositions[2], this.getRotor3Position()) //
+					.setReflector(this.m_reflector);
+
+			return this.m_cables.isEmpty() ? result : result.addCables(this.m_cables);
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%s %s %s %s %c%c%c %c/%c [%s]", this.m_reflector.getName(), this.m_rotor3.getName(),
+					this.m_rotor2.getName(), this.m_rotor1.getName(), this.getRotor3Position(), this.getRotor2Position(),
+					this.getRotor1Position(), toChar(this.m_bombe.m_testRegister), this.m_stecker, this.m_cables);
+		}
+
+	}
+
+	/**
+	 * Sweeps a range of tasks. Each task covers one rotor order, one reflector and one position of the 3rd rotor.
+	 */
+	private final class SweepTask extends RecursiveTask<List<Stop>> {
+
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * The index of the first task (inclusive).
+		 */
+		private final int m_from;
+
+		/**
+		 * The index of the last task (exclusive).
+		 */
+		private final int m_to;
+
+		/**
+		 * Constructs a new {@code SweepTask}.
+		 *
+		 * @param from The index of the first task (inclusive).
+		 * @param to The index of the last task (exclusive).
+		 */
+		private SweepTask(final int from, final int to) {
+			this.m_from = from;
+			this.m_to = to;
+		}
+
+		@Override
+		protected List<Stop> compute() {
+			if ((this.m_to - this.m_from) > 1) {
+				final int middle = (this.m_from + this.m_to) >>> 1;
+				final SweepTask left = new SweepTask(this.m_from, middle);
+				final SweepTask right = new SweepTask(middle, this.m_to);
+
+				left.fork();
+
+				final List<Stop> result = right.compute();
+				result.addAll(0, left.join());
+				return result;
+			}
+
+			return Bombe.this.sweep(this.m_from);
+		}
+
+	}
+
+	/**
+	 * The bit mask of all 26 wires.
+	 */
+	private static final int ALL_WIRES = (1 << 26) - 1;
+
+	/**
+	 * The rotors to choose from.
+	 */
+	private final List<Rotor> m_rotors;
+
+	/**
+	 * The reflectors to choose from.
+	 */
+	private final List<Reflector> m_reflectors;
+
+	/**
+	 * The orders of the rotors as indices into {@link #m_rotors}: {rotor1, rotor2, rotor3}.
+	 */
+	private final List<int[]> m_orders;
+
+	/**
+	 * The ring positions of the 1st, 2nd and 3rd rotor.
+	 */
+	private final char[] m_ringPositions;
+
+	/**
+	 * The pool to run the sweep on.
+	 */
+	private final ForkJoinPool m_pool;
+
+	/**
+	 * The 1st letter of each menu edge.
+	 */
+	private final int[] m_edgeLetters1;
+
+	/**
+	 * The 2nd letter of each menu edge.
+	 */
+	private final int[] m_edgeLetters2;
+
+	/**
+	 * The number of key presses of each menu edge, counted from the start of the message.
+	 */
+	private final int[] m_edgeSteps;
+
+	/**
+	 * The indices of the menu edges of each letter.
+	 */
+	private final int[][] m_edges;
+
+	/**
+	 * The most connected letter of the menu.
+	 */
+	private final int m_testRegister;
+
+	/**
+	 * {@code True} if the sweep has been cancelled.
+	 */
+	private volatile boolean m_cancelled = false;
+
+	/**
+	 * Constructs a new {@code Bombe}.
+	 *
+	 * @param builder The builder that provides the setting.
+	 */
+	private Bombe(final Builder builder) {
+		final byte[] ciphertext = letters(builder.m_ciphertext);
+		final byte[] crib = letters(builder.m_crib);
+		final int cribPosition = builder.m_cribPosition;
+
+		Validate.isTrue(crib.length > 0);
+		Validate.isTrue((cribPosition >= 0) && (cribPosition <= ciphertext.length - crib.length));
+		Validate.isTrue(isCribPosition(ciphertext, crib, cribPosition), "No letter can be encoded to itself.");
+
+		this.m_rotors = new ArrayList<>(builder.m_rotors);
+		this.m_reflectors = new ArrayList<>(builder.m_reflectors);
+		this.m_ringPositions = builder.m_ringPositions.clone();
+		this.m_pool = builder.m_pool;
+
+		// Build the menu.
+		this.m_edgeLetters1 = new int[crib.length];
+		this.m_edgeLetters2 = new int[crib.length];
+		this.m_edgeSteps = new int[crib.length];
+
+		final int[] degrees = new int[26];
+
+		for (int i = 0; i < crib.length; i++) {
+			this.m_edgeLetters1[i] = crib[i];
+			this.m_edgeLetters2[i] = ciphertext[cribPosition + i];
+			this.m_edgeSteps[i] = cribPosition + i + 1;
+
+			degrees[crib[i]]++;
+			degrees[ciphertext[cribPosition + i]]++;
+		}
+
+		this.m_edges = new int[26][];
+
+		int testRegister = 0;
+
+		for (int letter = 0; letter < 26; letter++) {
+			this.m_edges[letter] = new int[degrees[letter]];
+
+			if (degrees[letter] > degrees[testRegister]) {
+				testRegister = letter;
+			}
+		}
+
+		this.m_testRegister = testRegister;
+
+		final int[] counts = new int[26];
+
+		for (int i = 0; i < crib.length; i++) {
+			this.m_edges[this.m_edgeLetters1[i]][counts[this.m_edgeLetters1[i]]++] = i;
+			this.m_edges[this.m_edgeLetters2[i]][counts[this.m_edgeLetters2[i]]++] = i;
+		}
+
+		this.m_orders = new ArrayList<>();
+
+		final int size = this.m_rotors.size();
+
+		for (int rotor3 = 0; rotor3 < size; rotor3++) {
+			for (int rotor2 = 0; rotor2 < size; rotor2++) {
+				for (int rotor1 = 0; rotor1 < size; rotor1++) {
+					if ((rotor1 != rotor2) && (rotor1 != rotor3) && (rotor2 != rotor3)) {
+						this.m_orders.add(new int[] { rotor1, rotor2, rotor3 });
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the letter indices of the given text. Characters that are not an element of the Latin alphabet are
+	 * skipped.
+	 *
+	 * @param text The text.
+	 * @return The letter indices of the given text.
+	 */
+	private static byte[] letters(final String text) {
+		final byte[] result = new byte[text.length()];
+		int count = 0;
+
+		for (int i = 0; i < text.length(); i++) {
+			final char character = text.charAt(i);
+
+			if (isInRange(character)) {
+				result[count++] = (byte) toIndex(character);
+			}
+		}
+
+		return Arrays.copyOf(result, count);
+	}
+
+	/**
+	 * Returns {@code True} if the crib may be placed at the given position of the ciphertext, i.e. if no letter of the
+	 * crib coincides with its ciphertext letter.
+	 *
+	 * @param ciphertext The letter indices of the ciphertext.
+	 * @param crib The letter indices of the crib.
+	 * @param position The position of the crib.
+	 * @return {@code True} if the crib may be placed at the given position.
+	 */
+	private static boolean isCribPosition(final byte[] ciphertext, final byte[] crib, final int position) {
+		for (int i = 0; i < crib.length; i++) {
+			if (crib[i] == ciphertext[position + i]) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Returns all positions of the ciphertext at which the crib may be placed, i.e. at which no letter of the crib
+	 * coincides with its ciphertext letter. Positions are counted in letters.
+	 *
+	 * @param ciphertext The ciphertext.
+	 * @param crib The crib.
+	 * @return All positions of the ciphertext at which the crib may be placed.
+	 */
+	public static List<Integer> getCribPositions(final String ciphertext, final String crib) {
+		Validate.notNull(ciphertext);
+		Validate.notNull(crib);
+
+		final byte[] ciphertextLetters = letters(ciphertext);
+		final byte[] cribLetters = letters(crib);
+		final List<Integer> result = new ArrayList<>();
+
+		for (int position = 0; position <= ciphertextLetters.length - cribLetters.length; position++) {
+			if (isCribPosition(ciphertextLetters, cribLetters, position)) {
+				result.add(position);
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Returns the test register, i.e. the most connected letter of the menu.
+	 *
+	 * @return The test register.
+	 */
+	public char getTestRegister() {
+		return toChar(this.m_testRegister);
+	}
+
+	/**
+	 * Runs the sweep over all rotor orders, reflectors and start positions and returns the stops. If the sweep is
+	 * cancelled, the stops found so far are returned.
+	 *
+	 * @return The stops.
+	 */
+	public List<Stop> run() {
+		return this.m_pool.invoke(new SweepTask(0, this.m_orders.size() * this.m_reflectors.size() * 26));
+	}
+
+	/**
+	 * Cancels the sweep. Tasks that have not been started yet are skipped and running tasks stop at the next position
+	 * of the 2nd rotor. A cancelled {@code Bombe} cannot be restarted.
+	 */
+	public void cancel() {
+		this.m_cancelled = true;
+	}
+
+	/**
+	 * Returns {@code True} if the sweep has been cancelled.
+	 *
+	 * @return {@code True} if the sweep has been cancelled.
+	 */
+	public boolean isCancelled() {
+		return this.m_cancelled;
+	}
+
+	/**
+	 * Sweeps all positions of the 1st and 2nd rotor for the given task.
+	 *
+	 * @param task The index of the task.
+	 * @return The stops of the task.
+	 */
+	private List<Stop> sweep(final int task) {
+		final List<Stop> result = new ArrayList<>();
+
+		if (this.m_cancelled) {
+			return result;
+		}
+
+		final int p3 = task % 26;
+		final Reflector reflector = this.m_reflectors.get((task / 26) % this.m_reflectors.size());
+		final int[] order = this.m_orders.get(task / (26 * this.m_reflectors.size()));
+		final Rotor rotor1 = this.m_rotors.get(order[0]);
+		final Rotor rotor2 = this.m_rotors.get(order[1]);
+		final Rotor rotor3 = this.m_rotors.get(order[2]);
+
+		final CompiledEngine engine = new CompiledEngine(new Plugboard(), //
+				rotor1, new char[] { this.m_ringPositions[0], 'A' }, //
+				rotor2, new char[] { this.m_ringPositions[1], 'A' }, //
+				rotor3, new char[] { this.m_ringPositions[2], 'A' }, //
+				Rotor.getRotorNeutral(), new char[] { 'A', 'A' }, //
+				reflector, reflector.getPosition());
+
+		final int edgeCount = this.m_edgeSteps.length;
+		final int steps = this.m_edgeSteps[edgeCount - 1];
+		final int[] positions = new int[steps + 1];
+		final int[] wires = new int[26];
+		final int[] stack = new int[26 * 26];
+
+		// The scramblers of all positions of the 1st and 2nd rotor are computed once for the current and the next
+		// position of the 3rd rotor. Each edge refers to its scrambler by an offset into the table. Scramblers of other
+		// positions (long cribs only) are computed into a private slot of the edge.
+		final byte[] scramblers = new byte[((2 * 676) + edgeCount) * 26];
+		final byte[] permutation = new byte[26];
+		final int[] offsets = new int[edgeCount];
+
+		for (int i = 0; i < (2 * 676); i++) {
+			engine.getPermutation(SteppingSchedule.pack(i % 26, (i / 26) % 26, (p3 + (i / 676)) % 26), permutation);
+			System.arraycopy(permutation, 0, scramblers, i * 26, 26);
+		}
+
+		for (int p2 = 0; p2 < 26; p2++) {
+			if (this.m_cancelled) {
+				break;
+			}
+
+			for (int p1 = 0; p1 < 26; p1++) {
+				positions[0] = SteppingSchedule.pack(p1, p2, p3);
+
+				for (int i = 1; i <= steps; i++) {
+					positions[i] = engine.step(positions[i - 1]);
+				}
+
+				for (int i = 0; i < edgeCount; i++) {
+					final int position = positions[this.m_edgeSteps[i]];
+					final int index = (position % 676) + (676 * mod(((position / 676) - p3), 26));
+
+					if (index < (2 * 676)) {
+						offsets[i] = index * 26;
+					} else {
+						offsets[i] = ((2 * 676) + i) * 26;
+						engine.getPermutation(position, permutation);
+						System.arraycopy(permutation, 0, scramblers, offsets[i], 26);
+					}
+				}
+
+				// Hypothesis: The test register is connected to 'A'.
+				this.propagate(scramblers, offsets, wires, stack, 0);
+
+				final int live = Integer.bitCount(wires[this.m_testRegister]);
+
+				if (live == 26) {
+					continue;
+				}
+
+				// If only the wire 'A' is live, the hypothesis is consistent.
+				if (live == 1) {
+					result.add(new Stop(this, rotor1, rotor2, rotor3, reflector, positions[0], 'A', cables(wires)));
+					continue;
+				}
+
+				// If all but one wire are live, the remaining wire is the only consistent hypothesis.
+				if (live == 25) {
+					final int stecker = Integer.numberOfTrailingZeros(~wires[this.m_testRegister] & ALL_WIRES);
+
+					this.propagate(scramblers, offsets, wires, stack, stecker);
+					result.add(new Stop(this, rotor1, rotor2, rotor3, reflector, positions[0], toChar(stecker), cables(wires)));
+					continue;
+				}
+
+				// Otherwise the hypothesis 'A' contradicts itself, but the dead wires have not been tested yet. Each
+				// dead wire that leaves exactly one wire of the test register live is reported as a stop of its own.
+				int dead = ~wires[this.m_testRegister] & ALL_WIRES;
+
+				while (dead != 0) {
+					final int stecker = Integer.numberOfTrailingZeros(dead);
+
+					dead &= dead - 1;
+					this.propagate(scramblers, offsets, wires, stack, stecker);
+
+					if (wires[this.m_testRegister] == (1 << stecker)) {
+						result.add(new Stop(this, rotor1, rotor2, rotor3, reflector, positions[0], toChar(stecker), cables(wires)));
+					}
+				}
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Applies a voltage to the given wire of the test register and spreads it through the scramblers and the diagonal
+	 * board. The propagation stops early as soon as all wires of the test register are live.
+	 *
+	 * @param scramblers The table of the scrambler permutations.
+	 * @param offsets The offset of the scrambler of each menu edge into the table.
+	 * @param wires The live wires of each letter as bit masks. The array is cleared first.
+	 * @param stack The work stack of pending (letter, wire) pairs.
+	 * @param wire The wire of the test register.
+	 */
+	private void propagate(final byte[] scramblers, final int[] offsets, final int[] wires, final int[] stack, final int wire) {
+		Arrays.fill(wires, 0);
+
+		int size = energize(wires, stack, 0, this.m_testRegister, wire);
+
+		while ((size > 0) && (wires[this.m_testRegister] != ALL_WIRES)) {
+			final int entry = stack[--size];
+			final int letter = entry / 26;
+			final int live = entry % 26;
+
+			for (final int edge : this.m_edges[letter]) {
+				final int other = (this.m_edgeLetters1[edge] == letter) ? this.m_edgeLetters2[edge] : this.m_edgeLetters1[edge];
+
+				size = energize(wires, stack, size, other, scramblers[offsets[edge] + live]);
+			}
+		}
+	}
+
+	/**
+	 * Makes the given wire of the given letter and its counterpart on the diagonal board live and pushes them onto the
+	 * work stack, if they are not live yet.
+	 *
+	 * @param wires The live wires of each letter as bit masks.
+	 * @param stack The work stack of pending (letter, wire) pairs.
+	 * @param size The current size of the work stack.
+	 * @param letter The letter.
+	 * @param wire The wire.
+	 * @return The new size of the work stack.
+	 */
+	private static int energize(final int[] wires, final int[] stack, final int size, final int letter, final int wire) {
+		int result = size;
+
+		if ((wires[letter] & (1 << wire)) == 0) {
+			wires[letter] |= (1 << wire);
+			stack[result++] = (letter * 26) + wire;
+		}
+
+		if ((wires[wire] & (1 << letter)) == 0) {
+			wires[wire] |= (1 << letter);
+			stack[result++] = (wire * 26) + letter;
+		}
+
+		return result;
+	}
+
+	/**
+	 * Returns the plugboard connections implied by the given live wires in the format of
+	 * {@link Plugboard#addCables(String)}. A letter implies a connection if exactly one of its wires is live.
+	 *
+	 * @param wires The live wires of each letter as bit masks.
+	 * @return The implied plugboard connections.
+	 */
+	private static String cables(final int[] wires) {
+		final StringBuilder result = new StringBuilder();
+
+		for (int letter = 0; letter < 26; letter++) {
+			if (Integer.bitCount(wires[letter]) != 1) {
+				continue;
+			}
+
+			final int partner = Integer.numberOfTrailingZeros(wires[letter]);
+
+			if ((partner > letter) && (Integer.bitCount(wires[partner]) == 1)) {
+				result.append((result.length() == 0) ? "" : " ").append(toChar(letter)).append(toChar(partner));
+			}
+		}
+
+		return result.toString();
+	}
+
+}
@@ -0,0 +1,545 @@
+package de.mononoize.enigma.machine;
+
+import static de.mononoize.enigma.tools.CharTools.toIndex;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.apache.commons.lang3.builder.EqualsBuilder;
+import org.apache.commons.lang3.builder.HashCodeBuilder;
+
+import de.mononoize.enigma.machine.components.Plugboard;
+import de.mononoize.enigma.machine.components.Reflector;
+import de.mononoize.enigma.machine.components.Rotor;
+import de.mononoize.enigma.machine.components.Wiring;
+
+/**
+ * <p>A table-driven encryption engine.</p>
+ *
+ * <p>The wirings of the plugboard, the rotors and the reflector are compiled into flat permutation tables once. The
+ * rotor tables are compiled from the {@code Wiring} once per wiring and ring position and are shared by all engines.
+ * They have the ring settings baked in, so that each rotor table is indexed by {@code position * 26 + index}
+ * directly. The plugboard is folded into the tables of the 1st rotor and, since the 4th rotor and the reflector never
+ * step, both are merged into a single table.</p>
+ *
+ * <p>Between two steps of the 2nd rotor the signal path through the 2nd, 3rd and 4th rotor and the reflector is a
+ * fixed involution. It is composed into a single 26-entry table that is rebuilt only when the 2nd or 3rd rotor steps,
+ * so that each letter costs one lookup in the tables of the 1st rotor, one lookup in the composite table and one
+ * lookup in the reverse tables of the 1st rotor.</p>
+ *
+ * <p>The rotor positions are kept packed as defined by {@link SteppingSchedule#pack(int, int, int)}. Stepping is a
+ * single lookup in the shared transition table of the wheel order, which has the notches and the double step of the
+ * 2nd rotor baked in.</p>
+ *
+ * <p>The tables are immutable and shared between copies of an engine, only the current rotor positions and the
+ * composite table are private to each copy. Two engines are equal if they share the same tables and initial
+ * positions.</p>
+ *
+ * @author mononoize
+ */
+final class CompiledEngine {
+
+	/**
+	 * The shared forward tables of the wirings, indexed by ring position.
+	 */
+	private static final ConcurrentMap<Wiring, AtomicReferenceArray<byte[]>> FORWARD_TABLES = new ConcurrentHashMap<>();
+
+	/**
+	 * The shared reverse tables of the wirings, indexed by ring position.
+	 */
+	private static final ConcurrentMap<Wiring, AtomicReferenceArray<byte[]>> REVERSE_TABLES = new ConcurrentHashMap<>();
+
+	/**
+	 * The forward mappings of the plugboard and the 1st (right) rotor for all positions.
+	 */
+	private final byte[] m_rotor1Forward;
+
+	/**
+	 * The reverse mappings of the 1st (right) rotor and the plugboard for all positions.
+	 */
+	private final byte[] m_rotor1Reverse;
+
+	/**
+	 * The forward mappings of the 2nd (middle) rotor for all positions.
+	 */
+	private final byte[] m_rotor2Forward;
+
+	/**
+	 * The reverse mappings of the 2nd (middle) rotor for all positions.
+	 */
+	private final byte[] m_rotor2Reverse;
+
+	/**
+	 * The forward mappings of the 3rd (left) rotor for all positions.
+	 */
+	private final byte[] m_rotor3Forward;
+
+	/**
+	 * The reverse mappings of the 3rd (left) rotor for all positions.
+	 */
+	private final byte[] m_rotor3Reverse;
+
+	/**
+	 * The combined mapping of the 4th (leftmost) rotor and the reflector.
+	 */
+	private final byte[] m_reflector;
+
+	/**
+	 * The notch positions of the 1st (right) rotor.
+	 */
+	private final boolean[] m_rotor1Notches;
+
+	/**
+	 * The notch positions of the 2nd (middle) rotor.
+	 */
+	private final boolean[] m_rotor2Notches;
+
+	/**
+	 * The transition table of the stepping mechanism as defined by
+	 * {@link SteppingSchedule#getTransitions(boolean[], boolean[])}.
+	 */
+	private final int[] m_transitions;
+
+	/**
+	 * The initial position of the 1st (right) rotor.
+	 */
+	private final int m_rotor1Setting;
+
+	/**
+	 * The initial position of the 2nd (middle) rotor.
+	 */
+	private final int m_rotor2Setting;
+
+	/**
+	 * The initial position of the 3rd (left) rotor.
+	 */
+	private final int m_rotor3Setting;
+
+	/**
+	 * The stepping schedule or {@code null} if it has not been computed yet.
+	 */
+	private SteppingSchedule m_schedule;
+
+	/**
+	 * The current packed positions of the rotors.
+	 */
+	private int m_position;
+
+	/**
+	 * The composite mapping of the 2nd, 3rd and 4th rotor and the reflector for the current positions.
+	 */
+	private final byte[] m_composite = new byte[26];
+
+	/**
+	 * The positions of the 2nd and 3rd rotor the composite mapping has been built for ({@code p2 + 26 * p3}) or
+	 * {@code -1} if it has not been built yet.
+	 */
+	private int m_compositePosition = -1;
+
+	/**
+	 * Constructs a new {@code CompiledEngine} from the given components and settings. The components are not modified.
+	 *
+	 * @param plugboard The plugboard to be compiled.
+	 * @param rotor1 The 1st (right) rotor to be compiled.
+	 * @param rotor1Setting The ring position and the position of the 1st (right) rotor.
+	 * @param rotor2 The 2nd (middle) rotor to be compiled.
+	 * @param rotor2Setting The ring position and the position of the 2nd (middle) rotor.
+	 * @param rotor3 The 3rd (left) rotor to be compiled.
+	 * @param rotor3Setting The ring position and the position of the 3rd (left) rotor.
+	 * @param rotor4 The 4th (leftmost) rotor to be compiled.
+	 * @param rotor4Setting The ring position and the position of the 4th (leftmost) rotor.
+	 * @param reflector The reflector to be compiled.
+	 * @param reflectorSetting The position of the reflector.
+	 */
+	CompiledEngine(final Plugboard plugboard, final Rotor rotor1, final char[] rotor1Setting, final Rotor rotor2,
+			final char[] rotor2Setting, final Rotor rotor3, final char[] rotor3Setting, final Rotor rotor4,
+			final char[] rotor4Setting, final Reflector reflector, final char reflectorSetting) {
+		final char[] plugboardForward = plugboard.getForwardMapping();
+		final char[] plugboardReverse = plugboard.getReverseMapping();
+
+		final byte[] rotor1Forward = getTable(rotor1.getWiring(), false, toIndex(rotor1Setting[0]));
+		final byte[] rotor1Reverse = getTable(rotor1.getWiring(), true, toIndex(rotor1Setting[0]));
+
+		// The plugboard never steps, therefore it is folded into the tables of the 1st rotor.
+		this.m_rotor1Forward = new byte[26 * 26];
+		this.m_rotor1Reverse = new byte[26 * 26];
+
+		for (int position = 0; position < 26; position++) {
+			final int offset = position * 26;
+
+			for (int i = 0; i < 26; i++) {
+				this.m_rotor1Forward[offset + i] = rotor1Forward[offset + toIndex(plugboardForward[i])];
+				this.m_rotor1Reverse[offset + i] = (byte) toIndex(plugboardReverse[rotor1Reverse[offset + i]]);
+			}
+		}
+
+		this.m_rotor2Forward = getTable(rotor2.getWiring(), false, toIndex(rotor2Setting[0]));
+		this.m_rotor2Reverse = getTable(rotor2.getWiring(), true, toIndex(rotor2Setting[0]));
+		this.m_rotor3Forward = getTable(rotor3.getWiring(), false, toIndex(rotor3Setting[0]));
+		this.m_rotor3Reverse = getTable(rotor3.getWiring(), true, toIndex(rotor3Setting[0]));
+
+		this.m_rotor1Notches = SteppingSchedule.toNotches(rotor1.getNotches());
+		this.m_rotor2Notches = SteppingSchedule.toNotches(rotor2.getNotches());
+		this.m_transitions = SteppingSchedule.getTransitions(this.m_rotor1Notches, this.m_rotor2Notches);
+
+		this.m_rotor1Setting = toIndex(rotor1Setting[1]);
+		this.m_rotor2Setting = toIndex(rotor2Setting[1]);
+		this.m_rotor3Setting = toIndex(rotor3Setting[1]);
+
+		// The 4th rotor and the reflector never step, therefore the signal path through them is a fixed permutation.
+		final byte[] rotor4Forward = getTable(rotor4.getWiring(), false, toIndex(rotor4Setting[0]));
+		final byte[] rotor4Reverse = getTable(rotor4.getWiring(), true, toIndex(rotor4Setting[0]));
+		final byte[] reflectorForward = getTable(reflector.getWiring(), false, 0);
+		final int rotor4Offset = toIndex(rotor4Setting[1]) * 26;
+		final int reflectorOffset = toIndex(reflectorSetting) * 26;
+
+		this.m_reflector = new byte[26];
+
+		for (int i = 0; i < 26; i++) {
+			final int forward = rotor4Forward[rotor4Offset + i];
+			final int reflected = reflectorForward[reflectorOffset + forward];
+			this.m_reflector[i] = rotor4Reverse[rotor4Offset + reflected];
+		}
+
+		this.reset();
+	}
+
+	/**
+	 * Constructs a new {@code CompiledEngine} that shares the (immutable) tables of the given engine. The rotors of the
+	 * new engine are set to their initial positions.
+	 *
+	 * @param engine The engine to be copied.
+	 */
+	CompiledEngine(final CompiledEngine engine) {
+		this.m_rotor1Forward = engine.m_rotor1Forward;
+		this.m_rotor1Reverse = engine.m_rotor1Reverse;
+		this.m_rotor2Forward = engine.m_rotor2Forward;
+		this.m_rotor2Reverse = engine.m_rotor2Reverse;
+		this.m_rotor3Forward = engine.m_rotor3Forward;
+		this.m_rotor3Reverse = engine.m_rotor3Reverse;
+		this.m_reflector = engine.m_reflector;
+		this.m_rotor1Notches = engine.m_rotor1Notches;
+		this.m_rotor2Notches = engine.m_rotor2Notches;
+		this.m_transitions = engine.m_transitions;
+		this.m_rotor1Setting = engine.m_rotor1Setting;
+		this.m_rotor2Setting = engine.m_rotor2Setting;
+		this.m_rotor3Setting = engine.m_rotor3Setting;
+		this.m_schedule = engine.m_schedule;
+
+		this.reset();
+	}
+
+	/**
+	 * Returns the shared table of the given wiring for the given ring position, compiling it on first use.
+	 *
+	 * @param wiring The wiring.
+	 * @param reverse {@code True} for the reverse table, {@code False} for the forward table.
+	 * @param ring The index of the ring position.
+	 * @return The shared table.
+	 */
+	static byte[] getTable(final Wiring wiring, final boolean reverse, final int ring) {
+		final AtomicReferenceArray<byte[]> tables = (reverse ? REVERSE_TABLES : FORWARD_TABLES)
+				.computeIfAbsent(wiring, key -> new AtomicReferenceArray<>(26));
+		final byte[] table = tables.get(ring);
+
+		if (table != null) {
+			return table;
+		}
+
+		final byte[] result = new byte[Wiring.TABLE_SIZE];
+
+		if (reverse) {
+			wiring.copyReverseTable(ring, result);
+		} else {
+			wiring.copyForwardTable(ring, result);
+		}
+
+		return tables.compareAndSet(ring, null, result) ? result : tables.get(ring);
+	}
+
+	@Override
+	public int hashCode() {
+		return new HashCodeBuilder()
+				.append(this.m_rotor1Forward)
+				.append(this.m_rotor2Forward)
+				.append(this.m_rotor3Forward)
+				.append(this.m_reflector)
+				.append(this.m_rotor1Notches)
+				.append(this.m_rotor2Notches)
+				.append(this.m_rotor1Setting)
+				.append(this.m_rotor2Setting)
+				.append(this.m_rotor3Setting)
+				.hashCode();
+	}
+
+	@Override
+	public boolean equals(final Object object) {
+		if (this == object) {
+			return true;
+		}
+
+		if (!(object instanceof CompiledEngine)) {
+			return false;
+		}
+
+		final CompiledEngine that = (CompiledEngine) object;
+
+		return new EqualsBuilder()
+				.append(this.m_rotor1Forward, that.m_rotor1Forward)
+				.append(this.m_rotor2Forward, that.m_rotor2Forward)
+				.append(this.m_rotor3Forward, that.m_rotor3Forward)
+				.append(this.m_reflector, that.m_reflector)
+				.append(this.m_rotor1Notches, that.m_rotor1Notches)
+				.append(this.m_rotor2Notches, that.m_rotor2Notches)
+				.append(this.m_rotor1Setting, that.m_rotor1Setting)
+				.append(this.m_rotor2Setting, that.m_rotor2Setting)
+				.append(this.m_rotor3Setting, that.m_rotor3Setting)
+				.isEquals();
+	}
+
+	/**
+	 * Returns the forward mappings of the plugboard and the 1st (right) rotor for all positions. The table is shared
+	 * and must not be modified.
+	 *
+	 * @return The forward mappings of the plugboard and the 1st (right) rotor for all positions.
+	 */
+	byte[] getRotor1Forward() {
+		return this.m_rotor1Forward;
+	}
+
+	/**
+	 * Returns the reverse mappings of the 1st (right) rotor and the plugboard for all positions. The table is shared
+	 * and must not be modified.
+	 *
+	 * @return The reverse mappings of the 1st (right) rotor and the plugboard for all positions.
+	 */
+	byte[] getRotor1Reverse() {
+		return this.m_rotor1Reverse;
+	}
+
+	/**
+	 * Returns the forward mappings of the 2nd (middle) rotor for all positions. The table is shared and
+	 * must not be modified.
+	 *
+	 * @return The forward mappings of the 2nd (middle) rotor for all positions.
+	 */
+	byte[] getRotor2Forward() {
+		return this.m_rotor2Forward;
+	}
+
+	/**
+	 * Returns the reverse mappings of the 2nd (middle) rotor for all positions. The table is shared and
+	 * must not be modified.
+	 *
+	 * @return The reverse mappings of the 2nd (middle) rotor for all positions.
+	 */
+	byte[] getRotor2Reverse() {
+		return this.m_rotor2Reverse;
+	}
+
+	/**
+	 * Returns the forward mappings of the 3rd (left) rotor for all positions. The table is shared and
+	 * must not be modified.
+	 *
+	 * @return The forward mappings of the 3rd (left) rotor for all positions.
+	 */
+	byte[] getRotor3Forward() {
+		return this.m_rotor3Forward;
+	}
+
+	/**
+	 * Returns the reverse mappings of the 3rd (left) rotor for all positions. The table is shared and
+	 * must not be modified.
+	 *
+	 * @return The reverse mappings of the 3rd (left) rotor for all positions.
+	 */
+	byte[] getRotor3Reverse() {
+		return this.m_rotor3Reverse;
+	}
+
+	/**
+	 * Returns the combined mapping of the 4th (leftmost) rotor and the reflector. The table is shared and
+	 * must not be modified.
+	 *
+	 * @return The combined mapping of the 4th (leftmost) rotor and the reflector.
+	 */
+	byte[] getReflector() {
+		return this.m_reflector;
+	}
+
+	/**
+	 * Returns the notch positions of the 1st (right) rotor. The table is shared and must not be modified.
+	 *
+	 * @return The notch positions of the 1st (right) rotor.
+	 */
+	boolean[] getRotor1Notches() {
+		return this.m_rotor1Notches;
+	}
+
+	/**
+	 * Returns the notch positions of the 2nd (middle) rotor. The table is shared and must not be modified.
+	 *
+	 * @return The notch positions of the 2nd (middle) rotor.
+	 */
+	boolean[] getRotor2Notches() {
+		return this.m_rotor2Notches;
+	}
+
+	/**
+	 * Resets the rotors to their initial positions.
+	 */
+	void reset() {
+		this.m_position = this.getInitialPosition();
+	}
+
+	/**
+	 * Returns the packed initial positions of the rotors.
+	 *
+	 * @return The packed positions as defined by {@link SteppingSchedule#pack(int, int, int)}.
+	 */
+	int getInitialPosition() {
+		return SteppingSchedule.pack(this.m_rotor1Setting, this.m_rotor2Setting, this.m_rotor3Setting);
+	}
+
+	/**
+	 * Returns the stepping schedule starting at the initial positions. The schedule is computed on first use.
+	 *
+	 * @return The stepping schedule.
+	 */
+	SteppingSchedule getSchedule() {
+		if (this.m_schedule == null) {
+			this.m_schedule = new SteppingSchedule(this.m_rotor1Notches, this.m_rotor2Notches,
+					this.m_rotor1Setting, this.m_rotor2Setting, this.m_rotor3Setting);
+		}
+
+		return this.m_schedule;
+	}
+
+	/**
+	 * Sets the rotors to the positions they have after the given number of key presses from the initial positions.
+	 *
+	 * @param presses The number of key presses.
+	 */
+	void seek(final long presses) {
+		this.setPosition(this.getSchedule().get(presses));
+	}
+
+	/**
+	 * Sets the rotors to the given packed positions.
+	 *
+	 * @param position The packed positions as defined by {@link SteppingSchedule#pack(int, int, int)}.
+	 */
+	void setPosition(final int position) {
+		this.m_position = position;
+	}
+
+	/**
+	 * Returns the packed positions of the rotors.
+	 *
+	 * @return The packed positions as defined by {@link SteppingSchedule#pack(int, int, int)}.
+	 */
+	int getPosition() {
+		return this.m_position;
+	}
+
+	/**
+	 * Returns the shared transition table of the notches of the 1st and 2nd rotor. The table must not be modified.
+	 *
+	 * @return The transition table as defined by {@link SteppingSchedule#getTransitions(boolean[], boolean[])}.
+	 */
+	int[] getTransitions() {
+		return this.m_transitions;
+	}
+
+	/**
+	 * Returns the packed positions after one key press from the given packed positions.
+	 *
+	 * @param position The packed positions before the key press.
+	 * @return The packed positions after the key press.
+	 */
+	int step(final int position) {
+		return this.m_transitions[position];
+	}
+
+	/**
+	 * Writes the permutation of the whole signal path at the given packed positions into the given array. The rotors
+	 * do not step and their current positions are not changed.
+	 *
+	 * @param position The packed positions as defined by {@link SteppingSchedule#pack(int, int, int)}.
+	 * @param permutation The array of length 26 to write the permutation to.
+	 */
+	void getPermutation(final int position, final byte[] permutation) {
+		final int p23 = position / 26;
+
+		if (p23 != this.m_compositePosition) {
+			this.compose(p23);
+		}
+
+		final int o1 = (position - (p23 * 26)) * 26;
+
+		for (int i = 0; i < 26; i++) {
+			permutation[i] = this.m_rotor1Reverse[o1 + this.m_composite[this.m_rotor1Forward[o1 + i]]];
+		}
+	}
+
+	/**
+	 * Performs the stepping mechanism and encodes/decodes the given character. The given character must be a value
+	 * between 'A' and 'Z'.
+	 *
+	 * @param inputCharacter The character to be encoded/decoded.
+	 * @return The encoded/decoded character.
+	 */
+	char process(final char inputCharacter) {
+		return (char) (this.process(inputCharacter - 'A') + 'A');
+	}
+
+	/**
+	 * Performs the stepping mechanism and encodes/decodes the given index. The given index must be a value between 0
+	 * and 25.
+	 *
+	 * @param inputIndex The index to be encoded/decoded.
+	 * @return The encoded/decoded index.
+	 */
+	int process(final int inputIndex) {
+		// STEP 1: Perform the stepping mechanism.
+		final int position = this.m_transitions[this.m_position];
+		final int p23 = position / 26;
+
+		this.m_position = position;
+
+		// STEP 2: Rebuild the composite mapping if the 2nd or 3rd rotor has stepped.
+		if (p23 != this.m_compositePosition) {
+			this.compose(p23);
+		}
+
+		// STEP 3: Perform the actual encryption/decryption.
+		final int o1 = (position - (p23 * 26)) * 26;
+
+		int c = this.m_rotor1Forward[o1 + inputIndex];
+		c = this.m_composite[c];
+
+		return this.m_rotor1Reverse[o1 + c];
+	}
+
+	/**
+	 * Builds the composite mapping of the 2nd, 3rd and 4th rotor and the reflector for the given positions.
+	 *
+	 * @param p23 The positions of the 2nd and 3rd rotor ({@code p2 + 26 * p3}).
+	 */
+	private void compose(final int p23) {
+		final int o2 = (p23 % 26) * 26;
+		final int o3 = (p23 / 26) * 26;
+
+		for (int i = 0; i < 26; i++) {
+			int c = this.m_rotor2Forward[o2 + i];
+			c = this.m_rotor3Forward[o3 + c];
+			c = this.m_reflector[c];
+			c = this.m_rotor3Reverse[o3 + c];
+			this.m_composite[i] = this.m_rotor2Reverse[o2 + c];
+		}
+
+		this.m_compositePosition = p23;
+	}
+
+}
@@ -1,6 +1,10 @@
 package de.mononoize.enigma.machine;
 
 import static de.mononoize.enigma.tools.CharTools.isInRange;
+import static de.mononoize.enigma.tools.CharTools.toChar;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
 
 import org.apache.commons.lang3.Validate;
 import org.apache.logging.log4j.LogManager;
@@ -9,6 +13,7 @@ import org.apache.logging.log4j.Logger;
 import de.mononoize.enigma.machine.components.Plugboard;
 import de.mononoize.enigma.machine.components.Reflector;
 import de.mononoize.enigma.machine.components.Rotor;
+import de.mononoize.enigma.tools.GroupFormatter;
 import de.mononoize.enigma.tools.StringTools;
 
 /**
@@ -39,51 +44,78 @@ public class Enigma {
 		private Rotor m_rotor3;
 
 		private Rotor m_rotor4 = Rotor.getRotorNeutral();
+		
+		private char[] m_rotor1Setting;
+		
+		private char[] m_rotor2Setting;
+		
+		private char[] m_rotor3Setting;
+		
+		private char[] m_rotor4Setting = { 'A', 'A' };
 
 		private Reflector m_reflector;
 	 
 		private int m_groupLength = 5;
 		
+		private boolean m_compiled = false;
+		
+		private boolean m_tracing = false;
+		
 		public Builder() {
 		}
 		
+		private static char[] setting(final char ringPosition, final char position) {
+			Validate.inclusiveBetween('A', 'Z', ringPosition);
+			Validate.inclusiveBetween('A', 'Z', position);
+			
+			return new char[] { ringPosition, position };
+		}
+		
 		public Builder setRotor1(final Rotor rotor, final char ringPosition, final char position) {
-			this.m_rotor1 = rotor.setPositionRing(ringPosition).setPosition(position);
+			this.m_rotor1 = rotor;
+			this.m_rotor1Setting = setting(ringPosition, position);
 			return this;
 		}
 
 		public Builder setRotor1(final Rotor rotor, final int ringPosition, final char position) {
-			this.m_rotor1 = rotor.setPositionRing(ringPosition).setPosition(position);
+			this.m_rotor1 = rotor;
+			this.m_rotor1Setting = setting(toChar(ringPosition - 1), position);
 			return this;
 		}
 		
 		public Builder setRotor2(final Rotor rotor, final char ringPosition, final char position) {
-			this.m_rotor2 = rotor.setPositionRing(ringPosition).setPosition(position);
+			this.m_rotor2 = rotor;
+			this.m_rotor2Setting = setting(ringPosition, position);
 			return this;
 		}
 		
 		public Builder setRotor2(final Rotor rotor, final int ringPosition, final char position) {
-			this.m_rotor2 = rotor.setPositionRing(ringPosition).setPosition(position);
+			this.m_rotor2 = rotor;
+			this.m_rotor2Setting = setting(toChar(ringPosition - 1), position);
 			return this;
 		}
 		
 		public Builder setRotor3(final Rotor rotor, final char ringPosition, final char position) {
-			this.m_rotor3 = rotor.setPositionRing(ringPosition).setPosition(position);
+			this.m_rotor3 = rotor;
+			this.m_rotor3Setting = setting(ringPosition, position);
 			return this;
 		}
 		
 		public Builder setRotor3(final Rotor rotor, final int ringPosition, final char position) {
-			this.m_rotor3 = rotor.setPositionRing(ringPosition).setPosition(position);
+			this.m_rotor3 = rotor;
+			this.m_rotor3Setting = setting(toChar(ringPosition - 1), position);
 			return this;
 		}
 
 		public Builder setRotor4(final Rotor rotor, final int ringPosition, final char position) {
-			this.m_rotor4 = rotor.setPositionRing(ringPosition).setPosition(position);
+			this.m_rotor4 = rotor;
+			this.m_rotor4Setting = setting(toChar(ringPosition - 1), position);
 			return this;
 		}
 		
 		public Builder setRotor4(final Rotor rotor, final char positionRing, final char position) {
-			this.m_rotor4 = rotor.setPositionRing(positionRing).setPosition(position);
+			this.m_rotor4 = rotor;
+			this.m_rotor4Setting = setting(positionRing, position);
 			return this;
 		}
 		
@@ -106,17 +138,77 @@ public class Enigma {
 			this.m_groupLength = groupLength;
 			return this;
 		}
+		
+		public Builder setCompiled(final boolean compiled) {
+			this.m_compiled = compiled;
+			return this;
+		}
+		
+		public Builder setTracing(final boolean tracing) {
+			this.m_tracing = tracing;
+			return this;
+		}
 				
-		@Override
-		public Enigma build() {
+		private void validate() {
 			Validate.notNull(this.m_rotor1);
 			Validate.notNull(this.m_rotor2);
 			Validate.notNull(this.m_rotor3);
 			Validate.notNull(this.m_rotor4);
 			Validate.notNull(this.m_reflector);
+		}
+		
+		@Override
+		public Enigma build() {
+			this.validate();
 			
 			return new Enigma(this);
 		}
+		
+		/**
+		 * Builds an immutable {@code EnigmaSpec} from the current setting. In contrast to {@link #build()} the given
+		 * components are neither modified nor referenced by the result.
+		 * 
+		 * @return The {@code EnigmaSpec}.
+		 */
+		public EnigmaSpec buildSpec() {
+			return new EnigmaSpec(this.compile(this.m_plugboard), this.m_groupLength);
+		}
+		
+		/**
+		 * Returns the current setting as {@code PackedKey}. The group length and the compilation/tracing flags are not
+		 * part of the key.
+		 * 
+		 * @return The {@code PackedKey}.
+		 */
+		public PackedKey toKey() {
+			this.validate();
+			
+			return PackedKey.encode( //
+					this.m_rotor1, this.m_rotor1Setting, //
+					this.m_rotor2, this.m_rotor2Setting, //
+					this.m_rotor3, this.m_rotor3Setting, //
+					this.m_rotor4, this.m_rotor4Setting, //
+					this.m_reflector, this.m_reflector.getPosition(), //
+					this.m_plugboard);
+		}
+		
+		/**
+		 * Compiles the current setting with the given plugboard instead of the configured one. The given components are
+		 * neither modified nor referenced by the result.
+		 * 
+		 * @param plugboard The plugboard to be compiled.
+		 * @return The compiled engine.
+		 */
+		CompiledEngine compile(final Plugboard plugboard) {
+			this.validate();
+			
+			return new CompiledEngine(plugboard, //
+					this.m_rotor1, this.m_rotor1Setting, //
+					this.m_rotor2, this.m_rotor2Setting, //
+					this.m_rotor3, this.m_rotor3Setting, //
+					this.m_rotor4, this.m_rotor4Setting, //
+					this.m_reflector, this.m_reflector.getPosition());
+		}
 	}
 
 	/**
@@ -162,28 +254,50 @@ public class Enigma {
 	/**
 	 * The setting of the 1st (right) rotor.
 	 */
-	private char[] m_rotor1Setting = new char[2];
+	private final char[] m_rotor1Setting;
 
 	/**
 	 * The setting of the 2nd (middle) rotor.
 	 */
-	private char[] m_rotor2Setting = new char[2];
+	private final char[] m_rotor2Setting;
 
 	/**
 	 * The setting of the 3rd (left) rotor.
 	 */
-	private char[] m_rotor3Setting = new char[2];
+	private final char[] m_rotor3Setting;
 
 	/**
 	 * The setting of the 4th (optional) (leftmost) rotor.
 	 */
-	private char[] m_rotor4Setting = new char[2];
+	private final char[] m_rotor4Setting;
 
 	/**
 	 * The setting of the reflector.
 	 */
 	private char m_reflectorSetting;
 	
+	/**
+	 * The compiled engine or {@code null} if the components shall be used directly.
+	 */
+	private CompiledEngine m_engine;
+	
+	/**
+	 * {@code True} if the signal path shall be traced on DEBUG level.
+	 */
+	private boolean m_tracing;
+	
+	/**
+	 * {@code True} if the signal path is traced until the next reset. Since the compiled engine cannot be traced, this
+	 * also decides whether the compiled engine or the components are stepped, so that the path never changes in the
+	 * middle of a message.
+	 */
+	private boolean m_traced;
+	
+	/**
+	 * The stepping schedule or {@code null} if it has not been computed yet.
+	 */
+	private SteppingSchedule m_schedule;
+	
 	/**
 	 * Constructs a new {@code Enigma} using the given builder.
 	 * 
@@ -197,29 +311,142 @@ public class Enigma {
 		this.m_reflector = builder.m_reflector;
 		this.m_plugboard = builder.m_plugboard;
 		this.m_groupLength = builder.m_groupLength;
+		this.m_tracing = builder.m_tracing;
 		
-		this.m_rotor1Setting[0] = this.m_rotor1.getPositionRing();
-		this.m_rotor1Setting[1] = this.m_rotor1.getPosition();	
-		this.m_rotor2Setting[0] = this.m_rotor2.getPositionRing();
-		this.m_rotor2Setting[1] = this.m_rotor2.getPosition();
-		this.m_rotor3Setting[0] = this.m_rotor3.getPositionRing();
-		this.m_rotor3Setting[1] = this.m_rotor3.getPosition();
-		this.m_rotor4Setting[0] = this.m_rotor4.getPositionRing();
-		this.m_rotor4Setting[1] = this.m_rotor4.getPosition();		
+		this.m_rotor1Setting = builder.m_rotor1Setting.clone();
+		this.m_rotor2Setting = builder.m_rotor2Setting.clone();
+		this.m_rotor3Setting = builder.m_rotor3Setting.clone();
+		this.m_rotor4Setting = builder.m_rotor4Setting.clone();
 		this.m_reflectorSetting = this.m_reflector.getPosition();
+		
+		if (builder.m_compiled) {
+			this.m_engine = this.compile();
+		}
+		
+		this.reset();
 	}
 	
 	/**
-	 * Reset the setting of all wheels.
+	 * Returns the output group length.
 	 * 
-	 * @return A reference to this {@code Enigma}.
+	 * @return The output group length.
 	 */
-	private void reset() {
+	public int getGroupLength() {
+		return this.m_groupLength;
+	}
+	
+	/**
+	 * Reset the setting of all wheels.
+	 */
+	public void reset() {
 		this.m_rotor1.setPositionRing(this.m_rotor1Setting[0]).setPosition(this.m_rotor1Setting[1]);
 		this.m_rotor2.setPositionRing(this.m_rotor2Setting[0]).setPosition(this.m_rotor2Setting[1]);
 		this.m_rotor3.setPositionRing(this.m_rotor3Setting[0]).setPosition(this.m_rotor3Setting[1]);
 		this.m_rotor4.setPositionRing(this.m_rotor4Setting[0]).setPosition(this.m_rotor4Setting[1]);
-		this.m_reflector.setPosition(this.m_reflectorSetting);		
+		this.m_reflector.setPosition(this.m_reflectorSetting);
+		
+		if (this.m_engine != null) {
+			this.m_engine.reset();
+		}
+		
+		this.m_traced = this.isTracing();
+	}
+	
+	/**
+	 * Sets the wheels to the setting they have after the given number of key presses from the initial setting. The
+	 * setting is computed in constant time from the stepping schedule, which is computed once on first use.
+	 * 
+	 * @param presses The number of key presses.
+	 */
+	public void seek(final long presses) {
+		Validate.isTrue(presses >= 0);
+		
+		this.reset();
+		
+		final int position = this.getSchedule().get(presses);
+		
+		this.m_rotor1.setPosition(toChar(position % 26));
+		this.m_rotor2.setPosition(toChar((position / 26) % 26));
+		this.m_rotor3.setPosition(toChar(position / 676));
+		
+		if (this.m_engine != null) {
+			this.m_engine.seek(presses);
+		}
+	}
+	
+	/**
+	 * Returns the stepping schedule starting at the initial setting.
+	 * 
+	 * @return The stepping schedule.
+	 */
+	private SteppingSchedule getSchedule() {
+		if (this.m_schedule == null) {
+			if (this.m_engine != null) {
+				this.m_schedule = this.m_engine.getSchedule();
+			} else {
+				this.m_schedule = new SteppingSchedule(this.m_rotor1.getNotches(), this.m_rotor2.getNotches(), 
+						this.m_rotor1Setting[1], this.m_rotor2Setting[1], this.m_rotor3Setting[1]);
+			}
+		}
+		
+		return this.m_schedule;
+	}
+	
+	/**
+	 * Returns the compiled engine. If this {@code Enigma} has not been built as compiled, a new engine is compiled from
+	 * the initial setting.
+	 * 
+	 * @return The compiled engine.
+	 */
+	CompiledEngine getEngine() {
+		return (this.m_engine != null) ? this.m_engine : this.compile();
+	}
+	
+	/**
+	 * Compiles a new engine from the initial setting.
+	 * 
+	 * @return The compiled engine.
+	 */
+	private CompiledEngine compile() {
+		return new CompiledEngine(this.m_plugboard, //
+				this.m_rotor1, this.m_rotor1Setting, //
+				this.m_rotor2, this.m_rotor2Setting, //
+				this.m_rotor3, this.m_rotor3Setting, //
+				this.m_rotor4, this.m_rotor4Setting, //
+				this.m_reflector, this.m_reflectorSetting);
+	}
+	
+	/**
+	 * Returns an immutable {@code EnigmaSpec} with the initial setting of this {@code Enigma}.
+	 * 
+	 * @return The {@code EnigmaSpec}.
+	 */
+	public EnigmaSpec toSpec() {
+		return new EnigmaSpec(new CompiledEngine(this.getEngine()), this.m_groupLength);
+	}
+	
+	/**
+	 * Returns the initial setting of this {@code Enigma} as {@code PackedKey}.
+	 * 
+	 * @return The {@code PackedKey}.
+	 */
+	public PackedKey toKey() {
+		return PackedKey.encode( //
+				this.m_rotor1, this.m_rotor1Setting, //
+				this.m_rotor2, this.m_rotor2Setting, //
+				this.m_rotor3, this.m_rotor3Setting, //
+				this.m_rotor4, this.m_rotor4Setting, //
+				this.m_reflector, this.m_reflectorSetting, //
+				this.m_plugboard);
+	}
+	
+	/**
+	 * Returns {@code True} if the signal path shall be traced. This method is called once per message on reset.
+	 * 
+	 * @return {@code True} if the signal path shall be traced.
+	 */
+	private boolean isTracing() {
+		return (this.m_tracing && LOGGER.isDebugEnabled());
 	}
 	
 	/**
@@ -242,6 +469,136 @@ public class Enigma {
 		return this.process(text);
 	}
 	
+	/**
+	 * Encodes the given characters into the given output array. Characters that are not an element of the Latin
+	 * alphabet are skipped and the output is not grouped. The output array must provide room for {@code length}
+	 * characters starting at {@code outputOffset}.
+	 * 
+	 * @param input The characters to be encoded.
+	 * @param inputOffset The index of the first character to be encoded.
+	 * @param length The number of characters to be encoded.
+	 * @param output The array to write the encoded characters to.
+	 * @param outputOffset The index of the first encoded character in the output array.
+	 * @return The number of characters written to the output array.
+	 */
+	public int encode(final char[] input, final int inputOffset, final int length, final char[] output, final int outputOffset) {
+		return this.process(input, inputOffset, length, output, outputOffset);
+	}
+	
+	/**
+	 * Decodes the given characters into the given output array. Characters that are not an element of the Latin
+	 * alphabet are skipped and the output is not grouped. The output array must provide room for {@code length}
+	 * characters starting at {@code outputOffset}.
+	 * 
+	 * @param input The characters to be decoded.
+	 * @param inputOffset The index of the first character to be decoded.
+	 * @param length The number of characters to be decoded.
+	 * @param output The array to write the decoded characters to.
+	 * @param outputOffset The index of the first decoded character in the output array.
+	 * @return The number of characters written to the output array.
+	 */
+	public int decode(final char[] input, final int inputOffset, final int length, final char[] output, final int outputOffset) {
+		return this.process(input, inputOffset, length, output, outputOffset);
+	}
+	
+	/**
+	 * Encodes the given ASCII bytes into the given output array. Bytes that are not an element of the Latin alphabet
+	 * are skipped and the output is not grouped. The output array must provide room for {@code length} bytes starting
+	 * at {@code outputOffset}.
+	 * 
+	 * @param input The bytes to be encoded.
+	 * @param inputOffset The index of the first byte to be encoded.
+	 * @param length The number of bytes to be encoded.
+	 * @param output The array to write the encoded bytes to.
+	 * @param outputOffset The index of the first encoded byte in the output array.
+	 * @return The number of bytes written to the output array.
+	 */
+	public int encode(final byte[] input, final int inputOffset, final int length, final byte[] output, final int outputOffset) {
+		return this.process(input, inputOffset, length, output, outputOffset);
+	}
+	
+	/**
+	 * Decodes the given ASCII bytes into the given output array. Bytes that are not an element of the Latin alphabet
+	 * are skipped and the output is not grouped. The output array must provide room for {@code length} bytes starting
+	 * at {@code outputOffset}.
+	 * 
+	 * @param input The bytes to be decoded.
+	 * @param inputOffset The index of the first byte to be decoded.
+	 * @param length The number of bytes to be decoded.
+	 * @param output The array to write the decoded bytes to.
+	 * @param outputOffset The index of the first decoded byte in the output array.
+	 * @return The number of bytes written to the output array.
+	 */
+	public int decode(final byte[] input, final int inputOffset, final int length, final byte[] output, final int outputOffset) {
+		return this.process(input, inputOffset, length, output, outputOffset);
+	}
+	
+	/**
+	 * Encodes the remaining ASCII bytes of the given input buffer into the given output buffer. Bytes that are not an
+	 * element of the Latin alphabet are skipped and the output is not grouped. The output buffer must provide room for
+	 * the remaining bytes of the input buffer. The positions of both buffers are advanced.
+	 * 
+	 * @param input The bytes to be encoded.
+	 * @param output The buffer to write the encoded bytes to.
+	 * @return The number of bytes written to the output buffer.
+	 */
+	public int encode(final ByteBuffer input, final ByteBuffer output) {
+		return this.process(input, output);
+	}
+	
+	/**
+	 * Decodes the remaining ASCII bytes of the given input buffer into the given output buffer. Bytes that are not an
+	 * element of the Latin alphabet are skipped and the output is not grouped. The output buffer must provide room for
+	 * the remaining bytes of the input buffer. The positions of both buffers are advanced.
+	 * 
+	 * @param input The bytes to be decoded.
+	 * @param output The buffer to write the decoded bytes to.
+	 * @return The number of bytes written to the output buffer.
+	 */
+	public int decode(final ByteBuffer input, final ByteBuffer output) {
+		return this.process(input, output);
+	}
+	
+	/**
+	 * Encodes the remaining characters of the given input buffer into the given output buffer. Characters that are not
+	 * an element of the Latin alphabet are skipped and the output is not grouped. The output buffer must provide room
+	 * for the remaining characters of the input buffer. The positions of both buffers are advanced.
+	 * 
+	 * @param input The characters to be encoded.
+	 * @param output The buffer to write the encoded characters to.
+	 * @return The number of characters written to the output buffer.
+	 */
+	public int encode(final CharBuffer input, final CharBuffer output) {
+		return this.process(input, output);
+	}
+	
+	/**
+	 * Decodes the remaining characters of the given input buffer into the given output buffer. Characters that are not
+	 * an element of the Latin alphabet are skipped and the output is not grouped. The output buffer must provide room
+	 * for the remaining characters of the input buffer. The positions of both buffers are advanced.
+	 * 
+	 * @param input The characters to be decoded.
+	 * @param output The buffer to write the decoded characters to.
+	 * @return The number of characters written to the output buffer.
+	 */
+	public int decode(final CharBuffer input, final CharBuffer output) {
+		return this.process(input, output);
+	}
+	
+	/**
+	 * Presses the given key, i.e. performs the stepping mechanism and encodes/decodes the given character. In contrast
+	 * to {@link #encode(String)} and {@link #decode(String)} the wheels are not reset, so that a message can be
+	 * processed piecewise. The given character must be an element of the Latin alphabet.
+	 * 
+	 * @param inputCharacter The character to be encoded/decoded.
+	 * @return The encoded/decoded character.
+	 */
+	public char press(final char inputCharacter) {
+		Validate.isTrue(isInRange(inputCharacter));
+		
+		return this.process(inputCharacter);
+	}
+	
 	/**
 	 * Encodes/decodes the given text.
 	 * 
@@ -251,56 +608,286 @@ public class Enigma {
 	private String process(final String text) {
 		this.reset();
 		
-		final StringBuilder result = new StringBuilder();
+		// The legacy formatting separates every letter for a group length of 0.
+		if (this.m_groupLength == 0) {
+			final StringBuilder result = new StringBuilder(text.length());
+			
+			for (int i = 0; i < text.length(); i++) {
+				final char inputCharacter = text.charAt(i);
+				
+				// Skip all input characters that are not an element of the Latin alphabet.
+				if (isInRange(inputCharacter)) {
+					result.append(this.process(inputCharacter));
+				}
+			}
+			
+			return StringTools.format(result.toString(), this.m_groupLength);
+		}
+		
+		// The letters are grouped as they come out of the machine.
+		final GroupFormatter formatter = new GroupFormatter.Builder().setLength(this.m_groupLength).build();
+		final StringBuilder result = new StringBuilder(
+				(int) Math.min(formatter.getFormattedLength(text.length()), Integer.MAX_VALUE - 8));
 		
 		for (int i = 0; i < text.length(); i++) {
 			final char inputCharacter = text.charAt(i);
 			
-			// STEP 1: Skip all input characters that are not an element of the Latin alphabet.
-			if (!isInRange(inputCharacter)) {
-				continue;
+			// Skip all input characters that are not an element of the Latin alphabet.
+			if (isInRange(inputCharacter)) {
+				formatter.append(this.process(inputCharacter), result);
 			}
+		}
+		
+		Validate.isTrue(formatter.getCount() > 0, "The text does not contain any letters.");
+		
+		formatter.finish(result);
+		return result.toString();
+	}
+	
+	/**
+	 * Encodes/decodes the given characters into the given output array.
+	 * 
+	 * @param input The characters to be encoded/decoded.
+	 * @param inputOffset The index of the first character to be encoded/decoded.
+	 * @param length The number of characters to be encoded/decoded.
+	 * @param output The array to write the encoded/decoded characters to.
+	 * @param outputOffset The index of the first encoded/decoded character in the output array.
+	 * @return The number of characters written to the output array.
+	 */
+	private int process(final char[] input, final int inputOffset, final int length, final char[] output, final int outputOffset) {
+		Validate.notNull(input);
+		Validate.notNull(output);
+		Validate.isTrue((inputOffset >= 0) && (length >= 0) && (inputOffset <= input.length - length));
+		Validate.isTrue((outputOffset >= 0) && (outputOffset <= output.length - length));
+		
+		this.reset();
+		
+		int count = 0;
+		
+		for (int i = inputOffset; i < inputOffset + length; i++) {
+			final char inputCharacter = input[i];
 			
-			LOGGER.debug("INPUT       : {}", inputCharacter);
-			
-			// STEP 2: Perform the stepping mechanism.
-			final boolean rotor1IsNotchPosition = this.m_rotor1.isNotchPosition();
-			final boolean rotor2IsNotchPosition = this.m_rotor2.isNotchPosition();
-			
-			this.m_rotor1.incPosition();
-			
-			if (rotor1IsNotchPosition) {
-				this.m_rotor2.incPosition();
+			// Skip all input characters that are not an element of the Latin alphabet.
+			if (isInRange(inputCharacter)) {
+				output[outputOffset + count++] = this.process(inputCharacter);
 			}
+		}
+		
+		return count;
+	}
+	
+	/**
+	 * Encodes/decodes the given ASCII bytes into the given output array.
+	 * 
+	 * @param input The bytes to be encoded/decoded.
+	 * @param inputOffset The index of the first byte to be encoded/decoded.
+	 * @param length The number of bytes to be encoded/decoded.
+	 * @param output The array to write the encoded/decoded bytes to.
+	 * @param outputOffset The index of the first encoded/decoded byte in the output array.
+	 * @return The number of bytes written to the output array.
+	 */
+	private int process(final byte[] input, final int inputOffset, final int length, final byte[] output, final int outputOffset) {
+		Validate.notNull(input);
+		Validate.notNull(output);
+		Validate.isTrue((inputOffset >= 0) && (length >= 0) && (inputOffset <= input.length - length));
+		Validate.isTrue((outputOffset >= 0) && (outputOffset <= output.length - length));
+		
+		this.reset();
+		
+		int count = 0;
+		
+		for (int i = inputOffset; i < inputOffset + length; i++) {
+			final byte inputByte = input[i];
 			
-			if (rotor2IsNotchPosition) {
-				this.m_rotor2.incPosition();
-				this.m_rotor3.incPosition();
+			// Skip all input bytes that are not an element of the Latin alphabet.
+			if ((inputByte >= 'A') && (inputByte <= 'Z')) {
+				output[outputOffset + count++] = (byte) this.process((char) inputByte);
 			}
+		}
+		
+		return count;
+	}
+	
+	/**
+	 * Encodes/decodes the remaining ASCII bytes of the given input buffer into the given output buffer.
+	 * 
+	 * @param input The bytes to be encoded/decoded.
+	 * @param output The buffer to write the encoded/decoded bytes to.
+	 * @return The number of bytes written to the output buffer.
+	 */
+	private int process(final ByteBuffer input, final ByteBuffer output) {
+		Validate.notNull(input);
+		Validate.notNull(output);
+		Validate.isTrue(input.remaining() <= output.remaining());
+		
+		if (input.hasArray() && output.hasArray()) {
+			final int count = this.process(input.array(), (input.arrayOffset() + input.position()), input.remaining(), 
+					output.array(), (output.arrayOffset() + output.position()));
 			
-			// STEP 3: Perform the actual encryption/decryption. 
-			final char forwardPlugboard = this.m_plugboard.getForward(inputCharacter);
-			
-			final char forwardRotor1 = this.m_rotor1.getForward(forwardPlugboard);
-			final char forwardRotor2 = this.m_rotor2.getForward(forwardRotor1);
-			final char forwardRotor3 = this.m_rotor3.getForward(forwardRotor2);
-			final char forwardRotor4 = this.m_rotor4.getForward(forwardRotor3);
+			input.position(input.limit());
+			output.position(output.position() + count);
+			return count;
+		}
+		
+		this.reset();
+		
+		final int outputPosition = output.position();
+		int count = 0;
+		
+		for (int i = input.position(); i < input.limit(); i++) {
+			final byte inputByte = input.get(i);
 			
-			final char reflector = this.m_reflector.getForward(forwardRotor4);
+			// Skip all input bytes that are not an element of the Latin alphabet.
+			if ((inputByte >= 'A') && (inputByte <= 'Z')) {
+				output.put(outputPosition + count++, (byte) this.process((char) inputByte));
+			}
+		}
+		
+		input.position(input.limit());
+		output.position(outputPosition + count);
+		return count;
+	}
+	
+	/**
+	 * Encodes/decodes the remaining characters of the given input buffer into the given output buffer.
+	 * 
+	 * @param input The characters to be encoded/decoded.
+	 * @param output The buffer to write the encoded/decoded characters to.
+	 * @return The number of characters written to the output buffer.
+	 */
+	private int process(final CharBuffer input, final CharBuffer output) {
+		Validate.notNull(input);
+		Validate.notNull(output);
+		Validate.isTrue(input.remaining() <= output.remaining());
+		
+		if (input.hasArray() && output.hasArray()) {
+			final int count = this.process(input.array(), (input.arrayOffset() + input.position()), input.remaining(), 
+					output.array(), (output.arrayOffset() + output.position()));
 			
-			final char reverseRotor4 = this.m_rotor4.getReverse(reflector);
-			final char reverseRotor3 = this.m_rotor3.getReverse(reverseRotor4);
-			final char reverseRotor2 = this.m_rotor2.getReverse(reverseRotor3);
-			final char reverseRotor1 = this.m_rotor1.getReverse(reverseRotor2);
+			input.position(input.limit());
+			output.position(output.position() + count);
+			return count;
+		}
+		
+		this.reset();
+		
+		final int outputPosition = output.position();
+		int count = 0;
+		
+		for (int i = input.position(); i < input.limit(); i++) {
+			final char inputCharacter = input.get(i);
 			
-			final char reversePlugboard = this.m_plugboard.getReverse(reverseRotor1);
+			// Skip all input characters that are not an element of the Latin alphabet.
+			if (isInRange(inputCharacter)) {
+				output.put(outputPosition + count++, this.process(inputCharacter));
+			}
+		}
+		
+		input.position(input.limit());
+		output.position(outputPosition + count);
+		return count;
+	}
+	
+	/**
+	 * Performs the stepping mechanism and encodes/decodes the given character. The given character must be an element
+	 * of the Latin alphabet.
+	 * 
+	 * @param inputCharacter The character to be encoded/decoded.
+	 * @return The encoded/decoded character.
+	 */
+	private char process(final char inputCharacter) {
+		final boolean tracing = this.m_traced;
+		
+		if ((this.m_engine != null) && !tracing) {
+			return this.m_engine.process(inputCharacter);
+		}
+		
+		if (tracing) {
+			LOGGER.debug("INPUT       : {}", inputCharacter);
+		}
+		
+		// STEP 1: Perform the stepping mechanism.
+		final boolean rotor1IsNotchPosition = this.m_rotor1.isNotchPosition();
+		final boolean rotor2IsNotchPosition = this.m_rotor2.isNotchPosition();
+		
+		this.m_rotor1.incPosition();
+		
+		if (rotor1IsNotchPosition) {
+			this.m_rotor2.incPosition();
+		}
+		
+		if (rotor2IsNotchPosition) {
+			this.m_rotor2.incPosition();
+			this.m_rotor3.incPosition();
+		}
+		
+		// STEP 2: Perform the actual encryption/decryption. 
+		final char forwardPlugboard = this.m_plugboard.getForward(inputCharacter);
+		
+		final char forwardRotor1 = this.m_rotor1.getForward(forwardPlugboard);
+		final char forwardRotor2 = this.m_rotor2.getForward(forwardRotor1);
+		final char forwardRotor3 = this.m_rotor3.getForward(forwardRotor2);
+		final char forwardRotor4 = this.m_rotor4.getForward(forwardRotor3);
+		
+		final char reflector = this.m_reflector.getForward(forwardRotor4);
+		
+		final char reverseRotor4 = this.m_rotor4.getReverse(reflector);
+		final char reverseRotor3 = this.m_rotor3.getReverse(reverseRotor4);
+		final char reverseRotor2 = this.m_rotor2.getReverse(reverseRotor3);
+		final char reverseRotor1 = this.m_rotor1.getReverse(reverseRotor2);
+		
+		final char reversePlugboard = this.m_plugboard.getReverse(reverseRotor1);
+		
+		if (tracing) {
+			this.trace(this.m_plugboard, inputCharacter, forwardPlugboard);
+			this.trace(this.m_rotor1, forwardPlugboard, forwardRotor1);
+			this.trace(this.m_rotor2, forwardRotor1, forwardRotor2);
+			this.trace(this.m_rotor3, forwardRotor2, forwardRotor3);
+			this.trace(this.m_rotor4, forwardRotor3, forwardRotor4);
+			this.trace(this.m_reflector, forwardRotor4, reflector);
+			this.trace(this.m_rotor4, reflector, reverseRotor4);
+			this.trace(this.m_rotor3, reverseRotor4, reverseRotor3);
+			this.trace(this.m_rotor2, reverseRotor3, reverseRotor2);
+			this.trace(this.m_rotor1, reverseRotor2, reverseRotor1);
+			this.trace(this.m_plugboard, reverseRotor1, reversePlugboard);
 			
 			LOGGER.debug("OUTPUT      : {}", reversePlugboard);
-			
-			result.append(reversePlugboard);
 		}
-
-		return StringTools.format(result.toString(), this.m_groupLength);
+		
+		return reversePlugboard;
+	}
+	
+	/**
+	 * Traces the passage of a signal through the given plugboard.
+	 * 
+	 * @param plugboard The plugboard that has been passed.
+	 * @param inputCharacter The input character.
+	 * @param outputCharacter The output character.
+	 */
+	private void trace(final Plugboard plugboard, final char inputCharacter, final char outputCharacter) {
+		LOGGER.debug("{}: {} > {} (-/-)", String.format("%-12s", plugboard.getName()), inputCharacter, outputCharacter);
+	}
+	
+	/**
+	 * Traces the passage of a signal through the given rotor.
+	 * 
+	 * @param rotor The rotor that has been passed.
+	 * @param inputCharacter The input character.
+	 * @param outputCharacter The output character.
+	 */
+	private void trace(final Rotor rotor, final char inputCharacter, final char outputCharacter) {
+		LOGGER.debug("{}: {} > {} ({}/{})", String.format("%-12s", rotor.getName()), inputCharacter, outputCharacter, rotor.getPositionRing(), rotor.getPosition());
+	}
+	
+	/**
+	 * Traces the passage of a signal through the given reflector.
+	 * 
+	 * @param reflector The reflector that has been passed.
+	 * @param inputCharacter The input character.
+	 * @param outputCharacter The output character.
+	 */
+	private void trace(final Reflector reflector, final char inputCharacter, final char outputCharacter) {
+		LOGGER.debug("{}: {} > {} (-/{})", String.format("%-12s", reflector.getName()), inputCharacter, outputCharacter, reflector.getPosition());
 	}
 	
 }
@@ -0,0 +1,444 @@
+package de.mononoize.enigma.machine;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * <p>A bounded cache of {@code EnigmaSpec}s, indexed by their {@code PackedKey}.</p>
+ *
+ * <p>Services that process many messages under the same daily key only pay for building and compiling the machine
+ * once. Lookups of cached keys are lock-free and do not write to shared state: the clock only advances on a miss, and
+ * a hit merely copies the current tick into its entry if the entry has not been accessed since the last miss. When a
+ * miss exceeds the maximum size, an entry is evicted under a lock. The eviction samples a fixed number of entries and
+ * evicts the least recently used of them, so that its cost does not depend on the size of the cache. Caches of up to
+ * {@value #SAMPLE_SIZE} entries are scanned completely and therefore evict the exact least recently used entry.</p>
+ *
+ * <p>All specs of a cache share the output group length of the cache, since it is not part of the key.</p>
+ *
+ * @author mononoize
+ */
+public final class EnigmaCache {
+
+	/**
+	 * The {@code EnigmaCache} builder.
+	 */
+	public static class Builder implements org.apache.commons.lang3.builder.Builder<EnigmaCache> {
+
+		private int m_maximumSize = 256;
+
+		private int m_groupLength = 5;
+
+		public Builder() {
+		}
+
+		public Builder setMaximumSize(final int maximumSize) {
+			this.m_maximumSize = maximumSize;
+			return this;
+		}
+
+		public Builder setGroupLength(final int groupLength) {
+			this.m_groupLength = groupLength;
+			return this;
+		}
+
+		@Override
+		public EnigmaCache build() {
+			Validate.inclusiveBetween(1, Integer.MAX_VALUE, this.m_maximumSize);
+			Validate.inclusiveBetween(0, Integer.MAX_VALUE, this.m_groupLength);
+
+			return new EnigmaCache(this);
+		}
+
+	}
+
+	/**
+	 * A snapshot of the statistics of a cache.
+	 */
+	public static final class Stats {
+
+		/**
+		 * The number of lookups that found a cached spec.
+		 */
+		private final long m_hitCount;
+
+		/**
+		 * The number of lookups that had to build a spec.
+		 */
+		private final long m_missCount;
+
+		/**
+		 * The number of evicted specs.
+		 */
+		private final long m_evictionCount;
+
+		/**
+		 * Constructs a new {@code Stats}.
+		 *
+		 * @param hitCount The number of lookups that found a cached spec.
+		 * @param missCount The number of lookups that had to build a spec.
+		 * @param evictionCount The number of evicted specs.
+		 */
+		private Stats(final long hitCount, final long missCount, final long evictionCount) {
+			this.m_hitCount = hitCount;
+			this.m_missCount = missCount;
+			this.m_evictionCount = evictionCount;
+		}
+
+		/**
+		 * Returns the number of lookups that found a cached spec.
+		 *
+		 * @return The number of lookups that found a cached spec.
+		 */
+		public long getHitCount() {
+			return this.m_hitCount;
+		}
+
+		/**
+		 * Returns the number of lookups that had to build a spec.
+		 *
+		 * @return The number of lookups that had to build a spec.
+		 */
+		public long getMissCount() {
+			return this.m_missCount;
+		}
+
+		/**
+		 * Returns the number of evicted specs. Invalidated specs are not counted.
+		 *
+		 * @return The number of evicted specs.
+		 */
+		public long getEvictionCount() {
+			return this.m_evictionCount;
+		}
+
+		/**
+		 * Returns the ratio of hits to lookups, or 0 if there has not been any lookup yet.
+		 *
+		 * @return The ratio of hits to lookups.
+		 */
+		public double getHitRate() {
+			final long lookups = this.m_hitCount + this.m_missCount;
+
+			return (lookups == 0) ? 0.0 : ((double) this.m_hitCount / lookups);
+		}
+
+		@Override
+		public String toString() {
+			return String.format("hits=%d misses=%d evictions=%d hitRate=%.3f", this.m_hitCount, this.m_missCount,
+					this.m_evictionCount, this.getHitRate());
+		}
+
+	}
+
+	/**
+	 * A cached spec.
+	 */
+	private static final class Entry {
+
+		/**
+		 * The key.
+		 */
+		private final PackedKey m_key;
+
+		/**
+		 * The spec.
+		 */
+		private final EnigmaSpec m_spec;
+
+		/**
+		 * The tick of the last access.
+		 */
+		private volatile long m_tick;
+
+		/**
+		 * The index of the entry in the eviction slots or -1 if it does not occupy a slot. Guarded by the eviction
+		 * lock.
+		 */
+		private int m_slot = -1;
+
+		/**
+		 * Constructs a new {@code Entry}.
+		 *
+		 * @param key The key.
+		 * @param spec The spec.
+		 * @param tick The tick of the creation.
+		 */
+		private Entry(final PackedKey key, final EnigmaSpec spec, final long tick) {
+			this.m_key = key;
+			this.m_spec = spec;
+			this.m_tick = tick;
+		}
+
+	}
+
+	/**
+	 * The number of entries that are sampled per eviction.
+	 */
+	static final int SAMPLE_SIZE = 16;
+
+	/**
+	 * The cached specs.
+	 */
+	private final ConcurrentMap<PackedKey, Entry> m_entries = new ConcurrentHashMap<>();
+
+	/**
+	 * The clock that orders the accesses. It advances on every miss.
+	 */
+	private final AtomicLong m_clock = new AtomicLong();
+
+	/**
+	 * The lock that serializes evictions and guards the eviction slots.
+	 */
+	private final Object m_evictionLock = new Object();
+
+	/**
+	 * The entries that can be sampled for eviction, densely packed. Entries that have been invalidated in the meantime
+	 * may still occupy a slot and are evicted first.
+	 */
+	private Entry[] m_slots = new Entry[0];
+
+	/**
+	 * The number of occupied eviction slots.
+	 */
+	private int m_slotCount = 0;
+
+	/**
+	 * The number of lookups that found a cached spec.
+	 */
+	private final LongAdder m_hitCount = new LongAdder();
+
+	/**
+	 * The number of lookups that had to build a spec.
+	 */
+	private final LongAdder m_missCount = new LongAdder();
+
+	/**
+	 * The number of evicted specs.
+	 */
+	private final LongAdder m_evictionCount = new LongAdder();
+
+	/**
+	 * The maximum number of cached specs.
+	 */
+	private final int m_maximumSize;
+
+	/**
+	 * The output group length of the specs.
+	 */
+	private final int m_groupLength;
+
+	/**
+	 * Constructs a new {@code EnigmaCache}.
+	 *
+	 * @param builder The builder that provides the setting.
+	 */
+	private EnigmaCache(final Builder builder) {
+		this.m_maximumSize = builder.m_maximumSize;
+		this.m_groupLength = builder.m_groupLength;
+	}
+
+	/**
+	 * Returns the spec of the given key, building it if it is not cached.
+	 *
+	 * @param key The key.
+	 * @return The spec.
+	 */
+	public EnigmaSpec get(final PackedKey key) {
+		Validate.notNull(key);
+
+		Entry entry = this.m_entries.get(key);
+
+		if (entry != null) {
+			this.m_hitCount.increment();
+			touch(entry, this.m_clock.get());
+			return entry.m_spec;
+		}
+
+		final long tick = this.m_clock.incrementAndGet();
+		final boolean[] built = { false };
+
+		entry = this.m_entries.computeIfAbsent(key, k -> {
+			built[0] = true;
+			return new Entry(k, k.toBuilder().setGroupLength(this.m_groupLength).buildSpec(), tick);
+		});
+
+		// Another thread may have built the spec in the meantime.
+		if (built[0]) {
+			this.m_missCount.increment();
+			this.admit(entry);
+		} else {
+			this.m_hitCount.increment();
+			touch(entry, tick);
+		}
+
+		return entry.m_spec;
+	}
+
+	/**
+	 * Records an access of the given entry. The entry is only written if its tick is older, so that frequently used
+	 * entries are not written by every lookup.
+	 *
+	 * @param entry The entry.
+	 * @param tick The current tick.
+	 */
+	private static void touch(final Entry entry, final long tick) {
+		if (entry.m_tick < tick) {
+			entry.m_tick = tick;
+		}
+	}
+
+	/**
+	 * Returns the spec of the setting of the given builder, building it if it is not cached.
+	 *
+	 * @param builder The builder.
+	 * @return The spec.
+	 */
+	public EnigmaSpec get(final Enigma.Builder builder) {
+		return this.get(builder.toKey());
+	}
+
+	/**
+	 * Returns the spec of the given key if it is cached. The statistics are not updated.
+	 *
+	 * @param key The key.
+	 * @return The spec or {@code null} if it is not cached.
+	 */
+	public EnigmaSpec getIfPresent(final PackedKey key) {
+		final Entry entry = this.m_entries.get(key);
+
+		return (entry == null) ? null : entry.m_spec;
+	}
+
+	/**
+	 * Removes the spec of the given key.
+	 *
+	 * @param key The key.
+	 */
+	public void invalidate(final PackedKey key) {
+		final Entry entry = this.m_entries.remove(key);
+
+		if (entry != null) {
+			synchronized (this.m_evictionLock) {
+				this.release(entry);
+			}
+		}
+	}
+
+	/**
+	 * Removes all specs.
+	 */
+	public void invalidateAll() {
+		synchronized (this.m_evictionLock) {
+			this.m_entries.clear();
+
+			for (int i = 0; i < this.m_slotCount; i++) {
+				this.m_slots[i].m_slot = -1;
+				this.m_slots[i] = null;
+			}
+
+			this.m_slotCount = 0;
+		}
+	}
+
+	/**
+	 * Returns the number of cached specs.
+	 *
+	 * @return The number of cached specs.
+	 */
+	public int size() {
+		return this.m_entries.size();
+	}
+
+	/**
+	 * Returns a snapshot of the statistics.
+	 *
+	 * @return A snapshot of the statistics.
+	 */
+	public Stats getStats() {
+		return new Stats(this.m_hitCount.sum(), this.m_missCount.sum(), this.m_evictionCount.sum());
+	}
+
+	/**
+	 * Assigns an eviction slot to the given new entry. If all slots are occupied, the least recently used of the
+	 * sampled entries is evicted and its slot is reused.
+	 *
+	 * @param entry The new entry.
+	 */
+	private void admit(final Entry entry) {
+		synchronized (this.m_evictionLock) {
+			if (this.m_slotCount < this.m_maximumSize) {
+				if (this.m_slotCount == this.m_slots.length) {
+					this.m_slots = Arrays.copyOf(this.m_slots,
+							(int) Math.min(this.m_maximumSize, Math.max(16L, 2L * this.m_slots.length)));
+				}
+
+				entry.m_slot = this.m_slotCount;
+				this.m_slots[this.m_slotCount++] = entry;
+				return;
+			}
+
+			final Entry victim = this.sample();
+
+			if (this.m_entries.remove(victim.m_key, victim)) {
+				this.m_evictionCount.increment();
+			}
+
+			entry.m_slot = victim.m_slot;
+			victim.m_slot = -1;
+			this.m_slots[entry.m_slot] = entry;
+		}
+	}
+
+	/**
+	 * Returns the entry to be evicted, i.e. an entry that has already been invalidated or else the least recently used
+	 * of the sampled entries. All slots must be occupied.
+	 *
+	 * @return The entry to be evicted.
+	 */
+	private Entry sample() {
+		final boolean complete = (this.m_slotCount <= SAMPLE_SIZE);
+		final int samples = complete ? this.m_slotCount : SAMPLE_SIZE;
+		Entry result = null;
+
+		for (int i = 0; i < samples; i++) {
+			final Entry candidate = this.m_slots[complete ? i : ThreadLocalRandom.current().nextInt(this.m_slotCount)];
+
+			if (this.m_entries.get(candidate.m_key) != candidate) {
+				return candidate;
+			}
+
+			if ((result == null) || (candidate.m_tick < result.m_tick)) {
+				result = candidate;
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Frees the eviction slot of the given entry by moving the last occupied slot into it.
+	 *
+	 * @param entry The entry.
+	 */
+	private void release(final Entry entry) {
+		final int slot = entry.m_slot;
+
+		if (slot < 0) {
+			return;
+		}
+
+		final Entry last = this.m_slots[--this.m_slotCount];
+
+		this.m_slots[slot] = last;
+		last.m_slot = slot;
+		this.m_slots[this.m_slotCount] = null;
+		entry.m_slot = -1;
+	}
+
+}
@@ -0,0 +1,520 @@
+package de.mononoize.enigma.machine;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.commons.lang3.Validate;
+import org.apache.commons.lang3.builder.EqualsBuilder;
+import org.apache.commons.lang3.builder.HashCodeBuilder;
+
+/**
+ * <p>Encodes/decodes a stream of messages as a {@link Flow.Processor}.</p>
+ *
+ * <p>Each message carries its key and is routed to one of several workers by the key, so that the messages of a key
+ * are processed and emitted in their order while messages of different keys are processed in parallel. Each worker
+ * runs on the executor and holds its own {@code Enigma}s, built via {@link PackedKey#toBuilder()}, for the keys it has
+ * seen most recently.</p>
+ *
+ * <p>The processor requests messages from upstream only as far as the subscriber has signalled demand, and never more
+ * than the buffer size ahead of the messages it has emitted. A slow subscriber therefore slows down the upstream
+ * instead of filling unbounded buffers. The processor supports a single subscriber. A message that cannot be processed,
+ * e.g. because its payload does not contain any letters, is emitted with its error and its original payload, so that it
+ * does not affect the other messages; only an error of the upstream terminates the stream.</p>
+ *
+ * @author mononoize
+ */
+public final class EnigmaProcessor implements Flow.Processor<EnigmaProcessor.Message, EnigmaProcessor.Message> {
+
+	/**
+	 * The {@code EnigmaProcessor} builder.
+	 */
+	public static class Builder implements org.apache.commons.lang3.builder.Builder<EnigmaProcessor> {
+
+		private int m_workers = Runtime.getRuntime().availableProcessors();
+
+		private Executor m_executor = ForkJoinPool.commonPool();
+
+		private int m_bufferSize = 256;
+
+		private int m_groupLength = 5;
+
+		private int m_machines = 64;
+
+		public Builder() {
+		}
+
+		public Builder setWorkers(final int workers) {
+			this.m_workers = workers;
+			return this;
+		}
+
+		public Builder setExecutor(final Executor executor) {
+			this.m_executor = executor;
+			return this;
+		}
+
+		public Builder setBufferSize(final int bufferSize) {
+			this.m_bufferSize = bufferSize;
+			return this;
+		}
+
+		public Builder setGroupLength(final int groupLength) {
+			this.m_groupLength = groupLength;
+			return this;
+		}
+
+		public Builder setMachines(final int machines) {
+			this.m_machines = machines;
+			return this;
+		}
+
+		@Override
+		public EnigmaProcessor build() {
+			Validate.inclusiveBetween(1, Integer.MAX_VALUE, this.m_workers);
+			Validate.notNull(this.m_executor);
+			Validate.inclusiveBetween(1, Integer.MAX_VALUE, this.m_bufferSize);
+			Validate.inclusiveBetween(0, Integer.MAX_VALUE, this.m_groupLength);
+			Validate.inclusiveBetween(1, Integer.MAX_VALUE, this.m_machines);
+
+			return new EnigmaProcessor(this);
+		}
+
+	}
+
+	/**
+	 * A message and its key. A result that could not be processed carries the error and the original payload.
+	 */
+	public static final class Message {
+
+		/**
+		 * The key.
+		 */
+		private final PackedKey m_key;
+
+		/**
+		 * The payload.
+		 */
+		private final String m_payload;
+
+		/**
+		 * The error or {@code null} if the message has been processed successfully.
+		 */
+		private final RuntimeException m_error;
+
+		/**
+		 * Constructs a new {@code Message}.
+		 *
+		 * @param key The key.
+		 * @param payload The payload.
+		 */
+		public Message(final PackedKey key, final String payload) {
+			this(key, payload, null);
+		}
+
+		/**
+		 * Constructs a new {@code Message}.
+		 *
+		 * @param key The key.
+		 * @param payload The payload.
+		 * @param error The error or {@code null} if the message has been processed successfully.
+		 */
+		private Message(final PackedKey key, final String payload, final RuntimeException error) {
+			Validate.notNull(key);
+			Validate.notNull(payload);
+
+			this.m_key = key;
+			this.m_payload = payload;
+			this.m_error = error;
+		}
+
+		@Override
+		public int hashCode() {
+			return new HashCodeBuilder()
+					.append(this.m_key)
+					.append(this.m_payload)
+					.append(this.m_error)
+					.hashCode();
+		}
+
+		@Override
+		public boolean equals(final Object object) {
+			if (this == object) {
+				return true;
+			}
+
+			if (!(object instanceof Message)) {
+				return false;
+			}
+
+			final Message that = (Message) object;
+
+			return new EqualsBuilder()
+					.append(this.m_key, that.m_key)
+					.append(this.m_payload, that.m_payload)
+					.append(this.m_error, that.m_error)
+					.isEquals();
+		}
+
+		@Override
+		public String toString() {
+			return (this.m_error == null) ? (this.m_key + " " + this.m_payload)
+					: (this.m_key + " " + this.m_payload + " (" + this.m_error.getMessage() + ")");
+		}
+
+		/**
+		 * Returns the key.
+		 *
+		 * @return The key.
+		 */
+		public PackedKey getKey() {
+			return this.m_key;
+		}
+
+		/**
+		 * Returns the payload. The payload of a result that could not be processed is the original payload.
+		 *
+		 * @return The payload.
+		 */
+		public String getPayload() {
+			return this.m_payload;
+		}
+
+		/**
+		 * Returns the error of a result that could not be processed.
+		 *
+		 * @return The error or {@code null} if the message has been processed successfully.
+		 */
+		public RuntimeException getError() {
+			return this.m_error;
+		}
+
+	}
+
+	/**
+	 * Processes the messages of a subset of the keys, one message at a time.
+	 */
+	private final class Worker implements Runnable {
+
+		/**
+		 * The messages to be processed.
+		 */
+		private final Queue<Message> m_mailbox = new ConcurrentLinkedQueue<>();
+
+		/**
+		 * The number of messages in the mailbox. The worker is scheduled whenever it becomes non-zero.
+		 */
+		private final AtomicInteger m_count = new AtomicInteger();
+
+		/**
+		 * The machines of the most recently seen keys, in access order.
+		 */
+		private final Map<PackedKey, Enigma> m_machines = new LinkedHashMap<>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(final Map.Entry<PackedKey, Enigma> eldest) {
+				return (this.size() > EnigmaProcessor.this.m_machineCount);
+			}
+
+		};
+
+		/**
+		 * Adds the given message to the mailbox.
+		 *
+		 * @param message The message.
+		 */
+		private void offer(final Message message) {
+			this.m_mailbox.offer(message);
+
+			if (this.m_count.getAndIncrement() == 0) {
+				EnigmaProcessor.this.m_executor.execute(this);
+			}
+		}
+
+		@Override
+		public void run() {
+			do {
+				final Message message = this.m_mailbox.poll();
+				Message result;
+
+				try {
+					final Enigma enigma = this.m_machines.computeIfAbsent(message.m_key,
+							key -> key.toBuilder().setGroupLength(EnigmaProcessor.this.m_groupLength).build());
+
+					result = new Message(message.m_key, enigma.encode(message.m_payload));
+				} catch (final RuntimeException e) {
+					result = new Message(message.m_key, message.m_payload, e);
+				}
+
+				EnigmaProcessor.this.m_results.offer(result);
+
+				EnigmaProcessor.this.drain();
+			} while (this.m_count.decrementAndGet() != 0);
+		}
+
+	}
+
+	/**
+	 * The subscription of the subscriber.
+	 */
+	private final class Subscription implements Flow.Subscription {
+
+		@Override
+		public void request(final long n) {
+			if (n <= 0) {
+				EnigmaProcessor.this.m_error.compareAndSet(null,
+						new IllegalArgumentException("The demand must be positive: " + n));
+			} else {
+				EnigmaProcessor.this.m_requested.accumulateAndGet(n, (a, b) -> ((a + b) < 0) ? Long.MAX_VALUE : (a + b));
+			}
+
+			EnigmaProcessor.this.drain();
+		}
+
+		@Override
+		public void cancel() {
+			EnigmaProcessor.this.m_cancelled = true;
+			EnigmaProcessor.this.drain();
+		}
+
+	}
+
+	/**
+	 * The workers.
+	 */
+	private final Worker[] m_workers;
+
+	/**
+	 * The executor of the workers.
+	 */
+	private final Executor m_executor;
+
+	/**
+	 * The maximum number of messages that are requested from upstream but not emitted yet.
+	 */
+	private final int m_bufferSize;
+
+	/**
+	 * The output group length.
+	 */
+	private final int m_groupLength;
+
+	/**
+	 * The maximum number of machines per worker.
+	 */
+	private final int m_machineCount;
+
+	/**
+	 * The processed messages that have not been emitted yet.
+	 */
+	private final Queue<Message> m_results = new ConcurrentLinkedQueue<>();
+
+	/**
+	 * The subscription of the upstream.
+	 */
+	private final AtomicReference<Flow.Subscription> m_upstream = new AtomicReference<>();
+
+	/**
+	 * The subscriber.
+	 */
+	private final AtomicReference<Flow.Subscriber<? super Message>> m_subscriber = new AtomicReference<>();
+
+	/**
+	 * The number of messages the subscriber has requested in total.
+	 */
+	private final AtomicLong m_requested = new AtomicLong();
+
+	/**
+	 * The number of messages received from upstream.
+	 */
+	private final AtomicLong m_received = new AtomicLong();
+
+	/**
+	 * The first error, either of the upstream or of an invalid demand.
+	 */
+	private final AtomicReference<Throwable> m_error = new AtomicReference<>();
+
+	/**
+	 * The number of pending calls of {@link #drain()}. Only the call that raises it from zero emits.
+	 */
+	private final AtomicInteger m_drainCount = new AtomicInteger();
+
+	/**
+	 * {@code True} if the upstream has completed.
+	 */
+	private volatile boolean m_completed = false;
+
+	/**
+	 * {@code True} if the subscriber has cancelled.
+	 */
+	private volatile boolean m_cancelled = false;
+
+	/**
+	 * {@code True} if a terminal signal has been passed to the subscriber. Only accessed by the draining thread.
+	 */
+	private boolean m_terminated = false;
+
+	/**
+	 * The number of emitted messages. Only accessed by the draining thread.
+	 */
+	private long m_emitted = 0;
+
+	/**
+	 * The number of messages requested from upstream. Only accessed by the draining thread.
+	 */
+	private long m_upstreamRequested = 0;
+
+	/**
+	 * Constructs a new {@code EnigmaProcessor}.
+	 *
+	 * @param builder The builder that provides the setting.
+	 */
+	private EnigmaProcessor(final Builder builder) {
+		this.m_executor = builder.m_executor;
+		this.m_bufferSize = builder.m_bufferSize;
+		this.m_groupLength = builder.m_groupLength;
+		this.m_machineCount = builder.m_machines;
+		this.m_workers = new Worker[builder.m_workers];
+
+		for (int i = 0; i < this.m_workers.length; i++) {
+			this.m_workers[i] = new Worker();
+		}
+	}
+
+	@Override
+	public void subscribe(final Flow.Subscriber<? super Message> subscriber) {
+		Validate.notNull(subscriber);
+
+		if (!this.m_subscriber.compareAndSet(null, subscriber)) {
+			subscriber.onSubscribe(new Flow.Subscription() {
+
+				@Override
+				public void request(final long n) {
+				}
+
+				@Override
+				public void cancel() {
+				}
+
+			});
+			subscriber.onError(new IllegalStateException("The processor supports a single subscriber."));
+			return;
+		}
+
+		subscriber.onSubscribe(new Subscription());
+		this.drain();
+	}
+
+	@Override
+	public void onSubscribe(final Flow.Subscription subscription) {
+		Validate.notNull(subscription);
+
+		if (!this.m_upstream.compareAndSet(null, subscription)) {
+			subscription.cancel();
+			return;
+		}
+
+		this.drain();
+	}
+
+	@Override
+	public void onNext(final Message message) {
+		Validate.notNull(message);
+
+		this.m_received.incrementAndGet();
+		this.m_workers[Math.floorMod(message.m_key.hashCode(), this.m_workers.length)].offer(message);
+	}
+
+	@Override
+	public void onError(final Throwable throwable) {
+		Validate.notNull(throwable);
+
+		this.m_error.compareAndSet(null, throwable);
+		this.drain();
+	}
+
+	@Override
+	public void onComplete() {
+		this.m_completed = true;
+		this.drain();
+	}
+
+	/**
+	 * Emits the processed messages as far as the subscriber has demand, requests further messages from upstream and
+	 * passes terminal signals. Concurrent calls are serialized: the thread that is already draining loops once more.
+	 */
+	private void drain() {
+		if (this.m_drainCount.getAndIncrement() != 0) {
+			return;
+		}
+
+		int missed = 1;
+
+		do {
+			final Flow.Subscriber<? super Message> subscriber = this.m_subscriber.get();
+
+			if ((subscriber != null) && !this.m_terminated) {
+				this.drain(subscriber);
+			}
+
+			missed = this.m_drainCount.addAndGet(-missed);
+		} while (missed != 0);
+	}
+
+	/**
+	 * Performs a single pass of {@link #drain()}.
+	 *
+	 * @param subscriber The subscriber.
+	 */
+	private void drain(final Flow.Subscriber<? super Message> subscriber) {
+		final Flow.Subscription upstream = this.m_upstream.get();
+
+		if (this.m_cancelled || (this.m_error.get() != null)) {
+			this.m_terminated = true;
+			this.m_results.clear();
+
+			if (upstream != null) {
+				upstream.cancel();
+			}
+
+			if (!this.m_cancelled) {
+				subscriber.onError(this.m_error.get());
+			}
+
+			return;
+		}
+
+		final long requested = this.m_requested.get();
+		Message message;
+
+		while ((this.m_emitted < requested) && ((message = this.m_results.poll()) != null)) {
+			subscriber.onNext(message);
+			this.m_emitted++;
+		}
+
+		// The received count is final once the upstream has completed.
+		if (this.m_completed && (this.m_emitted == this.m_received.get())) {
+			this.m_terminated = true;
+			subscriber.onComplete();
+			return;
+		}
+
+		// Keep at most the buffer size of messages in flight, and only as many as the subscriber has requested.
+		final long target = Math.min(requested, this.m_emitted + this.m_bufferSize);
+
+		if ((upstream != null) && (target > this.m_upstreamRequested)) {
+			upstream.request(target - this.m_upstreamRequested);
+			this.m_upstreamRequested = target;
+		}
+	}
+
+}
@@ -0,0 +1,229 @@
+package de.mononoize.enigma.machine;
+
+import static de.mononoize.enigma.tools.CharTools.isInRange;
+
+import java.nio.ByteBuffer;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * <p>A continuous transmission under a single key.</p>
+ *
+ * <p>Unlike {@link Enigma#encode(String)}, which resets the rotors on every call, a session keeps the rotor positions
+ * from one call to the next, so that a long transmission can be processed in any number of pieces. The output is not
+ * grouped, since the groups would not line up across the pieces.</p>
+ *
+ * <p>The complete state of a session is its key with the current rotor positions. {@link #snapshot()} packs it into
+ * {@value #SNAPSHOT_SIZE} bytes, and {@link #restore(byte[])} continues the session from these bytes, e.g. after a
+ * restart of the process, without processing the previous text again. A session is not thread-safe.</p>
+ *
+ * @author mononoize
+ */
+public final class EnigmaSession {
+
+	/**
+	 * The number of bytes of a snapshot.
+	 */
+	public static final int SNAPSHOT_SIZE = 2 * Long.BYTES;
+
+	/**
+	 * The key at the start of the session.
+	 */
+	private final PackedKey m_key;
+
+	/**
+	 * The compiled engine that holds the rotor positions.
+	 */
+	private final CompiledEngine m_engine;
+
+	/**
+	 * The number of key presses since the start of the session.
+	 */
+	private long m_presses = 0;
+
+	/**
+	 * Constructs a new {@code EnigmaSession}.
+	 *
+	 * @param key The key at the start of the session.
+	 */
+	private EnigmaSession(final PackedKey key) {
+		this.m_key = key;
+		this.m_engine = new CompiledEngine(key.toBuilder().buildSpec().getEngine());
+	}
+
+	/**
+	 * Starts a new session with the given key.
+	 *
+	 * @param key The key.
+	 * @return The session.
+	 */
+	public static EnigmaSession open(final PackedKey key) {
+		Validate.notNull(key);
+
+		return new EnigmaSession(key);
+	}
+
+	/**
+	 * Continues the session of the given snapshot.
+	 *
+	 * @param snapshot The snapshot as returned by {@link #snapshot()}.
+	 * @return The session.
+	 */
+	public static EnigmaSession restore(final byte[] snapshot) {
+		Validate.notNull(snapshot);
+		Validate.isTrue(snapshot.length == SNAPSHOT_SIZE, "Invalid snapshot length: %d", snapshot.length);
+
+		final ByteBuffer buffer = ByteBuffer.wrap(snapshot);
+
+		return new EnigmaSession(PackedKey.of(buffer.getLong(), buffer.getLong()));
+	}
+
+	/**
+	 * Returns the key at the start of the session, i.e. at the time the session has been opened or restored.
+	 *
+	 * @return The key at the start of the session.
+	 */
+	public PackedKey getInitialKey() {
+		return this.m_key;
+	}
+
+	/**
+	 * Returns the key with the current rotor positions.
+	 *
+	 * @return The key with the current rotor positions.
+	 */
+	public PackedKey toKey() {
+		return this.m_key.withPositions(this.m_engine.getPosition());
+	}
+
+	/**
+	 * Returns the number of key presses since the session has been opened or restored.
+	 *
+	 * @return The number of key presses.
+	 */
+	public long getPressCount() {
+		return this.m_presses;
+	}
+
+	/**
+	 * Returns a snapshot of the current state, i.e. the key with the current rotor positions as {@value #SNAPSHOT_SIZE}
+	 * bytes.
+	 *
+	 * @return The snapshot.
+	 */
+	public byte[] snapshot() {
+		final PackedKey key = this.toKey();
+
+		return ByteBuffer.allocate(SNAPSHOT_SIZE).putLong(key.getSetting()).putLong(key.getSteckers()).array();
+	}
+
+	/**
+	 * Encodes the given text, continuing from the current rotor positions. Characters that are not an element of the
+	 * Latin alphabet are skipped.
+	 *
+	 * @param text The text to be encoded.
+	 * @return The encoded letters.
+	 */
+	public String encode(final String text) {
+		return this.process(text);
+	}
+
+	/**
+	 * Decodes the given text, continuing from the current rotor positions. Characters that are not an element of the
+	 * Latin alphabet are skipped.
+	 *
+	 * @param text The text to be decoded.
+	 * @return The decoded letters.
+	 */
+	public String decode(final String text) {
+		return this.process(text);
+	}
+
+	/**
+	 * Encodes the given ASCII bytes into the given output array, continuing from the current rotor positions. Bytes
+	 * that are not an element of the Latin alphabet are skipped. The output array must provide room for
+	 * {@code length} bytes starting at {@code outputOffset}.
+	 *
+	 * @param input The bytes to be encoded.
+	 * @param inputOffset The index of the first byte to be encoded.
+	 * @param length The number of bytes to be encoded.
+	 * @param output The array to write the encoded bytes to.
+	 * @param outputOffset The index of the first encoded byte in the output array.
+	 * @return The number of bytes written to the output array.
+	 */
+	public int encode(final byte[] input, final int inputOffset, final int length, final byte[] output, final int outputOffset) {
+		return this.process(input, inputOffset, length, output, outputOffset);
+	}
+
+	/**
+	 * Decodes the given ASCII bytes into the given output array, continuing from the current rotor positions. Bytes
+	 * that are not an element of the Latin alphabet are skipped. The output array must provide room for
+	 * {@code length} bytes starting at {@code outputOffset}.
+	 *
+	 * @param input The bytes to be decoded.
+	 * @param inputOffset The index of the first byte to be decoded.
+	 * @param length The number of bytes to be decoded.
+	 * @param output The array to write the decoded bytes to.
+	 * @param outputOffset The index of the first decoded byte in the output array.
+	 * @return The number of bytes written to the output array.
+	 */
+	public int decode(final byte[] input, final int inputOffset, final int length, final byte[] output, final int outputOffset) {
+		return this.process(input, inputOffset, length, output, outputOffset);
+	}
+
+	/**
+	 * Encodes/decodes the given text.
+	 *
+	 * @param text The text to be encoded/decoded.
+	 * @return The encoded/decoded letters.
+	 */
+	private String process(final String text) {
+		Validate.notNull(text);
+
+		final StringBuilder result = new StringBuilder(text.length());
+
+		for (int i = 0; i < text.length(); i++) {
+			final char inputCharacter = text.charAt(i);
+
+			// Skip all input characters that are not an element of the Latin alphabet.
+			if (isInRange(inputCharacter)) {
+				result.append(this.m_engine.process(inputCharacter));
+			}
+		}
+
+		this.m_presses += result.length();
+		return result.toString();
+	}
+
+	/**
+	 * Encodes/decodes the given ASCII bytes into the given output array.
+	 *
+	 * @param input The bytes to be encoded/decoded.
+	 * @param inputOffset The index of the first byte to be encoded/decoded.
+	 * @param length The number of bytes to be encoded/decoded.
+	 * @param output The array to write the encoded/decoded bytes to.
+	 * @param outputOffset The index of the first encoded/decoded byte in the output array.
+	 * @return The number of bytes written to the output array.
+	 */
+	private int process(final byte[] input, final int inputOffset, final int length, final byte[] output, final int outputOffset) {
+		Validate.notNull(input);
+		Validate.notNull(output);
+		Validate.isTrue((inputOffset >= 0) && (length >= 0) && (inputOffset <= input.length - length));
+		Validate.isTrue((outputOffset >= 0) && (outputOffset <= output.length - length));
+
+		int count = 0;
+
+		for (int i = inputOffset; i < inputOffset + length; i++) {
+			final byte inputByte = input[i];
+
+			// Skip all input bytes that are not an element of the Latin alphabet.
+			if ((inputByte >= 'A') && (inputByte <= 'Z')) {
+				output[outputOffset + count++] = (byte) (this.m_engine.process(inputByte - 'A') + 'A');
+			}
+		}
+
+		this.m_presses += count;
+		return count;
+	}
+
+}
@@ -0,0 +1,254 @@
+package de.mononoize.enigma.machine;
+
+import static de.mononoize.enigma.tools.CharTools.isInRange;
+
+import java.io.IOException;
+
+import org.apache.commons.lang3.Validate;
+import org.apache.commons.lang3.builder.EqualsBuilder;
+import org.apache.commons.lang3.builder.HashCodeBuilder;
+
+import de.mononoize.enigma.tools.GroupFormatter;
+import de.mononoize.enigma.tools.StringTools;
+
+/**
+ * <p>The immutable setting of an {@code Enigma}.</p>
+ *
+ * <p>An {@code EnigmaSpec} holds the compiled tables of a fully configured machine, but no rotor positions. It can
+ * therefore be shared between any number of threads without locking. Each call of {@link #encode(String)} or
+ * {@link #decode(String)} runs on a private {@code EnigmaState}; callers that process many messages on the same
+ * thread may also keep a state of their own via {@link #newState()}.</p>
+ *
+ * @see Enigma.Builder#buildSpec()
+ * @see Enigma#toSpec()
+ *
+ * @author mononoize
+ */
+public final class EnigmaSpec {
+
+	/**
+	 * The compiled engine that holds the shared tables. It is never used to process characters.
+	 */
+	private final CompiledEngine m_engine;
+
+	/**
+	 * The output group length.
+	 */
+	private final int m_groupLength;
+
+	/**
+	 * The stepping schedule or {@code null} if it has not been computed yet.
+	 */
+	private volatile SteppingSchedule m_schedule;
+
+	/**
+	 * Constructs a new {@code EnigmaSpec}.
+	 *
+	 * @param engine The compiled engine that holds the shared tables.
+	 * @param groupLength The output group length.
+	 */
+	EnigmaSpec(final CompiledEngine engine, final int groupLength) {
+		this.m_engine = engine;
+		this.m_groupLength = groupLength;
+	}
+
+	@Override
+	public int hashCode() {
+		return new HashCodeBuilder()
+				.append(this.m_engine)
+				.append(this.m_groupLength)
+				.hashCode();
+	}
+
+	@Override
+	public boolean equals(final Object object) {
+		if (this == object) {
+			return true;
+		}
+
+		if (!(object instanceof EnigmaSpec)) {
+			return false;
+		}
+
+		final EnigmaSpec that = (EnigmaSpec) object;
+
+		return new EqualsBuilder()
+				.append(this.m_engine, that.m_engine)
+				.append(this.m_groupLength, that.m_groupLength)
+				.isEquals();
+	}
+
+	/**
+	 * Returns the output group length.
+	 *
+	 * @return The output group length.
+	 */
+	public int getGroupLength() {
+		return this.m_groupLength;
+	}
+
+	/**
+	 * Returns a new {@code EnigmaState} at the initial setting.
+	 *
+	 * @return A new {@code EnigmaState}.
+	 */
+	public EnigmaState newState() {
+		return new EnigmaState(this, new CompiledEngine(this.m_engine));
+	}
+
+	/**
+	 * Returns the compiled engine that holds the shared tables. It must not be used to process characters.
+	 *
+	 * @return The compiled engine.
+	 */
+	CompiledEngine getEngine() {
+		return this.m_engine;
+	}
+
+	/**
+	 * Returns the stepping schedule starting at the initial setting. The schedule is computed on first use.
+	 *
+	 * @return The stepping schedule.
+	 */
+	SteppingSchedule getSchedule() {
+		SteppingSchedule result = this.m_schedule;
+
+		if (result == null) {
+			result = new CompiledEngine(this.m_engine).getSchedule();
+			this.m_schedule = result;
+		}
+
+		return result;
+	}
+
+	/**
+	 * Encodes the given text.
+	 *
+	 * @param text The text to be encoded.
+	 * @return The encoded text.
+	 */
+	public String encode(final String text) {
+		return this.process(text);
+	}
+
+	/**
+	 * Decodes the given text.
+	 *
+	 * @param text The text to be decoded.
+	 * @return The decoded text.
+	 */
+	public String decode(final String text) {
+		return this.process(text);
+	}
+
+	/**
+	 * Encodes the given text and writes the grouped letters straight into the given output. Unlike
+	 * {@link #encode(String)}, a text without letters results in no output.
+	 *
+	 * @param text The text to be encoded.
+	 * @param output The output.
+	 * @return The number of encoded letters.
+	 * @throws IOException If the output fails.
+	 */
+	public long encode(final CharSequence text, final Appendable output) throws IOException {
+		return this.process(text, output);
+	}
+
+	/**
+	 * Decodes the given text and writes the grouped letters straight into the given output. Unlike
+	 * {@link #decode(String)}, a text without letters results in no output.
+	 *
+	 * @param text The text to be decoded.
+	 * @param output The output.
+	 * @return The number of decoded letters.
+	 * @throws IOException If the output fails.
+	 */
+	public long decode(final CharSequence text, final Appendable output) throws IOException {
+		return this.process(text, output);
+	}
+
+	/**
+	 * Encodes/decodes the given text.
+	 *
+	 * @param text The text to be encoded/decoded.
+	 * @return The encoded/decoded text.
+	 */
+	private String process(final String text) {
+		Validate.notNull(text);
+
+		// The legacy formatting separates every letter for a group length of 0.
+		if (this.m_groupLength == 0) {
+			return StringTools.format(this.process(text, new StringBuilder(text.length()), null).toString(), 0);
+		}
+
+		final GroupFormatter formatter = new GroupFormatter.Builder().setLength(this.m_groupLength).build();
+		final StringBuilder result = this.process(text,
+				new StringBuilder((int) Math.min(formatter.getFormattedLength(text.length()), Integer.MAX_VALUE - 8)),
+				formatter);
+
+		Validate.isTrue(result.length() > 0, "The text does not contain any letters.");
+		return result.toString();
+	}
+
+	/**
+	 * Encodes/decodes the given text into the given builder.
+	 *
+	 * @param text The text to be encoded/decoded.
+	 * @param result The builder to append the encoded/decoded letters to.
+	 * @param formatter The formatter or {@code null} if the letters shall not be grouped.
+	 * @return The given builder.
+	 */
+	private StringBuilder process(final CharSequence text, final StringBuilder result, final GroupFormatter formatter) {
+		final CompiledEngine engine = new CompiledEngine(this.m_engine);
+
+		for (int i = 0; i < text.length(); i++) {
+			final char inputCharacter = text.charAt(i);
+
+			// Skip all input characters that are not an element of the Latin alphabet.
+			if (isInRange(inputCharacter)) {
+				if (formatter == null) {
+					result.append(engine.process(inputCharacter));
+				} else {
+					formatter.append(engine.process(inputCharacter), result);
+				}
+			}
+		}
+
+		if (formatter != null) {
+			formatter.finish(result);
+		}
+
+		return result;
+	}
+
+	/**
+	 * Encodes/decodes the given text into the given output.
+	 *
+	 * @param text The text to be encoded/decoded.
+	 * @param output The output.
+	 * @return The number of encoded/decoded letters.
+	 * @throws IOException If the output fails.
+	 */
+	private long process(final CharSequence text, final Appendable output) throws IOException {
+		Validate.notNull(text);
+		Validate.notNull(output);
+
+		final CompiledEngine engine = new CompiledEngine(this.m_engine);
+		final GroupFormatter formatter = new GroupFormatter.Builder().setLength(this.m_groupLength).build();
+
+		for (int i = 0; i < text.length(); i++) {
+			final char inputCharacter = text.charAt(i);
+
+			// Skip all input characters that are not an element of the Latin alphabet.
+			if (isInRange(inputCharacter)) {
+				formatter.append(engine.process(inputCharacter), output);
+			}
+		}
+
+		final long result = formatter.getCount();
+
+		formatter.finish(output);
+		return result;
+	}
+
+}
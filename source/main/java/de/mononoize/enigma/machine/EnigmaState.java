@@ -0,0 +1,89 @@
+package de.mononoize.enigma.machine;
+
+import static de.mononoize.enigma.tools.CharTools.isInRange;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * <p>The rotor positions of a machine described by an {@code EnigmaSpec}.</p>
+ *
+ * <p>An {@code EnigmaState} is lightweight and mutable, it must not be shared between threads. All tables are shared
+ * with the {@code EnigmaSpec} it was created by.</p>
+ *
+ * @see EnigmaSpec#newState()
+ *
+ * @author mononoize
+ */
+public final class EnigmaState {
+
+	/**
+	 * The {@code EnigmaSpec}.
+	 */
+	private final EnigmaSpec m_spec;
+
+	/**
+	 * The compiled engine that holds the rotor positions.
+	 */
+	private final CompiledEngine m_engine;
+
+	/**
+	 * Constructs a new {@code EnigmaState}.
+	 *
+	 * @param spec The {@code EnigmaSpec}.
+	 * @param engine The compiled engine that holds the rotor positions.
+	 */
+	EnigmaState(final EnigmaSpec spec, final CompiledEngine engine) {
+		this.m_spec = spec;
+		this.m_engine = engine;
+	}
+
+	/**
+	 * Returns the {@code EnigmaSpec}.
+	 *
+	 * @return The {@code EnigmaSpec}.
+	 */
+	public EnigmaSpec getSpec() {
+		return this.m_spec;
+	}
+
+	/**
+	 * Resets the rotors to the initial setting.
+	 */
+	public void reset() {
+		this.m_engine.reset();
+	}
+
+	/**
+	 * Sets the rotors to the positions they have after the given number of key presses from the initial setting.
+	 *
+	 * @param presses The number of key presses.
+	 */
+	public void seek(final long presses) {
+		Validate.isTrue(presses >= 0);
+
+		this.m_engine.setPosition(this.m_spec.getSchedule().get(presses));
+	}
+
+	/**
+	 * Presses the given key, i.e. performs the stepping mechanism and encodes/decodes the given character. The given
+	 * character must be an element of the Latin alphabet.
+	 *
+	 * @param inputCharacter The character to be encoded/decoded.
+	 * @return The encoded/decoded character.
+	 */
+	public char press(final char inputCharacter) {
+		Validate.isTrue(isInRange(inputCharacter));
+
+		return this.m_engine.process(inputCharacter);
+	}
+
+	/**
+	 * Returns the underlying compiled engine.
+	 *
+	 * @return The underlying compiled engine.
+	 */
+	CompiledEngine getEngine() {
+		return this.m_engine;
+	}
+
+}
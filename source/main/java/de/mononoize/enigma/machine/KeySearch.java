@@ -0,0 +1,614 @@
+package de.mononoize.enigma.machine;
+
+import static de.mononoize.enigma.tools.CharTools.isInRange;
+import static de.mononoize.enigma.tools.CharTools.toChar;
+import static de.mononoize.enigma.tools.CharTools.toIndex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import org.apache.commons.lang3.Validate;
+
+import de.mononoize.enigma.analysis.IndexOfCoincidence;
+import de.mononoize.enigma.analysis.Scorer;
+import de.mononoize.enigma.machine.components.Plugboard;
+import de.mononoize.enigma.machine.components.Reflector;
+import de.mononoize.enigma.machine.components.Rotor;
+
+/**
+ * <p>Searches the key space for the setting of a ciphertext.</p>
+ *
+ * <p>The search enumerates all orders of three distinct rotors, all reflectors and all 26 * 26 * 26 start positions.
+ * The ring positions, the 4th rotor and the plugboard are fixed. Each candidate decryption is scored by its index of
+ * coincidence, or by a custom {@link Scorer}, and the best candidates are kept in a bounded heap.</p>
+ *
+ * <p>The key space is split into one task per rotor order, reflector and position of the 3rd rotor. The tasks run on
+ * a work-stealing {@code ForkJoinPool}, share nothing but the (immutable) ciphertext and the cancellation flag, and
+ * merge their heaps on the way back, so that the search scales with the number of cores.</p>
+ *
+ * @author mononoize
+ */
+public class KeySearch {
+
+	/**
+	 * The {@code KeySearch} builder.
+	 */
+	public static class Builder implements org.apache.commons.lang3.builder.Builder<KeySearch> {
+
+		private String m_ciphertext;
+
+		private List<Rotor> m_rotors = getSteppingRotors();
+
+		private List<Reflector> m_reflectors = Reflector.getReflectors();
+
+		private Rotor m_rotor4 = Rotor.getRotorNeutral();
+
+		private char[] m_rotor4Setting = { 'A', 'A' };
+
+		private char[] m_ringPositions = { 'A', 'A', 'A' };
+
+		private Plugboard m_plugboard = new Plugboard();
+
+		private Scorer m_scorer = null;
+
+		private int m_resultCount = 10;
+
+		private ForkJoinPool m_pool = ForkJoinPool.commonPool();
+
+		public Builder() {
+		}
+
+		public Builder setCiphertext(final String ciphertext) {
+			this.m_ciphertext = ciphertext;
+			return this;
+		}
+
+		public Builder setRotors(final List<Rotor> rotors) {
+			this.m_rotors = rotors;
+			return this;
+		}
+
+		public Builder setReflectors(final List<Reflector> reflectors) {
+			this.m_reflectors = reflectors;
+			return this;
+		}
+
+		public Builder setRotor4(final Rotor rotor, final char ringPosition, final char position) {
+			Validate.inclusiveBetween('A', 'Z', ringPosition);
+			Validate.inclusiveBetween('A', 'Z', position);
+
+			this.m_rotor4 = rotor;
+			this.m_rotor4Setting = new char[] { ringPosition, position };
+			return this;
+		}
+
+		public Builder setRingPositions(final char ringPosition1, final char ringPosition2, final char ringPosition3) {
+			Validate.inclusiveBetween('A', 'Z', ringPosition1);
+			Validate.inclusiveBetween('A', 'Z', ringPosition2);
+			Validate.inclusiveBetween('A', 'Z', ringPosition3);
+
+			this.m_ringPositions = new char[] { ringPosition1, ringPosition2, ringPosition3 };
+			return this;
+		}
+
+		public Builder addCable(final char inputCharacter, final char outputCharacter) {
+			this.m_plugboard.addCable(inputCharacter, outputCharacter);
+			return this;
+		}
+
+		public Builder addCables(final String cables) {
+			this.m_plugboard.addCables(cables);
+			return this;
+		}
+
+		public Builder setScorer(final Scorer scorer) {
+			this.m_scorer = scorer;
+			return this;
+		}
+
+		public Builder setResultCount(final int resultCount) {
+			this.m_resultCount = resultCount;
+			return this;
+		}
+
+		public Builder setPool(final ForkJoinPool pool) {
+			this.m_pool = pool;
+			return this;
+		}
+
+		@Override
+		public KeySearch build() {
+			Validate.notNull(this.m_ciphertext);
+			Validate.notEmpty(this.m_rotors);
+			Validate.isTrue(this.m_rotors.size() >= 3);
+			Validate.notEmpty(this.m_reflectors);
+			Validate.notNull(this.m_rotor4);
+			Validate.inclusiveBetween(1, Integer.MAX_VALUE, this.m_resultCount);
+			Validate.notNull(this.m_pool);
+
+			return new KeySearch(this);
+		}
+
+	}
+
+	/**
+	 * A scored candidate setting.
+	 */
+	public static final class Candidate {
+
+		/**
+		 * The search that found the candidate.
+		 */
+		private final KeySearch m_search;
+
+		/**
+		 * The 1st (right) rotor.
+		 */
+		private final Rotor m_rotor1;
+
+		/**
+		 * The 2nd (middle) rotor.
+		 */
+		private final Rotor m_rotor2;
+
+		/**
+		 * The 3rd (left) rotor.
+		 */
+		private final Rotor m_rotor3;
+
+		/**
+		 * The reflector.
+		 */
+		private final Reflector m_reflector;
+
+		/**
+		 * The packed start positions as defined by {@link SteppingSchedule#pack(int, int, int)}.
+		 */
+		private final int m_position;
+
+		/**
+		 * The score of the decryption.
+		 */
+		private final double m_score;
+
+		/**
+		 * Constructs a new {@code Candidate}.
+		 *
+		 * @param search The search that found the candidate.
+		 * @param rotor1 The 1st (right) rotor.
+		 * @param rotor2 The 2nd (middle) rotor.
+		 * @param rotor3 The 3rd (left) rotor.
+		 * @param reflector The reflector.
+		 * @param position The packed start positions.
+		 * @param score The score of the decryption.
+		 */
+		private Candidate(final KeySearch search, final Rotor rotor1, final Rotor rotor2, final Rotor rotor3,
+				final Reflector reflector, final int position, final double score) {
+			this.m_search = search;
+			this.m_rotor1 = rotor1;
+			this.m_rotor2 = rotor2;
+			this.m_rotor3 = rotor3;
+			this.m_reflector = reflector;
+			this.m_position = position;
+			this.m_score = score;
+		}
+
+		/**
+		 * Returns the 1st (right) rotor.
+		 *
+		 * @return The 1st (right) rotor.
+		 */
+		public Rotor getRotor1() {
+			return this.m_rotor1;
+		}
+
+		/**
+		 * Returns the 2nd (middle) rotor.
+		 *
+		 * @return The 2nd (middle) rotor.
+		 */
+		public Rotor getRotor2() {
+			return this.m_rotor2;
+		}
+
+		/**
+		 * Returns the 3rd (left) rotor.
+		 *
+		 * @return The 3rd (left) rotor.
+		 */
+		public Rotor getRotor3() {
+			return this.m_rotor3;
+		}
+
+		/**
+		 * Returns the reflector.
+		 *
+		 * @return The reflector.
+		 */
+		public Reflector getReflector() {
+			return this.m_reflector;
+		}
+
+		/**
+		 * Returns the start position of the 1st (right) rotor.
+		 *
+		 * @return The start position of the 1st (right) rotor.
+		 */
+		public char getRotor1Position() {
+			return toChar(this.m_position % 26);
+		}
+
+		/**
+		 * Returns the start position of the 2nd (middle) rotor.
+		 *
+		 * @return The start position of the 2nd (middle) rotor.
+		 */
+		public char getRotor2Position() {
+			return toChar((this.m_position / 26) % 26);
+		}
+
+		/**
+		 * Returns the start position of the 3rd (left) rotor.
+		 *
+		 * @return The start position of the 3rd (left) rotor.
+		 */
+		public char getRotor3Position() {
+			return toChar(this.m_position / 676);
+		}
+
+		/**
+		 * Returns the score of the decryption, i.e. its index of coincidence unless a custom {@link Scorer} is used.
+		 *
+		 * @return The score of the decryption.
+		 */
+		public double getScore() {
+			return this.m_score;
+		}
+
+		/**
+		 * Returns an {@code Enigma.Builder} that is configured with the setting of this candidate. The rotors and the
+		 * reflector are shared between all candidates of a search, so use {@link Enigma.Builder#buildSpec()} if more
+		 * than one machine shall be built from them.
+		 *
+		 * @return An {@code Enigma.Builder} that is configured with the setting of this candidate.
+		 */
+		public Enigma.Builder toBuilder() {
+			final KeySearch search = this.m_search;
+			final Enigma.Builder result = new Enigma.Builder() //
+					.setRotor1(this.m_rotor1, search.m_ringPositions[0], this.getRotor1Position()) //
+					.setRotor2(this.m_rotor2, search.m_ringPositions[1], this.getRotor2Position()) //
+					.setRotor3(this.m_rotor3, search.m_ringPositions[2], this.getRotor3Position()) //
+					.setRotor4(search.m_rotor4, search.m_rotor4Setting[0], search.m_rotor4Setting[1]) //
+					.setReflector(this.m_reflector);
+
+			return search.m_cables.isEmpty() ? result : result.addCables(search.m_cables);
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%s %s %s %s %c%c%c %.5f", this.m_reflector.getName(), this.m_rotor3.getName(),
+					this.m_rotor2.getName(), this.m_rotor1.getName(), this.getRotor3Position(), this.getRotor2Position(),
+					this.getRotor1Position(), this.m_score);
+		}
+
+	}
+
+	/**
+	 * Searches a range of tasks. Each task covers one rotor order, one reflector and one position of the 3rd rotor.
+	 */
+	private final class SearchTask extends RecursiveTask<PriorityQueue<Candidate>> {
+
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * The index of the first task (inclusive).
+		 */
+		private final int m_from;
+
+		/**
+		 * The index of the last task (exclusive).
+		 */
+		private final int m_to;
+
+		/**
+		 * Constructs a new {@code SearchTask}.
+		 *
+		 * @param from The index of the first task (inclusive).
+		 * @param to The index of the last task (exclusive).
+		 */
+		private SearchTask(final int from, final int to) {
+			this.m_from = from;
+			this.m_to = to;
+		}
+
+		@Override
+		protected PriorityQueue<Candidate> compute() {
+			if ((this.m_to - this.m_from) > 1) {
+				final int middle = (this.m_from + this.m_to) >>> 1;
+				final SearchTask left = new SearchTask(this.m_from, middle);
+				final SearchTask right = new SearchTask(middle, this.m_to);
+
+				left.fork();
+
+				final PriorityQueue<Candidate> result = right.compute();
+
+				for (final Candidate candidate : left.join()) {
+					KeySearch.this.offer(result, candidate);
+				}
+
+				return result;
+			}
+
+			return KeySearch.this.search(this.m_from);
+		}
+
+	}
+
+	/**
+	 * Orders the candidates by ascending score, so that the head of a heap is the worst candidate.
+	 */
+	private static final Comparator<Candidate> BY_SCORE = Comparator.comparingDouble(candidate -> candidate.m_score);
+
+	/**
+	 * The ciphertext as letter indices.
+	 */
+	private final byte[] m_ciphertext;
+
+	/**
+	 * The rotors to choose from.
+	 */
+	private final List<Rotor> m_rotors;
+
+	/**
+	 * The reflectors to choose from.
+	 */
+	private final List<Reflector> m_reflectors;
+
+	/**
+	 * The orders of the rotors as indices into {@link #m_rotors}: {rotor1, rotor2, rotor3}.
+	 */
+	private final List<int[]> m_orders;
+
+	/**
+	 * The 4th (leftmost) rotor.
+	 */
+	private final Rotor m_rotor4;
+
+	/**
+	 * The ring position and the position of the 4th (leftmost) rotor.
+	 */
+	private final char[] m_rotor4Setting;
+
+	/**
+	 * The ring positions of the 1st, 2nd and 3rd rotor.
+	 */
+	private final char[] m_ringPositions;
+
+	/**
+	 * The cables of the plugboard in the format of {@link Plugboard#addCables(String)}.
+	 */
+	private final String m_cables;
+
+	/**
+	 * The plugboard.
+	 */
+	private final Plugboard m_plugboard;
+
+	/**
+	 * The scorer or {@code null} if the candidates are scored by their index of coincidence.
+	 */
+	private final Scorer m_scorer;
+
+	/**
+	 * The maximum number of candidates to be returned.
+	 */
+	private final int m_resultCount;
+
+	/**
+	 * The pool to run the search on.
+	 */
+	private final ForkJoinPool m_pool;
+
+	/**
+	 * {@code True} if the search has been cancelled.
+	 */
+	private volatile boolean m_cancelled = false;
+
+	/**
+	 * Constructs a new {@code KeySearch}.
+	 *
+	 * @param builder The builder that provides the setting.
+	 */
+	private KeySearch(final Builder builder) {
+		final String ciphertext = builder.m_ciphertext;
+		final byte[] letters = new byte[ciphertext.length()];
+		int count = 0;
+
+		// Skip all input characters that are not an element of the Latin alphabet.
+		for (int i = 0; i < ciphertext.length(); i++) {
+			final char inputCharacter = ciphertext.charAt(i);
+
+			if (isInRange(inputCharacter)) {
+				letters[count++] = (byte) toIndex(inputCharacter);
+			}
+		}
+
+		this.m_ciphertext = Arrays.copyOf(letters, count);
+		this.m_rotors = new ArrayList<>(builder.m_rotors);
+		this.m_reflectors = new ArrayList<>(builder.m_reflectors);
+		this.m_orders = new ArrayList<>();
+		this.m_rotor4 = builder.m_rotor4;
+		this.m_rotor4Setting = builder.m_rotor4Setting.clone();
+		this.m_ringPositions = builder.m_ringPositions.clone();
+		this.m_cables = builder.m_plugboard.getCables();
+		this.m_plugboard = this.m_cables.isEmpty() ? new Plugboard() : new Plugboard().addCables(this.m_cables);
+		this.m_scorer = builder.m_scorer;
+		this.m_resultCount = builder.m_resultCount;
+		this.m_pool = builder.m_pool;
+
+		final int size = this.m_rotors.size();
+
+		for (int rotor3 = 0; rotor3 < size; rotor3++) {
+			for (int rotor2 = 0; rotor2 < size; rotor2++) {
+				for (int rotor1 = 0; rotor1 < size; rotor1++) {
+					if ((rotor1 != rotor2) && (rotor1 != rotor3) && (rotor2 != rotor3)) {
+						this.m_orders.add(new int[] { rotor1, rotor2, rotor3 });
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the rotors of {@link Rotor#getRotors()} that step, i.e. that have at least one notch.
+	 *
+	 * @return The rotors of {@link Rotor#getRotors()} that step.
+	 */
+	public static List<Rotor> getSteppingRotors() {
+		final List<Rotor> result = new ArrayList<>();
+
+		for (final Rotor rotor : Rotor.getRotors()) {
+			if (rotor.getNotches().length > 0) {
+				result.add(rotor);
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Returns the number of candidate settings.
+	 *
+	 * @return The number of candidate settings.
+	 */
+	public long getCandidateCount() {
+		return (long) this.m_orders.size() * this.m_reflectors.size() * SteppingSchedule.SIZE;
+	}
+
+	/**
+	 * Runs the search and returns the best candidates in descending order of their score. If the search is cancelled,
+	 * the best candidates found so far are returned.
+	 *
+	 * @return The best candidates in descending order of their score.
+	 */
+	public List<Candidate> search() {
+		final int tasks = this.m_orders.size() * this.m_reflectors.size() * 26;
+		final List<Candidate> result = new ArrayList<>(this.m_pool.invoke(new SearchTask(0, tasks)));
+
+		Collections.sort(result, BY_SCORE.reversed());
+		return result;
+	}
+
+	/**
+	 * Cancels the search. Tasks that have not been started yet are skipped and running tasks stop at the next
+	 * position of the 2nd rotor. A cancelled search cannot be restarted.
+	 */
+	public void cancel() {
+		this.m_cancelled = true;
+	}
+
+	/**
+	 * Returns {@code True} if the search has been cancelled.
+	 *
+	 * @return {@code True} if the search has been cancelled.
+	 */
+	public boolean isCancelled() {
+		return this.m_cancelled;
+	}
+
+	/**
+	 * Searches all positions of the 1st and 2nd rotor for the given task.
+	 *
+	 * @param task The index of the task.
+	 * @return The best candidates of the task.
+	 */
+	private PriorityQueue<Candidate> search(final int task) {
+		final PriorityQueue<Candidate> result = new PriorityQueue<>(this.m_resultCount + 1, BY_SCORE);
+
+		if (this.m_cancelled) {
+			return result;
+		}
+
+		final int p3 = task % 26;
+		final Reflector reflector = this.m_reflectors.get((task / 26) % this.m_reflectors.size());
+		final int[] order = this.m_orders.get(task / (26 * this.m_reflectors.size()));
+		final Rotor rotor1 = this.m_rotors.get(order[0]);
+		final Rotor rotor2 = this.m_rotors.get(order[1]);
+		final Rotor rotor3 = this.m_rotors.get(order[2]);
+
+		final CompiledEngine engine = new CompiledEngine(this.m_plugboard, //
+				rotor1, new char[] { this.m_ringPositions[0], 'A' }, //
+				rotor2, new char[] { this.m_ringPositions[1], 'A' }, //
+				rotor3, new char[] { this.m_ringPositions[2], 'A' }, //
+				this.m_rotor4, this.m_rotor4Setting, //
+				reflector, reflector.getPosition());
+
+		final byte[] ciphertext = this.m_ciphertext;
+		final Scorer scorer = this.m_scorer;
+		final byte[] plaintext = (scorer == null) ? null : new byte[ciphertext.length];
+		final int[] counts = new int[26];
+		double threshold = Double.NEGATIVE_INFINITY;
+
+		for (int p2 = 0; p2 < 26; p2++) {
+			if (this.m_cancelled) {
+				break;
+			}
+
+			for (int p1 = 0; p1 < 26; p1++) {
+				final int position = SteppingSchedule.pack(p1, p2, p3);
+
+				engine.setPosition(position);
+
+				final double score;
+
+				if (scorer == null) {
+					// Count the letters on the fly, so that the decryption does not have to be stored.
+					for (final byte letter : ciphertext) {
+						counts[engine.process(letter)]++;
+					}
+
+					score = IndexOfCoincidence.compute(IndexOfCoincidence.coincidences(counts), ciphertext.length);
+
+					Arrays.fill(counts, 0);
+				} else {
+					for (int i = 0; i < ciphertext.length; i++) {
+						plaintext[i] = (byte) engine.process(ciphertext[i]);
+					}
+
+					score = scorer.score(plaintext, 0, plaintext.length);
+				}
+
+				if (score > threshold) {
+					this.offer(result, new Candidate(this, rotor1, rotor2, rotor3, reflector, position, score));
+
+					if (result.size() == this.m_resultCount) {
+						threshold = result.peek().m_score;
+					}
+				}
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Adds the given candidate to the given heap, removing the worst candidate if the heap exceeds the result count.
+	 *
+	 * @param heap The heap.
+	 * @param candidate The candidate to be added.
+	 */
+	private void offer(final PriorityQueue<Candidate> heap, final Candidate candidate) {
+		heap.add(candidate);
+
+		if (heap.size() > this.m_resultCount) {
+			heap.poll();
+		}
+	}
+
+}
@@ -0,0 +1,384 @@
+package de.mononoize.enigma.machine;
+
+import static de.mononoize.enigma.tools.CharTools.toChar;
+import static de.mononoize.enigma.tools.CharTools.toIndex;
+
+import java.util.List;
+
+import org.apache.commons.lang3.Validate;
+
+import de.mononoize.enigma.machine.components.Plugboard;
+import de.mononoize.enigma.machine.components.Reflector;
+import de.mononoize.enigma.machine.components.Rotor;
+
+/**
+ * <p>The full key of an {@code Enigma} packed into two {@code long}s.</p>
+ *
+ * <p>The setting holds the wheel order, the ring positions, the start positions and the reflector in 64 bits:</p>
+ *
+ * <pre>
+ *  bits  0 - 15  rotor 1, 2, 3, 4      4 bits each, index into {@link Rotor#getRotors()}
+ *  bits 16 - 18  reflector             index into {@link Reflector#getReflectors()}
+ *  bits 19 - 38  ring positions 1 - 4  5 bits each
+ *  bits 39 - 58  positions 1 - 4       5 bits each
+ *  bits 59 - 63  reflector position
+ * </pre>
+ *
+ * <p>The steckers hold the rank of the plugboard among all involutions of 26 letters, which is less than 2^49. The
+ * empty plugboard has rank 0.</p>
+ *
+ * <p>Both values can be used on their own, e.g. as keys of a {@link de.mononoize.enigma.tools.LongPairHashSet}, so
+ * that search frontiers and result caches do not have to hold any objects per key.</p>
+ *
+ * @author mononoize
+ */
+public final class PackedKey {
+
+	/**
+	 * The number of involutions of n letters: I(n) = I(n - 1) + (n - 1) * I(n - 2).
+	 */
+	private static final long[] INVOLUTIONS = new long[27];
+
+	/**
+	 * The names of the rotors of {@link Rotor#getRotors()}.
+	 */
+	private static final String[] ROTOR_NAMES;
+
+	/**
+	 * The names of the reflectors of {@link Reflector#getReflectors()}.
+	 */
+	private static final String[] REFLECTOR_NAMES;
+
+	static {
+		INVOLUTIONS[0] = 1;
+		INVOLUTIONS[1] = 1;
+
+		for (int n = 2; n < INVOLUTIONS.length; n++) {
+			INVOLUTIONS[n] = INVOLUTIONS[n - 1] + ((n - 1) * INVOLUTIONS[n - 2]);
+		}
+
+		final List<Rotor> rotors = Rotor.getRotors();
+		final List<Reflector> reflectors = Reflector.getReflectors();
+
+		ROTOR_NAMES = new String[rotors.size()];
+		REFLECTOR_NAMES = new String[reflectors.size()];
+
+		for (int i = 0; i < ROTOR_NAMES.length; i++) {
+			ROTOR_NAMES[i] = rotors.get(i).getName();
+		}
+
+		for (int i = 0; i < REFLECTOR_NAMES.length; i++) {
+			REFLECTOR_NAMES[i] = reflectors.get(i).getName();
+		}
+	}
+
+	/**
+	 * The packed setting.
+	 */
+	private final long m_setting;
+
+	/**
+	 * The packed steckers.
+	 */
+	private final long m_steckers;
+
+	/**
+	 * Constructs a new {@code PackedKey}.
+	 *
+	 * @param setting The packed setting.
+	 * @param steckers The packed steckers.
+	 */
+	private PackedKey(final long setting, final long steckers) {
+		this.m_setting = setting;
+		this.m_steckers = steckers;
+	}
+
+	/**
+	 * Returns the {@code PackedKey} of the given values.
+	 *
+	 * @param setting The packed setting.
+	 * @param steckers The packed steckers.
+	 * @return The {@code PackedKey}.
+	 */
+	public static PackedKey of(final long setting, final long steckers) {
+		Validate.isTrue((steckers >= 0) && (steckers < INVOLUTIONS[26]), "Invalid steckers: %d", steckers);
+
+		return new PackedKey(setting, steckers);
+	}
+
+	/**
+	 * Returns the {@code PackedKey} of the given text as returned by {@link #toString()}.
+	 *
+	 * @param text The text, the hexadecimal setting and steckers separated by a colon.
+	 * @return The {@code PackedKey}.
+	 */
+	public static PackedKey parse(final String text) {
+		Validate.notNull(text);
+
+		final int separator = text.indexOf(':');
+		Validate.isTrue(separator > 0, "Invalid key: %s", text);
+
+		try {
+			return of(Long.parseUnsignedLong(text.substring(0, separator), 16),
+					Long.parseUnsignedLong(text.substring(separator + 1), 16));
+		} catch (final NumberFormatException e) {
+			throw new IllegalArgumentException("Invalid key: " + text, e);
+		}
+	}
+
+	/**
+	 * Packs the given setting.
+	 *
+	 * @param rotor1 The 1st (right) rotor.
+	 * @param rotor1Setting The ring position and the position of the 1st rotor.
+	 * @param rotor2 The 2nd (middle) rotor.
+	 * @param rotor2Setting The ring position and the position of the 2nd rotor.
+	 * @param rotor3 The 3rd (left) rotor.
+	 * @param rotor3Setting The ring position and the position of the 3rd rotor.
+	 * @param rotor4 The 4th (leftmost) rotor.
+	 * @param rotor4Setting The ring position and the position of the 4th rotor.
+	 * @param reflector The reflector.
+	 * @param reflectorSetting The position of the reflector.
+	 * @param plugboard The plugboard.
+	 * @return The {@code PackedKey}.
+	 */
+	static PackedKey encode(
+			final Rotor rotor1, final char[] rotor1Setting, //
+			final Rotor rotor2, final char[] rotor2Setting, //
+			final Rotor rotor3, final char[] rotor3Setting, //
+			final Rotor rotor4, final char[] rotor4Setting, //
+			final Reflector reflector, final char reflectorSetting, //
+			final Plugboard plugboard) {
+		long setting = 0;
+
+		setting |= (long) index(ROTOR_NAMES, rotor1.getName());
+		setting |= (long) index(ROTOR_NAMES, rotor2.getName()) << 4;
+		setting |= (long) index(ROTOR_NAMES, rotor3.getName()) << 8;
+		setting |= (long) index(ROTOR_NAMES, rotor4.getName()) << 12;
+		setting |= (long) index(REFLECTOR_NAMES, reflector.getName()) << 16;
+		setting |= (long) toIndex(rotor1Setting[0]) << 19;
+		setting |= (long) toIndex(rotor2Setting[0]) << 24;
+		setting |= (long) toIndex(rotor3Setting[0]) << 29;
+		setting |= (long) toIndex(rotor4Setting[0]) << 34;
+		setting |= (long) toIndex(rotor1Setting[1]) << 39;
+		setting |= (long) toIndex(rotor2Setting[1]) << 44;
+		setting |= (long) toIndex(rotor3Setting[1]) << 49;
+		setting |= (long) toIndex(rotor4Setting[1]) << 54;
+		setting |= (long) toIndex(reflectorSetting) << 59;
+
+		return new PackedKey(setting, encodeSteckers(plugboard));
+	}
+
+	/**
+	 * Returns a copy of this key with the positions of the 1st, 2nd and 3rd rotor replaced, i.e. the key of a machine
+	 * that has been stepped to the given positions.
+	 *
+	 * @param position The packed positions as defined by {@link SteppingSchedule#pack(int, int, int)}.
+	 * @return The {@code PackedKey}.
+	 */
+	PackedKey withPositions(final int position) {
+		final long mask = (0x1FL << 39) | (0x1FL << 44) | (0x1FL << 49);
+		long setting = this.m_setting & ~mask;
+
+		setting |= (long) (position % 26) << 39;
+		setting |= (long) ((position / 26) % 26) << 44;
+		setting |= (long) (position / 676) << 49;
+
+		return new PackedKey(setting, this.m_steckers);
+	}
+
+	/**
+	 * Returns the index of the given name.
+	 *
+	 * @param names The names.
+	 * @param name The name to be found.
+	 * @return The index of the given name.
+	 */
+	private static int index(final String[] names, final String name) {
+		for (int i = 0; i < names.length; i++) {
+			if (names[i].equals(name)) {
+				return i;
+			}
+		}
+
+		throw new IllegalArgumentException(String.format("Unknown wheel: %s", name));
+	}
+
+	/**
+	 * Returns the rank of the given plugboard among all involutions of 26 letters.
+	 *
+	 * @param plugboard The plugboard.
+	 * @return The packed steckers.
+	 */
+	public static long encodeSteckers(final Plugboard plugboard) {
+		final char[] mapping = plugboard.getForwardMapping();
+		final boolean[] used = new boolean[26];
+		int remaining = 26;
+		long result = 0;
+
+		for (int letter = 0; letter < 26; letter++) {
+			if (used[letter]) {
+				continue;
+			}
+
+			final int partner = toIndex(mapping[letter]);
+
+			used[letter] = true;
+
+			if (partner == letter) {
+				remaining -= 1;
+				continue;
+			}
+
+			// The partner is the j-th free letter after this one.
+			int j = 0;
+
+			for (int other = letter + 1; other < partner; other++) {
+				j += used[other] ? 0 : 1;
+			}
+
+			result += INVOLUTIONS[remaining - 1] + (j * INVOLUTIONS[remaining - 2]);
+			used[partner] = true;
+			remaining -= 2;
+		}
+
+		return result;
+	}
+
+	/**
+	 * Returns the plugboard of the given rank.
+	 *
+	 * @param steckers The packed steckers.
+	 * @return The plugboard.
+	 */
+	public static Plugboard decodeSteckers(final long steckers) {
+		Validate.isTrue((steckers >= 0) && (steckers < INVOLUTIONS[26]), "Invalid steckers: %d", steckers);
+
+		final Plugboard result = new Plugboard();
+		final boolean[] used = new boolean[26];
+		int remaining = 26;
+		long rank = steckers;
+
+		for (int letter = 0; letter < 26; letter++) {
+			if (used[letter]) {
+				continue;
+			}
+
+			used[letter] = true;
+
+			if (rank < INVOLUTIONS[remaining - 1]) {
+				remaining -= 1;
+				continue;
+			}
+
+			rank -= INVOLUTIONS[remaining - 1];
+
+			int j = (int) (rank / INVOLUTIONS[remaining - 2]);
+			int partner = letter + 1;
+
+			rank %= INVOLUTIONS[remaining - 2];
+
+			// Find the j-th free letter after this one.
+			while (used[partner] || (j-- > 0)) {
+				partner++;
+			}
+
+			used[partner] = true;
+			remaining -= 2;
+			result.addCable(toChar(letter), toChar(partner));
+		}
+
+		return result;
+	}
+
+	@Override
+	public int hashCode() {
+		return (31 * Long.hashCode(this.m_setting)) + Long.hashCode(this.m_steckers);
+	}
+
+	@Override
+	public boolean equals(final Object object) {
+		if (this == object) {
+			return true;
+		}
+
+		if (!(object instanceof PackedKey)) {
+			return false;
+		}
+
+		final PackedKey that = (PackedKey) object;
+
+		return (this.m_setting == that.m_setting) && (this.m_steckers == that.m_steckers);
+	}
+
+	/**
+	 * Returns the packed setting.
+	 *
+	 * @return The packed setting.
+	 */
+	public long getSetting() {
+		return this.m_setting;
+	}
+
+	/**
+	 * Returns the packed steckers.
+	 *
+	 * @return The packed steckers.
+	 */
+	public long getSteckers() {
+		return this.m_steckers;
+	}
+
+	/**
+	 * Returns the 5 bit field at the given shift of the setting as character.
+	 *
+	 * @param shift The shift.
+	 * @return The field as character.
+	 */
+	private char field(final int shift) {
+		return toChar((int) ((this.m_setting >>> shift) & 0x1F));
+	}
+
+	/**
+	 * Returns the rotor at the given shift of the setting.
+	 *
+	 * @param shift The shift.
+	 * @return A new instance of the rotor.
+	 */
+	private Rotor rotor(final int shift) {
+		final int index = (int) ((this.m_setting >>> shift) & 0xF);
+
+		Validate.validIndex(ROTOR_NAMES, index, "Invalid rotor: %d", index);
+
+		return Rotor.getRotors().get(index);
+	}
+
+	/**
+	 * Returns a new {@code Enigma.Builder} that is configured with this key. All components are new instances.
+	 *
+	 * @return A new {@code Enigma.Builder}.
+	 */
+	public Enigma.Builder toBuilder() {
+		final int reflectorIndex = (int) ((this.m_setting >>> 16) & 0x7);
+
+		Validate.validIndex(REFLECTOR_NAMES, reflectorIndex, "Invalid reflector: %d", reflectorIndex);
+
+		final Reflector reflector = Reflector.getReflectors().get(reflectorIndex).setPosition(this.field(59));
+		final Enigma.Builder result = new Enigma.Builder() //
+				.setRotor1(this.rotor(0), this.field(19), this.field(39)) //
+				.setRotor2(this.rotor(4), this.field(24), this.field(44)) //
+				.setRotor3(this.rotor(8), this.field(29), this.field(49)) //
+				.setRotor4(this.rotor(12), this.field(34), this.field(54)) //
+				.setReflector(reflector);
+
+		final String cables = decodeSteckers(this.m_steckers).getCables();
+
+		return cables.isEmpty() ? result : result.addCables(cables);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%016x:%013x", this.m_setting, this.m_steckers);
+	}
+
+}
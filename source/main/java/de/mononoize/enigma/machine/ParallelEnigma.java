@@ -0,0 +1,186 @@
+package de.mononoize.enigma.machine;
+
+import static de.mononoize.enigma.tools.CharTools.isInRange;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import org.apache.commons.lang3.Validate;
+
+import de.mononoize.enigma.tools.StringTools;
+
+/**
+ * <p>Encodes/decodes long texts in parallel.</p>
+ *
+ * <p>The letters of a text are split into chunks. Each chunk is processed on a {@code ForkJoinPool} by its own copy of
+ * the compiled engine, which is set to the start of the chunk via the stepping schedule. The result is identical to
+ * {@link Enigma#encode(String)}.</p>
+ *
+ * @author mononoize
+ */
+public class ParallelEnigma {
+
+	/**
+	 * Encodes/decodes a range of letters.
+	 */
+	private final class ChunkTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * The letters to be encoded/decoded.
+		 */
+		private final char[] m_input;
+
+		/**
+		 * The encoded/decoded letters.
+		 */
+		private final char[] m_output;
+
+		/**
+		 * The index of the first letter (inclusive).
+		 */
+		private final int m_from;
+
+		/**
+		 * The index of the last letter (exclusive).
+		 */
+		private final int m_to;
+
+		/**
+		 * Constructs a new {@code ChunkTask}.
+		 *
+		 * @param input The letters to be encoded/decoded.
+		 * @param output The encoded/decoded letters.
+		 * @param from The index of the first letter (inclusive).
+		 * @param to The index of the last letter (exclusive).
+		 */
+		private ChunkTask(final char[] input, final char[] output, final int from, final int to) {
+			this.m_input = input;
+			this.m_output = output;
+			this.m_from = from;
+			this.m_to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if ((this.m_to - this.m_from) > ParallelEnigma.this.m_chunkLength) {
+				final int middle = (this.m_from + this.m_to) >>> 1;
+
+				invokeAll( //
+						new ChunkTask(this.m_input, this.m_output, this.m_from, middle), //
+						new ChunkTask(this.m_input, this.m_output, middle, this.m_to));
+				return;
+			}
+
+			final CompiledEngine engine = new CompiledEngine(ParallelEnigma.this.m_engine);
+			engine.seek(this.m_from);
+
+			for (int i = this.m_from; i < this.m_to; i++) {
+				this.m_output[i] = engine.process(this.m_input[i]);
+			}
+		}
+
+	}
+
+	/**
+	 * The default number of letters per chunk.
+	 */
+	public static final int DEFAULT_CHUNK_LENGTH = (1 << 16);
+
+	/**
+	 * The compiled engine that holds the shared tables and the stepping schedule.
+	 */
+	private final CompiledEngine m_engine;
+
+	/**
+	 * The output group length.
+	 */
+	private final int m_groupLength;
+
+	/**
+	 * The pool to run the chunks on.
+	 */
+	private final ForkJoinPool m_pool;
+
+	/**
+	 * The maximum number of letters per chunk.
+	 */
+	private final int m_chunkLength;
+
+	/**
+	 * Constructs a new {@code ParallelEnigma} that runs on the common pool using the default chunk length.
+	 *
+	 * @param enigma The {@code Enigma} that provides the setting.
+	 */
+	public ParallelEnigma(final Enigma enigma) {
+		this(enigma, ForkJoinPool.commonPool(), DEFAULT_CHUNK_LENGTH);
+	}
+
+	/**
+	 * Constructs a new {@code ParallelEnigma}.
+	 *
+	 * @param enigma The {@code Enigma} that provides the setting.
+	 * @param pool The pool to run the chunks on.
+	 * @param chunkLength The maximum number of letters per chunk.
+	 */
+	public ParallelEnigma(final Enigma enigma, final ForkJoinPool pool, final int chunkLength) {
+		Validate.notNull(enigma);
+		Validate.notNull(pool);
+		Validate.inclusiveBetween(1, Integer.MAX_VALUE, chunkLength);
+
+		final CompiledEngine engine = enigma.getEngine();
+		engine.getSchedule();
+
+		this.m_engine = new CompiledEngine(engine);
+		this.m_groupLength = enigma.getGroupLength();
+		this.m_pool = pool;
+		this.m_chunkLength = chunkLength;
+	}
+
+	/**
+	 * Encodes the given text.
+	 *
+	 * @param text The text to be encoded.
+	 * @return The encoded text.
+	 */
+	public String encode(final String text) {
+		return this.process(text);
+	}
+
+	/**
+	 * Decodes the given text.
+	 *
+	 * @param text The text to be decoded.
+	 * @return The decoded text.
+	 */
+	public String decode(final String text) {
+		return this.process(text);
+	}
+
+	/**
+	 * Encodes/decodes the given text.
+	 *
+	 * @param text The text to be encoded/decoded.
+	 * @return The encoded/decoded text.
+	 */
+	private String process(final String text) {
+		final char[] input = new char[text.length()];
+		int count = 0;
+
+		// Skip all input characters that are not an element of the Latin alphabet.
+		for (int i = 0; i < text.length(); i++) {
+			final char inputCharacter = text.charAt(i);
+
+			if (isInRange(inputCharacter)) {
+				input[count++] = inputCharacter;
+			}
+		}
+
+		final char[] output = new char[count];
+		this.m_pool.invoke(new ChunkTask(input, output, 0, count));
+
+		return StringTools.format(String.valueOf(output), this.m_groupLength);
+	}
+
+}
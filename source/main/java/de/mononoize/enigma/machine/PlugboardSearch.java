@@ -0,0 +1,641 @@
+package de.mononoize.enigma.machine;
+
+import static de.mononoize.enigma.tools.CharTools.isInRange;
+import static de.mononoize.enigma.tools.CharTools.toChar;
+import static de.mononoize.enigma.tools.CharTools.toIndex;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import org.apache.commons.lang3.Validate;
+
+import de.mononoize.enigma.analysis.IndexOfCoincidence;
+import de.mononoize.enigma.analysis.Scorer;
+import de.mononoize.enigma.machine.components.Plugboard;
+
+/**
+ * <p>Recovers the plugboard of a ciphertext whose rotor setting is known.</p>
+ *
+ * <p>The search is a hill climb over plugboard settings with random restarts. The plugboard is represented by a
+ * primitive involution array and the signal path without plugboard is tabulated once per letter of the ciphertext. A
+ * move connects or disconnects two letters, which changes the plugboard for at most four letters. Only the positions
+ * whose ciphertext letter or whose scrambled letter is one of them are decoded again, and the index of coincidence of
+ * the decryption is updated incrementally from the letter counts. A custom {@link Scorer} can be used instead, in
+ * which case the decryption is scored as a whole after each move. The restarts run in parallel on a
+ * {@code ForkJoinPool}, each with its own state and random generator.</p>
+ *
+ * @author mononoize
+ */
+public class PlugboardSearch {
+
+	/**
+	 * The {@code PlugboardSearch} builder.
+	 */
+	public static class Builder implements org.apache.commons.lang3.builder.Builder<PlugboardSearch> {
+
+		private String m_ciphertext;
+
+		private Enigma.Builder m_machine;
+
+		private int m_cableCount = 10;
+
+		private int m_restarts = 32;
+
+		private long m_seed = 0;
+
+		private Scorer m_scorer = null;
+
+		private ForkJoinPool m_pool = ForkJoinPool.commonPool();
+
+		public Builder() {
+		}
+
+		public Builder setCiphertext(final String ciphertext) {
+			this.m_ciphertext = ciphertext;
+			return this;
+		}
+
+		public Builder setMachine(final Enigma.Builder machine) {
+			this.m_machine = machine;
+			return this;
+		}
+
+		public Builder setCableCount(final int cableCount) {
+			this.m_cableCount = cableCount;
+			return this;
+		}
+
+		public Builder setRestarts(final int restarts) {
+			this.m_restarts = restarts;
+			return this;
+		}
+
+		public Builder setSeed(final long seed) {
+			this.m_seed = seed;
+			return this;
+		}
+
+		public Builder setScorer(final Scorer scorer) {
+			this.m_scorer = scorer;
+			return this;
+		}
+
+		public Builder setPool(final ForkJoinPool pool) {
+			this.m_pool = pool;
+			return this;
+		}
+
+		@Override
+		public PlugboardSearch build() {
+			Validate.notNull(this.m_ciphertext);
+			Validate.notNull(this.m_machine);
+			Validate.inclusiveBetween(0, 13, this.m_cableCount);
+			Validate.inclusiveBetween(1, Integer.MAX_VALUE, this.m_restarts);
+			Validate.notNull(this.m_pool);
+
+			return new PlugboardSearch(this);
+		}
+
+	}
+
+	/**
+	 * The result of a search.
+	 */
+	public static final class Result {
+
+		/**
+		 * The plugboard connections in the format of {@link Plugboard#addCables(String)}.
+		 */
+		private final String m_cables;
+
+		/**
+		 * The score of the decryption.
+		 */
+		private final double m_score;
+
+		/**
+		 * Constructs a new {@code Result}.
+		 *
+		 * @param cables The plugboard connections.
+		 * @param score The score of the decryption.
+		 */
+		private Result(final String cables, final double score) {
+			this.m_cables = cables;
+			this.m_score = score;
+		}
+
+		/**
+		 * Returns the plugboard connections in the format of {@link Plugboard#addCables(String)}.
+		 *
+		 * @return The plugboard connections.
+		 */
+		public String getCables() {
+			return this.m_cables;
+		}
+
+		/**
+		 * Returns the score of the decryption, i.e. its index of coincidence unless a custom {@link Scorer} is used.
+		 *
+		 * @return The score of the decryption.
+		 */
+		public double getScore() {
+			return this.m_score;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("[%s] %.5f", this.m_cables, this.m_score);
+		}
+
+	}
+
+	/**
+	 * The state of a single hill climb.
+	 */
+	private final class Climber {
+
+		/**
+		 * The plugboard as involution: {@code m_steckers[m_steckers[x]] == x}.
+		 */
+		private final byte[] m_steckers = new byte[26];
+
+		/**
+		 * The scrambled letter of each position, i.e. the letter before the plugboard on the way out.
+		 */
+		private final byte[] m_middle;
+
+		/**
+		 * The decrypted letter of each position.
+		 */
+		private final byte[] m_plain;
+
+		/**
+		 * The positions of each scrambled letter.
+		 */
+		private final int[][] m_buckets = new int[26][];
+
+		/**
+		 * The number of positions of each scrambled letter.
+		 */
+		private final int[] m_bucketSizes = new int[26];
+
+		/**
+		 * The index of each position in the bucket of its scrambled letter.
+		 */
+		private final int[] m_slots;
+
+		/**
+		 * The number of occurrences of each decrypted letter.
+		 */
+		private final int[] m_counts = new int[26];
+
+		/**
+		 * The number of coincidences of the decryption.
+		 */
+		private long m_coincidences = 0;
+
+		/**
+		 * The positions affected by the current move.
+		 */
+		private final int[] m_affected;
+
+		/**
+		 * The move in which each position has been affected last.
+		 */
+		private final int[] m_stamps;
+
+		/**
+		 * The number of the current move.
+		 */
+		private int m_stamp = 0;
+
+		/**
+		 * The number of plugboard connections.
+		 */
+		private int m_cables = 0;
+
+		/**
+		 * Constructs a new {@code Climber} with an empty plugboard.
+		 */
+		private Climber() {
+			final int length = PlugboardSearch.this.m_ciphertext.length;
+
+			this.m_middle = new byte[length];
+			this.m_plain = new byte[length];
+			this.m_slots = new int[length];
+			this.m_affected = new int[length];
+			this.m_stamps = new int[length];
+
+			for (int letter = 0; letter < 26; letter++) {
+				this.m_steckers[letter] = (byte) letter;
+				this.m_buckets[letter] = new int[length];
+			}
+
+			for (int i = 0; i < length; i++) {
+				final int middle = PlugboardSearch.this.m_scramblers[(i * 26) + PlugboardSearch.this.m_ciphertext[i]];
+
+				this.m_middle[i] = (byte) middle;
+				this.m_plain[i] = (byte) middle;
+				this.m_slots[i] = this.m_bucketSizes[middle];
+				this.m_buckets[middle][this.m_bucketSizes[middle]++] = i;
+				this.m_coincidences += 2L * this.m_counts[middle]++;
+			}
+		}
+
+		/**
+		 * Connects the given letters, disconnecting their previous partners.
+		 *
+		 * @param a The 1st letter.
+		 * @param b The 2nd letter.
+		 * @param changed The array to store the changed letters in.
+		 * @return The number of changed letters.
+		 */
+		private int connect(final int a, final int b, final byte[] changed) {
+			int count = 0;
+
+			count = this.disconnect(a, changed, count);
+			count = this.disconnect(b, changed, count);
+
+			this.m_steckers[a] = (byte) b;
+			this.m_steckers[b] = (byte) a;
+			this.m_cables++;
+
+			changed[count++] = (byte) a;
+			changed[count++] = (byte) b;
+
+			return count;
+		}
+
+		/**
+		 * Disconnects the given letter and its partner.
+		 *
+		 * @param letter The letter.
+		 * @param changed The array to store the changed letters in.
+		 * @param count The number of changed letters so far.
+		 * @return The number of changed letters.
+		 */
+		private int disconnect(final int letter, final byte[] changed, final int count) {
+			final int partner = this.m_steckers[letter];
+
+			if (partner == letter) {
+				return count;
+			}
+
+			this.m_steckers[letter] = (byte) letter;
+			this.m_steckers[partner] = (byte) partner;
+			this.m_cables--;
+
+			changed[count] = (byte) partner;
+			return count + 1;
+		}
+
+		/**
+		 * Decodes the positions affected by a change of the plugboard for the given letters again and updates the
+		 * letter counts.
+		 *
+		 * @param changed The changed letters.
+		 * @param count The number of changed letters.
+		 */
+		private void update(final byte[] changed, final int count) {
+			final byte[] ciphertext = PlugboardSearch.this.m_ciphertext;
+			final byte[] scramblers = PlugboardSearch.this.m_scramblers;
+			int affected = 0;
+
+			this.m_stamp++;
+
+			// STEP 1: The positions whose ciphertext letter changed on the way in get a new scrambled letter.
+			for (int j = 0; j < count; j++) {
+				for (final int i : PlugboardSearch.this.m_positions[changed[j]]) {
+					final int middle = scramblers[(i * 26) + this.m_steckers[ciphertext[i]]];
+
+					if (middle != this.m_middle[i]) {
+						this.move(i, middle);
+					}
+
+					if (this.m_stamps[i] != this.m_stamp) {
+						this.m_stamps[i] = this.m_stamp;
+						this.m_affected[affected++] = i;
+					}
+				}
+			}
+
+			// STEP 2: The positions whose scrambled letter changed on the way out.
+			for (int j = 0; j < count; j++) {
+				final int[] bucket = this.m_buckets[changed[j]];
+
+				for (int k = 0; k < this.m_bucketSizes[changed[j]]; k++) {
+					final int i = bucket[k];
+
+					if (this.m_stamps[i] != this.m_stamp) {
+						this.m_stamps[i] = this.m_stamp;
+						this.m_affected[affected++] = i;
+					}
+				}
+			}
+
+			// STEP 3: Decode the affected positions again.
+			for (int k = 0; k < affected; k++) {
+				final int i = this.m_affected[k];
+				final int plain = this.m_steckers[this.m_middle[i]];
+				final int previous = this.m_plain[i];
+
+				if (plain != previous) {
+					this.m_coincidences -= 2L * --this.m_counts[previous];
+					this.m_coincidences += 2L * this.m_counts[plain]++;
+					this.m_plain[i] = (byte) plain;
+				}
+			}
+		}
+
+		/**
+		 * Moves the given position into the bucket of the given scrambled letter.
+		 *
+		 * @param i The position.
+		 * @param middle The new scrambled letter.
+		 */
+		private void move(final int i, final int middle) {
+			final int previous = this.m_middle[i];
+			final int last = this.m_buckets[previous][--this.m_bucketSizes[previous]];
+
+			this.m_buckets[previous][this.m_slots[i]] = last;
+			this.m_slots[last] = this.m_slots[i];
+
+			this.m_slots[i] = this.m_bucketSizes[middle];
+			this.m_buckets[middle][this.m_bucketSizes[middle]++] = i;
+			this.m_middle[i] = (byte) middle;
+		}
+
+		/**
+		 * Runs the hill climb from a random plugboard until no single move improves the score.
+		 *
+		 * @param random The random generator.
+		 * @return The result of the climb.
+		 */
+		private Result climb(final SplittableRandom random) {
+			final int cableCount = PlugboardSearch.this.m_cableCount;
+			final byte[] changed = new byte[4];
+			final byte[] saved = new byte[26];
+
+			// Start from a random plugboard with half of the cables.
+			for (int cable = 0; cable < (cableCount / 2); cable++) {
+				final int a = random.nextInt(26);
+				final int b = random.nextInt(26);
+
+				if ((a != b) && (this.m_steckers[a] == a) && (this.m_steckers[b] == b)) {
+					this.update(changed, this.connect(a, b, changed));
+				}
+			}
+
+			boolean improved = true;
+
+			while (improved && !PlugboardSearch.this.m_cancelled) {
+				improved = false;
+
+				for (int a = 0; a < 26; a++) {
+					for (int b = a + 1; b < 26; b++) {
+						final boolean connected = (this.m_steckers[a] == b);
+
+						// Skip moves that would exceed the maximum number of cables.
+						if (!connected && ((this.m_cables + 1 - ((this.m_steckers[a] != a) ? 1 : 0) - ((this.m_steckers[b] != b) ? 1 : 0)) > cableCount)) {
+							continue;
+						}
+
+						final double before = this.score();
+						final int cables = this.m_cables;
+						int count;
+
+						System.arraycopy(this.m_steckers, 0, saved, 0, 26);
+
+						if (connected) {
+							count = this.disconnect(a, changed, 0);
+							changed[count++] = (byte) a;
+						} else {
+							count = this.connect(a, b, changed);
+						}
+
+						this.update(changed, count);
+
+						if (this.score() > before) {
+							improved = true;
+						} else {
+							System.arraycopy(saved, 0, this.m_steckers, 0, 26);
+							this.m_cables = cables;
+							this.update(changed, count);
+						}
+					}
+				}
+			}
+
+			return new Result(this.getCables(), this.score());
+		}
+
+		/**
+		 * Returns the score of the current decryption.
+		 *
+		 * @return The score of the current decryption.
+		 */
+		private double score() {
+			final Scorer scorer = PlugboardSearch.this.m_scorer;
+
+			if (scorer == null) {
+				return IndexOfCoincidence.compute(this.m_coincidences, this.m_plain.length);
+			}
+
+			return scorer.score(this.m_plain, 0, this.m_plain.length);
+		}
+
+		/**
+		 * Returns the plugboard connections in the format of {@link Plugboard#addCables(String)}.
+		 *
+		 * @return The plugboard connections.
+		 */
+		private String getCables() {
+			final StringBuilder result = new StringBuilder();
+
+			for (int letter = 0; letter < 26; letter++) {
+				if (this.m_steckers[letter] > letter) {
+					result.append((result.length() == 0) ? "" : " ").append(toChar(letter)).append(toChar(this.m_steckers[letter]));
+				}
+			}
+
+			return result.toString();
+		}
+
+	}
+
+	/**
+	 * Runs a range of restarts.
+	 */
+	private final class ClimbTask extends RecursiveTask<Result> {
+
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * The index of the first restart (inclusive).
+		 */
+		private final int m_from;
+
+		/**
+		 * The index of the last restart (exclusive).
+		 */
+		private final int m_to;
+
+		/**
+		 * Constructs a new {@code ClimbTask}.
+		 *
+		 * @param from The index of the first restart (inclusive).
+		 * @param to The index of the last restart (exclusive).
+		 */
+		private ClimbTask(final int from, final int to) {
+			this.m_from = from;
+			this.m_to = to;
+		}
+
+		@Override
+		protected Result compute() {
+			if ((this.m_to - this.m_from) > 1) {
+				final int middle = (this.m_from + this.m_to) >>> 1;
+				final ClimbTask left = new ClimbTask(this.m_from, middle);
+				final ClimbTask right = new ClimbTask(middle, this.m_to);
+
+				left.fork();
+
+				final Result result = right.compute();
+				final Result other = left.join();
+
+				return (other.getScore() >= result.getScore()) ? other : result;
+			}
+
+			return new Climber().climb(new SplittableRandom(PlugboardSearch.this.m_seed + this.m_from));
+		}
+
+	}
+
+	/**
+	 * The ciphertext as letter indices.
+	 */
+	private final byte[] m_ciphertext;
+
+	/**
+	 * The positions of each ciphertext letter.
+	 */
+	private final int[][] m_positions;
+
+	/**
+	 * The permutations of the signal path without plugboard, 26 entries per position.
+	 */
+	private final byte[] m_scramblers;
+
+	/**
+	 * The maximum number of plugboard connections.
+	 */
+	private final int m_cableCount;
+
+	/**
+	 * The number of restarts.
+	 */
+	private final int m_restarts;
+
+	/**
+	 * The seed of the random generators.
+	 */
+	private final long m_seed;
+
+	/**
+	 * The scorer or {@code null} if the decryptions are scored by their index of coincidence.
+	 */
+	private final Scorer m_scorer;
+
+	/**
+	 * The pool to run the restarts on.
+	 */
+	private final ForkJoinPool m_pool;
+
+	/**
+	 * {@code True} if the search has been cancelled.
+	 */
+	private volatile boolean m_cancelled = false;
+
+	/**
+	 * Constructs a new {@code PlugboardSearch}.
+	 *
+	 * @param builder The builder that provides the setting.
+	 */
+	private PlugboardSearch(final Builder builder) {
+		final String ciphertext = builder.m_ciphertext;
+		final byte[] letters = new byte[ciphertext.length()];
+		final int[] counts = new int[26];
+		int length = 0;
+
+		// Skip all input characters that are not an element of the Latin alphabet.
+		for (int i = 0; i < ciphertext.length(); i++) {
+			final char inputCharacter = ciphertext.charAt(i);
+
+			if (isInRange(inputCharacter)) {
+				letters[length] = (byte) toIndex(inputCharacter);
+				counts[letters[length++]]++;
+			}
+		}
+
+		this.m_ciphertext = Arrays.copyOf(letters, length);
+		this.m_positions = new int[26][];
+
+		for (int letter = 0; letter < 26; letter++) {
+			this.m_positions[letter] = new int[counts[letter]];
+			counts[letter] = 0;
+		}
+
+		for (int i = 0; i < length; i++) {
+			this.m_positions[this.m_ciphertext[i]][counts[this.m_ciphertext[i]]++] = i;
+		}
+
+		// Tabulate the signal path without plugboard for each position.
+		final CompiledEngine engine = builder.m_machine.compile(new Plugboard());
+		final byte[] permutation = new byte[26];
+		int position = engine.getPosition();
+
+		this.m_scramblers = new byte[length * 26];
+
+		for (int i = 0; i < length; i++) {
+			position = engine.step(position);
+			engine.getPermutation(position, permutation);
+			System.arraycopy(permutation, 0, this.m_scramblers, i * 26, 26);
+		}
+
+		this.m_cableCount = builder.m_cableCount;
+		this.m_restarts = builder.m_restarts;
+		this.m_seed = builder.m_seed;
+		this.m_scorer = builder.m_scorer;
+		this.m_pool = builder.m_pool;
+	}
+
+	/**
+	 * Runs the search and returns the best result of all restarts. If the search is cancelled, the best result found
+	 * so far is returned.
+	 *
+	 * @return The best result.
+	 */
+	public Result search() {
+		return this.m_pool.invoke(new ClimbTask(0, this.m_restarts));
+	}
+
+	/**
+	 * Cancels the search. Running climbs stop after the current sweep over all moves. A cancelled search cannot be
+	 * restarted.
+	 */
+	public void cancel() {
+		this.m_cancelled = true;
+	}
+
+	/**
+	 * Returns {@code True} if the search has been cancelled.
+	 *
+	 * @return {@code True} if the search has been cancelled.
+	 */
+	public boolean isCancelled() {
+		return this.m_cancelled;
+	}
+
+}
@@ -0,0 +1,205 @@
+package de.mononoize.enigma.machine;
+
+import static de.mononoize.enigma.tools.CharTools.toIndex;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * <p>The sequence of rotor positions of the stepping mechanism.</p>
+ *
+ * <p>The stepping mechanism is a deterministic function on the 26 * 26 * 26 positions of the three stepping rotors.
+ * Starting from a given position it therefore runs through a (possibly empty) lead-in and then repeats with a fixed
+ * period. Both are recorded once, so that the positions after any number of key presses are available in constant
+ * time. The positions are packed into a single {@code int} as {@code p1 + 26 * p2 + 676 * p3}.</p>
+ *
+ * <p>The stepping function itself only depends on the notches of the 1st and 2nd rotor. It is tabulated once per pair
+ * of notch patterns as a transition table, so that stepping from any packed position is a single array lookup without
+ * any branch on notches. The transition tables are shared by all engines.</p>
+ *
+ * @author mononoize
+ */
+final class SteppingSchedule {
+
+	/**
+	 * The number of distinct packed positions.
+	 */
+	static final int SIZE = 26 * 26 * 26;
+
+	/**
+	 * The shared transition tables, indexed by the notch patterns of the 1st and 2nd rotor.
+	 */
+	private static final ConcurrentMap<Long, int[]> TRANSITIONS = new ConcurrentHashMap<>();
+
+	/**
+	 * The packed positions after 0, 1, 2, ... key presses, covering the lead-in and one period.
+	 */
+	private final int[] m_positions;
+
+	/**
+	 * The number of key presses before the period starts.
+	 */
+	private final int m_start;
+
+	/**
+	 * The period.
+	 */
+	private final int m_period;
+
+	/**
+	 * Constructs a new {@code SteppingSchedule}.
+	 *
+	 * @param notches1 The notches of the 1st (right) rotor.
+	 * @param notches2 The notches of the 2nd (middle) rotor.
+	 * @param position1 The initial position of the 1st (right) rotor.
+	 * @param position2 The initial position of the 2nd (middle) rotor.
+	 * @param position3 The initial position of the 3rd (left) rotor.
+	 */
+	SteppingSchedule(final char[] notches1, final char[] notches2, final char position1, final char position2, final char position3) {
+		this(toNotches(notches1), toNotches(notches2), toIndex(position1), toIndex(position2), toIndex(position3));
+	}
+
+	/**
+	 * Constructs a new {@code SteppingSchedule}.
+	 *
+	 * @param notches1 The notch positions of the 1st (right) rotor.
+	 * @param notches2 The notch positions of the 2nd (middle) rotor.
+	 * @param position1 The index of the initial position of the 1st (right) rotor.
+	 * @param position2 The index of the initial position of the 2nd (middle) rotor.
+	 * @param position3 The index of the initial position of the 3rd (left) rotor.
+	 */
+	SteppingSchedule(final boolean[] notches1, final boolean[] notches2, final int position1, final int position2, final int position3) {
+		final int[] visited = new int[SIZE];
+		final int[] positions = new int[SIZE];
+
+		Arrays.fill(visited, -1);
+
+		final int[] transitions = getTransitions(notches1, notches2);
+
+		int position = pack(position1, position2, position3);
+		int count = 0;
+
+		while (visited[position] < 0) {
+			visited[position] = count;
+			positions[count++] = position;
+			position = transitions[position];
+		}
+
+		this.m_positions = Arrays.copyOf(positions, count);
+		this.m_start = visited[position];
+		this.m_period = count - this.m_start;
+	}
+
+	/**
+	 * Converts the given notches into a lookup table.
+	 *
+	 * @param notches The notches to be converted.
+	 * @return The lookup table, indexed by position.
+	 */
+	static boolean[] toNotches(final char[] notches) {
+		final boolean[] result = new boolean[26];
+
+		for (final char notch : notches) {
+			result[toIndex(notch)] = true;
+		}
+
+		return result;
+	}
+
+	/**
+	 * Returns the transition table for the given notches: {@code transitions[position]} is the packed position after
+	 * one key press from the packed {@code position}. The table is computed on first use and must not be modified.
+	 *
+	 * @param notches1 The notch positions of the 1st (right) rotor.
+	 * @param notches2 The notch positions of the 2nd (middle) rotor.
+	 * @return The transition table.
+	 */
+	static int[] getTransitions(final boolean[] notches1, final boolean[] notches2) {
+		long key = 0;
+
+		for (int i = 0; i < 26; i++) {
+			key |= (notches1[i] ? (1L << i) : 0L) | (notches2[i] ? (1L << (26 + i)) : 0L);
+		}
+
+		return TRANSITIONS.computeIfAbsent(key, k -> {
+			final int[] result = new int[SIZE];
+
+			for (int position = 0; position < SIZE; position++) {
+				result[position] = step(notches1, notches2, position);
+			}
+
+			return result;
+		});
+	}
+
+	/**
+	 * Packs the given positions into a single {@code int}.
+	 *
+	 * @param position1 The index of the position of the 1st (right) rotor.
+	 * @param position2 The index of the position of the 2nd (middle) rotor.
+	 * @param position3 The index of the position of the 3rd (left) rotor.
+	 * @return The packed positions.
+	 */
+	static int pack(final int position1, final int position2, final int position3) {
+		return position1 + (26 * position2) + (676 * position3);
+	}
+
+	/**
+	 * Performs the stepping mechanism once.
+	 *
+	 * @param notches1 The notch positions of the 1st (right) rotor.
+	 * @param notches2 The notch positions of the 2nd (middle) rotor.
+	 * @param position The packed positions before the key press.
+	 * @return The packed positions after the key press.
+	 */
+	static int step(final boolean[] notches1, final boolean[] notches2, final int position) {
+		int p1 = position % 26;
+		int p2 = (position / 26) % 26;
+		int p3 = position / 676;
+
+		final boolean rotor1IsNotchPosition = notches1[p1];
+		final boolean rotor2IsNotchPosition = notches2[p2];
+
+		p1 = (p1 + 1) % 26;
+
+		if (rotor1IsNotchPosition) {
+			p2 = (p2 + 1) % 26;
+		}
+
+		if (rotor2IsNotchPosition) {
+			p2 = (p2 + 1) % 26;
+			p3 = (p3 + 1) % 26;
+		}
+
+		return pack(p1, p2, p3);
+	}
+
+	/**
+	 * Returns the packed positions after the given number of key presses.
+	 *
+	 * @param presses The number of key presses.
+	 * @return The packed positions after the given number of key presses.
+	 */
+	int get(final long presses) {
+		Validate.isTrue(presses >= 0);
+
+		if (presses < this.m_positions.length) {
+			return this.m_positions[(int) presses];
+		}
+
+		return this.m_positions[this.m_start + (int) ((presses - this.m_start) % this.m_period)];
+	}
+
+	/**
+	 * Returns the period.
+	 *
+	 * @return The period.
+	 */
+	int getPeriod() {
+		return this.m_period;
+	}
+
+}
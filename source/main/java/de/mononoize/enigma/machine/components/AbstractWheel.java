@@ -12,6 +12,9 @@ import org.apache.commons.lang3.Validate;
  * <p>A dynamic wiring maps each character of the Latin alphabet to exactly one other character of the Latin alphabet
  * just like normal  wiring. The only difference is that a wheel is able to rotate to modify the mapping.</p>
  * 
+ * <p>The mappings of a wheel are taken from the shared {@link Wiring} catalog, so that a wheel instance only holds its
+ * position (and ring position).</p>
+ * 
  * @see Reflector
  * @see Rotor
  * 
@@ -21,6 +24,11 @@ import org.apache.commons.lang3.Validate;
  */
 public abstract class AbstractWheel<S extends AbstractWheel<?>> extends AbstractWiring<S> {
 	
+	/**
+	 * The shared wiring.
+	 */
+	protected final Wiring m_wiring;
+	
 	/**
 	 * The position.
 	 */
@@ -34,7 +42,28 @@ public abstract class AbstractWheel<S extends AbstractWheel<?>> extends Abstract
 	 * @param wiring The wiring to be used.
 	 */
 	protected AbstractWheel(final String name, final String description, final String wiring) {
+		this(name, description, Wiring.of(wiring));
+	}
+	
+	/**
+	 * Constructs a new {@code AbstractWheel}.
+	 * 
+	 * @param name The name to be used.
+	 * @param description The description to be used.
+	 * @param wiring The shared wiring to be used.
+	 */
+	private AbstractWheel(final String name, final String description, final Wiring wiring) {
 		super(name, description, wiring);
+		this.m_wiring = wiring;
+	}
+	
+	/**
+	 * Returns the shared wiring.
+	 * 
+	 * @return The shared wiring.
+	 */
+	public Wiring getWiring() {
+		return this.m_wiring;
 	}
 
 	/**
@@ -40,12 +40,12 @@ public abstract class AbstractWiring<S extends AbstractWiring<?>> {
 	/**
 	 * The forward mapping.
 	 */
-	protected final char[] m_forwardMapping = new char[26];
+	protected final char[] m_forwardMapping;
 	
 	/**
 	 * The reverse mapping.
 	 */
-	protected final char[] m_reverseMapping = new char[26];
+	protected final char[] m_reverseMapping;
 	
 	/**
 	 * Constructs a new {@code AbstractWiring}.
@@ -57,6 +57,8 @@ public abstract class AbstractWiring<S extends AbstractWiring<?>> {
 	protected AbstractWiring(final String name, final String description, final char[] wiring) {		
 		this.m_name = name;
 		this.m_description = description;
+		this.m_forwardMapping = new char[26];
+		this.m_reverseMapping = new char[26];
 				
 		for (int i = 0; i < ALPHABET.length; i++) {
 			this.m_forwardMapping[i] = wiring[i];
@@ -74,6 +76,21 @@ public abstract class AbstractWiring<S extends AbstractWiring<?>> {
 	protected AbstractWiring(final String name, final String descrition, final String wiring) {
 		this(name, descrition, wiring.toCharArray());
 	}
+	
+	/**
+	 * Constructs a new {@code AbstractWiring} that shares the mappings of the given wiring. The mappings must not be
+	 * modified.
+	 * 
+	 * @param name The name to be used.
+	 * @param description The description to be used.
+	 * @param wiring The shared wiring to be used.
+	 */
+	protected AbstractWiring(final String name, final String description, final Wiring wiring) {
+		this.m_name = name;
+		this.m_description = description;
+		this.m_forwardMapping = wiring.getForwardMapping();
+		this.m_reverseMapping = wiring.getReverseMapping();
+	}
 
 	/**
 	 * Returns the forward mapping of the given input character.
@@ -9,8 +9,6 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.Validate;
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
 
 /**
  * <p>A static electrical wiring that swaps characters pairwise.<p>
@@ -19,11 +17,6 @@ import org.apache.logging.log4j.Logger;
  */
 public class Plugboard extends AbstractWiring<Plugboard> {
 
-	/**
-	 * The logger.
-	 */
-	private static final Logger LOGGER = LogManager.getLogger(Plugboard.class);
-	
 	/**
 	 * Constructs a new {@code Plugboard}.
 	 */
@@ -67,10 +60,7 @@ public class Plugboard extends AbstractWiring<Plugboard> {
 		
 		final char wiringCharacter = this.getWiringCharacter(this.m_forwardMapping, inputCharacter);
 		final char outputCharacter = this.getOutputCharacter(this.m_forwardMapping, wiringCharacter);
-
-		final String name = String.format("%-12s", this.m_name);
-		LOGGER.debug("{}: {} > {} > {} (-/-)", name, inputCharacter, wiringCharacter, outputCharacter);
-
+		
 		return outputCharacter;
 	}
 
@@ -81,9 +71,6 @@ public class Plugboard extends AbstractWiring<Plugboard> {
 		final char wiringCharacter = this.getWiringCharacter(this.m_reverseMapping, inputCharacter);
 		final char outputCharacter = this.getOutputCharacter(this.m_reverseMapping, wiringCharacter);
 		
-		final String name = String.format("%-12s", this.m_name);
-		LOGGER.debug("{}: {} > {} > {} (-/-)", name, inputCharacter, wiringCharacter, outputCharacter);
-		
 		return outputCharacter;
 	}
 	
@@ -215,5 +202,23 @@ public class Plugboard extends AbstractWiring<Plugboard> {
 	
 		return this.self();
 	}
+	
+	/**
+	 * Returns the cables of the {@code Plugboard} in the format of {@link #addCables(String)}, ordered by their first
+	 * character, e.g. {@code "AB CD"}. The result is empty if no cable is plugged.
+	 * 
+	 * @return The cables of the {@code Plugboard}.
+	 */
+	public String getCables() {
+		final StringBuilder result = new StringBuilder();
+		
+		for (int i = 0; i < 26; i++) {
+			if (toIndex(this.m_forwardMapping[i]) > i) {
+				result.append((result.length() == 0) ? "" : " ").append(toChar(i)).append(this.m_forwardMapping[i]);
+			}
+		}
+		
+		return result.toString();
+	}
 
 }
\ No newline at end of file
@@ -10,8 +10,6 @@ import java.util.List;
 import org.apache.commons.lang3.Validate;
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
 
 /**
  * <p>A static/dynamic electrical wiring that swaps characters pairwise.</p>
@@ -20,11 +18,6 @@ import org.apache.logging.log4j.Logger;
  */
 public class Reflector extends AbstractWheel<Reflector> {
 	
-	/**
-	 * The logger.
-	 */
-	private static final Logger LOGGER = LogManager.getLogger(Reflector.class);
-	
 	/**
 	 * Constructs a new {@code Reflector}.
 	 * 
@@ -148,10 +141,7 @@ public class Reflector extends AbstractWheel<Reflector> {
 		
 		final char wiringCharacter = this.getWiringCharacter(this.m_forwardMapping, inputCharacter);
 		final char outputCharacter = this.getOutputCharacter(this.m_forwardMapping, wiringCharacter);
-
-		final String name = String.format("%-12s", this.m_name);
-		LOGGER.debug("{}: {} > {} > {} (-/{})", name, inputCharacter, wiringCharacter, outputCharacter, this.m_position);
-
+		
 		return outputCharacter;
 	}
 
@@ -162,9 +152,6 @@ public class Reflector extends AbstractWheel<Reflector> {
 		final char wiringCharacter = this.getWiringCharacter(this.m_reverseMapping, inputCharacter);
 		final char outputCharacter = this.getOutputCharacter(this.m_reverseMapping, wiringCharacter);
 		
-		final String name = String.format("%-12s", this.m_name);
-		LOGGER.debug("{}: {} > {} > {} (-/{})", name, inputCharacter, wiringCharacter, outputCharacter, this.m_position);
-		
 		return outputCharacter;
 	}
 	
@@ -6,13 +6,13 @@ import static de.mononoize.enigma.tools.MathTools.mod;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.Validate;
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
 
 /**
  * <p>A dynamic electrical wiring that maps characters.</p>
@@ -22,9 +22,9 @@ import org.apache.logging.log4j.Logger;
 public class Rotor extends AbstractWheel<Rotor> {
 
 	/**
-	 * The logger.
+	 * The shared notches, indexed by their string representation.
 	 */
-	private static final Logger LOGGER = LogManager.getLogger(Rotor.class);
+	private static final ConcurrentMap<String, char[]> NOTCHES = new ConcurrentHashMap<>();
 	
 	/**
 	 * The notches.
@@ -46,7 +46,7 @@ public class Rotor extends AbstractWheel<Rotor> {
 	 */
 	private Rotor(final String name, final String description, final String wiring, final String notches) {
 		super(name, description, wiring);
-		this.m_notches = notches.toCharArray();
+		this.m_notches = NOTCHES.computeIfAbsent(notches, String::toCharArray);
 	}
 	
 	
@@ -255,10 +255,7 @@ public class Rotor extends AbstractWheel<Rotor> {
 		
 		final char wiringCharacter = this.getWiringCharacter(this.m_forwardMapping, inputCharacter);
 		final char outputCharacter = this.getOutputCharacter(this.m_forwardMapping, wiringCharacter);
-
-		final String name = String.format("%-12s", this.m_name);
-		LOGGER.debug("{}: {} > {} > {} ({}/{})", name, inputCharacter, wiringCharacter, outputCharacter, this.m_positionRing, this.m_position);
-
+		
 		return outputCharacter;
 	}
 
@@ -269,9 +266,6 @@ public class Rotor extends AbstractWheel<Rotor> {
 		final char wiringCharacter = this.getWiringCharacter(this.m_reverseMapping, inputCharacter);
 		final char outputCharacter = this.getOutputCharacter(this.m_reverseMapping, wiringCharacter);
 		
-		final String name = String.format("%-12s", this.m_name);
-		LOGGER.debug("{}: {} > {} > {} ({}/{})", name, inputCharacter, wiringCharacter, outputCharacter, this.m_positionRing, this.m_position);
-		
 		return outputCharacter;
 	}
 	
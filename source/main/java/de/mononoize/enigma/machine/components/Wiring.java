@@ -0,0 +1,190 @@
+package de.mononoize.enigma.machine.components;
+
+import static de.mononoize.enigma.tools.CharTools.toChar;
+import static de.mononoize.enigma.tools.CharTools.toIndex;
+import static de.mononoize.enigma.tools.MathTools.mod;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * <p>The immutable, shared data of a wheel wiring.</p>
+ *
+ * <p>Each distinct wiring is parsed once and kept in a catalog, so that all wheels with the same wiring share the same
+ * forward and reverse mapping. A wheel instance therefore only holds its ring position and position. The compiled
+ * tables of a wiring for a ring position are computed from the mappings into arrays owned by the caller and are not
+ * cached here.</p>
+ *
+ * @see AbstractWheel
+ *
+ * @author mononoize
+ */
+public final class Wiring {
+
+	/**
+	 * The catalog of all wirings, indexed by their string representation.
+	 */
+	private static final ConcurrentMap<String, Wiring> CATALOG = new ConcurrentHashMap<>();
+
+	/**
+	 * The number of entries of a compiled table.
+	 */
+	public static final int TABLE_SIZE = 26 * 26;
+
+	/**
+	 * The forward mapping.
+	 */
+	private final char[] m_forwardMapping = new char[26];
+
+	/**
+	 * The reverse mapping.
+	 */
+	private final char[] m_reverseMapping = new char[26];
+
+	/**
+	 * Constructs a new {@code Wiring}.
+	 *
+	 * @param wiring The (forward) wiring to be used.
+	 */
+	private Wiring(final String wiring) {
+		for (int i = 0; i < 26; i++) {
+			this.m_forwardMapping[i] = wiring.charAt(i);
+			this.m_reverseMapping[toIndex(wiring.charAt(i))] = toChar(i);
+		}
+	}
+
+	/**
+	 * Returns the shared {@code Wiring} for the given (forward) wiring.
+	 *
+	 * @param wiring The (forward) wiring, a permutation of the Latin alphabet.
+	 * @return The shared {@code Wiring}.
+	 */
+	public static Wiring of(final String wiring) {
+		Validate.notNull(wiring);
+		Validate.isTrue(wiring.length() == 26);
+
+		return CATALOG.computeIfAbsent(wiring, Wiring::new);
+	}
+
+	/**
+	 * Returns the shared forward mapping. The result must not be modified.
+	 *
+	 * @return The shared forward mapping.
+	 */
+	char[] getForwardMapping() {
+		return this.m_forwardMapping;
+	}
+
+	/**
+	 * Returns the shared reverse mapping. The result must not be modified.
+	 *
+	 * @return The shared reverse mapping.
+	 */
+	char[] getReverseMapping() {
+		return this.m_reverseMapping;
+	}
+
+	/**
+	 * Copies the compiled forward table for the given ring position into the given array. The table holds the mapping
+	 * of character indices for each of the 26 positions and is indexed by {@code position * 26 + index}.
+	 *
+	 * @param ring The index of the ring position.
+	 * @param destination The array of at least {@value #TABLE_SIZE} entries to copy the table to.
+	 */
+	public void copyForwardTable(final int ring, final byte[] destination) {
+		compile(this.m_forwardMapping, ring, destination);
+	}
+
+	/**
+	 * Copies the compiled forward table for the given ring position into the given array. The table holds the mapping
+	 * of character indices for each of the 26 positions and is indexed by {@code position * 26 + index}.
+	 *
+	 * @param ring The index of the ring position.
+	 * @param destination The array of at least {@value #TABLE_SIZE} entries to copy the table to.
+	 */
+	public void copyForwardTable(final int ring, final int[] destination) {
+		compile(this.m_forwardMapping, ring, destination);
+	}
+
+	/**
+	 * Copies the compiled reverse table for the given ring position into the given array. The table holds the mapping
+	 * of character indices for each of the 26 positions and is indexed by {@code position * 26 + index}.
+	 *
+	 * @param ring The index of the ring position.
+	 * @param destination The array of at least {@value #TABLE_SIZE} entries to copy the table to.
+	 */
+	public void copyReverseTable(final int ring, final byte[] destination) {
+		compile(this.m_reverseMapping, ring, destination);
+	}
+
+	/**
+	 * Copies the compiled reverse table for the given ring position into the given array. The table holds the mapping
+	 * of character indices for each of the 26 positions and is indexed by {@code position * 26 + index}.
+	 *
+	 * @param ring The index of the ring position.
+	 * @param destination The array of at least {@value #TABLE_SIZE} entries to copy the table to.
+	 */
+	public void copyReverseTable(final int ring, final int[] destination) {
+		compile(this.m_reverseMapping, ring, destination);
+	}
+
+	/**
+	 * Compiles the table of the given mapping for the given ring position into the given array.
+	 *
+	 * @param mapping The (forward/reverse) mapping.
+	 * @param ring The index of the ring position.
+	 * @param destination The array to compile the table to.
+	 */
+	private static void compile(final char[] mapping, final int ring, final byte[] destination) {
+		validate(ring, destination.length);
+
+		for (int i = 0; i < TABLE_SIZE; i++) {
+			destination[i] = (byte) entry(mapping, ring, i);
+		}
+	}
+
+	/**
+	 * Compiles the table of the given mapping for the given ring position into the given array.
+	 *
+	 * @param mapping The (forward/reverse) mapping.
+	 * @param ring The index of the ring position.
+	 * @param destination The array to compile the table to.
+	 */
+	private static void compile(final char[] mapping, final int ring, final int[] destination) {
+		validate(ring, destination.length);
+
+		for (int i = 0; i < TABLE_SIZE; i++) {
+			destination[i] = entry(mapping, ring, i);
+		}
+	}
+
+	/**
+	 * Validates the ring position and the length of the destination array.
+	 *
+	 * @param ring The index of the ring position.
+	 * @param length The length of the destination array.
+	 */
+	private static void validate(final int ring, final int length) {
+		Validate.inclusiveBetween(0, 25, ring);
+		Validate.isTrue(length >= TABLE_SIZE, "The destination is too small: %d", length);
+	}
+
+	/**
+	 * Returns the entry of the compiled table of the given mapping at the given table index.
+	 *
+	 * @param mapping The (forward/reverse) mapping.
+	 * @param ring The index of the ring position.
+	 * @param tableIndex The table index, {@code position * 26 + index}.
+	 * @return The index of the mapped character.
+	 */
+	private static int entry(final char[] mapping, final int ring, final int tableIndex) {
+		final int position = tableIndex / 26;
+		final int index = tableIndex % 26;
+		final int wiringIndex = toIndex(mapping[mod((index - ring + position), 26)]);
+
+		return mod((wiringIndex + ring - position), 26);
+	}
+
+}
@@ -0,0 +1,512 @@
+package de.mononoize.enigma.net;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.commons.lang3.Validate;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import de.mononoize.enigma.machine.EnigmaCache;
+import de.mononoize.enigma.machine.EnigmaSpec;
+import de.mononoize.enigma.machine.PackedKey;
+
+/**
+ * <p>Serves encode and decode requests over TCP.</p>
+ *
+ * <p>The protocol is line based and US-ASCII encoded. Each request is a single line of the form</p>
+ *
+ * <pre>
+ *  ENCODE &lt;key&gt; &lt;text&gt;
+ *  DECODE &lt;key&gt; &lt;text&gt;
+ * </pre>
+ *
+ * <p>where the key is a {@link PackedKey} as returned by {@link PackedKey#toString()} and the text extends to the end
+ * of the line. Each request is answered by a line {@code OK <text>} or {@code ERROR <message>}. Clients may pipeline
+ * any number of requests; the responses are sent in request order, and a handler only flushes when it has answered
+ * all requests that have arrived so far. A request line that exceeds the maximum request length is answered by an
+ * {@code ERROR} line and skipped.</p>
+ *
+ * <p>Each connection is served by its own handler, which runs on a virtual thread if the runtime provides them and on
+ * a bounded pool otherwise. Since a handler occupies its thread until the client disconnects, the pool accepts at most
+ * as many connections as it has threads; further connections are answered by an {@code ERROR} line and closed. The
+ * specs are taken from an {@link EnigmaCache}, so that all connections share one immutable spec per key.</p>
+ *
+ * @author mononoize
+ */
+public final class EnigmaServer implements Closeable {
+
+	/**
+	 * The {@code EnigmaServer} builder.
+	 */
+	public static class Builder implements org.apache.commons.lang3.builder.Builder<EnigmaServer> {
+
+		private InetAddress m_address = InetAddress.getLoopbackAddress();
+
+		private int m_port = DEFAULT_PORT;
+
+		private int m_threads = Runtime.getRuntime().availableProcessors() * 4;
+
+		private boolean m_virtualThreads = true;
+
+		private int m_maxRequestLength = DEFAULT_MAX_REQUEST_LENGTH;
+
+		private EnigmaCache m_cache;
+
+		public Builder() {
+		}
+
+		public Builder setAddress(final InetAddress address) {
+			this.m_address = address;
+			return this;
+		}
+
+		public Builder setPort(final int port) {
+			this.m_port = port;
+			return this;
+		}
+
+		public Builder setThreads(final int threads) {
+			this.m_threads = threads;
+			return this;
+		}
+
+		public Builder setVirtualThreads(final boolean virtualThreads) {
+			this.m_virtualThreads = virtualThreads;
+			return this;
+		}
+
+		public Builder setMaxRequestLength(final int maxRequestLength) {
+			this.m_maxRequestLength = maxRequestLength;
+			return this;
+		}
+
+		public Builder setCache(final EnigmaCache cache) {
+			this.m_cache = cache;
+			return this;
+		}
+
+		@Override
+		public EnigmaServer build() {
+			Validate.notNull(this.m_address);
+			Validate.inclusiveBetween(0, 65535, this.m_port);
+			Validate.inclusiveBetween(1, Integer.MAX_VALUE, this.m_threads);
+			Validate.inclusiveBetween(1, Integer.MAX_VALUE, this.m_maxRequestLength);
+
+			return new EnigmaServer(this);
+		}
+
+	}
+
+	/**
+	 * The logger.
+	 */
+	private static final Logger LOGGER = LogManager.getLogger(EnigmaServer.class);
+
+	/**
+	 * The default port.
+	 */
+	public static final int DEFAULT_PORT = 7391;
+
+	/**
+	 * The default maximum length of a request line.
+	 */
+	public static final int DEFAULT_MAX_REQUEST_LENGTH = (1 << 20);
+
+	/**
+	 * The size of the socket buffers of a connection.
+	 */
+	private static final int BUFFER_SIZE = (1 << 16);
+
+	/**
+	 * The address to bind to.
+	 */
+	private final InetAddress m_address;
+
+	/**
+	 * The port to bind to, 0 for an ephemeral port.
+	 */
+	private final int m_port;
+
+	/**
+	 * The cache of specs.
+	 */
+	private final EnigmaCache m_cache;
+
+	/**
+	 * The executor of the handlers.
+	 */
+	private final ExecutorService m_executor;
+
+	/**
+	 * {@code True} if the handlers run on virtual threads.
+	 */
+	private final boolean m_virtualThreads;
+
+	/**
+	 * The permits of the connections that may be served at the same time or {@code null} if the number of connections
+	 * is not limited.
+	 */
+	private final Semaphore m_permits;
+
+	/**
+	 * The maximum length of a request line.
+	 */
+	private final int m_maxRequestLength;
+
+	/**
+	 * The open connections.
+	 */
+	private final Set<Socket> m_connections = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * The number of accepted connections.
+	 */
+	private final LongAdder m_connectionCount = new LongAdder();
+
+	/**
+	 * The number of answered requests.
+	 */
+	private final LongAdder m_requestCount = new LongAdder();
+
+	/**
+	 * The server socket or {@code null} if the server has not been started yet.
+	 */
+	private volatile ServerSocket m_socket;
+
+	/**
+	 * Constructs a new {@code EnigmaServer}.
+	 *
+	 * @param builder The builder that provides the setting.
+	 */
+	private EnigmaServer(final Builder builder) {
+		this.m_address = builder.m_address;
+		this.m_port = builder.m_port;
+		this.m_cache = (builder.m_cache != null) ? builder.m_cache : new EnigmaCache.Builder().build();
+
+		final ExecutorService executor = builder.m_virtualThreads ? newVirtualThreadExecutor() : null;
+
+		this.m_virtualThreads = (executor != null);
+		this.m_maxRequestLength = builder.m_maxRequestLength;
+
+		if (executor != null) {
+			this.m_executor = executor;
+			this.m_permits = null;
+		} else {
+			// The permits keep the number of handlers at the number of threads, so the queue never fills up.
+			this.m_executor = new ThreadPoolExecutor(builder.m_threads, builder.m_threads, 0L, TimeUnit.MILLISECONDS,
+					new ArrayBlockingQueue<>(builder.m_threads), runnable -> {
+						final Thread thread = new Thread(runnable, "enigma-handler");
+						thread.setDaemon(true);
+						return thread;
+					});
+			this.m_permits = new Semaphore(builder.m_threads);
+		}
+	}
+
+	/**
+	 * Returns an executor that starts a virtual thread per task. The executor is looked up reflectively, since the
+	 * project is compiled for runtimes that do not provide virtual threads.
+	 *
+	 * @return The executor or {@code null} if the runtime does not provide virtual threads.
+	 */
+	private static ExecutorService newVirtualThreadExecutor() {
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (final ReflectiveOperationException | RuntimeException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Binds the server socket and starts accepting connections on a background thread.
+	 *
+	 * @return This server.
+	 * @throws IOException If the socket cannot be bound.
+	 */
+	public synchronized EnigmaServer start() throws IOException {
+		Validate.validState(this.m_socket == null, "The server has already been started.");
+
+		final ServerSocket socket = new ServerSocket();
+		socket.bind(new InetSocketAddress(this.m_address, this.m_port));
+		this.m_socket = socket;
+
+		final Thread acceptor = new Thread(this::accept, "enigma-acceptor");
+		acceptor.setDaemon(true);
+		acceptor.start();
+
+		LOGGER.info("Listening on {} ({}).", socket.getLocalSocketAddress(),
+				this.m_virtualThreads ? "virtual threads" : "thread pool");
+		return this;
+	}
+
+	/**
+	 * Returns the port the server is bound to.
+	 *
+	 * @return The port.
+	 */
+	public int getPort() {
+		Validate.validState(this.m_socket != null, "The server has not been started yet.");
+
+		return this.m_socket.getLocalPort();
+	}
+
+	/**
+	 * Returns {@code True} if the handlers run on virtual threads, {@code False} if they run on a bounded pool.
+	 *
+	 * @return {@code True} if the handlers run on virtual threads.
+	 */
+	public boolean isVirtualThreads() {
+		return this.m_virtualThreads;
+	}
+
+	/**
+	 * Returns the number of accepted connections.
+	 *
+	 * @return The number of accepted connections.
+	 */
+	public long getConnectionCount() {
+		return this.m_connectionCount.sum();
+	}
+
+	/**
+	 * Returns the number of answered requests.
+	 *
+	 * @return The number of answered requests.
+	 */
+	public long getRequestCount() {
+		return this.m_requestCount.sum();
+	}
+
+	/**
+	 * Stops accepting connections and closes all open connections.
+	 */
+	@Override
+	public void close() throws IOException {
+		final ServerSocket socket = this.m_socket;
+
+		if (socket != null) {
+			socket.close();
+		}
+
+		// Closing the connections unblocks the handlers, which do not respond to interrupts while reading.
+		for (final Socket connection : this.m_connections) {
+			connection.close();
+		}
+
+		this.m_executor.shutdownNow();
+
+		try {
+			this.m_executor.awaitTermination(5, TimeUnit.SECONDS);
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Accepts connections until the server socket is closed.
+	 */
+	private void accept() {
+		final ServerSocket serverSocket = this.m_socket;
+
+		while (!serverSocket.isClosed()) {
+			try {
+				final Socket socket = serverSocket.accept();
+				this.m_connectionCount.increment();
+
+				if ((this.m_permits != null) && !this.m_permits.tryAcquire()) {
+					reject(socket);
+					continue;
+				}
+
+				try {
+					this.m_executor.execute(() -> {
+						try {
+							this.serve(socket);
+						} finally {
+							if (this.m_permits != null) {
+								this.m_permits.release();
+							}
+						}
+					});
+				} catch (final RejectedExecutionException e) {
+					if (this.m_permits != null) {
+						this.m_permits.release();
+					}
+
+					reject(socket);
+				}
+			} catch (final IOException e) {
+				if (!serverSocket.isClosed()) {
+					LOGGER.warn("Failed to accept a connection.", e);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Answers the given connection with an {@code ERROR} line and closes it.
+	 *
+	 * @param socket The connection.
+	 */
+	private static void reject(final Socket socket) {
+		try (socket) {
+			socket.getOutputStream().write("ERROR Too many connections.\n".getBytes(StandardCharsets.US_ASCII));
+		} catch (final IOException e) {
+			LOGGER.debug("Failed to reject a connection: {}", e.getMessage());
+		}
+	}
+
+	/**
+	 * Answers the requests of the given connection until it is closed by the client.
+	 *
+	 * @param socket The connection.
+	 */
+	private void serve(final Socket socket) {
+		try (socket;
+			 final BufferedReader reader = new BufferedReader(
+					 new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII), BUFFER_SIZE);
+			 final BufferedWriter writer = new BufferedWriter(
+					 new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII), BUFFER_SIZE)) {
+			this.m_connections.add(socket);
+			socket.setTcpNoDelay(true);
+
+			final StringBuilder request = new StringBuilder();
+			int length;
+
+			while ((length = this.readRequest(reader, request)) >= 0) {
+				final boolean tooLong = (length > this.m_maxRequestLength);
+
+				writer.write(tooLong ? "ERROR Request too long." : this.handle(request.toString()));
+				writer.write('\n');
+				this.m_requestCount.increment();
+
+				// Pipelined requests are answered with a single flush.
+				if (!reader.ready()) {
+					writer.flush();
+				}
+			}
+		} catch (final SocketException e) {
+			LOGGER.debug("Connection closed: {}", e.getMessage());
+		} catch (final IOException e) {
+			LOGGER.warn("Failed to serve a connection.", e);
+		} finally {
+			this.m_connections.remove(socket);
+		}
+	}
+
+	/**
+	 * Reads the next request line without its line terminator. Characters beyond the maximum request length are
+	 * skipped, so that a single client cannot exhaust the heap.
+	 *
+	 * @param reader The reader of the connection.
+	 * @param request The builder that receives the request line.
+	 * @return The length of the request line, which exceeds the maximum request length if characters have been
+	 *         skipped, or -1 at the end of the stream.
+	 * @throws IOException If the connection fails.
+	 */
+	private int readRequest(final BufferedReader reader, final StringBuilder request) throws IOException {
+		request.setLength(0);
+
+		int length = 0;
+		int character;
+
+		while ((character = reader.read()) != '\n') {
+			if (character < 0) {
+				return (length == 0) ? -1 : length;
+			}
+
+			if (length++ < this.m_maxRequestLength) {
+				request.append((char) character);
+			}
+		}
+
+		if ((length > 0) && (length <= this.m_maxRequestLength) && (request.charAt(length - 1) == '\r')) {
+			request.setLength(--length);
+		}
+
+		return length;
+	}
+
+	/**
+	 * Answers the given request.
+	 *
+	 * @param request The request.
+	 * @return The response.
+	 */
+	String handle(final String request) {
+		final int commandEnd = request.indexOf(' ');
+		final int keyEnd = (commandEnd < 0) ? -1 : request.indexOf(' ', commandEnd + 1);
+
+		if (keyEnd < 0) {
+			return "ERROR Malformed request.";
+		}
+
+		final String command = request.substring(0, commandEnd);
+
+		if (!"ENCODE".equals(command) && !"DECODE".equals(command)) {
+			return "ERROR Unknown command: " + command;
+		}
+
+		try {
+			final EnigmaSpec spec = this.m_cache.get(PackedKey.parse(request.substring(commandEnd + 1, keyEnd)));
+			final String text = request.substring(keyEnd + 1);
+
+			// Encoding and decoding are the same operation, the command only documents the intent.
+			return "OK " + ("ENCODE".equals(command) ? spec.encode(text) : spec.decode(text));
+		} catch (final RuntimeException e) {
+			// Invalid keys and empty texts are rejected by the validation of the machine.
+			return "ERROR " + e.getMessage();
+		}
+	}
+
+	/**
+	 * Runs a server until the process is terminated.
+	 *
+	 * <pre>
+	 *  EnigmaServer [port] [threads]
+	 * </pre>
+	 *
+	 * @param args The arguments.
+	 * @throws Exception If the server cannot be started.
+	 */
+	public static void main(final String[] args) throws Exception {
+		Validate.isTrue(args.length <= 2, "Usage: EnigmaServer [port] [threads]");
+
+		final Builder builder = new Builder();
+
+		if (args.length > 0) {
+			builder.setPort(Integer.parseInt(args[0]));
+		}
+
+		if (args.length > 1) {
+			builder.setThreads(Integer.parseInt(args[1]));
+		}
+
+		builder.build().start();
+
+		// The acceptor is a daemon thread, therefore the main thread keeps the process alive.
+		Thread.currentThread().join();
+	}
+
+}
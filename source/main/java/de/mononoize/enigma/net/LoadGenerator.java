@@ -0,0 +1,364 @@
+package de.mononoize.enigma.net;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.lang3.Validate;
+
+import de.mononoize.enigma.machine.PackedKey;
+
+/**
+ * <p>Generates load on an {@link EnigmaServer} and measures the latency of the requests.</p>
+ *
+ * <p>Each connection runs on its own thread and keeps up to the pipeline depth requests in flight. The latency of a
+ * request is the time from writing the request to reading its response, so that it includes the queueing in the
+ * pipeline.</p>
+ *
+ * @author mononoize
+ */
+public final class LoadGenerator {
+
+	/**
+	 * The {@code LoadGenerator} builder.
+	 */
+	public static class Builder implements org.apache.commons.lang3.builder.Builder<LoadGenerator> {
+
+		private InetAddress m_address = InetAddress.getLoopbackAddress();
+
+		private int m_port = EnigmaServer.DEFAULT_PORT;
+
+		private int m_connections = 4;
+
+		private int m_requests = 10000;
+
+		private int m_pipelineDepth = 16;
+
+		private PackedKey m_key;
+
+		private String m_text = "DASOBERKOMMANDODERWEHRMACHTGIBTBEKANNTAACHENISTGERETTET";
+
+		public Builder() {
+		}
+
+		public Builder setAddress(final InetAddress address) {
+			this.m_address = address;
+			return this;
+		}
+
+		public Builder setPort(final int port) {
+			this.m_port = port;
+			return this;
+		}
+
+		public Builder setConnections(final int connections) {
+			this.m_connections = connections;
+			return this;
+		}
+
+		public Builder setRequests(final int requests) {
+			this.m_requests = requests;
+			return this;
+		}
+
+		public Builder setPipelineDepth(final int pipelineDepth) {
+			this.m_pipelineDepth = pipelineDepth;
+			return this;
+		}
+
+		public Builder setKey(final PackedKey key) {
+			this.m_key = key;
+			return this;
+		}
+
+		public Builder setText(final String text) {
+			this.m_text = text;
+			return this;
+		}
+
+		@Override
+		public LoadGenerator build() {
+			Validate.notNull(this.m_address);
+			Validate.inclusiveBetween(1, 65535, this.m_port);
+			Validate.inclusiveBetween(1, Integer.MAX_VALUE, this.m_connections);
+			Validate.inclusiveBetween(1, Integer.MAX_VALUE, this.m_requests);
+			Validate.inclusiveBetween(1, Integer.MAX_VALUE, this.m_pipelineDepth);
+			Validate.notNull(this.m_key);
+			Validate.notEmpty(this.m_text);
+			Validate.isTrue(this.m_text.indexOf('\n') < 0, "The text must not contain line breaks.");
+
+			return new LoadGenerator(this);
+		}
+
+	}
+
+	/**
+	 * The result of a run.
+	 */
+	public static final class Report {
+
+		/**
+		 * The latencies of all requests in nanoseconds, sorted ascending.
+		 */
+		private final long[] m_latencies;
+
+		/**
+		 * The number of requests that have been answered with an error.
+		 */
+		private final long m_errorCount;
+
+		/**
+		 * The duration of the run in nanoseconds.
+		 */
+		private final long m_nanos;
+
+		/**
+		 * Constructs a new {@code Report}.
+		 *
+		 * @param latencies The latencies of all requests in nanoseconds, sorted ascending.
+		 * @param errorCount The number of requests that have been answered with an error.
+		 * @param nanos The duration of the run in nanoseconds.
+		 */
+		private Report(final long[] latencies, final long errorCount, final long nanos) {
+			this.m_latencies = latencies;
+			this.m_errorCount = errorCount;
+			this.m_nanos = nanos;
+		}
+
+		/**
+		 * Returns the number of requests.
+		 *
+		 * @return The number of requests.
+		 */
+		public long getRequestCount() {
+			return this.m_latencies.length;
+		}
+
+		/**
+		 * Returns the number of requests that have been answered with an error.
+		 *
+		 * @return The number of requests that have been answered with an error.
+		 */
+		public long getErrorCount() {
+			return this.m_errorCount;
+		}
+
+		/**
+		 * Returns the duration of the run in nanoseconds.
+		 *
+		 * @return The duration of the run in nanoseconds.
+		 */
+		public long getNanos() {
+			return this.m_nanos;
+		}
+
+		/**
+		 * Returns the throughput in requests per second.
+		 *
+		 * @return The throughput in requests per second.
+		 */
+		public double getRequestsPerSecond() {
+			return (this.m_nanos == 0) ? 0.0 : ((this.m_latencies.length * 1e9) / this.m_nanos);
+		}
+
+		/**
+		 * Returns the latency at the given percentile in nanoseconds (nearest rank).
+		 *
+		 * @param percentile The percentile, from 0 to 100.
+		 * @return The latency in nanoseconds.
+		 */
+		public long getLatency(final double percentile) {
+			Validate.inclusiveBetween(0.0, 100.0, percentile);
+
+			final int rank = (int) Math.ceil((percentile / 100.0) * this.m_latencies.length);
+
+			return this.m_latencies[Math.max(rank - 1, 0)];
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%d requests, %d errors, %.3f s, %.0f requests/s, p50 %.1f us, p99 %.1f us",
+					this.m_latencies.length, this.m_errorCount, this.m_nanos / 1e9, this.getRequestsPerSecond(),
+					this.getLatency(50) / 1e3, this.getLatency(99) / 1e3);
+		}
+
+	}
+
+	/**
+	 * The address of the server.
+	 */
+	private final InetSocketAddress m_address;
+
+	/**
+	 * The number of connections.
+	 */
+	private final int m_connections;
+
+	/**
+	 * The number of requests per connection.
+	 */
+	private final int m_requests;
+
+	/**
+	 * The maximum number of requests in flight per connection.
+	 */
+	private final int m_pipelineDepth;
+
+	/**
+	 * The request line.
+	 */
+	private final String m_request;
+
+	/**
+	 * Constructs a new {@code LoadGenerator}.
+	 *
+	 * @param builder The builder that provides the setting.
+	 */
+	private LoadGenerator(final Builder builder) {
+		this.m_address = new InetSocketAddress(builder.m_address, builder.m_port);
+		this.m_connections = builder.m_connections;
+		this.m_requests = builder.m_requests;
+		this.m_pipelineDepth = builder.m_pipelineDepth;
+		this.m_request = "ENCODE " + builder.m_key + " " + builder.m_text + "\n";
+	}
+
+	/**
+	 * Runs all connections to completion.
+	 *
+	 * @return The report.
+	 * @throws IOException If a connection fails.
+	 * @throws InterruptedException If the current thread is interrupted.
+	 */
+	public Report run() throws IOException, InterruptedException {
+		final ExecutorService executor = Executors.newFixedThreadPool(this.m_connections);
+
+		try {
+			final long start = System.nanoTime();
+			final List<Future<long[]>> futures = new ArrayList<>(this.m_connections);
+
+			for (int i = 0; i < this.m_connections; i++) {
+				futures.add(executor.submit(this::runConnection));
+			}
+
+			final long[] latencies = new long[this.m_connections * this.m_requests];
+			long errorCount = 0;
+
+			for (int i = 0; i < futures.size(); i++) {
+				final long[] result = futures.get(i).get();
+
+				System.arraycopy(result, 0, latencies, i * this.m_requests, this.m_requests);
+				errorCount += result[this.m_requests];
+			}
+
+			final long nanos = System.nanoTime() - start;
+			Arrays.sort(latencies);
+
+			return new Report(latencies, errorCount, nanos);
+		} catch (final ExecutionException e) {
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			}
+
+			throw new IllegalStateException(e.getCause());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Runs a single connection.
+	 *
+	 * @return The latencies of the requests in nanoseconds, followed by the number of errors.
+	 * @throws IOException If the connection fails.
+	 */
+	private long[] runConnection() throws IOException {
+		final long[] result = new long[this.m_requests + 1];
+		final long[] sent = new long[this.m_requests];
+
+		try (final Socket socket = new Socket()) {
+			socket.setTcpNoDelay(true);
+			socket.connect(this.m_address);
+
+			final BufferedReader reader = new BufferedReader(
+					new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+			final BufferedWriter writer = new BufferedWriter(
+					new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII));
+
+			int sentCount = 0;
+
+			for (int received = 0; received < this.m_requests; received++) {
+				// Fill the pipeline before waiting for the next response.
+				while ((sentCount < this.m_requests) && ((sentCount - received) < this.m_pipelineDepth)) {
+					writer.write(this.m_request);
+					sent[sentCount++] = System.nanoTime();
+				}
+
+				writer.flush();
+
+				final String response = reader.readLine();
+
+				if (response == null) {
+					throw new EOFException("The server closed the connection.");
+				}
+
+				result[received] = System.nanoTime() - sent[received];
+
+				if (!response.startsWith("OK ")) {
+					result[this.m_requests]++;
+				}
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Runs the load generator against a local server.
+	 *
+	 * <pre>
+	 *  LoadGenerator &lt;key&gt; [port] [connections] [requests per connection] [pipeline depth]
+	 * </pre>
+	 *
+	 * @param args The arguments.
+	 * @throws Exception If the run fails.
+	 */
+	public static void main(final String[] args) throws Exception {
+		Validate.isTrue((args.length >= 1) && (args.length <= 5),
+				"Usage: LoadGenerator <key> [port] [connections] [requests per connection] [pipeline depth]");
+
+		final Builder builder = new Builder().setKey(PackedKey.parse(args[0]));
+
+		if (args.length > 1) {
+			builder.setPort(Integer.parseInt(args[1]));
+		}
+
+		if (args.length > 2) {
+			builder.setConnections(Integer.parseInt(args[2]));
+		}
+
+		if (args.length > 3) {
+			builder.setRequests(Integer.parseInt(args[3]));
+		}
+
+		if (args.length > 4) {
+			builder.setPipelineDepth(Integer.parseInt(args[4]));
+		}
+
+		System.out.println(builder.build().run());
+	}
+
+}
@@ -0,0 +1,317 @@
+package de.mononoize.enigma.tools;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * <p>Arranges a stream of letters into groups while they are written.</p>
+ *
+ * <p>The letters are passed one at a time, e.g. as they come out of an engine, and are written straight into an
+ * {@code Appendable}, a {@code CharBuffer} or a {@code ByteBuffer} together with the separators. {@link #finish} pads
+ * the final group. Formatting is therefore a single pass without intermediate strings. For texts of at least one
+ * letter and a group length of at least 1, the output is identical to {@link StringTools#format(String, int)}; an
+ * empty text is formatted as an empty string, and a group length of 0 disables the grouping.</p>
+ *
+ * <p>Writers that fill their own buffers, such as the streams of the {@code io} package, can drive the grouping with
+ * {@link #next()} and {@link #getPaddingLength()} instead and write the separators and the padding themselves.</p>
+ *
+ * <p>A {@code GroupFormatter} keeps the number of letters written so far and is not thread-safe.</p>
+ *
+ * @author mononoize
+ */
+public final class GroupFormatter {
+
+	/**
+	 * The {@code GroupFormatter} builder.
+	 */
+	public static class Builder implements org.apache.commons.lang3.builder.Builder<GroupFormatter> {
+
+		private int m_length = 5;
+
+		private char m_separator = DEFAULT_SEPARATOR;
+
+		private char m_padding = DEFAULT_PADDING;
+
+		private boolean m_padded = true;
+
+		public Builder() {
+		}
+
+		public Builder setLength(final int length) {
+			this.m_length = length;
+			return this;
+		}
+
+		public Builder setSeparator(final char separator) {
+			this.m_separator = separator;
+			return this;
+		}
+
+		public Builder setPadding(final char padding) {
+			this.m_padding = padding;
+			return this;
+		}
+
+		public Builder setPadded(final boolean padded) {
+			this.m_padded = padded;
+			return this;
+		}
+
+		@Override
+		public GroupFormatter build() {
+			Validate.inclusiveBetween(0, (Integer.MAX_VALUE - 1), this.m_length);
+
+			return new GroupFormatter(this);
+		}
+
+	}
+
+	/**
+	 * The default separator character.
+	 */
+	public static final char DEFAULT_SEPARATOR = ' ';
+
+	/**
+	 * The default padding character.
+	 */
+	public static final char DEFAULT_PADDING = '-';
+
+	/**
+	 * The number of letters per group, 0 if the letters are not grouped.
+	 */
+	private final int m_length;
+
+	/**
+	 * The separator character.
+	 */
+	private final char m_separator;
+
+	/**
+	 * The padding character.
+	 */
+	private final char m_padding;
+
+	/**
+	 * {@code True} if the final group is padded.
+	 */
+	private final boolean m_padded;
+
+	/**
+	 * The number of letters in the current group.
+	 */
+	private int m_groupCount = 0;
+
+	/**
+	 * The number of letters written so far.
+	 */
+	private long m_count = 0;
+
+	/**
+	 * Constructs a new {@code GroupFormatter}.
+	 *
+	 * @param builder The builder that provides the setting.
+	 */
+	private GroupFormatter(final Builder builder) {
+		this.m_length = builder.m_length;
+		this.m_separator = builder.m_separator;
+		this.m_padding = builder.m_padding;
+		this.m_padded = builder.m_padded;
+	}
+
+	/**
+	 * Returns the number of letters written since the last call of {@link #reset()} or {@code finish}.
+	 *
+	 * @return The number of letters.
+	 */
+	public long getCount() {
+		return this.m_count;
+	}
+
+	/**
+	 * Returns the separator character.
+	 *
+	 * @return The separator character.
+	 */
+	public char getSeparator() {
+		return this.m_separator;
+	}
+
+	/**
+	 * Returns the padding character.
+	 *
+	 * @return The padding character.
+	 */
+	public char getPadding() {
+		return this.m_padding;
+	}
+
+	/**
+	 * Returns the formatted length of the given number of letters, including separators and padding.
+	 *
+	 * @param letters The number of letters.
+	 * @return The number of characters.
+	 */
+	public long getFormattedLength(final long letters) {
+		if ((this.m_length == 0) || (letters == 0)) {
+			return letters;
+		}
+
+		final long groups = ((letters + this.m_length) - 1) / this.m_length;
+
+		return (this.m_padded ? (groups * this.m_length) : letters) + (groups - 1);
+	}
+
+	/**
+	 * Starts a new text.
+	 */
+	public void reset() {
+		this.m_groupCount = 0;
+		this.m_count = 0;
+	}
+
+	/**
+	 * Counts the next letter and returns {@code True} if it must be preceded by a separator.
+	 *
+	 * @return {@code True} if the next letter must be preceded by a separator.
+	 */
+	public boolean next() {
+		this.m_count++;
+
+		if (this.m_length == 0) {
+			return false;
+		}
+
+		if (this.m_groupCount == this.m_length) {
+			this.m_groupCount = 1;
+			return true;
+		}
+
+		this.m_groupCount++;
+		return false;
+	}
+
+	/**
+	 * Returns the number of padding characters required to complete the final group. The count is not reset.
+	 *
+	 * @return The number of padding characters.
+	 */
+	public int getPaddingLength() {
+		return (!this.m_padded || (this.m_count == 0)) ? 0 : (this.m_length - this.m_groupCount);
+	}
+
+	/**
+	 * Writes the given letter, preceded by a separator if it starts a new group.
+	 *
+	 * @param letter The letter.
+	 * @param output The output.
+	 */
+	public void append(final char letter, final StringBuilder output) {
+		if (this.next()) {
+			output.append(this.m_separator);
+		}
+
+		output.append(letter);
+	}
+
+	/**
+	 * Writes the given letter, preceded by a separator if it starts a new group.
+	 *
+	 * @param letter The letter.
+	 * @param output The output.
+	 * @throws IOException If the output fails.
+	 */
+	public void append(final char letter, final Appendable output) throws IOException {
+		if (this.next()) {
+			output.append(this.m_separator);
+		}
+
+		output.append(letter);
+	}
+
+	/**
+	 * Writes the given letter, preceded by a separator if it starts a new group. The buffer must have room for two
+	 * characters.
+	 *
+	 * @param letter The letter.
+	 * @param output The output.
+	 */
+	public void append(final char letter, final CharBuffer output) {
+		if (this.next()) {
+			output.put(this.m_separator);
+		}
+
+		output.put(letter);
+	}
+
+	/**
+	 * Writes the given ASCII letter, preceded by a separator if it starts a new group. The buffer must have room for
+	 * two bytes.
+	 *
+	 * @param letter The letter.
+	 * @param output The output.
+	 */
+	public void append(final byte letter, final ByteBuffer output) {
+		if (this.next()) {
+			output.put((byte) this.m_separator);
+		}
+
+		output.put(letter);
+	}
+
+	/**
+	 * Pads the final group and starts a new text.
+	 *
+	 * @param output The output.
+	 */
+	public void finish(final StringBuilder output) {
+		for (int i = this.getPaddingLength(); i > 0; i--) {
+			output.append(this.m_padding);
+		}
+
+		this.reset();
+	}
+
+	/**
+	 * Pads the final group and starts a new text.
+	 *
+	 * @param output The output.
+	 * @throws IOException If the output fails.
+	 */
+	public void finish(final Appendable output) throws IOException {
+		for (int i = this.getPaddingLength(); i > 0; i--) {
+			output.append(this.m_padding);
+		}
+
+		this.reset();
+	}
+
+	/**
+	 * Pads the final group and starts a new text. The buffer must have room for the padding.
+	 *
+	 * @param output The output.
+	 */
+	public void finish(final CharBuffer output) {
+		for (int i = this.getPaddingLength(); i > 0; i--) {
+			output.put(this.m_padding);
+		}
+
+		this.reset();
+	}
+
+	/**
+	 * Pads the final group and starts a new text. The buffer must have room for the padding.
+	 *
+	 * @param output The output.
+	 */
+	public void finish(final ByteBuffer output) {
+		for (int i = this.getPaddingLength(); i > 0; i--) {
+			output.put((byte) this.m_padding);
+		}
+
+		this.reset();
+	}
+
+}
@@ -0,0 +1,258 @@
+package de.mononoize.enigma.tools;
+
+import static de.mononoize.enigma.tools.LongPairHashSet.capacity;
+import static de.mononoize.enigma.tools.LongPairHashSet.hash;
+
+import java.util.Arrays;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * <p>A map from {@code long} pairs, e.g. {@link de.mononoize.enigma.machine.PackedKey}s, to values.</p>
+ *
+ * <p>The map uses the same open addressing scheme as {@link LongPairHashSet}: the keys are held in parallel primitive
+ * arrays and are never boxed. {@code null} values are not permitted. The map is not thread-safe.</p>
+ *
+ * @param <V> The type of the values.
+ *
+ * @author mononoize
+ */
+public final class LongPairHashMap<V> {
+
+	/**
+	 * Receives the entries of a {@code LongPairHashMap}.
+	 *
+	 * @param <V> The type of the values.
+	 */
+	@FunctionalInterface
+	public interface Visitor<V> {
+
+		/**
+		 * Receives an entry.
+		 *
+		 * @param first The 1st value of the key.
+		 * @param second The 2nd value of the key.
+		 * @param value The value.
+		 */
+		void accept(long first, long second, V value);
+
+	}
+
+	/**
+	 * The 1st values of the keys.
+	 */
+	private long[] m_firsts;
+
+	/**
+	 * The 2nd values of the keys.
+	 */
+	private long[] m_seconds;
+
+	/**
+	 * The values or {@code null} if a slot is empty.
+	 */
+	private Object[] m_values;
+
+	/**
+	 * The number of entries.
+	 */
+	private int m_size = 0;
+
+	/**
+	 * The number of entries at which the slots are doubled.
+	 */
+	private int m_threshold;
+
+	/**
+	 * Constructs a new {@code LongPairHashMap} with room for 16 entries.
+	 */
+	public LongPairHashMap() {
+		this(16);
+	}
+
+	/**
+	 * Constructs a new {@code LongPairHashMap} with room for the given number of entries.
+	 *
+	 * @param expectedSize The number of entries that can be added without resizing.
+	 */
+	public LongPairHashMap(final int expectedSize) {
+		Validate.inclusiveBetween(0, 1 << 29, expectedSize);
+
+		this.allocate(capacity(expectedSize));
+	}
+
+	/**
+	 * Allocates the given number of empty slots.
+	 *
+	 * @param capacity The number of slots, a power of two.
+	 */
+	private void allocate(final int capacity) {
+		this.m_firsts = new long[capacity];
+		this.m_seconds = new long[capacity];
+		this.m_values = new Object[capacity];
+		this.m_threshold = (int) (capacity * LongPairHashSet.LOAD_FACTOR);
+	}
+
+	/**
+	 * Returns the slot of the given key or the empty slot it would be stored in.
+	 *
+	 * @param first The 1st value of the key.
+	 * @param second The 2nd value of the key.
+	 * @return The slot.
+	 */
+	private int find(final long first, final long second) {
+		final int mask = this.m_values.length - 1;
+		int slot = (int) hash(first, second) & mask;
+
+		while ((this.m_values[slot] != null) && ((this.m_firsts[slot] != first) || (this.m_seconds[slot] != second))) {
+			slot = (slot + 1) & mask;
+		}
+
+		return slot;
+	}
+
+	/**
+	 * Returns the number of entries.
+	 *
+	 * @return The number of entries.
+	 */
+	public int size() {
+		return this.m_size;
+	}
+
+	/**
+	 * Returns {@code True} if the map contains no entries.
+	 *
+	 * @return {@code True} if the map contains no entries.
+	 */
+	public boolean isEmpty() {
+		return (this.m_size == 0);
+	}
+
+	/**
+	 * Returns {@code True} if the map contains the given key.
+	 *
+	 * @param first The 1st value of the key.
+	 * @param second The 2nd value of the key.
+	 * @return {@code True} if the map contains the given key.
+	 */
+	public boolean containsKey(final long first, final long second) {
+		return (this.m_values[this.find(first, second)] != null);
+	}
+
+	/**
+	 * Returns the value of the given key.
+	 *
+	 * @param first The 1st value of the key.
+	 * @param second The 2nd value of the key.
+	 * @return The value or {@code null} if the map does not contain the given key.
+	 */
+	@SuppressWarnings("unchecked")
+	public V get(final long first, final long second) {
+		return (V) this.m_values[this.find(first, second)];
+	}
+
+	/**
+	 * Associates the given value with the given key.
+	 *
+	 * @param first The 1st value of the key.
+	 * @param second The 2nd value of the key.
+	 * @param value The value.
+	 * @return The previous value or {@code null} if the map did not contain the given key.
+	 */
+	@SuppressWarnings("unchecked")
+	public V put(final long first, final long second, final V value) {
+		Validate.notNull(value);
+
+		final int slot = this.find(first, second);
+		final V result = (V) this.m_values[slot];
+
+		this.m_firsts[slot] = first;
+		this.m_seconds[slot] = second;
+		this.m_values[slot] = value;
+
+		if ((result == null) && (++this.m_size > this.m_threshold)) {
+			this.resize();
+		}
+
+		return result;
+	}
+
+	/**
+	 * Removes the given key.
+	 *
+	 * @param first The 1st value of the key.
+	 * @param second The 2nd value of the key.
+	 * @return The removed value or {@code null} if the map did not contain the given key.
+	 */
+	@SuppressWarnings("unchecked")
+	public V remove(final long first, final long second) {
+		final int mask = this.m_values.length - 1;
+		int slot = this.find(first, second);
+		final V result = (V) this.m_values[slot];
+
+		if (result == null) {
+			return null;
+		}
+
+		// Shift the following entries of the cluster back, unless they would move before their home slot.
+		for (int next = (slot + 1) & mask; this.m_values[next] != null; next = (next + 1) & mask) {
+			final int home = (int) hash(this.m_firsts[next], this.m_seconds[next]) & mask;
+
+			if (((next - home) & mask) >= ((next - slot) & mask)) {
+				this.m_firsts[slot] = this.m_firsts[next];
+				this.m_seconds[slot] = this.m_seconds[next];
+				this.m_values[slot] = this.m_values[next];
+				slot = next;
+			}
+		}
+
+		this.m_values[slot] = null;
+		this.m_size--;
+		return result;
+	}
+
+	/**
+	 * Removes all entries.
+	 */
+	public void clear() {
+		Arrays.fill(this.m_values, null);
+		this.m_size = 0;
+	}
+
+	/**
+	 * Passes all entries to the given visitor, in no particular order. The map must not be modified meanwhile.
+	 *
+	 * @param visitor The visitor.
+	 */
+	@SuppressWarnings("unchecked")
+	public void forEach(final Visitor<? super V> visitor) {
+		for (int i = 0; i < this.m_values.length; i++) {
+			if (this.m_values[i] != null) {
+				visitor.accept(this.m_firsts[i], this.m_seconds[i], (V) this.m_values[i]);
+			}
+		}
+	}
+
+	/**
+	 * Doubles the number of slots.
+	 */
+	private void resize() {
+		final long[] firsts = this.m_firsts;
+		final long[] seconds = this.m_seconds;
+		final Object[] values = this.m_values;
+
+		this.allocate(values.length * 2);
+
+		for (int i = 0; i < values.length; i++) {
+			if (values[i] != null) {
+				final int slot = this.find(firsts[i], seconds[i]);
+
+				this.m_firsts[slot] = firsts[i];
+				this.m_seconds[slot] = seconds[i];
+				this.m_values[slot] = values[i];
+			}
+		}
+	}
+
+}
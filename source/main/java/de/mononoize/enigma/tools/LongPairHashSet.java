@@ -0,0 +1,266 @@
+package de.mononoize.enigma.tools;
+
+import java.util.Arrays;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * <p>A set of {@code long} pairs, e.g. of {@link de.mononoize.enigma.machine.PackedKey}s.</p>
+ *
+ * <p>The set uses open addressing with linear probing in parallel primitive arrays, so that it holds no object per
+ * element. Removal shifts the following elements back instead of leaving tombstones. The set is not thread-safe.</p>
+ *
+ * @author mononoize
+ */
+public final class LongPairHashSet {
+
+	/**
+	 * Receives the elements of a {@code LongPairHashSet}.
+	 */
+	@FunctionalInterface
+	public interface Visitor {
+
+		/**
+		 * Receives an element.
+		 *
+		 * @param first The 1st value.
+		 * @param second The 2nd value.
+		 */
+		void accept(long first, long second);
+
+	}
+
+	/**
+	 * The maximum ratio of elements to slots.
+	 */
+	static final double LOAD_FACTOR = 0.75;
+
+	/**
+	 * The 1st values of the elements.
+	 */
+	private long[] m_firsts;
+
+	/**
+	 * The 2nd values of the elements.
+	 */
+	private long[] m_seconds;
+
+	/**
+	 * {@code True} if a slot holds an element.
+	 */
+	private boolean[] m_used;
+
+	/**
+	 * The number of elements.
+	 */
+	private int m_size = 0;
+
+	/**
+	 * The number of elements at which the slots are doubled.
+	 */
+	private int m_threshold;
+
+	/**
+	 * Constructs a new {@code LongPairHashSet} with room for 16 elements.
+	 */
+	public LongPairHashSet() {
+		this(16);
+	}
+
+	/**
+	 * Constructs a new {@code LongPairHashSet} with room for the given number of elements.
+	 *
+	 * @param expectedSize The number of elements that can be added without resizing.
+	 */
+	public LongPairHashSet(final int expectedSize) {
+		Validate.inclusiveBetween(0, 1 << 29, expectedSize);
+
+		this.allocate(capacity(expectedSize));
+	}
+
+	/**
+	 * Returns the number of slots for the given number of elements.
+	 *
+	 * @param expectedSize The number of elements.
+	 * @return A power of two.
+	 */
+	static int capacity(final int expectedSize) {
+		final int minimum = (int) Math.ceil(Math.max(expectedSize, 2) / LOAD_FACTOR);
+
+		return Integer.highestOneBit(minimum - 1) << 1;
+	}
+
+	/**
+	 * Returns the hash of the given pair, mixed so that the low bits depend on all input bits.
+	 *
+	 * @param first The 1st value.
+	 * @param second The 2nd value.
+	 * @return The hash.
+	 */
+	static long hash(final long first, final long second) {
+		long result = (first * 0x9E3779B97F4A7C15L) ^ second;
+
+		result = (result ^ (result >>> 30)) * 0xBF58476D1CE4E5B9L;
+		result = (result ^ (result >>> 27)) * 0x94D049BB133111EBL;
+
+		return result ^ (result >>> 31);
+	}
+
+	/**
+	 * Allocates the given number of empty slots.
+	 *
+	 * @param capacity The number of slots, a power of two.
+	 */
+	private void allocate(final int capacity) {
+		this.m_firsts = new long[capacity];
+		this.m_seconds = new long[capacity];
+		this.m_used = new boolean[capacity];
+		this.m_threshold = (int) (capacity * LOAD_FACTOR);
+	}
+
+	/**
+	 * Returns the slot of the given pair or the empty slot it would be stored in.
+	 *
+	 * @param first The 1st value.
+	 * @param second The 2nd value.
+	 * @return The slot.
+	 */
+	private int find(final long first, final long second) {
+		final int mask = this.m_used.length - 1;
+		int slot = (int) hash(first, second) & mask;
+
+		while (this.m_used[slot] && ((this.m_firsts[slot] != first) || (this.m_seconds[slot] != second))) {
+			slot = (slot + 1) & mask;
+		}
+
+		return slot;
+	}
+
+	/**
+	 * Returns the number of elements.
+	 *
+	 * @return The number of elements.
+	 */
+	public int size() {
+		return this.m_size;
+	}
+
+	/**
+	 * Returns {@code True} if the set contains no elements.
+	 *
+	 * @return {@code True} if the set contains no elements.
+	 */
+	public boolean isEmpty() {
+		return (this.m_size == 0);
+	}
+
+	/**
+	 * Returns {@code True} if the set contains the given pair.
+	 *
+	 * @param first The 1st value.
+	 * @param second The 2nd value.
+	 * @return {@code True} if the set contains the given pair.
+	 */
+	public boolean contains(final long first, final long second) {
+		return this.m_used[this.find(first, second)];
+	}
+
+	/**
+	 * Adds the given pair.
+	 *
+	 * @param first The 1st value.
+	 * @param second The 2nd value.
+	 * @return {@code True} if the pair has been added, {@code False} if it was already contained.
+	 */
+	public boolean add(final long first, final long second) {
+		final int slot = this.find(first, second);
+
+		if (this.m_used[slot]) {
+			return false;
+		}
+
+		this.m_firsts[slot] = first;
+		this.m_seconds[slot] = second;
+		this.m_used[slot] = true;
+
+		if (++this.m_size > this.m_threshold) {
+			this.resize();
+		}
+
+		return true;
+	}
+
+	/**
+	 * Removes the given pair.
+	 *
+	 * @param first The 1st value.
+	 * @param second The 2nd value.
+	 * @return {@code True} if the pair has been removed, {@code False} if it was not contained.
+	 */
+	public boolean remove(final long first, final long second) {
+		final int mask = this.m_used.length - 1;
+		int slot = this.find(first, second);
+
+		if (!this.m_used[slot]) {
+			return false;
+		}
+
+		// Shift the following elements of the cluster back, unless they would move before their home slot.
+		for (int next = (slot + 1) & mask; this.m_used[next]; next = (next + 1) & mask) {
+			final int home = (int) hash(this.m_firsts[next], this.m_seconds[next]) & mask;
+
+			if (((next - home) & mask) >= ((next - slot) & mask)) {
+				this.m_firsts[slot] = this.m_firsts[next];
+				this.m_seconds[slot] = this.m_seconds[next];
+				slot = next;
+			}
+		}
+
+		this.m_used[slot] = false;
+		this.m_size--;
+		return true;
+	}
+
+	/**
+	 * Removes all elements.
+	 */
+	public void clear() {
+		Arrays.fill(this.m_used, false);
+		this.m_size = 0;
+	}
+
+	/**
+	 * Passes all elements to the given visitor, in no particular order. The set must not be modified meanwhile.
+	 *
+	 * @param visitor The visitor.
+	 */
+	public void forEach(final Visitor visitor) {
+		for (int i = 0; i < this.m_used.length; i++) {
+			if (this.m_used[i]) {
+				visitor.accept(this.m_firsts[i], this.m_seconds[i]);
+			}
+		}
+	}
+
+	/**
+	 * Doubles the number of slots.
+	 */
+	private void resize() {
+		final long[] firsts = this.m_firsts;
+		final long[] seconds = this.m_seconds;
+		final boolean[] used = this.m_used;
+
+		this.allocate(used.length * 2);
+
+		for (int i = 0; i < used.length; i++) {
+			if (used[i]) {
+				final int slot = this.find(firsts[i], seconds[i]);
+
+				this.m_firsts[slot] = firsts[i];
+				this.m_seconds[slot] = seconds[i];
+				this.m_used[slot] = true;
+			}
+		}
+	}
+
+}
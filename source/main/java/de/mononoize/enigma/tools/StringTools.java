@@ -15,13 +15,6 @@ public final class StringTools {
 	private StringTools() {
 	}
 	
-	public static void main(String[] args) {
-		final String text = "";
-		final int length = 5;
-		
-		System.out.println(format(text, length));
-	}
-	
 	/**
 	 * Formats the given text by arranging the characters into groups.
 	 * 
@@ -35,7 +28,7 @@ public final class StringTools {
 		Validate.notEmpty(text);
 		Validate.inclusiveBetween(0, (Integer.MAX_VALUE - 1), length);
 	
-		final StringBuffer result = new StringBuffer();
+		final StringBuilder result = new StringBuilder();
 		final int modulo = length + 1;
 		
 		// Splitting
@@ -66,7 +59,36 @@ public final class StringTools {
 	 * @return The formatted text.
 	 */
 	public static String format(final String text, final int length) {	
-		return format(text, length, ' ', '-');
+		Validate.notEmpty(text);
+		Validate.inclusiveBetween(0, (Integer.MAX_VALUE - 1), length);
+		
+		// Trim the text without copying it.
+		int begin = 0;
+		int end = text.length();
+		
+		while ((begin < end) && (text.charAt(begin) <= ' ')) {
+			begin++;
+		}
+		
+		while ((begin < end) && (text.charAt(end - 1) <= ' ')) {
+			end--;
+		}
+		
+		// The streaming formatter does not separate every character for a length of 0, nor pad blank texts.
+		if ((length == 0) || (begin == end)) {
+			return format(text, length, GroupFormatter.DEFAULT_SEPARATOR, GroupFormatter.DEFAULT_PADDING);
+		}
+		
+		final GroupFormatter formatter = new GroupFormatter.Builder().setLength(length).build();
+		final StringBuilder result = new StringBuilder(
+				(int) Math.min(formatter.getFormattedLength(end - begin), Integer.MAX_VALUE - 8));
+		
+		for (int i = begin; i < end; i++) {
+			formatter.append(text.charAt(i), result);
+		}
+		
+		formatter.finish(result);
+		return result.toString();
 	}
 	
 }
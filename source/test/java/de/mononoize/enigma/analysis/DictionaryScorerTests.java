@@ -0,0 +1,50 @@
+package de.mononoize.enigma.analysis;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.MethodOrderer.OrderAnnotation;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests the {@code DictionaryScorer}.
+ * 
+ * @author mononoize
+ */
+@TestMethodOrder(OrderAnnotation.class)
+public class DictionaryScorerTests {
+
+	@TempDir
+	Path m_directory;
+	
+	@Test
+	@Order(101)
+	public void testScore() {
+		final DictionaryScorer scorer = new DictionaryScorer(Arrays.asList("der", "Stadt", "Rettung", "Rett", "an"));
+		
+		assertEquals(0.0, scorer.score(""));
+		assertEquals(1.0, scorer.score("RETTUNG DER STADT"));
+		assertEquals(0.5, scorer.score("RETTXXXX"));
+		assertEquals(0.0, scorer.score("ANAN"));
+		assertEquals(2.0 / 3.0, scorer.score("QDERSTADTXYZ"), 1e-12);
+	}
+	
+	@Test
+	@Order(102)
+	public void testFromFile() throws IOException {
+		final Path file = this.m_directory.resolve("words.txt");
+		
+		Files.write(file, Arrays.asList("DER", "STADT", "RETTUNG"), StandardCharsets.UTF_8);
+		
+		assertEquals(1.0, DictionaryScorer.fromFile(file).score("RETTUNG DER STADT"));
+	}
+	
+}
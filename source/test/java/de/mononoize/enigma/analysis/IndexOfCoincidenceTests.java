@@ -0,0 +1,29 @@
+package de.mononoize.enigma.analysis;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.MethodOrderer.OrderAnnotation;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+/**
+ * Tests the {@code IndexOfCoincidence}.
+ * 
+ * @author mononoize
+ */
+@TestMethodOrder(OrderAnnotation.class)
+public class IndexOfCoincidenceTests {
+
+	@Test
+	@Order(101)
+	public void testCompute() {
+		assertEquals(0.0, IndexOfCoincidence.compute(""));
+		assertEquals(0.0, IndexOfCoincidence.compute("A"));
+		assertEquals(1.0, IndexOfCoincidence.compute("AAAA"));
+		assertEquals(0.0, IndexOfCoincidence.compute("ABCDEFGHIJKLMNOPQRSTUVWXYZ"));
+		assertEquals(1.0 / 3.0, IndexOfCoincidence.compute("AA BB"), 1e-12);
+		assertEquals(4L, IndexOfCoincidence.coincidences(new int[] { 2, 2, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0 }));
+	}
+	
+}
@@ -0,0 +1,80 @@
+package de.mononoize.enigma.analysis;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.MethodOrderer.OrderAnnotation;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests the {@code NGramScorer}.
+ * 
+ * @author mononoize
+ */
+@TestMethodOrder(OrderAnnotation.class)
+public class NGramScorerTests {
+
+	private static final String CORPUS = //
+			"Das Oberkommando der Wehrmacht gibt bekannt: Aachen ist gerettet. Durch gebuendelten Einsatz der " //
+		  + "Hilfskraefte konnte die Bedrohung abgewendet und die Rettung der Stadt gegen ein Uhr nachts sichergestellt " //
+		  + "werden. Die Versorgung der Bevoelkerung ist gesichert und die Zufahrtsstrassen sind wieder freigegeben worden.";
+	
+	@TempDir
+	Path m_directory;
+	
+	@Test
+	@Order(101)
+	public void testFromCorpus() throws IOException {
+		final Path corpus = this.m_directory.resolve("corpus.txt");
+		
+		Files.write(corpus, CORPUS.getBytes(StandardCharsets.UTF_8));
+		
+		assertThrows(IllegalArgumentException.class, () -> NGramScorer.fromCorpus(corpus, 1));
+		assertThrows(IllegalArgumentException.class, () -> NGramScorer.fromCorpus(corpus, 5));
+		
+		for (int order = 2; order <= 4; order++) {
+			final NGramScorer scorer = NGramScorer.fromCorpus(corpus, order);
+			
+			assertEquals(order, scorer.getOrder());
+			assertFalse(scorer.isMapped());
+			assertTrue(scorer.score("DIE RETTUNG DER STADT") > scorer.score("QXJ ZVKPWY FQW BXMJL"));
+			assertEquals(0.0, scorer.score("A"));
+		}
+	}
+	
+	@Test
+	@Order(102)
+	public void testMap() throws IOException {
+		final Path corpus = this.m_directory.resolve("corpus.txt");
+		final Path table = this.m_directory.resolve("quadgrams.bin");
+		
+		Files.write(corpus, CORPUS.getBytes(StandardCharsets.UTF_8));
+		
+		final NGramScorer heap = NGramScorer.fromCorpus(corpus, 4);
+		
+		heap.save(table);
+		
+		final NGramScorer mapped = NGramScorer.map(table);
+		
+		assertTrue(mapped.isMapped());
+		assertEquals(4, mapped.getOrder());
+		assertEquals(Files.size(table), 8 + (4L * 26 * 26 * 26 * 26));
+		
+		for (int code = 0; code < (26 * 26 * 26 * 26); code += 97) {
+			assertEquals(heap.get(code), mapped.get(code));
+		}
+		
+		assertEquals(heap.score(CORPUS), mapped.score(CORPUS), 1e-9);
+	}
+	
+}
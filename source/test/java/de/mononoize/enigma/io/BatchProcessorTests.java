@@ -0,0 +1,130 @@
+package de.mononoize.enigma.io;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.lang3.StringUtils;
+import org.junit.jupiter.api.MethodOrderer.OrderAnnotation;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.api.io.TempDir;
+
+import de.mononoize.enigma.machine.Enigma;
+import de.mononoize.enigma.machine.PackedKey;
+import de.mononoize.enigma.machine.components.Reflector;
+import de.mononoize.enigma.machine.components.Rotor;
+
+/**
+ * Tests the {@code BatchProcessor}.
+ * 
+ * @author mononoize
+ */
+@TestMethodOrder(OrderAnnotation.class)
+public class BatchProcessorTests {
+
+	private static final String TEXT = "DASOBERKOMMANDODERWEHRMACHTGIBTBEKANNTAACHENISTGERETTET";
+	
+	@TempDir
+	Path m_directory;
+	
+	private static Enigma.Builder getBuilder() {
+		return new Enigma.Builder() //
+				.addCables("AV BS CG DL FU HZ IN KM OW RX") // 
+				.setRotor1(Rotor.getRotorV(), 12, 'A') // 
+				.setRotor2(Rotor.getRotorIV(), 21, 'L') // 
+				.setRotor3(Rotor.getRotorII(), 2, 'B') // 
+				.setReflector(Reflector.getReflectorB());
+	}
+	
+	@Test
+	@Order(101)
+	public void testResolve() throws IOException {
+		final Path messages = Files.createDirectory(this.m_directory.resolve("messages"));
+		
+		Files.write(messages.resolve("b.txt"), new byte[0]);
+		Files.write(messages.resolve("a.txt"), new byte[0]);
+		Files.write(messages.resolve("c.log"), new byte[0]);
+		Files.createDirectory(messages.resolve("d.txt"));
+		
+		assertEquals(Arrays.asList(messages.resolve("a.txt"), messages.resolve("b.txt"), messages.resolve("c.log")), //
+				BatchProcessor.resolve(messages.toString()));
+		assertEquals(Arrays.asList(messages.resolve("a.txt"), messages.resolve("b.txt")), //
+				BatchProcessor.resolve(messages.resolve("*.txt").toString()));
+		
+		final Path keyFile = this.m_directory.resolve("key.txt");
+		final PackedKey key = getBuilder().toKey();
+		
+		Files.write(keyFile, Arrays.asList("# daily key", "", key.toString()), StandardCharsets.US_ASCII);
+		
+		assertEquals(key, BatchProcessor.readKey(keyFile));
+		
+		Files.write(keyFile, Arrays.asList("# no key"), StandardCharsets.US_ASCII);
+		
+		assertThrows(IllegalArgumentException.class, () -> BatchProcessor.readKey(keyFile));
+	}
+	
+	@Test
+	@Order(102)
+	public void testProcess() throws IOException {
+		final Path messages = Files.createDirectory(this.m_directory.resolve("messages"));
+		
+		for (int i = 0; i < 20; i++) {
+			Files.write(messages.resolve(String.format("%02d.txt", i)), //
+					StringUtils.repeat(TEXT, i).getBytes(StandardCharsets.US_ASCII));
+		}
+		
+		final BatchProcessor processor = new BatchProcessor.Builder() //
+				.setKey(getBuilder().toKey()) //
+				.setThreads(4) //
+				.build();
+		final List<Path> inputs = BatchProcessor.resolve(messages.resolve("*.txt").toString());
+		final BatchProcessor.Statistics code = processor.encode(inputs, this.m_directory.resolve("code"));
+		
+		assertEquals(20, code.getFiles().size());
+		assertEquals(TEXT.length() * 190L, code.getInputBytes());
+		assertEquals(0, code.getFiles().get(0).getOutputBytes());
+		
+		for (int i = 1; i < 20; i++) {
+			final String name = String.format("%02d.txt", i);
+			final String actual = Files.readString(this.m_directory.resolve("code").resolve(name), StandardCharsets.US_ASCII);
+			
+			assertEquals(getBuilder().build().encode(StringUtils.repeat(TEXT, i)), actual);
+		}
+		
+		final BatchProcessor.Statistics text = processor.decode( //
+				BatchProcessor.resolve(this.m_directory.resolve("code").toString()), this.m_directory.resolve("text"));
+		
+		assertEquals(code.getOutputBytes(), text.getInputBytes());
+		assertEquals(StringUtils.repeat(TEXT, 3), Files.readString(this.m_directory.resolve("text").resolve("03.txt"),
+				StandardCharsets.US_ASCII).replace(" ", "").replace("-", ""));
+	}
+	
+	@Test
+	@Order(103)
+	public void testOverwrite() throws IOException {
+		final Path messages = Files.createDirectory(this.m_directory.resolve("messages"));
+		final Path other = Files.createDirectory(this.m_directory.resolve("other"));
+		
+		Files.write(messages.resolve("a.txt"), TEXT.getBytes(StandardCharsets.US_ASCII));
+		Files.write(other.resolve("a.txt"), TEXT.getBytes(StandardCharsets.US_ASCII));
+		
+		final BatchProcessor processor = new BatchProcessor.Builder().setKey(getBuilder().toKey()).build();
+		final List<Path> inputs = Arrays.asList(messages.resolve("a.txt"));
+		
+		// The input files would be overwritten.
+		assertThrows(IllegalArgumentException.class, () -> processor.encode(inputs, messages));
+		assertThrows(IllegalArgumentException.class, () -> processor.encode(inputs, messages.resolve("..").resolve("messages")));
+		assertThrows(IllegalArgumentException.class, 
+				() -> processor.encode(Arrays.asList(messages.resolve("a.txt"), other.resolve("a.txt")), this.m_directory.resolve("code")));
+		assertEquals(TEXT, Files.readString(messages.resolve("a.txt"), StandardCharsets.US_ASCII));
+	}
+	
+}
@@ -0,0 +1,176 @@
+package de.mononoize.enigma.io;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.MethodOrderer.OrderAnnotation;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import de.mononoize.enigma.machine.Enigma;
+import de.mononoize.enigma.machine.components.Reflector;
+import de.mononoize.enigma.machine.components.Rotor;
+
+/**
+ * Tests the {@code EnigmaReader}, {@code EnigmaWriter}, {@code EnigmaInputStream} and {@code EnigmaOutputStream}.
+ * 
+ * @author mononoize
+ */
+@TestMethodOrder(OrderAnnotation.class)
+public class EnigmaStreamTests {
+
+	private static final String TEXT = //
+			"AUFKL XABTE ILUNG XVONX KURTI NOWAX KURTI NOWAX NORDW ESTLX SEBEZ XSEBE ZXUAF FLIEG ERSTR " //
+		  + "ASZER IQTUN GXDUB ROWKI XDUBR OWKIX OPOTS CHKAX OPOTS CHKAX UMXEI NSAQT DREIN ULLXU HRANG " //
+		  + "ETRET ENXAN GRIFF XINFX RGTX-";
+	
+	private static final String CODE = //
+			"EDPUD NRGYS ZRCXN UYTPO MRMBO FKTBZ REZKM LXLVE FGUEY SIOZV EQMIK UBPMM YLKLT TDEIS MDICA " //
+		  + "GYKUA CTCDO MOHWX MUUIA UBSTS LRNBZ SZWNR FXWFY SSXJZ VIJHI DISHP RKLKA YUPAD TXQSP INQMA " //
+		  + "TLPIF SVKDA SCTAC DPBOP VHJK-";
+	
+	private static Enigma getEnigma() {
+		return getEnigma(5);
+	}
+	
+	private static Enigma getEnigma(final int groupLength) {
+		return new Enigma.Builder() //
+				.setGroupLength(groupLength) //
+				.addCables("AV BS CG DL FU HZ IN KM OW RX") // 
+				.setRotor1(Rotor.getRotorV(), 12, 'A') // 
+				.setRotor2(Rotor.getRotorIV(), 21, 'L') // 
+				.setRotor3(Rotor.getRotorII(), 2, 'B') // 
+				.setReflector(Reflector.getReflectorB()) //
+				.build();
+	}
+	
+	@Test
+	@Order(101)
+	public void testWriter() throws IOException {
+		for (int chunk = 1; chunk <= TEXT.length(); chunk += 7) {
+			final StringWriter result = new StringWriter();
+			
+			try (final Writer writer = new EnigmaWriter(result, getEnigma())) {
+				for (int i = 0; i < TEXT.length(); i += chunk) {
+					writer.write(TEXT, i, Math.min(chunk, TEXT.length() - i));
+				}
+			}
+			
+			assertEquals(CODE, result.toString());
+		}
+	}
+	
+	@Test
+	@Order(102)
+	public void testReader() throws IOException {
+		for (int chunk = 1; chunk <= CODE.length(); chunk += 7) {
+			final StringBuilder result = new StringBuilder();
+			final char[] buffer = new char[chunk];
+			
+			try (final Reader reader = new EnigmaReader(new StringReader(CODE), getEnigma())) {
+				for (int count = reader.read(buffer); count >= 0; count = reader.read(buffer)) {
+					result.append(buffer, 0, count);
+				}
+			}
+			
+			assertEquals(TEXT, result.toString());
+		}
+	}
+	
+	@Test
+	@Order(103)
+	public void testOutputStream() throws IOException {
+		final ByteArrayOutputStream result = new ByteArrayOutputStream();
+		final byte[] text = TEXT.getBytes(StandardCharsets.US_ASCII);
+		
+		try (final OutputStream out = new EnigmaOutputStream(result, getEnigma())) {
+			for (int i = 0; i < text.length; i += 3) {
+				out.write(text, i, Math.min(3, text.length - i));
+			}
+		}
+		
+		assertEquals(CODE, new String(result.toByteArray(), StandardCharsets.US_ASCII));
+	}
+	
+	@Test
+	@Order(104)
+	public void testInputStream() throws IOException {
+		final ByteArrayOutputStream result = new ByteArrayOutputStream();
+		
+		try (final InputStream in = new EnigmaInputStream(new ByteArrayInputStream(CODE.getBytes(StandardCharsets.US_ASCII)), getEnigma())) {
+			for (int b = in.read(); b >= 0; b = in.read()) {
+				result.write(b);
+			}
+		}
+		
+		assertEquals(TEXT, new String(result.toByteArray(), StandardCharsets.US_ASCII));
+	}
+	
+	@Test
+	@Order(105)
+	public void testClosed() throws IOException {
+		final Writer writer = new EnigmaWriter(new StringWriter(), getEnigma());
+		writer.close();
+		writer.close();
+		
+		assertThrows(IOException.class, () -> writer.write("A"));
+		
+		final Reader reader = new EnigmaReader(new StringReader(TEXT), getEnigma());
+		reader.close();
+		
+		assertThrows(IOException.class, () -> reader.read());
+	}
+	
+	@Test
+	@Order(106)
+	public void testEmpty() throws IOException {
+		final StringWriter result = new StringWriter();
+		
+		try (final Writer writer = new EnigmaWriter(result, getEnigma())) {
+			writer.write("1234 ---");
+		}
+		
+		assertEquals("", result.toString());
+		assertEquals(-1, new EnigmaReader(new StringReader(""), getEnigma()).read());
+	}
+	
+	@Test
+	@Order(107)
+	public void testUngrouped() throws IOException {
+		final String expected = CODE.replace(" ", "").replace("-", "");
+		final StringWriter result = new StringWriter();
+		
+		try (final Writer writer = new EnigmaWriter(result, getEnigma(0))) {
+			writer.write(TEXT);
+		}
+		
+		assertEquals(expected, result.toString());
+		
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		
+		try (final OutputStream out = new EnigmaOutputStream(bytes, getEnigma(0))) {
+			out.write(TEXT.getBytes(StandardCharsets.US_ASCII));
+		}
+		
+		assertEquals(expected, new String(bytes.toByteArray(), StandardCharsets.US_ASCII));
+		
+		final char[] buffer = new char[TEXT.length()];
+		
+		try (final Reader reader = new EnigmaReader(new StringReader(TEXT), getEnigma(0))) {
+			assertEquals(expected, new String(buffer, 0, reader.read(buffer)));
+		}
+	}
+	
+}
@@ -0,0 +1,102 @@
+package de.mononoize.enigma.io;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.MethodOrderer.OrderAnnotation;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.api.io.TempDir;
+
+import de.mononoize.enigma.machine.Enigma;
+import de.mononoize.enigma.machine.components.Reflector;
+import de.mononoize.enigma.machine.components.Rotor;
+
+/**
+ * Tests the {@code MappedFileProcessor}.
+ * 
+ * @author mononoize
+ */
+@TestMethodOrder(OrderAnnotation.class)
+public class MappedFileProcessorTests {
+
+	private static final String TEXT = //
+			"AUFKL XABTE ILUNG XVONX KURTI NOWAX KURTI NOWAX NORDW ESTLX SEBEZ XSEBE ZXUAF FLIEG ERSTR " //
+		  + "ASZER IQTUN GXDUB ROWKI XDUBR OWKIX OPOTS CHKAX OPOTS CHKAX UMXEI NSAQT DREIN ULLXU HRANG " //
+		  + "ETRET ENXAN GRIFF XINFX RGTX-";
+	
+	private static final String CODE = //
+			"EDPUD NRGYS ZRCXN UYTPO MRMBO FKTBZ REZKM LXLVE FGUEY SIOZV EQMIK UBPMM YLKLT TDEIS MDICA " //
+		  + "GYKUA CTCDO MOHWX MUUIA UBSTS LRNBZ SZWNR FXWFY SSXJZ VIJHI DISHP RKLKA YUPAD TXQSP INQMA " //
+		  + "TLPIF SVKDA SCTAC DPBOP VHJK-";
+	
+	@TempDir
+	Path m_directory;
+	
+	private static Enigma getEnigma() {
+		return new Enigma.Builder() //
+				.addCables("AV BS CG DL FU HZ IN KM OW RX") // 
+				.setRotor1(Rotor.getRotorV(), 12, 'A') // 
+				.setRotor2(Rotor.getRotorIV(), 21, 'L') // 
+				.setRotor3(Rotor.getRotorII(), 2, 'B') // 
+				.setReflector(Reflector.getReflectorB()) //
+				.setCompiled(true) //
+				.build();
+	}
+	
+	@Test
+	@Order(101)
+	public void testEncodingDecoding() throws IOException {
+		final Path text = this.m_directory.resolve("text.txt");
+		final Path code = this.m_directory.resolve("code.txt");
+		final Path decoded = this.m_directory.resolve("decoded.txt");
+		
+		Files.write(text, TEXT.getBytes(StandardCharsets.US_ASCII));
+		
+		for (final int windowSize : new int[] { 1, 2, 5, 6, 7, 64, MappedFileProcessor.DEFAULT_WINDOW_SIZE }) {
+			final MappedFileProcessor processor = new MappedFileProcessor(getEnigma(), windowSize);
+			
+			final MappedFileProcessor.Statistics statistics = processor.encode(text, code);
+			assertEquals(TEXT.length(), statistics.getInputBytes());
+			assertEquals(CODE.length(), statistics.getOutputBytes());
+			assertEquals(CODE, new String(Files.readAllBytes(code), StandardCharsets.US_ASCII));
+			
+			processor.decode(code, decoded);
+			assertEquals(TEXT, new String(Files.readAllBytes(decoded), StandardCharsets.US_ASCII));
+		}
+	}
+	
+	@Test
+	@Order(102)
+	public void testEmpty() throws IOException {
+		final Path text = this.m_directory.resolve("empty.txt");
+		final Path code = this.m_directory.resolve("empty-code.txt");
+		
+		Files.write(text, "12 34 --".getBytes(StandardCharsets.US_ASCII));
+		
+		assertEquals(0, new MappedFileProcessor(getEnigma()).encode(text, code).getOutputBytes());
+		assertEquals(0, Files.size(code));
+	}
+	
+	@Test
+	@Order(103)
+	public void testSameFile() throws IOException {
+		final Path text = this.m_directory.resolve("text.txt");
+		final MappedFileProcessor processor = new MappedFileProcessor(getEnigma());
+		
+		Files.write(text, TEXT.getBytes(StandardCharsets.US_ASCII));
+		
+		// The input file must not be truncated.
+		assertThrows(IllegalArgumentException.class, () -> processor.encode(text, text));
+		assertThrows(IllegalArgumentException.class, 
+				() -> processor.encode(text, this.m_directory.resolve(".").resolve("text.txt")));
+		assertEquals(TEXT, new String(Files.readAllBytes(text), StandardCharsets.US_ASCII));
+	}
+	
+}
@@ -0,0 +1,118 @@
+package de.mononoize.enigma.machine;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.apache.commons.lang3.StringUtils;
+import org.junit.jupiter.api.MethodOrderer.OrderAnnotation;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import de.mononoize.enigma.machine.components.Reflector;
+import de.mononoize.enigma.machine.components.Rotor;
+
+/**
+ * Tests the {@code AsyncEnigma}.
+ * 
+ * @author mononoize
+ */
+@TestMethodOrder(OrderAnnotation.class)
+public class AsyncEnigmaTests {
+
+	private static final String TEXT = "DASOBERKOMMANDODERWEHRMACHTGIBTBEKANNTAACHENISTGERETTET";
+	
+	private static Enigma.Builder builder(final char position) {
+		return new Enigma.Builder() //
+				.addCables("AV BS CG DL FU HZ IN KM OW RX") //
+				.setRotor1(Rotor.getRotorII(), 'A', position) //
+				.setRotor2(Rotor.getRotorIV(), 'A', 'E') //
+				.setRotor3(Rotor.getRotorI(), 'A', 'V') //
+				.setReflector(Reflector.getReflectorB());
+	}
+	
+	@Test
+	@Order(101)
+	public void testEquivalence() {
+		assertThrows(IllegalArgumentException.class, () -> new AsyncEnigma.Builder().setQueueCapacity(0).build());
+		
+		try (final AsyncEnigma async = new AsyncEnigma.Builder().setThreads(4).build()) {
+			final List<CompletableFuture<String>> futures = new ArrayList<>();
+			final List<String> expected = new ArrayList<>();
+			
+			for (int i = 0; i < 26; i++) {
+				final Enigma.Builder builder = builder((char) ('A' + i));
+				final String text = StringUtils.repeat(TEXT, 1 + (i % 10));
+				
+				futures.add(async.encode(builder.toKey(), text));
+				expected.add(builder.build().encode(text));
+			}
+			
+			for (int i = 0; i < futures.size(); i++) {
+				assertEquals(expected.get(i), futures.get(i).join());
+			}
+			
+			final EnigmaSpec spec = builder('Q').buildSpec();
+			final byte[] code = async.encode(spec, TEXT.getBytes(StandardCharsets.US_ASCII)).join();
+			
+			assertEquals(builder('Q').build().encode(TEXT).replace(" ", ""), new String(code, StandardCharsets.US_ASCII));
+			assertArrayEquals(TEXT.getBytes(StandardCharsets.US_ASCII), async.decode(spec, code).join());
+			assertThrows(CompletionException.class, () -> async.encode(spec, "").join());
+		}
+	}
+	
+	@Test
+	@Order(102)
+	public void testBatching() {
+		final EnigmaSpec spec = builder('Q').buildSpec();
+		final String code = spec.encode(TEXT);
+		
+		try (final AsyncEnigma async = new AsyncEnigma.Builder().setThreads(1).setQueueCapacity(16).setBatchSize(1000).build()) {
+			final List<CompletableFuture<String>> futures = new ArrayList<>();
+			
+			for (int i = 0; i < 10000; i++) {
+				futures.add(async.encode(spec, TEXT));
+			}
+			
+			for (final CompletableFuture<String> future : futures) {
+				assertEquals(code, future.join());
+			}
+			
+			// The messages share a key, therefore they are collected into a few tasks that fit into the small queue.
+			assertEquals(10000, async.getCompletedCount());
+			assertTrue(async.getTaskCount() < 10000);
+			assertEquals(0, async.getQueueDepth());
+			assertEquals(0, async.getInFlightCount());
+		}
+	}
+	
+	@Test
+	@Order(103)
+	public void testRejection() {
+		final EnigmaSpec spec = builder('Q').buildSpec();
+		final String text = StringUtils.repeat(TEXT, 2000);
+		
+		try (final AsyncEnigma async = new AsyncEnigma.Builder().setThreads(1).setQueueCapacity(1).setBatchLength(0).build()) {
+			final List<CompletableFuture<String>> futures = new ArrayList<>();
+			
+			for (int i = 0; i < 100; i++) {
+				futures.add(async.encode(spec, text));
+			}
+			
+			final CompletionException exception = assertThrows(CompletionException.class,
+					() -> futures.forEach(CompletableFuture::join));
+			
+			assertTrue(exception.getCause() instanceof RejectedExecutionException);
+		}
+	}
+	
+}
@@ -0,0 +1,121 @@
+package de.mononoize.enigma.machine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.MethodOrderer.OrderAnnotation;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import de.mononoize.enigma.machine.components.Reflector;
+import de.mononoize.enigma.machine.components.Rotor;
+
+/**
+ * Tests the {@code BatchEngine}.
+ * 
+ * @author mononoize
+ */
+@TestMethodOrder(OrderAnnotation.class)
+public class BatchEngineTests {
+
+	@Test
+	@Order(101)
+	public void testBuilder() {
+		assertThrows(IllegalArgumentException.class, () -> new BatchEngine.Builder().build());
+		
+		final BatchEngine engine = new BatchEngine.Builder() //
+				.addMachine(new Enigma.Builder() //
+						.setRotor1(Rotor.getRotorI(), 'A', 'A') //
+						.setRotor2(Rotor.getRotorII(), 'A', 'A') //
+						.setRotor3(Rotor.getRotorIII(), 'A', 'A') //
+						.setReflector(Reflector.getReflectorB())) //
+				.build();
+		
+		assertEquals(1, engine.size());
+		assertThrows(IllegalArgumentException.class, () -> engine.decode(Arrays.asList("ABC", "DEF")));
+	}
+	
+	@Test
+	@Order(102)
+	public void testEquivalence() {
+		final Random random = new Random(42);
+		final List<Rotor> rotors = new ArrayList<>(Rotor.getRotors());
+		final List<Reflector> reflectors = Reflector.getReflectors();
+		final BatchEngine.Builder builder = new BatchEngine.Builder();
+		final List<String> texts = new ArrayList<>();
+		final List<String> expected = new ArrayList<>();
+		
+		for (int i = 0; i < 64; i++) {
+			// Each wheel can only be inserted once.
+			Collections.shuffle(rotors, random);
+			
+			final Enigma.Builder machine = new Enigma.Builder() //
+					.addCables("AV BS CG DL FU HZ IN KM OW RX") // 
+					.setRotor1(rotors.get(0), 1 + random.nextInt(26), (char) ('A' + random.nextInt(26))) // 
+					.setRotor2(rotors.get(1), 1 + random.nextInt(26), (char) ('A' + random.nextInt(26))) // 
+					.setRotor3(rotors.get(2), 1 + random.nextInt(26), (char) ('A' + random.nextInt(26))) // 
+					.setRotor4(rotors.get(3), 1 + random.nextInt(26), (char) ('A' + random.nextInt(26))) // 
+					.setReflector(reflectors.get(random.nextInt(reflectors.size()))) //
+					.setGroupLength(random.nextInt(8));
+			
+			// Messages of different lengths with characters that are skipped.
+			final StringBuilder text = new StringBuilder();
+			
+			for (int j = 1 + random.nextInt(2000); j > 0; j--) {
+				text.append((random.nextInt(10) == 0) ? ' ' : (char) ('A' + random.nextInt(26)));
+			}
+			
+			builder.addMachine(machine);
+			texts.add(text.toString());
+			expected.add(machine.build().decode(text.toString()));
+		}
+		
+		final BatchEngine engine = builder.build();
+		
+		assertEquals(expected, engine.decode(texts));
+		assertEquals(expected, engine.encode(texts));
+	}
+	
+	@Test
+	@Order(103)
+	public void testInterleaved() {
+		final Enigma.Builder machine1 = new Enigma.Builder() //
+				.setRotor1(Rotor.getRotorI(), 'A', 'A') //
+				.setRotor2(Rotor.getRotorII(), 'A', 'A') //
+				.setRotor3(Rotor.getRotorIII(), 'A', 'A') //
+				.setReflector(Reflector.getReflectorB());
+		
+		final Enigma.Builder machine2 = new Enigma.Builder() //
+				.addCables("AV BS CG DL FU HZ IN KM OW RX") // 
+				.setRotor1(Rotor.getRotorV(), 'L', 'Q') //
+				.setRotor2(Rotor.getRotorIV(), 'U', 'E') //
+				.setRotor3(Rotor.getRotorII(), 'B', 'B') //
+				.setReflector(Reflector.getReflectorC());
+		
+		final BatchEngine engine = new BatchEngine.Builder().addMachine(machine1).addMachine(machine2).build();
+		final Enigma enigma1 = machine1.build();
+		final Enigma enigma2 = machine2.build();
+		final byte[] letters = new byte[2 * 100];
+		
+		// The j-th letter of machine i is stored at j * size + i.
+		for (int j = 0; j < 100; j++) {
+			letters[(j * 2) + 0] = (byte) (j % 26);
+			letters[(j * 2) + 1] = (byte) ((j * 7) % 26);
+		}
+		
+		engine.process(letters, letters, 100);
+		
+		for (int j = 0; j < 100; j++) {
+			assertEquals(enigma1.press((char) ('A' + (j % 26))), (char) ('A' + letters[(j * 2) + 0]));
+			assertEquals(enigma2.press((char) ('A' + ((j * 7) % 26))), (char) ('A' + letters[(j * 2) + 1]));
+		}
+	}
+	
+}
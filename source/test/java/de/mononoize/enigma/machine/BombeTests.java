@@ -0,0 +1,142 @@
+package de.mononoize.enigma.machine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.MethodOrderer.OrderAnnotation;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import de.mononoize.enigma.machine.components.Reflector;
+import de.mononoize.enigma.machine.components.Rotor;
+
+/**
+ * Tests the {@code Bombe}.
+ * 
+ * @author mononoize
+ */
+@TestMethodOrder(OrderAnnotation.class)
+public class BombeTests {
+
+	private static final String TEXT = //
+			"WETTERVORHERSAGEBISKAYAXSTURMAUSWESTXSICHTWEITEZWEIKILOMETERXDERKOMMANDANT";
+	
+	private static final String CRIB = "WETTERVORHERSAGEBISKAYA";
+	
+	@Test
+	@Order(101)
+	public void testBuilder() {
+		assertThrows(NullPointerException.class, () -> new Bombe.Builder().setCrib(CRIB).build());
+		assertThrows(IllegalArgumentException.class, () -> new Bombe.Builder().setCiphertext("ABC").setCrib(CRIB).build());
+		assertThrows(IllegalArgumentException.class, () -> new Bombe.Builder().setCiphertext("ABCD").setCrib("XBYZ").build());
+		
+		assertEquals(List.of(0, 2), Bombe.getCribPositions("ABCDE", "XCA"));
+		assertEquals('E', new Bombe.Builder().setCiphertext("QRSTU").setCrib("EEEEE").build().getTestRegister());
+	}
+	
+	@Test
+	@Order(102)
+	public void testRun() {
+		final String code = new Enigma.Builder() //
+				.addCables("AV BS CG DL FU HZ IN KM OW RX") // 
+				.setRotor1(Rotor.getRotorIII(), 'A', 'K') // 
+				.setRotor2(Rotor.getRotorI(), 'A', 'D') // 
+				.setRotor3(Rotor.getRotorV(), 'A', 'P') // 
+				.setReflector(Reflector.getReflectorB()) //
+				.build() //
+				.encode(TEXT);
+		
+		assertTrue(Bombe.getCribPositions(code, CRIB).contains(0));
+		
+		final Bombe bombe = new Bombe.Builder() //
+				.setCiphertext(code) //
+				.setCrib(CRIB) //
+				.setRotors(Arrays.asList(Rotor.getRotorI(), Rotor.getRotorII(), Rotor.getRotorIII(), Rotor.getRotorV())) //
+				.setPool(new ForkJoinPool(4)) //
+				.build();
+		
+		final List<Bombe.Stop> stops = bombe.run();
+		
+		Bombe.Stop found = null;
+		
+		for (final Bombe.Stop stop : stops) {
+			if ("ROT III".equals(stop.getRotor1().getName()) && "ROT I".equals(stop.getRotor2().getName()) 
+					&& "ROT V".equals(stop.getRotor3().getName()) && (stop.getRotor1Position() == 'K')
+					&& (stop.getRotor2Position() == 'D') && (stop.getRotor3Position() == 'P')) {
+				found = stop;
+			}
+		}
+		
+		assertTrue(found != null);
+		assertTrue(stops.size() < 100, stops.size() + " stops");
+		
+		for (final String cable : found.getCables().split(" ")) {
+			assertTrue("AV BS CG DL FU HZ IN KM OW RX".contains(cable), cable);
+		}
+	}
+	
+	@Test
+	@Order(103)
+	public void testDeadWires() {
+		final String code = new Enigma.Builder() //
+				.addCables("AV BS CG DL FU HZ IN KM OW RX") // 
+				.setRotor1(Rotor.getRotorIII(), 'A', 'K') // 
+				.setRotor2(Rotor.getRotorI(), 'A', 'D') // 
+				.setRotor3(Rotor.getRotorV(), 'A', 'P') // 
+				.setReflector(Reflector.getReflectorB()) //
+				.build() //
+				.encode(TEXT);
+		
+		// The short menu contradicts the hypothesis 'A' for the test register 'B' without making 25 wires live.
+		final Bombe bombe = new Bombe.Builder() //
+				.setCiphertext(code) //
+				.setCrib("WETTERVORH") //
+				.setRotors(Arrays.asList(Rotor.getRotorI(), Rotor.getRotorIII(), Rotor.getRotorV())) //
+				.build();
+		
+		assertEquals('B', bombe.getTestRegister());
+		
+		Bombe.Stop found = null;
+		
+		for (final Bombe.Stop stop : bombe.run()) {
+			if ("ROT III".equals(stop.getRotor1().getName()) && "ROT I".equals(stop.getRotor2().getName()) 
+					&& "ROT V".equals(stop.getRotor3().getName()) && (stop.getRotor1Position() == 'K')
+					&& (stop.getRotor2Position() == 'D') && (stop.getRotor3Position() == 'P')) {
+				assertNotEquals('A', stop.getStecker());
+				assertTrue(stop.getCables().contains("B" + stop.getStecker()), stop.toString());
+				
+				if (stop.getStecker() == 'S') {
+					found = stop;
+				}
+			}
+		}
+		
+		assertTrue(found != null);
+		
+		for (final String cable : found.getCables().split(" ")) {
+			assertTrue("AV BS CG DL FU HZ IN KM OW RX".contains(cable), cable);
+		}
+	}
+	
+	@Test
+	@Order(104)
+	public void testCancel() {
+		final Bombe bombe = new Bombe.Builder() //
+				.setCiphertext("QRSTU") //
+				.setCrib("EEEEE") //
+				.build();
+		
+		bombe.cancel();
+		
+		assertTrue(bombe.isCancelled());
+		assertTrue(bombe.run().isEmpty());
+	}
+	
+}
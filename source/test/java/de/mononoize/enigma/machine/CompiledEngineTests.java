@@ -0,0 +1,81 @@
+package de.mononoize.enigma.machine;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.MethodOrderer.OrderAnnotation;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import de.mononoize.enigma.machine.components.Reflector;
+import de.mononoize.enigma.machine.components.Rotor;
+import de.mononoize.enigma.machine.components.Wiring;
+
+/**
+ * Tests the {@code CompiledEngine}.
+ * 
+ * @author mononoize
+ */
+@TestMethodOrder(OrderAnnotation.class)
+public class CompiledEngineTests {
+
+	/**
+	 * The number of letters per message, long enough to step the 3rd rotor several times.
+	 */
+	private static final int LENGTH = 26 * 26 * 4;
+	
+	@Test
+	@Order(101)
+	public void testEquivalence() {
+		final Random random = new Random(42);
+		final List<Rotor> rotors = new ArrayList<>(Rotor.getRotors());
+		final List<Reflector> reflectors = Reflector.getReflectors();
+		final StringBuilder text = new StringBuilder(LENGTH);
+		
+		for (int i = 0; i < LENGTH; i++) {
+			text.append((char) ('A' + random.nextInt(26)));
+		}
+		
+		for (int i = 0; i < 50; i++) {
+			// Each wheel can only be inserted once.
+			Collections.shuffle(rotors, random);
+			
+			final Enigma.Builder builder = new Enigma.Builder() //
+					.addCables("AV BS CG DL FU HZ IN KM OW RX") // 
+					.setRotor1(rotors.get(0), 1 + random.nextInt(26), (char) ('A' + random.nextInt(26))) // 
+					.setRotor2(rotors.get(1), 1 + random.nextInt(26), (char) ('A' + random.nextInt(26))) // 
+					.setRotor3(rotors.get(2), 1 + random.nextInt(26), (char) ('A' + random.nextInt(26))) // 
+					.setRotor4(rotors.get(3), 1 + random.nextInt(26), (char) ('A' + random.nextInt(26))) // 
+					.setReflector(reflectors.get(random.nextInt(reflectors.size())));
+			
+			final String expected = builder.build().encode(text.toString());
+			final Enigma compiled = builder.setCompiled(true).build();
+			
+			assertEquals(expected, compiled.encode(text.toString()));
+			assertEquals(text.toString(), compiled.decode(expected).replace("-", "").replace(" ", ""));
+		}
+	}
+	
+	@Test
+	@Order(102)
+	public void testSharedTables() {
+		for (final Rotor rotor : Rotor.getRotors()) {
+			final byte[] expected = new byte[Wiring.TABLE_SIZE];
+			
+			rotor.getWiring().copyForwardTable(3, expected);
+			
+			final byte[] table = CompiledEngine.getTable(rotor.getWiring(), false, 3);
+			
+			assertSame(table, CompiledEngine.getTable(rotor.getWiring(), false, 3));
+			assertArrayEquals(expected, table);
+		}
+	}
+	
+}
@@ -0,0 +1,144 @@
+package de.mononoize.enigma.machine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.MethodOrderer.OrderAnnotation;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import de.mononoize.enigma.machine.components.Reflector;
+import de.mononoize.enigma.machine.components.Rotor;
+
+/**
+ * Benchmarks the number of bytes allocated per letter by the {@code Enigma}.
+ *
+ * @author mononoize
+ */
+@TestMethodOrder(OrderAnnotation.class)
+public class EnigmaAllocationTests {
+
+	/**
+	 * The number of letters per measured message.
+	 */
+	private static final int LENGTH = 1 << 20;
+
+	/**
+	 * The number of warm-up rounds.
+	 */
+	private static final int WARMUP = 20;
+
+	@Test
+	@Order(101)
+	public void testAllocationComponents() {
+		assertEquals(0L, measureBytesPerLetter(false));
+	}
+
+	@Test
+	@Order(102)
+	public void testAllocationCompiled() {
+		assertEquals(0L, measureBytesPerLetter(true));
+	}
+
+	@Test
+	@Order(103)
+	public void testAllocationBytes() {
+		assertEquals(0L, measureBytesPerByte(false));
+		assertEquals(0L, measureBytesPerByte(true));
+	}
+	
+	/**
+	 * Returns the number of bytes allocated per letter (rounded down) by encoding a long message into a pre-allocated
+	 * output array.
+	 *
+	 * @param compiled {@code True} if the compiled engine shall be used.
+	 * @return The number of bytes allocated per letter.
+	 */
+	private static long measureBytesPerLetter(final boolean compiled) {
+		final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		assumeTrue(threads.isThreadAllocatedMemorySupported());
+		threads.setThreadAllocatedMemoryEnabled(true);
+
+		final Enigma enigma = new Enigma.Builder() //
+				.addCables("AV BS CG DL FU HZ IN KM OW RX") //
+				.setRotor1(Rotor.getRotorVIII(), 13, 'V') //
+				.setRotor2(Rotor.getRotorVI(), 8, 'Z') //
+				.setRotor3(Rotor.getRotorIII(), 1, 'U') //
+				.setReflector(Reflector.getReflectorB()) //
+				.setCompiled(compiled) //
+				.build();
+
+		final char[] input = new char[LENGTH];
+		final char[] output = new char[LENGTH];
+
+		for (int i = 0; i < LENGTH; i++) {
+			input[i] = (char) ('A' + (i % 26));
+		}
+
+		for (int i = 0; i < WARMUP; i++) {
+			enigma.encode(input, 0, LENGTH / 16, output, 0);
+		}
+
+		final long threadId = Thread.currentThread().getId();
+		final long before = threads.getThreadAllocatedBytes(threadId);
+		final int count = enigma.encode(input, 0, LENGTH, output, 0);
+		final long after = threads.getThreadAllocatedBytes(threadId);
+
+		assertEquals(LENGTH, count);
+		assertEquals(false, Arrays.equals(input, output));
+
+		return ((after - before) / count);
+	}
+
+	/**
+	 * Returns the number of bytes allocated per letter (rounded down) by encoding a long ASCII message from a direct
+	 * buffer into another direct buffer.
+	 *
+	 * @param compiled {@code True} if the compiled engine shall be used.
+	 * @return The number of bytes allocated per letter.
+	 */
+	private static long measureBytesPerByte(final boolean compiled) {
+		final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		assumeTrue(threads.isThreadAllocatedMemorySupported());
+		threads.setThreadAllocatedMemoryEnabled(true);
+
+		final Enigma enigma = new Enigma.Builder() //
+				.addCables("AV BS CG DL FU HZ IN KM OW RX") //
+				.setRotor1(Rotor.getRotorVIII(), 13, 'V') //
+				.setRotor2(Rotor.getRotorVI(), 8, 'Z') //
+				.setRotor3(Rotor.getRotorIII(), 1, 'U') //
+				.setReflector(Reflector.getReflectorB()) //
+				.setCompiled(compiled) //
+				.build();
+
+		final ByteBuffer input = ByteBuffer.allocateDirect(LENGTH);
+		final ByteBuffer output = ByteBuffer.allocateDirect(LENGTH);
+
+		for (int i = 0; i < LENGTH; i++) {
+			input.put(i, (byte) ('A' + (i % 26)));
+		}
+
+		for (int i = 0; i < WARMUP; i++) {
+			enigma.encode(input.clear().limit(LENGTH / 16), output.clear());
+		}
+
+		input.clear();
+		output.clear();
+
+		final long threadId = Thread.currentThread().getId();
+		final long before = threads.getThreadAllocatedBytes(threadId);
+		final int count = enigma.encode(input, output);
+		final long after = threads.getThreadAllocatedBytes(threadId);
+
+		assertEquals(LENGTH, count);
+		assertEquals(LENGTH, output.position());
+
+		return ((after - before) / count);
+	}
+
+}
@@ -0,0 +1,141 @@
+package de.mononoize.enigma.machine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.MethodOrderer.OrderAnnotation;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import de.mononoize.enigma.machine.components.Reflector;
+import de.mononoize.enigma.machine.components.Rotor;
+
+/**
+ * Tests the {@code EnigmaCache}.
+ * 
+ * @author mononoize
+ */
+@TestMethodOrder(OrderAnnotation.class)
+public class EnigmaCacheTests {
+
+	private static final String TEXT = "DASOBERKOMMANDODERWEHRMACHTGIBTBEKANNTAACHENISTGERETTET";
+	
+	private static Enigma.Builder builder(final char position) {
+		return new Enigma.Builder() //
+				.addCables("AV BS CG DL FU HZ IN KM OW RX") //
+				.setRotor1(Rotor.getRotorII(), 'A', position) //
+				.setRotor2(Rotor.getRotorIV(), 'A', 'E') //
+				.setRotor3(Rotor.getRotorI(), 'A', 'V') //
+				.setReflector(Reflector.getReflectorB());
+	}
+	
+	@Test
+	@Order(101)
+	public void testGet() {
+		assertThrows(IllegalArgumentException.class, () -> new EnigmaCache.Builder().setMaximumSize(0).build());
+		
+		final EnigmaCache cache = new EnigmaCache.Builder().build();
+		final PackedKey key = builder('Q').toKey();
+		final EnigmaSpec spec = cache.get(key);
+		
+		assertSame(spec, cache.get(key));
+		assertSame(spec, cache.get(builder('Q')));
+		assertEquals(builder('Q').build().encode(TEXT), spec.encode(TEXT));
+		assertEquals(2, cache.getStats().getHitCount());
+		assertEquals(1, cache.getStats().getMissCount());
+		assertEquals(2.0 / 3.0, cache.getStats().getHitRate(), 1e-12);
+		
+		cache.invalidate(key);
+		
+		assertNull(cache.getIfPresent(key));
+		assertEquals(0, cache.size());
+	}
+	
+	@Test
+	@Order(102)
+	public void testEviction() {
+		final EnigmaCache cache = new EnigmaCache.Builder().setMaximumSize(3).build();
+		final List<PackedKey> keys = new ArrayList<>();
+		
+		for (char position = 'A'; position <= 'D'; position++) {
+			keys.add(builder(position).toKey());
+		}
+		
+		cache.get(keys.get(0));
+		cache.get(keys.get(1));
+		cache.get(keys.get(2));
+		cache.get(keys.get(0));
+		cache.get(keys.get(3));
+		
+		assertEquals(3, cache.size());
+		assertEquals(1, cache.getStats().getEvictionCount());
+		assertNull(cache.getIfPresent(keys.get(1)));
+		assertNotNull(cache.getIfPresent(keys.get(0)));
+		
+		cache.invalidateAll();
+		
+		assertEquals(0, cache.size());
+	}
+	
+	@Test
+	@Order(103)
+	public void testConcurrency() {
+		final EnigmaCache cache = new EnigmaCache.Builder().setMaximumSize(8).build();
+		final List<PackedKey> keys = new ArrayList<>();
+		
+		for (char position = 'A'; position <= 'P'; position++) {
+			keys.add(builder(position).toKey());
+		}
+		
+		IntStream.range(0, 10000).parallel().forEach(i -> {
+			assertNotNull(cache.get(keys.get(i % keys.size())));
+		});
+		
+		assertEquals(8, cache.size());
+		assertEquals(10000, cache.getStats().getHitCount() + cache.getStats().getMissCount());
+	}
+	
+	@Test
+	@Order(104)
+	public void testSampledEviction() {
+		final EnigmaCache cache = new EnigmaCache.Builder().setMaximumSize(2 * EnigmaCache.SAMPLE_SIZE).build();
+		final List<PackedKey> keys = new ArrayList<>();
+		
+		for (char position1 = 'A'; position1 <= 'Z'; position1++) {
+			for (char position2 = 'A'; position2 <= 'Z'; position2++) {
+				keys.add(builder(position1).setRotor2(Rotor.getRotorIV(), 'A', position2).toKey());
+			}
+		}
+		
+		// The hot key is used after every miss and therefore never the least recently used of a sample.
+		for (final PackedKey key : keys) {
+			cache.get(key);
+			cache.get(keys.get(0));
+		}
+		
+		assertEquals(2 * EnigmaCache.SAMPLE_SIZE, cache.size());
+		assertEquals(keys.size() - (2 * EnigmaCache.SAMPLE_SIZE), cache.getStats().getEvictionCount());
+		assertNotNull(cache.getIfPresent(keys.get(0)));
+		
+		// The slots of invalidated specs are reused without evicting another spec.
+		cache.invalidate(keys.get(keys.size() - 1));
+		cache.invalidate(keys.get(keys.size() - 2));
+		
+		assertEquals((2 * EnigmaCache.SAMPLE_SIZE) - 2, cache.size());
+		
+		cache.get(keys.get(keys.size() - 1));
+		cache.get(keys.get(keys.size() - 2));
+		
+		assertEquals(2 * EnigmaCache.SAMPLE_SIZE, cache.size());
+		assertEquals(keys.size() - (2 * EnigmaCache.SAMPLE_SIZE), cache.getStats().getEvictionCount());
+	}
+	
+}
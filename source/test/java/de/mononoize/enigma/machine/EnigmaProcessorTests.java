@@ -0,0 +1,206 @@
+package de.mononoize.enigma.machine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.MethodOrderer.OrderAnnotation;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import de.mononoize.enigma.machine.components.Reflector;
+import de.mononoize.enigma.machine.components.Rotor;
+
+/**
+ * Tests the {@code EnigmaProcessor}.
+ * 
+ * @author mononoize
+ */
+@TestMethodOrder(OrderAnnotation.class)
+public class EnigmaProcessorTests {
+
+	private static final String TEXT = "DASOBERKOMMANDODERWEHRMACHTGIBTBEKANNTAACHENISTGERETTET";
+	
+	private static Enigma.Builder builder(final char position) {
+		return new Enigma.Builder() //
+				.addCables("AV BS CG DL FU HZ IN KM OW RX") //
+				.setRotor1(Rotor.getRotorII(), 'A', position) //
+				.setRotor2(Rotor.getRotorIV(), 'A', 'E') //
+				.setRotor3(Rotor.getRotorI(), 'A', 'V') //
+				.setReflector(Reflector.getReflectorB());
+	}
+	
+	/**
+	 * Collects the messages, requesting them in steps of the given size. A collector that does not repeat only
+	 * requests a single step. The arrival latch counts down once per message.
+	 */
+	private static final class Collector implements Flow.Subscriber<EnigmaProcessor.Message> {
+		
+		private final List<EnigmaProcessor.Message> m_messages = new ArrayList<>();
+		
+		private final CountDownLatch m_done = new CountDownLatch(1);
+		
+		private final CountDownLatch m_arrived;
+		
+		private final long m_step;
+		
+		private final boolean m_repeat;
+		
+		private Flow.Subscription m_subscription;
+		
+		private volatile Throwable m_error;
+		
+		private Collector(final long step, final boolean repeat, final int expected) {
+			this.m_step = step;
+			this.m_repeat = repeat;
+			this.m_arrived = new CountDownLatch(expected);
+		}
+		
+		@Override
+		public void onSubscribe(final Flow.Subscription subscription) {
+			this.m_subscription = subscription;
+			subscription.request(this.m_step);
+		}
+		
+		@Override
+		public void onNext(final EnigmaProcessor.Message message) {
+			this.m_messages.add(message);
+			this.m_arrived.countDown();
+			
+			if (this.m_repeat && ((this.m_messages.size() % this.m_step) == 0)) {
+				this.m_subscription.request(this.m_step);
+			}
+		}
+		
+		@Override
+		public void onError(final Throwable throwable) {
+			this.m_error = throwable;
+			this.m_done.countDown();
+		}
+		
+		@Override
+		public void onComplete() {
+			this.m_done.countDown();
+		}
+		
+	}
+	
+	@Test
+	@Order(101)
+	public void testOrder() throws Exception {
+		assertThrows(IllegalArgumentException.class, () -> new EnigmaProcessor.Builder().setWorkers(0).build());
+		
+		final EnigmaProcessor processor = new EnigmaProcessor.Builder().setWorkers(4).setBufferSize(16).build();
+		final Collector collector = new Collector(3, true, 2000);
+		final Map<PackedKey, List<String>> expected = new HashMap<>();
+		
+		processor.subscribe(collector);
+		
+		try (final SubmissionPublisher<EnigmaProcessor.Message> publisher = new SubmissionPublisher<>()) {
+			publisher.subscribe(processor);
+			
+			for (int i = 0; i < 2000; i++) {
+				final Enigma.Builder builder = builder((char) ('A' + (i % 7)));
+				final PackedKey key = builder.toKey();
+				final String text = TEXT.substring(i % 20);
+				
+				expected.computeIfAbsent(key, k -> new ArrayList<>()).add(builder.build().encode(text));
+				publisher.submit(new EnigmaProcessor.Message(key, text));
+			}
+		}
+		
+		assertTrue(collector.m_done.await(30, TimeUnit.SECONDS));
+		assertNull(collector.m_error);
+		assertEquals(2000, collector.m_messages.size());
+		
+		// The messages of each key are emitted in their order.
+		final Map<PackedKey, List<String>> actual = new HashMap<>();
+		
+		for (final EnigmaProcessor.Message message : collector.m_messages) {
+			actual.computeIfAbsent(message.getKey(), k -> new ArrayList<>()).add(message.getPayload());
+		}
+		
+		assertEquals(expected, actual);
+	}
+	
+	@Test
+	@Order(102)
+	public void testDemand() throws Exception {
+		final AtomicLong requested = new AtomicLong();
+		final PackedKey key = builder('Q').toKey();
+		final EnigmaProcessor processor = new EnigmaProcessor.Builder().setBufferSize(8).build();
+		
+		// An endless upstream that records the demand.
+		processor.onSubscribe(new Flow.Subscription() {
+			
+			@Override
+			public void request(final long n) {
+				for (long i = 0; i < n; i++) {
+					requested.incrementAndGet();
+					processor.onNext(new EnigmaProcessor.Message(key, TEXT));
+				}
+			}
+			
+			@Override
+			public void cancel() {
+			}
+			
+		});
+		
+		final Collector collector = new Collector(5, false, 5);
+		
+		processor.subscribe(collector);
+		
+		assertTrue(collector.m_arrived.await(10, TimeUnit.SECONDS));
+		assertEquals(5, collector.m_messages.size());
+		assertEquals(5, requested.get());
+		
+		processor.onError(new IllegalStateException("upstream"));
+		
+		assertTrue(collector.m_done.await(10, TimeUnit.SECONDS));
+		assertEquals("upstream", collector.m_error.getMessage());
+	}
+	
+	@Test
+	@Order(103)
+	public void testError() throws Exception {
+		final EnigmaProcessor processor = new EnigmaProcessor.Builder().build();
+		final Collector collector = new Collector(Long.MAX_VALUE, false, 2);
+		final Collector second = new Collector(1, false, 0);
+		
+		processor.subscribe(collector);
+		processor.subscribe(second);
+		
+		assertTrue(second.m_error instanceof IllegalStateException);
+		
+		final PackedKey key = builder('A').toKey();
+		
+		try (final SubmissionPublisher<EnigmaProcessor.Message> publisher = new SubmissionPublisher<>()) {
+			publisher.subscribe(processor);
+			publisher.submit(new EnigmaProcessor.Message(key, ""));
+			publisher.submit(new EnigmaProcessor.Message(key, TEXT));
+		}
+		
+		// The invalid message is emitted with its error and does not terminate the stream.
+		assertTrue(collector.m_done.await(10, TimeUnit.SECONDS));
+		assertNull(collector.m_error);
+		assertEquals(2, collector.m_messages.size());
+		assertTrue(collector.m_messages.get(0).getError() instanceof IllegalArgumentException);
+		assertEquals("", collector.m_messages.get(0).getPayload());
+		assertNull(collector.m_messages.get(1).getError());
+		assertEquals(builder('A').build().encode(TEXT), collector.m_messages.get(1).getPayload());
+	}
+	
+}
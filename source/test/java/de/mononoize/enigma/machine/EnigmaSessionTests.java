@@ -0,0 +1,90 @@
+package de.mononoize.enigma.machine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.apache.commons.lang3.StringUtils;
+import org.junit.jupiter.api.MethodOrderer.OrderAnnotation;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import de.mononoize.enigma.machine.components.Reflector;
+import de.mononoize.enigma.machine.components.Rotor;
+
+/**
+ * Tests the {@code EnigmaSession}.
+ * 
+ * @author mononoize
+ */
+@TestMethodOrder(OrderAnnotation.class)
+public class EnigmaSessionTests {
+
+	private static final String TEXT = StringUtils.repeat("DASOBERKOMMANDODERWEHRMACHTGIBTBEKANNTAACHENISTGERETTET", 50);
+	
+	private static Enigma.Builder getBuilder() {
+		return new Enigma.Builder() //
+				.addCables("AV BS CG DL FU HZ IN KM OW RX") //
+				.setRotor1(Rotor.getRotorVIII(), 'M', 'Z') //
+				.setRotor2(Rotor.getRotorVI(), 'H', 'D') //
+				.setRotor3(Rotor.getRotorV(), 'A', 'R') //
+				.setRotor4(Rotor.getRotorBeta(), 'C', 'Q') //
+				.setReflector(Reflector.getReflectorBruno());
+	}
+	
+	@Test
+	@Order(101)
+	public void testContinuity() {
+		final String code = getBuilder().build().encode(TEXT).replace(" ", "").replace("-", "");
+		final EnigmaSession session = EnigmaSession.open(getBuilder().toKey());
+		final StringBuilder result = new StringBuilder();
+		final Random random = new Random(42);
+		
+		for (int from = 0; from < TEXT.length(); ) {
+			final int to = Math.min(from + random.nextInt(100), TEXT.length());
+			
+			result.append(session.encode(TEXT.substring(from, to)));
+			from = to;
+		}
+		
+		assertEquals(code, result.toString());
+		assertEquals(TEXT.length(), session.getPressCount());
+		
+		final EnigmaSession bytes = EnigmaSession.open(getBuilder().toKey());
+		final byte[] input = TEXT.getBytes(StandardCharsets.US_ASCII);
+		final byte[] output = new byte[input.length];
+		
+		assertEquals(1000, bytes.encode(input, 0, 1000, output, 0));
+		assertEquals(input.length - 1000, bytes.encode(input, 1000, input.length - 1000, output, 1000));
+		assertEquals(code, new String(output, StandardCharsets.US_ASCII));
+	}
+	
+	@Test
+	@Order(102)
+	public void testSnapshot() {
+		assertThrows(IllegalArgumentException.class, () -> EnigmaSession.restore(new byte[8]));
+		
+		final String code = getBuilder().build().encode(TEXT).replace(" ", "").replace("-", "");
+		
+		for (final int split : new int[] { 0, 1, 17, 677, TEXT.length() }) {
+			final EnigmaSession session = EnigmaSession.open(getBuilder().toKey());
+			final String prefix = session.encode(TEXT.substring(0, split));
+			final byte[] snapshot = session.snapshot();
+			
+			assertEquals(EnigmaSession.SNAPSHOT_SIZE, snapshot.length);
+			
+			final EnigmaSession restored = EnigmaSession.restore(snapshot);
+			
+			assertEquals(session.toKey(), restored.getInitialKey());
+			assertEquals(code, prefix + restored.encode(TEXT.substring(split)));
+			
+			session.encode(TEXT.substring(split));
+			
+			assertEquals(session.toKey(), restored.toKey());
+		}
+	}
+	
+}
@@ -0,0 +1,183 @@
+package de.mononoize.enigma.machine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.MethodOrderer.OrderAnnotation;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import de.mononoize.enigma.machine.components.Reflector;
+import de.mononoize.enigma.machine.components.Rotor;
+
+/**
+ * Tests the {@code EnigmaSpec} and the {@code EnigmaState}.
+ * 
+ * @author mononoize
+ */
+@TestMethodOrder(OrderAnnotation.class)
+public class EnigmaSpecTests {
+
+	private static final String TEXT = //
+			"VONVO NJLOO KSJHF FTTTE INSEI NSDRE IZWOY YQNNS NEUNI NHALT XXBEI ANGRI FFUNT ERWAS SERGE " //
+		  + "DRUEC KTYWA BOSXL ETZTE RGEGN ERSTA NDNUL ACHTD REINU LUHRM ARQUA NTONJ OTANE UNACH TSEYH " //
+		  + "SDREI YZWOZ WONUL GRADY ACHTS MYSTO SSENA CHXEK NSVIE RMBFA ELLTY NNNNN NOOOV IERYS ICHTE " //
+		  + "INSNU LL---"; 
+	
+	private static final String CODE = //
+			"NCZWV USXPN YMINH ZXMQX SFWXW LKJAH SHNMC OCCAK UQPMK CSMHK SEINJ USBLK IOSXC KUBHM LLXCS " //
+		  + "JUSRR DVKOH ULXWC CBGVL IYXEO AHXRH KKFVD REWEZ LXOBA FGYUJ QUKGR TVUKA MEURB VEKSU HHVOY " //
+	      + "HABCJ WMAKL FKLMY FVNRI ZRVVR TKOFD ANJMO LBGFF LEOPR GTFLV RHOWO PBEKV WMUQF MPWPA RMFHA " //
+		  + "GKXII BG---";
+	
+	private static Enigma.Builder getBuilder() {
+		return new Enigma.Builder() //
+				.addCables("AT BL DF GJ HM NW OP QY RZ VX") // 
+				.setRotor1(Rotor.getRotorI(), 22, 'A') //
+				.setRotor2(Rotor.getRotorIV(), 1, 'N') //
+				.setRotor3(Rotor.getRotorII(), 1, 'J') //
+				.setRotor4(Rotor.getRotorBeta(), 1, 'V') //
+				.setReflector(Reflector.getReflectorBruno());
+	}
+	
+	@Test
+	@Order(101)
+	public void testEncodingDecoding() {
+		final EnigmaSpec spec = getBuilder().buildSpec();
+		
+		assertEquals(CODE, spec.encode(TEXT));
+		assertEquals(TEXT, spec.decode(CODE));
+		assertEquals(CODE, getBuilder().build().toSpec().encode(TEXT));
+	}
+	
+	@Test
+	@Order(102)
+	public void testBuilderDoesNotModifyRotors() {
+		final Rotor rotor = Rotor.getRotorIII();
+		
+		new Enigma.Builder() //
+				.setRotor1(rotor, 'C', 'X') //
+				.setRotor2(Rotor.getRotorI(), 'A', 'A') //
+				.setRotor3(Rotor.getRotorII(), 'A', 'A') //
+				.setReflector(Reflector.getReflectorB()) //
+				.buildSpec();
+		
+		assertEquals(Rotor.getRotorIII(), rotor);
+	}
+	
+	@Test
+	@Order(103)
+	public void testEquals() {
+		assertEquals(getBuilder().buildSpec(), getBuilder().buildSpec());
+		assertEquals(getBuilder().buildSpec().hashCode(), getBuilder().buildSpec().hashCode());
+		assertEquals(getBuilder().buildSpec(), getBuilder().setCompiled(true).build().toSpec());
+		assertNotEquals(getBuilder().buildSpec(), getBuilder().setGroupLength(4).buildSpec());
+		assertNotEquals(getBuilder().buildSpec(), getBuilder().addCable('C', 'E').buildSpec());
+	}
+	
+	@Test
+	@Order(104)
+	public void testState() {
+		final EnigmaSpec spec = getBuilder().buildSpec();
+		final EnigmaState state = spec.newState();
+		final String text = TEXT.replaceAll("[^A-Z]", "");
+		final String code = CODE.replaceAll("[^A-Z]", "");
+		
+		for (int i = 0; i < text.length(); i++) {
+			assertEquals(code.charAt(i), state.press(text.charAt(i)));
+		}
+		
+		for (int i = text.length() - 1; i >= 0; i -= 13) {
+			state.seek(i);
+			assertEquals(code.charAt(i), state.press(text.charAt(i)));
+		}
+		
+		state.reset();
+		assertEquals(code.charAt(0), state.press(text.charAt(0)));
+	}
+	
+	@Test
+	@Order(105)
+	public void testStreaming() throws IOException {
+		final EnigmaSpec spec = getBuilder().buildSpec();
+		final StringWriter output = new StringWriter();
+		
+		assertEquals(TEXT.replaceAll("[^A-Z]", "").length(), spec.encode(TEXT, output));
+		assertEquals(CODE, output.toString());
+		
+		final StringBuilder empty = new StringBuilder();
+		
+		assertEquals(0, spec.decode("12345", empty));
+		assertEquals("", empty.toString());
+	}
+	
+	@Test
+	@Order(201)
+	public void testConcurrency() throws Exception {
+		final EnigmaSpec spec = getBuilder().buildSpec();
+		final Enigma enigma = getBuilder().build();
+		final Random random = new Random(42);
+		final List<String> texts = new ArrayList<>();
+		final List<String> codes = new ArrayList<>();
+		
+		for (int i = 0; i < 200; i++) {
+			final StringBuilder text = new StringBuilder();
+			
+			for (int j = random.nextInt(2000) + 1; j > 0; j--) {
+				text.append((char) ('A' + random.nextInt(26)));
+			}
+			
+			texts.add(text.toString());
+			codes.add(enigma.encode(text.toString()));
+		}
+		
+		final int threads = 8;
+		final ExecutorService executor = Executors.newFixedThreadPool(threads);
+		final CountDownLatch start = new CountDownLatch(1);
+		
+		try {
+			final List<Future<Integer>> futures = new ArrayList<>();
+			
+			for (int t = 0; t < threads; t++) {
+				final int offset = t;
+				
+				futures.add(executor.submit(() -> {
+					start.await();
+					
+					int count = 0;
+					
+					for (int round = 0; round < 20; round++) {
+						for (int i = 0; i < texts.size(); i++) {
+							final int index = (i + offset * 17) % texts.size();
+							
+							assertEquals(codes.get(index), spec.encode(texts.get(index)));
+							count++;
+						}
+					}
+					
+					return count;
+				}));
+			}
+			
+			start.countDown();
+			
+			for (final Future<Integer> future : futures) {
+				assertEquals(20 * texts.size(), future.get());
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+	
+}
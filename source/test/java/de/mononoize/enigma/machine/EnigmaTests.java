@@ -4,6 +4,13 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.core.config.Configurator;
 import org.junit.jupiter.api.MethodOrderer.OrderAnnotation;
 import org.junit.jupiter.api.Order;
 import org.junit.jupiter.api.Test;
@@ -77,20 +84,107 @@ public class EnigmaTests {
 			  + "UAJPG NLCRD YACNK OPCIZ PBNBY OASOH JXQNC ZWLQE LWGPK CDDRH CPPWS FRPIV UFPCD JDGQO CYUJS " //
 			  + "JPYJO SRYNV AGIXK ZSFXF VGVAV IQK--";
 		
-		final Enigma enigma = new Enigma.Builder() //
+		final Enigma.Builder builder = new Enigma.Builder() //
 				.addCables("AZ BY CX DW EV FU GT HS IR JQ") // 
 				.setRotor1(Rotor.getRotorII(), 5, 'P') // 
 				.setRotor2(Rotor.getRotorIII(), 3, 'F') // 
 				.setRotor3(Rotor.getRotorVII(), 8, 'M') //
-				.setReflector(Reflector.getReflectorB()) //
-				.build();
+				.setReflector(Reflector.getReflectorB());
+		
+		final Enigma enigma = builder.build();
+		final Enigma compiled = builder.setCompiled(true).build();
 		
 		assertEquals(code, enigma.encode(text));
 		assertEquals(text, enigma.decode(code));
+		assertEquals(code, compiled.encode(text));
+		assertEquals(text, compiled.decode(code));
 		assertEquals(text, enigma.decode(enigma.encode(text)));
 		assertEquals(text, enigma.encode(enigma.decode(text)));
+		assertEquals(text, compiled.decode(compiled.encode(text)));
+	}
+
+	@Test
+	@Order(103)
+	public void testEncodingDecodingBuffers() {
+		final String text = "LOREM IPSUM DOLOR SITAM ETCON SETET URSAD IPSCI NGELI TRSED";
+		final String code = "PMPXNPSNLWMNFPYEMVOZULLZCGLICGXMLUYZEUVQGDXGZGJWBL";
+		
+		final Enigma.Builder builder = new Enigma.Builder() //
+				.addCables("AZ BY CX DW EV FU GT HS IR JQ") // 
+				.setRotor1(Rotor.getRotorII(), 5, 'P') // 
+				.setRotor2(Rotor.getRotorIII(), 3, 'F') // 
+				.setRotor3(Rotor.getRotorVII(), 8, 'M') //
+				.setReflector(Reflector.getReflectorB());
+		
+		for (final Enigma enigma : new Enigma[] { builder.build(), builder.setCompiled(true).build() }) {
+			final byte[] input = ("#" + text).getBytes(StandardCharsets.US_ASCII);
+			final byte[] output = new byte[input.length + 2];
+			
+			assertEquals(code.length(), enigma.encode(input, 1, input.length - 1, output, 2));
+			assertEquals(code, new String(output, 2, code.length(), StandardCharsets.US_ASCII));
+			assertEquals(code.length(), enigma.decode(output, 2, code.length(), input, 0));
+			assertEquals(text.replace(" ", ""), new String(input, 0, code.length(), StandardCharsets.US_ASCII));
+			assertThrows(IllegalArgumentException.class, () -> enigma.encode(input, 0, input.length, output, 3));
+			
+			for (final ByteBuffer buffer : new ByteBuffer[] { ByteBuffer.allocate(64), ByteBuffer.allocateDirect(64) }) {
+				final ByteBuffer source = ByteBuffer.wrap(text.getBytes(StandardCharsets.US_ASCII));
+				
+				buffer.put((byte) '#');
+				assertEquals(code.length(), enigma.encode(source, buffer));
+				assertEquals(false, source.hasRemaining());
+				assertEquals(code.length() + 1, buffer.position());
+				
+				buffer.flip().position(1);
+				assertEquals(code, StandardCharsets.US_ASCII.decode(buffer.duplicate()).toString());
+				
+				final ByteBuffer target = ByteBuffer.allocateDirect(64);
+				assertEquals(code.length(), enigma.decode(buffer.asReadOnlyBuffer(), target));
+				assertEquals(text.replace(" ", ""), StandardCharsets.US_ASCII.decode(target.flip()).toString());
+			}
+			
+			for (final CharBuffer buffer : new CharBuffer[] { CharBuffer.allocate(64), ByteBuffer.allocateDirect(128).asCharBuffer() }) {
+				assertEquals(code.length(), enigma.encode(CharBuffer.wrap(text), buffer));
+				assertEquals(code, buffer.flip().toString());
+				
+				final CharBuffer target = CharBuffer.allocate(64);
+				assertEquals(code.length(), enigma.decode(buffer, target));
+				assertEquals(text.replace(" ", ""), target.flip().toString());
+			}
+			
+			assertThrows(IllegalArgumentException.class, () -> enigma.encode(CharBuffer.wrap(text), CharBuffer.allocate(8)));
+		}
 	}
 
+	@Test
+	@Order(104)
+	public void testTracingSwitch() {
+		final String text = "LOREMIPSUMDOLORSITAMETCONSETETUR";
+		
+		final Enigma.Builder builder = new Enigma.Builder() //
+				.addCables("AZ BY CX DW EV FU GT HS IR JQ") // 
+				.setRotor1(Rotor.getRotorII(), 5, 'P') // 
+				.setRotor2(Rotor.getRotorIII(), 3, 'F') // 
+				.setRotor3(Rotor.getRotorVII(), 8, 'M') //
+				.setReflector(Reflector.getReflectorB());
+		
+		final Enigma enigma = builder.build();
+		final Enigma compiled = builder.setCompiled(true).setTracing(true).build();
+		final Level level = LogManager.getLogger(Enigma.class).getLevel();
+		
+		try {
+			// Enabling the trace in the middle of a message must not switch from the compiled engine to the components.
+			for (int i = 0; i < text.length(); i++) {
+				if (i == (text.length() / 2)) {
+					Configurator.setLevel(Enigma.class.getName(), Level.DEBUG);
+				}
+				
+				assertEquals(enigma.press(text.charAt(i)), compiled.press(text.charAt(i)));
+			}
+		} finally {
+			Configurator.setLevel(Enigma.class.getName(), level);
+		}
+	}
+	
 	@Test
 	@Order(201)
 	public void testHistoricalMessage01() {
@@ -102,16 +196,20 @@ public class EnigmaTests {
 				"GCDSE AHUGW TQGRK VLFGX UCALX VYMIG MMNMF DXTGN VHVRM MEVOU YFZSL RHDRR XFJWC FHUHM UNZEF " //
 			  + "RDISI KBGPM YVXUZ";
 		
-		final Enigma enigma = new Enigma.Builder() //
+		final Enigma.Builder builder = new Enigma.Builder() //
 				.addCables("AM FI NV PS TU WZ") // 
 				.setRotor1(Rotor.getRotorIII(), 22, 'L') // 
 				.setRotor2(Rotor.getRotorI(), 13, 'B') //
 				.setRotor3(Rotor.getRotorII(), 24, 'A') //
-				.setReflector(Reflector.getReflectorA()) //
-				.build();	
+				.setReflector(Reflector.getReflectorA());
+		
+		final Enigma enigma = builder.build();
+		final Enigma compiled = builder.setCompiled(true).build();
 		
 		assertEquals(code, enigma.encode(text));
 		assertEquals(text, enigma.decode(code));
+		assertEquals(code, compiled.encode(text));
+		assertEquals(text, compiled.decode(code));
 	}
 	
 	@Test
@@ -127,16 +225,20 @@ public class EnigmaTests {
 			  + "GYKUA CTCDO MOHWX MUUIA UBSTS LRNBZ SZWNR FXWFY SSXJZ VIJHI DISHP RKLKA YUPAD TXQSP INQMA " //
 			  + "TLPIF SVKDA SCTAC DPBOP VHJK-";
 
-		final Enigma enigma = new Enigma.Builder() //
+		final Enigma.Builder builder = new Enigma.Builder() //
 				.addCables("AV BS CG DL FU HZ IN KM OW RX") //) 
 				.setRotor1(Rotor.getRotorV(), 12, 'A') // 
 				.setRotor2(Rotor.getRotorIV(), 21, 'L') // 
 				.setRotor3(Rotor.getRotorII(), 2, 'B') // 
-				.setReflector(Reflector.getReflectorB()) //
-				.build();	
+				.setReflector(Reflector.getReflectorB());
+		
+		final Enigma enigma = builder.build();
+		final Enigma compiled = builder.setCompiled(true).build();
 		
 		assertEquals(code, enigma.encode(text));
 		assertEquals(text, enigma.decode(code));
+		assertEquals(code, compiled.encode(text));
+		assertEquals(text, compiled.decode(code));
 	}
 	
 	@Test
@@ -150,16 +252,20 @@ public class EnigmaTests {
 				"DREIG EHTLA NGSAM ABERS IQERV ORWAE RTSXE INSSI EBENN ULLSE QSXUH RXROE MXEIN SXINF RGTXD " //
 			  + "REIXA UFFLI EGERS TRASZ EMITA NFANG XEINS SEQSX KMXKM XOSTW XKAME NECXK";
 
-		final Enigma enigma = new Enigma.Builder() //
+		final Enigma.Builder builder = new Enigma.Builder() //
 				.addCables("AV BS CG DL FU HZ IN KM OW RX") // 
 				.setRotor1(Rotor.getRotorV(), 12, 'D') //
 				.setRotor2(Rotor.getRotorIV(), 21, 'S') //
 				.setRotor3(Rotor.getRotorII(), 2, 'L') //
-				.setReflector(Reflector.getReflectorB()) //
-				.build();
-				
+				.setReflector(Reflector.getReflectorB());
+		
+		final Enigma enigma = builder.build();
+		final Enigma compiled = builder.setCompiled(true).build();
+		
 		assertEquals(code, enigma.encode(text));
 		assertEquals(text, enigma.decode(code));
+		assertEquals(code, compiled.encode(text));
+		assertEquals(text, compiled.decode(code));
 	}
 	
 	@Test
@@ -173,16 +279,20 @@ public class EnigmaTests {
 				"STEUE REJTA NAFJO RDJAN STAND ORTQU AAACC CVIER NEUNN EUNZW OFAHR TZWON ULSMX XSCHA RNHOR " //
 			  + "STHCO";
 		
-		final Enigma enigma = new Enigma.Builder() //
+		final Enigma.Builder builder = new Enigma.Builder() //
 				.addCables("AN EZ HK IJ LR MQ OT PV SW UX") // 
 				.setRotor1(Rotor.getRotorVIII(), 13, 'V') // 
 				.setRotor2(Rotor.getRotorVI(), 8, 'Z') // 
 				.setRotor3(Rotor.getRotorIII(), 1, 'U') //
-				.setReflector(Reflector.getReflectorB()) //
-				.build();
+				.setReflector(Reflector.getReflectorB());
+		
+		final Enigma enigma = builder.build();
+		final Enigma compiled = builder.setCompiled(true).build();
 		
 		assertEquals(code, enigma.encode(text));
 		assertEquals(text, enigma.decode(code));
+		assertEquals(code, compiled.encode(text));
+		assertEquals(text, compiled.decode(code));
 	}
 	
 	@Test
@@ -200,17 +310,21 @@ public class EnigmaTests {
 		      + "HABCJ WMAKL FKLMY FVNRI ZRVVR TKOFD ANJMO LBGFF LEOPR GTFLV RHOWO PBEKV WMUQF MPWPA RMFHA " //
 			  + "GKXII BG---";
 		
-		final Enigma enigma = new Enigma.Builder() //
+		final Enigma.Builder builder = new Enigma.Builder() //
 				.addCables("AT BL DF GJ HM NW OP QY RZ VX") // 
 				.setRotor1(Rotor.getRotorI(), 22, 'A') //
 				.setRotor2(Rotor.getRotorIV(), 1, 'N') //
 				.setRotor3(Rotor.getRotorII(), 1, 'J') //
 				.setRotor4(Rotor.getRotorBeta(), 1, 'V') //
-				.setReflector(Reflector.getReflectorBruno()) //
-				.build();
+				.setReflector(Reflector.getReflectorBruno());
+		
+		final Enigma enigma = builder.build();
+		final Enigma compiled = builder.setCompiled(true).build();
 		
 		assertEquals(code, enigma.encode(text));
 		assertEquals(text, enigma.decode(code));
+		assertEquals(code, compiled.encode(text));
+		assertEquals(text, compiled.decode(code));
 	}
 	
 	@Test
@@ -224,16 +338,20 @@ public class EnigmaTests {
 				"ODXOD HQKXT REYPF LGSKH WOPDI JQCEL MPFEE JTKTI ASWQE HDVTO MJCOI HRWQF CKERT WNQMX GBDWW " //
 			   +"FMGVJ NWPQT XXOWE OPIEY DPGDV QDNRD MJM--";
 				
-		final Enigma enigma = new Enigma.Builder() //
+		final Enigma.Builder builder = new Enigma.Builder() //
 				.addCables("AB EG JS LQ OT VY") // 
 				.setRotor1(Rotor.getRotorII(), 'G', 'P') //
 				.setRotor2(Rotor.getRotorVI(), 'T', 'X') //
 				.setRotor3(Rotor.getRotorI(), 'A', 'Q') //
-				.setReflector(Reflector.getReflectorB()) //
-				.build();
+				.setReflector(Reflector.getReflectorB());
+		
+		final Enigma enigma = builder.build();
+		final Enigma compiled = builder.setCompiled(true).build();
 		
 		assertEquals(code, enigma.encode(text));
-		assertEquals(text, enigma.decode(code));		
+		assertEquals(text, enigma.decode(code));
+		assertEquals(code, compiled.encode(text));
+		assertEquals(text, compiled.decode(code));
 	}
 	
 	@Test
@@ -247,17 +365,21 @@ public class EnigmaTests {
 				"TWNHY AZGBI LSHEW PGLBP QLWQE KITIA FGZHW IMCWD FXPAF EILQZ WFNRF TTQHU OADVL RLGAO QKVLW " //
 			  + "LSJHW OFJJS LUVEY NRRAJ AQDKQ BGMFY CEVKP FJPKO WHHQZ YZEQR TQIKK XIXTF POEMI";
 				
-		final Enigma enigma = new Enigma.Builder() //
+		final Enigma.Builder builder = new Enigma.Builder() //
 				.addCables("AE BF CM DQ HU JN LX PR SZ VW") // 
 				.setRotor1(Rotor.getRotorVIII(), 'L', 'Q') //
 				.setRotor2(Rotor.getRotorVI(), 'E', 'Z') //
 				.setRotor3(Rotor.getRotorV(), 'P', 'V') //
 				.setRotor4(Rotor.getRotorBeta(), 'E', 'M') //
-				.setReflector(Reflector.getReflectorCaesar()) //
-				.build();
+				.setReflector(Reflector.getReflectorCaesar());
+		
+		final Enigma enigma = builder.build();
+		final Enigma compiled = builder.setCompiled(true).build();
 		
 		assertEquals(code, enigma.encode(text));
-		assertEquals(text, enigma.decode(code));		
+		assertEquals(text, enigma.decode(code));
+		assertEquals(code, compiled.encode(text));
+		assertEquals(text, compiled.decode(code));
 	}
 		
 }
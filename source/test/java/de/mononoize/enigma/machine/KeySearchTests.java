@@ -0,0 +1,129 @@
+package de.mononoize.enigma.machine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.MethodOrderer.OrderAnnotation;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import de.mononoize.enigma.analysis.DictionaryScorer;
+import de.mononoize.enigma.machine.components.Reflector;
+import de.mononoize.enigma.machine.components.Rotor;
+
+/**
+ * Tests the {@code KeySearch}.
+ * 
+ * @author mononoize
+ */
+@TestMethodOrder(OrderAnnotation.class)
+public class KeySearchTests {
+
+	private static final String TEXT = //
+			"DASOBERKOMMANDODERWEHRMACHTGIBTBEKANNTAACHENISTGERETTETDURCHGEBUENDELTENEINSATZDERHILFSKRAEFTEKONNTE" //
+		  + "DIEBEDROHUNGABGEWENDETUNDDIERETTUNGDERSTADTGEGENXEINUHRXNACHTSSICHERGESTELLTWERDENDIEVERSORGUNGDER" //
+		  + "BEVOELKERUNGISTGESICHERTUNDDIEZUFAHRTSSTRASSENSINDWIEDERFREIGEGEBENWORDENDERKOMMANDIERENDEGENERAL";
+	
+	@Test
+	@Order(101)
+	public void testBuilder() {
+		assertThrows(NullPointerException.class, () -> new KeySearch.Builder().build());
+		assertThrows(IllegalArgumentException.class, () -> new KeySearch.Builder().setCiphertext("ABC").setResultCount(0).build());
+		assertThrows(IllegalArgumentException.class, () -> new KeySearch.Builder().setCiphertext("ABC") //
+				.setRotors(Arrays.asList(Rotor.getRotorI(), Rotor.getRotorII())).build());
+		
+		assertEquals(8, KeySearch.getSteppingRotors().size());
+		assertEquals(336L * 5 * 26 * 26 * 26, new KeySearch.Builder().setCiphertext("ABC").build().getCandidateCount());
+	}
+	
+	@Test
+	@Order(102)
+	public void testSearch() {
+		final String code = new Enigma.Builder() //
+				.addCables("AV BS CG DL FU HZ IN KM OW RX") // 
+				.setRotor1(Rotor.getRotorII(), 'A', 'Q') // 
+				.setRotor2(Rotor.getRotorIV(), 'A', 'E') // 
+				.setRotor3(Rotor.getRotorI(), 'A', 'V') // 
+				.setReflector(Reflector.getReflectorB()) //
+				.build() //
+				.encode(TEXT);
+		
+		final KeySearch search = new KeySearch.Builder() //
+				.setCiphertext(code) //
+				.setRotors(Arrays.asList(Rotor.getRotorI(), Rotor.getRotorII(), Rotor.getRotorIII(), Rotor.getRotorIV(), Rotor.getRotorV())) //
+				.setReflectors(Arrays.asList(Reflector.getReflectorB(), Reflector.getReflectorC())) //
+				.addCables("AV BS CG DL FU HZ IN KM OW RX") // 
+				.setResultCount(5) //
+				.setPool(new ForkJoinPool(4)) //
+				.build();
+		
+		final List<KeySearch.Candidate> candidates = search.search();
+		final KeySearch.Candidate best = candidates.get(0);
+		
+		assertEquals(5, candidates.size());
+		
+		for (int i = 1; i < candidates.size(); i++) {
+			assertTrue(candidates.get(i - 1).getScore() >= candidates.get(i).getScore());
+		}
+		
+		assertEquals("ROT II", best.getRotor1().getName());
+		assertEquals("ROT IV", best.getRotor2().getName());
+		assertEquals("ROT I", best.getRotor3().getName());
+		assertEquals("UKW B", best.getReflector().getName());
+		assertEquals('Q', best.getRotor1Position());
+		assertEquals('E', best.getRotor2Position());
+		assertEquals('V', best.getRotor3Position());
+		assertEquals(TEXT, best.toBuilder().build().decode(code).replace(" ", "").replace("-", ""));
+	}
+	
+	@Test
+	@Order(103)
+	public void testSearchScorer() {
+		final String code = new Enigma.Builder() //
+				.setRotor1(Rotor.getRotorII(), 'A', 'Q') // 
+				.setRotor2(Rotor.getRotorIV(), 'A', 'E') // 
+				.setRotor3(Rotor.getRotorI(), 'A', 'V') // 
+				.setReflector(Reflector.getReflectorB()) //
+				.build() //
+				.encode(TEXT);
+		
+		final KeySearch search = new KeySearch.Builder() //
+				.setCiphertext(code) //
+				.setRotors(Arrays.asList(Rotor.getRotorI(), Rotor.getRotorII(), Rotor.getRotorIV())) //
+				.setReflectors(Arrays.asList(Reflector.getReflectorB())) //
+				.setScorer(new DictionaryScorer(Arrays.asList("OBERKOMMANDO", "WEHRMACHT", "AACHEN", "STADT", "RETTUNG", "BEVOELKERUNG"))) //
+				.setResultCount(1) //
+				.setPool(new ForkJoinPool(4)) //
+				.build();
+		
+		final KeySearch.Candidate best = search.search().get(0);
+		
+		assertEquals("ROT II", best.getRotor1().getName());
+		assertEquals("ROT IV", best.getRotor2().getName());
+		assertEquals("ROT I", best.getRotor3().getName());
+		assertEquals('Q', best.getRotor1Position());
+		assertEquals('E', best.getRotor2Position());
+		assertEquals('V', best.getRotor3Position());
+		assertTrue(best.getScore() > 0.1);
+	}
+	
+	@Test
+	@Order(104)
+	public void testCancel() {
+		final KeySearch search = new KeySearch.Builder() //
+				.setCiphertext(TEXT) //
+				.build();
+		
+		search.cancel();
+		
+		assertTrue(search.isCancelled());
+		assertTrue(search.search().isEmpty());
+	}
+	
+}
@@ -0,0 +1,93 @@
+package de.mononoize.enigma.machine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.MethodOrderer.OrderAnnotation;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import de.mononoize.enigma.machine.components.Plugboard;
+import de.mononoize.enigma.machine.components.Reflector;
+import de.mononoize.enigma.machine.components.Rotor;
+import de.mononoize.enigma.tools.LongPairHashSet;
+
+/**
+ * Tests the {@code PackedKey}.
+ * 
+ * @author mononoize
+ */
+@TestMethodOrder(OrderAnnotation.class)
+public class PackedKeyTests {
+
+	private static final String TEXT = "DASOBERKOMMANDODERWEHRMACHTGIBTBEKANNTAACHENISTGERETTET";
+	
+	@Test
+	@Order(101)
+	public void testSteckers() {
+		assertEquals(0L, PackedKey.encodeSteckers(new Plugboard()));
+		assertEquals(1L, PackedKey.encodeSteckers(new Plugboard().addCables("YZ")));
+		assertThrows(IllegalArgumentException.class, () -> PackedKey.decodeSteckers(-1));
+		assertThrows(IllegalArgumentException.class, () -> PackedKey.decodeSteckers(532985208200576L));
+		
+		final Plugboard full = new Plugboard().addCables("AZ BY CX DW EV FU GT HS IR JQ KP LO MN");
+		final long rank = PackedKey.encodeSteckers(full);
+		
+		assertTrue(rank < (1L << 49));
+		assertEquals(full, PackedKey.decodeSteckers(rank));
+		
+		final Random random = new Random(42);
+		final LongPairHashSet ranks = new LongPairHashSet();
+		
+		for (int i = 0; i < 1000; i++) {
+			final long expected = (random.nextLong() >>> 1) % 532985208200576L;
+			
+			assertEquals(expected, PackedKey.encodeSteckers(PackedKey.decodeSteckers(expected)));
+			ranks.add(expected, 0);
+		}
+		
+		assertEquals(1000, ranks.size());
+	}
+	
+	@Test
+	@Order(102)
+	public void testRoundTrip() {
+		final Enigma.Builder builder = new Enigma.Builder() //
+				.addCables("AV BS CG DL FU HZ IN KM OW RX") //
+				.setRotor1(Rotor.getRotorVIII(), 'C', 'Q') //
+				.setRotor2(Rotor.getRotorIV(), 'X', 'E') //
+				.setRotor3(Rotor.getRotorI(), 'B', 'V') //
+				.setRotor4(Rotor.getRotorBeta(), 'D', 'Z') //
+				.setReflector(Reflector.getReflectorBruno());
+		
+		final PackedKey key = builder.toKey();
+		final String code = builder.build().encode(TEXT);
+		
+		assertEquals(key, PackedKey.of(key.getSetting(), key.getSteckers()));
+		assertEquals(key.hashCode(), PackedKey.of(key.getSetting(), key.getSteckers()).hashCode());
+		assertEquals(key, key.toBuilder().toKey());
+		assertEquals(key, key.toBuilder().build().toKey());
+		assertEquals(key, PackedKey.parse(key.toString()));
+		assertThrows(IllegalArgumentException.class, () -> PackedKey.parse("0123"));
+		assertThrows(IllegalArgumentException.class, () -> PackedKey.parse("0123:XYZ"));
+		assertEquals(code, key.toBuilder().build().encode(TEXT));
+		assertEquals(TEXT, key.toBuilder().build().decode(code).replace(" ", ""));
+		
+		final PackedKey other = new Enigma.Builder() //
+				.setRotor1(Rotor.getRotorI(), 'A', 'A') //
+				.setRotor2(Rotor.getRotorII(), 'A', 'A') //
+				.setRotor3(Rotor.getRotorIII(), 'A', 'A') //
+				.setReflector(Reflector.getReflectorB()) //
+				.toKey();
+		
+		assertNotEquals(key, other);
+		assertEquals(0L, other.getSteckers());
+		assertEquals(other, other.toBuilder().toKey());
+	}
+	
+}
@@ -0,0 +1,102 @@
+package de.mononoize.enigma.machine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.MethodOrderer.OrderAnnotation;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import de.mononoize.enigma.machine.components.Reflector;
+import de.mononoize.enigma.machine.components.Rotor;
+
+/**
+ * Tests the {@code ParallelEnigma} and the jump-ahead of the {@code Enigma}.
+ * 
+ * @author mononoize
+ */
+@TestMethodOrder(OrderAnnotation.class)
+public class ParallelEnigmaTests {
+
+	private static Enigma[] getEnigmas() {
+		return new Enigma[] {
+				new Enigma.Builder() //
+						.addCables("AV BS CG DL FU HZ IN KM OW RX") // 
+						.setRotor1(Rotor.getRotorV(), 12, 'A') // 
+						.setRotor2(Rotor.getRotorIV(), 21, 'H') // 
+						.setRotor3(Rotor.getRotorII(), 2, 'B') // 
+						.setReflector(Reflector.getReflectorB()) //
+						.build(),
+				new Enigma.Builder() //
+						.addCables("AE BF CM DQ HU JN LX PR SZ VW") // 
+						.setRotor1(Rotor.getRotorVIII(), 'L', 'Q') //
+						.setRotor2(Rotor.getRotorVI(), 'E', 'Z') //
+						.setRotor3(Rotor.getRotorV(), 'P', 'V') //
+						.setRotor4(Rotor.getRotorBeta(), 'E', 'M') //
+						.setReflector(Reflector.getReflectorCaesar()) //
+						.setCompiled(true) //
+						.build(),
+				new Enigma.Builder() //
+						.setRotor1(Rotor.getRotorVII(), 1, 'Y') //
+						.setRotor2(Rotor.getRotorVIII(), 1, 'L') //
+						.setRotor3(Rotor.getRotorVI(), 1, 'M') //
+						.setReflector(Reflector.getReflectorC()) //
+						.build()
+		};
+	}
+	
+	private static String getText(final int length) {
+		final Random random = new Random(length);
+		final StringBuilder result = new StringBuilder(length);
+		
+		for (int i = 0; i < length; i++) {
+			result.append((char) ('A' + random.nextInt(26)));
+		}
+		
+		return result.toString();
+	}
+	
+	@Test
+	@Order(101)
+	public void testSeek() {
+		final String text = getText(40000);
+		
+		for (final Enigma enigma : getEnigmas()) {
+			final String code = enigma.encode(text).replace(" ", "").replace("-", "");
+			
+			for (int presses = 0; presses < text.length(); presses += 997) {
+				enigma.seek(presses);
+				
+				for (int i = presses; i < Math.min(presses + 50, text.length()); i++) {
+					assertEquals(code.charAt(i), enigma.press(text.charAt(i)));
+				}
+			}
+		}
+	}
+	
+	@Test
+	@Order(102)
+	public void testEncodingDecoding() {
+		final String text = getText(100000);
+		final ForkJoinPool pool = new ForkJoinPool(4);
+		
+		try {
+			for (final Enigma enigma : getEnigmas()) {
+				final String code = enigma.encode(text);
+				
+				for (final int chunkLength : new int[] { 1, 7, 1000, ParallelEnigma.DEFAULT_CHUNK_LENGTH }) {
+					final ParallelEnigma parallel = new ParallelEnigma(enigma, pool, chunkLength);
+					
+					assertEquals(code, parallel.encode(text));
+					assertEquals(enigma.decode(code), parallel.decode(code));
+				}
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+	
+}
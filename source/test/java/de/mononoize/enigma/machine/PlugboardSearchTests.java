@@ -0,0 +1,86 @@
+package de.mononoize.enigma.machine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.MethodOrderer.OrderAnnotation;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import de.mononoize.enigma.analysis.IndexOfCoincidence;
+import de.mononoize.enigma.machine.components.Reflector;
+import de.mononoize.enigma.machine.components.Rotor;
+
+/**
+ * Tests the {@code PlugboardSearch}.
+ * 
+ * @author mononoize
+ */
+@TestMethodOrder(OrderAnnotation.class)
+public class PlugboardSearchTests {
+
+	private static final String TEXT = //
+			"DASOBERKOMMANDODERWEHRMACHTGIBTBEKANNTAACHENISTGERETTETDURCHGEBUENDELTENEINSATZDERHILFSKRAEFTEKONNTE" //
+		  + "DIEBEDROHUNGABGEWENDETUNDDIERETTUNGDERSTADTGEGENXEINUHRXNACHTSSICHERGESTELLTWERDENDIEVERSORGUNGDER" //
+		  + "BEVOELKERUNGISTGESICHERTUNDDIEZUFAHRTSSTRASSENSINDWIEDERFREIGEGEBENWORDENDERKOMMANDIERENDEGENERAL" //
+		  + "DERVORMARSCHDERFEINDLICHENTRUPPENWURDEANDERGESAMTENFRONTZUMSTEHENGEBRACHTDIELAGEBLEIBTANGESPANNTABER" //
+		  + "DIEVERBAENDESINDINDERLAGEDENGEWONNENENRAUMZUHALTENWEITEREMELDUNGENFOLGENSOBALDNEUEERKENNTNISSEVORLIEGEN";
+	
+	private static final String CABLES = "AV BS CG DL FU HZ";
+	
+	private static Enigma.Builder machine() {
+		return new Enigma.Builder() //
+				.setRotor1(Rotor.getRotorII(), 'A', 'Q') // 
+				.setRotor2(Rotor.getRotorIV(), 'A', 'E') // 
+				.setRotor3(Rotor.getRotorI(), 'A', 'V') // 
+				.setReflector(Reflector.getReflectorB());
+	}
+	
+	@Test
+	@Order(101)
+	public void testBuilder() {
+		assertThrows(NullPointerException.class, () -> new PlugboardSearch.Builder().setMachine(machine()).build());
+		assertThrows(NullPointerException.class, () -> new PlugboardSearch.Builder().setCiphertext("ABC").build());
+		assertThrows(IllegalArgumentException.class, () -> new PlugboardSearch.Builder().setCiphertext("ABC").setMachine(machine()).setCableCount(14).build());
+		assertThrows(IllegalArgumentException.class, () -> new PlugboardSearch.Builder().setCiphertext("ABC").setMachine(machine()).setRestarts(0).build());
+	}
+	
+	@Test
+	@Order(102)
+	public void testSearch() {
+		final String code = machine().addCables(CABLES).build().encode(TEXT);
+		
+		final PlugboardSearch search = new PlugboardSearch.Builder() //
+				.setCiphertext(code) //
+				.setMachine(machine()) //
+				.setCableCount(6) //
+				.setRestarts(16) //
+				.setPool(new ForkJoinPool(4)) //
+				.build();
+		
+		final PlugboardSearch.Result result = search.search();
+		final String plain = machine().addCables(result.getCables()).build().decode(code);
+		
+		assertEquals(IndexOfCoincidence.compute(plain), result.getScore(), 1e-12);
+		assertEquals(CABLES, result.getCables());
+	}
+	
+	@Test
+	@Order(103)
+	public void testCancel() {
+		final PlugboardSearch search = new PlugboardSearch.Builder() //
+				.setCiphertext(TEXT) //
+				.setMachine(machine()) //
+				.build();
+		
+		search.cancel();
+		
+		assertTrue(search.isCancelled());
+		assertTrue(search.search().getCables().length() <= "AB CD EF GH IJ".length());
+	}
+	
+}
@@ -0,0 +1,124 @@
+package de.mononoize.enigma.machine;
+
+import static de.mononoize.enigma.tools.CharTools.toChar;
+import static de.mononoize.enigma.tools.CharTools.toIndex;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.api.MethodOrderer.OrderAnnotation;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import de.mononoize.enigma.machine.components.Reflector;
+import de.mononoize.enigma.machine.components.Rotor;
+
+/**
+ * Tests the {@code SteppingSchedule}.
+ * 
+ * @author mononoize
+ */
+@TestMethodOrder(OrderAnnotation.class)
+public class SteppingScheduleTests {
+
+	/**
+	 * Performs the stepping mechanism once on the given rotors, as the components of the {@code Enigma} do.
+	 * 
+	 * @param rotor1 The 1st (right) rotor.
+	 * @param rotor2 The 2nd (middle) rotor.
+	 * @param rotor3 The 3rd (left) rotor.
+	 */
+	private static void step(final Rotor rotor1, final Rotor rotor2, final Rotor rotor3) {
+		final boolean rotor1IsNotchPosition = rotor1.isNotchPosition();
+		final boolean rotor2IsNotchPosition = rotor2.isNotchPosition();
+		
+		rotor1.incPosition();
+		
+		if (rotor1IsNotchPosition) {
+			rotor2.incPosition();
+		}
+		
+		if (rotor2IsNotchPosition) {
+			rotor2.incPosition();
+			rotor3.incPosition();
+		}
+	}
+	
+	@Test
+	@Order(101)
+	public void testTransitions() {
+		// Single notch and double notch (VI, VII, VIII) rotors in all combinations of the 1st and 2nd rotor.
+		final Rotor[][] pairs = { //
+				{ Rotor.getRotorI(), Rotor.getRotorII() }, //
+				{ Rotor.getRotorV(), Rotor.getRotorVI() }, //
+				{ Rotor.getRotorVI(), Rotor.getRotorIII() }, //
+				{ Rotor.getRotorVI(), Rotor.getRotorVII() }, //
+				{ Rotor.getRotorVII(), Rotor.getRotorVIII() }, //
+				{ Rotor.getRotorVIII(), Rotor.getRotorVI() } };
+		
+		for (final Rotor[] pair : pairs) {
+			final Rotor rotor1 = pair[0];
+			final Rotor rotor2 = pair[1];
+			final Rotor rotor3 = Rotor.getRotorIV();
+			final int[] transitions = SteppingSchedule.getTransitions( //
+					SteppingSchedule.toNotches(rotor1.getNotches()), SteppingSchedule.toNotches(rotor2.getNotches()));
+			int doubleSteps = 0;
+			
+			assertEquals(SteppingSchedule.SIZE, transitions.length);
+			
+			for (int position = 0; position < SteppingSchedule.SIZE; position++) {
+				rotor1.setPosition(toChar(position % 26));
+				rotor2.setPosition(toChar((position / 26) % 26));
+				rotor3.setPosition(toChar(position / 676));
+				
+				final boolean doubleStep = rotor2.isNotchPosition();
+				
+				step(rotor1, rotor2, rotor3);
+				
+				final int expected = SteppingSchedule.pack(
+						toIndex(rotor1.getPosition()), toIndex(rotor2.getPosition()), toIndex(rotor3.getPosition()));
+				
+				assertEquals(expected, transitions[position], String.format("%s/%s at %d", rotor1, rotor2, position));
+				doubleSteps += doubleStep ? 1 : 0;
+			}
+			
+			// The 2nd rotor steps twice from each of its notch positions.
+			assertEquals(rotor2.getNotches().length * 26 * 26, doubleSteps);
+		}
+	}
+	
+	@Test
+	@Order(102)
+	public void testSharedTransitions() {
+		final Enigma enigma1 = new Enigma.Builder() //
+				.setRotor1(Rotor.getRotorVI(), 'A', 'A') //
+				.setRotor2(Rotor.getRotorVII(), 'A', 'A') //
+				.setRotor3(Rotor.getRotorI(), 'A', 'A') //
+				.setReflector(Reflector.getReflectorB()) //
+				.build();
+		
+		// The notches of VI, VII and VIII are identical, so both engines share the same notch pair.
+		final Enigma enigma2 = new Enigma.Builder() //
+				.addCables("AV BS CG DL FU HZ IN KM OW RX") // 
+				.setRotor1(Rotor.getRotorVIII(), 'C', 'Q') //
+				.setRotor2(Rotor.getRotorVI(), 'E', 'Z') //
+				.setRotor3(Rotor.getRotorII(), 'B', 'D') //
+				.setReflector(Reflector.getReflectorC()) //
+				.build();
+		
+		final Enigma enigma3 = new Enigma.Builder() //
+				.setRotor1(Rotor.getRotorI(), 'A', 'A') //
+				.setRotor2(Rotor.getRotorVII(), 'A', 'A') //
+				.setRotor3(Rotor.getRotorII(), 'A', 'A') //
+				.setReflector(Reflector.getReflectorB()) //
+				.build();
+		
+		assertSame(enigma1.getEngine().getTransitions(), enigma2.getEngine().getTransitions());
+		assertNotSame(enigma1.getEngine().getTransitions(), enigma3.getEngine().getTransitions());
+		assertSame(enigma3.getEngine().getTransitions(), SteppingSchedule.getTransitions(
+				SteppingSchedule.toNotches(Rotor.getRotorI().getNotches()),
+				SteppingSchedule.toNotches(Rotor.getRotorVIII().getNotches())));
+	}
+	
+}
@@ -91,5 +91,14 @@ public class PlugboardTests {
 			}
 		}
 	}
+	
+	@Test
+	@Order(105)
+	public void testGetCables() {
+		final Plugboard plugboard = new Plugboard();
+		
+		assertEquals("", plugboard.getCables());
+		assertEquals("AV BS CG DL FU HZ IN KM OW RX", plugboard.addCables("VA SB GC LD UF ZH NI MK WO XR").getCables());
+	}
 
 }
@@ -0,0 +1,106 @@
+package de.mononoize.enigma.machine.components;
+
+import static de.mononoize.enigma.tools.CharTools.toChar;
+import static de.mononoize.enigma.tools.CharTools.toIndex;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+
+import org.junit.jupiter.api.MethodOrderer.OrderAnnotation;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+/**
+ * Tests the {@code Wiring} catalog.
+ * 
+ * @author mononoize
+ */
+@TestMethodOrder(OrderAnnotation.class)
+public class WiringTests {
+
+	@Test
+	@Order(101)
+	public void testOf() {
+		assertSame(Wiring.of("EKMFLGDQVZNTOWYHXUSPAIBRCJ"), Wiring.of(new String("EKMFLGDQVZNTOWYHXUSPAIBRCJ")));
+		assertThrows(NullPointerException.class, () -> Wiring.of(null));
+		assertThrows(IllegalArgumentException.class, () -> Wiring.of("ABC"));
+	}
+	
+	@Test
+	@Order(102)
+	public void testShared() {
+		final List<Rotor> rotors1 = Rotor.getRotors();
+		final List<Rotor> rotors2 = Rotor.getRotors();
+		
+		for (int i = 0; i < rotors1.size(); i++) {
+			assertSame(rotors1.get(i).getWiring(), rotors2.get(i).getWiring());
+			assertSame(rotors1.get(i).m_forwardMapping, rotors2.get(i).m_forwardMapping);
+			assertSame(rotors1.get(i).m_reverseMapping, rotors2.get(i).m_reverseMapping);
+		}
+		
+		final List<Reflector> reflectors1 = Reflector.getReflectors();
+		final List<Reflector> reflectors2 = Reflector.getReflectors();
+		
+		for (int i = 0; i < reflectors1.size(); i++) {
+			assertSame(reflectors1.get(i).getWiring(), reflectors2.get(i).getWiring());
+		}
+	}
+	
+	@Test
+	@Order(103)
+	public void testTables() {
+		for (final Rotor rotor : Rotor.getRotors()) {
+			for (int ring = 0; ring < 26; ring++) {
+				final byte[] forward = new byte[Wiring.TABLE_SIZE];
+				final byte[] reverse = new byte[Wiring.TABLE_SIZE];
+				
+				rotor.getWiring().copyForwardTable(ring, forward);
+				rotor.getWiring().copyReverseTable(ring, reverse);
+				
+				rotor.setPositionRing(toChar(ring));
+				
+				for (int position = 0; position < 26; position++) {
+					rotor.setPosition(toChar(position));
+					
+					for (int index = 0; index < 26; index++) {
+						assertEquals(toIndex(rotor.getForward(toChar(index))), forward[(position * 26) + index]);
+						assertEquals(toIndex(rotor.getReverse(toChar(index))), reverse[(position * 26) + index]);
+					}
+				}
+			}
+		}
+		
+		final byte[] table = new byte[Wiring.TABLE_SIZE];
+		
+		assertThrows(IllegalArgumentException.class, () -> Rotor.getRotorI().getWiring().copyForwardTable(26, table));
+	}
+	
+	@Test
+	@Order(104)
+	public void testCopies() {
+		final Wiring wiring = Rotor.getRotorIV().getWiring();
+		final byte[] bytes = new byte[Wiring.TABLE_SIZE];
+		final int[] ints = new int[Wiring.TABLE_SIZE];
+		
+		wiring.copyReverseTable(7, bytes);
+		wiring.copyReverseTable(7, ints);
+		
+		for (int i = 0; i < Wiring.TABLE_SIZE; i++) {
+			assertEquals(bytes[i], ints[i]);
+		}
+		
+		// Modifying a copy does not affect the next copy.
+		final byte[] copy = new byte[Wiring.TABLE_SIZE];
+		
+		bytes[0]++;
+		wiring.copyReverseTable(7, copy);
+		
+		assertNotEquals(bytes[0], copy[0]);
+		assertThrows(IllegalArgumentException.class, () -> wiring.copyForwardTable(7, new byte[26]));
+	}
+	
+}
@@ -0,0 +1,144 @@
+package de.mononoize.enigma.net;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.MethodOrderer.OrderAnnotation;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import de.mononoize.enigma.machine.Enigma;
+import de.mononoize.enigma.machine.PackedKey;
+import de.mononoize.enigma.machine.components.Reflector;
+import de.mononoize.enigma.machine.components.Rotor;
+
+/**
+ * Tests the {@code EnigmaServer} and the {@code LoadGenerator}.
+ * 
+ * @author mononoize
+ */
+@TestMethodOrder(OrderAnnotation.class)
+public class EnigmaServerTests {
+
+	private static final String TEXT = "DASOBERKOMMANDODERWEHRMACHTGIBTBEKANNTAACHENISTGERETTET";
+
+	private static Enigma.Builder newBuilder() {
+		return new Enigma.Builder() //
+				.addCables("AV BS CG DL FU HZ IN KM OW RX") //
+				.setRotor1(Rotor.getRotorVIII(), 'M', 'Z') //
+				.setRotor2(Rotor.getRotorVI(), 'H', 'D') //
+				.setRotor3(Rotor.getRotorV(), 'A', 'R') //
+				.setRotor4(Rotor.getRotorBeta(), 'A', 'A') //
+				.setReflector(Reflector.getReflectorBruno());
+	}
+
+	@Test
+	@Order(101)
+	public void testBuilder() {
+		assertThrows(IllegalArgumentException.class, () -> new EnigmaServer.Builder().setPort(-1).build());
+		assertThrows(IllegalArgumentException.class, () -> new EnigmaServer.Builder().setThreads(0).build());
+		assertThrows(IllegalArgumentException.class, () -> new EnigmaServer.Builder().setMaxRequestLength(0).build());
+		assertThrows(NullPointerException.class, () -> new LoadGenerator.Builder().build());
+	}
+
+	@Test
+	@Order(102)
+	public void testPipelining() throws Exception {
+		final PackedKey key = newBuilder().toKey();
+		final String code = newBuilder().build().encode(TEXT);
+
+		try (final EnigmaServer server = new EnigmaServer.Builder().setPort(0).setVirtualThreads(false).build().start();
+			 final Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+			final OutputStream out = socket.getOutputStream();
+			final BufferedReader in = new BufferedReader(
+					new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+
+			// All requests are sent before the first response is read.
+			final String requests = "ENCODE " + key + " " + TEXT + "\n" //
+					+ "DECODE " + key + " " + code + "\n" //
+					+ "ENCODE " + key + "\n" //
+					+ "ROTATE " + key + " " + TEXT + "\n" //
+					+ "ENCODE 0123:XYZ " + TEXT + "\n" //
+					+ "ENCODE " + key + " " + TEXT.toLowerCase() + "\n";
+
+			out.write(requests.getBytes(StandardCharsets.US_ASCII));
+			out.flush();
+
+			assertEquals("OK " + code, in.readLine());
+			assertEquals("OK " + newBuilder().build().decode(code), in.readLine());
+			assertEquals("ERROR Malformed request.", in.readLine());
+			assertEquals("ERROR Unknown command: ROTATE", in.readLine());
+			assertTrue(in.readLine().startsWith("ERROR Invalid key"));
+			assertTrue(in.readLine().startsWith("ERROR "));
+			assertEquals(6, server.getRequestCount());
+		}
+	}
+
+	@Test
+	@Order(103)
+	public void testLoadGenerator() throws Exception {
+		try (final EnigmaServer server = new EnigmaServer.Builder().setPort(0).build().start()) {
+			final LoadGenerator.Report report = new LoadGenerator.Builder() //
+					.setPort(server.getPort()) //
+					.setConnections(4) //
+					.setRequests(500) //
+					.setPipelineDepth(8) //
+					.setKey(newBuilder().toKey()) //
+					.build() //
+					.run();
+
+			assertEquals(2000, report.getRequestCount());
+			assertEquals(0, report.getErrorCount());
+			assertTrue(report.getLatency(50) <= report.getLatency(99));
+			assertTrue(report.getRequestsPerSecond() > 0.0);
+			assertEquals(4, server.getConnectionCount());
+		}
+	}
+
+	@Test
+	@Order(104)
+	public void testLimits() throws Exception {
+		final PackedKey key = newBuilder().toKey();
+		final String code = newBuilder().build().encode(TEXT);
+
+		try (final EnigmaServer server = new EnigmaServer.Builder() //
+				.setPort(0) //
+				.setThreads(1) //
+				.setVirtualThreads(false) //
+				.setMaxRequestLength(100) //
+				.build() //
+				.start();
+			 final Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+			final OutputStream out = socket.getOutputStream();
+			final BufferedReader in = new BufferedReader(
+					new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+
+			// An overlong request is skipped, the following requests are still answered.
+			out.write(("ENCODE " + key + " " + TEXT + TEXT + "\r\n" + "ENCODE " + key + " " + TEXT + "\r\n")
+					.getBytes(StandardCharsets.US_ASCII));
+			out.flush();
+
+			assertEquals("ERROR Request too long.", in.readLine());
+			assertEquals("OK " + code, in.readLine());
+
+			// The only thread serves the first connection, so the second connection is rejected.
+			try (final Socket rejected = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+				final BufferedReader rejectedIn = new BufferedReader(
+						new InputStreamReader(rejected.getInputStream(), StandardCharsets.US_ASCII));
+
+				assertEquals("ERROR Too many connections.", rejectedIn.readLine());
+				assertEquals(null, rejectedIn.readLine());
+			}
+		}
+	}
+
+}
@@ -0,0 +1,121 @@
+package de.mononoize.enigma.tools;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.junit.jupiter.api.MethodOrderer.OrderAnnotation;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+/**
+ * Tests the {@code GroupFormatter}.
+ * 
+ * @author mononoize
+ */
+@TestMethodOrder(OrderAnnotation.class)
+public class GroupFormatterTests {
+
+	@Test
+	@Order(101)
+	public void testEquivalence() throws IOException {
+		assertThrows(IllegalArgumentException.class, () -> new GroupFormatter.Builder().setLength(-1).build());
+		
+		final Random random = new Random(42);
+		
+		for (int length = 1; length <= 8; length++) {
+			final GroupFormatter formatter = new GroupFormatter.Builder().setLength(length).build();
+			
+			for (int letters = 1; letters <= 40; letters++) {
+				final char[] text = new char[letters];
+				
+				for (int i = 0; i < letters; i++) {
+					text[i] = (char) ('A' + random.nextInt(26));
+				}
+				
+				// The legacy implementation is the reference.
+				final String expected = StringTools.format(String.valueOf(text), length, ' ', '-');
+				
+				assertEquals(expected, StringTools.format(String.valueOf(text), length));
+				assertEquals(expected.length(), formatter.getFormattedLength(letters));
+				
+				final StringWriter writer = new StringWriter();
+				final CharBuffer chars = CharBuffer.allocate(expected.length());
+				final ByteBuffer bytes = ByteBuffer.allocate(expected.length());
+				
+				for (final char letter : text) {
+					formatter.append(letter, writer);
+				}
+				
+				formatter.finish(writer);
+				
+				for (final char letter : text) {
+					formatter.append(letter, chars);
+				}
+				
+				formatter.finish(chars);
+				
+				for (final char letter : text) {
+					formatter.append((byte) letter, bytes);
+				}
+				
+				formatter.finish(bytes);
+				
+				assertEquals(expected, writer.toString());
+				assertEquals(expected, new String(chars.array()));
+				assertEquals(expected, new String(bytes.array(), StandardCharsets.US_ASCII));
+			}
+		}
+	}
+	
+	@Test
+	@Order(102)
+	public void testSetting() {
+		final GroupFormatter formatter = new GroupFormatter.Builder() //
+				.setLength(4) //
+				.setSeparator('/') //
+				.setPadding('X') //
+				.build();
+		final StringBuilder result = new StringBuilder();
+		
+		// Empty texts are not rejected.
+		formatter.finish(result);
+		assertEquals("", result.toString());
+		
+		for (final char letter : "ABCDEFG".toCharArray()) {
+			formatter.append(letter, result);
+		}
+		
+		assertEquals(7, formatter.getCount());
+		
+		formatter.finish(result);
+		assertEquals("ABCD/EFGX", result.toString());
+		assertEquals(0, formatter.getCount());
+		
+		final GroupFormatter unpadded = new GroupFormatter.Builder().setPadded(false).build();
+		final GroupFormatter ungrouped = new GroupFormatter.Builder().setLength(0).build();
+		final StringBuilder unpaddedResult = new StringBuilder();
+		final StringBuilder ungroupedResult = new StringBuilder();
+		
+		for (final char letter : "ABCDEFG".toCharArray()) {
+			unpadded.append(letter, unpaddedResult);
+			ungrouped.append(letter, ungroupedResult);
+		}
+		
+		unpadded.finish(unpaddedResult);
+		ungrouped.finish(ungroupedResult);
+		
+		assertEquals("ABCDE FG", unpaddedResult.toString());
+		assertEquals(8, unpadded.getFormattedLength(7));
+		assertEquals("ABCDEFG", ungroupedResult.toString());
+		assertEquals(7, ungrouped.getFormattedLength(7));
+	}
+	
+}
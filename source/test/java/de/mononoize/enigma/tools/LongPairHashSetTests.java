@@ -0,0 +1,105 @@
+package de.mononoize.enigma.tools;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.AbstractMap.SimpleEntry;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.MethodOrderer.OrderAnnotation;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+/**
+ * Tests the {@code LongPairHashSet} and the {@code LongPairHashMap}.
+ * 
+ * @author mononoize
+ */
+@TestMethodOrder(OrderAnnotation.class)
+public class LongPairHashSetTests {
+
+	@Test
+	@Order(101)
+	public void testSet() {
+		final Random random = new Random(42);
+		final LongPairHashSet set = new LongPairHashSet(4);
+		final Set<Map.Entry<Long, Long>> expected = new HashSet<>();
+		
+		assertTrue(set.isEmpty());
+		
+		for (int i = 0; i < 100000; i++) {
+			// A small value range forces collisions, long clusters and removals within them.
+			final long first = random.nextInt(300);
+			final long second = random.nextInt(3) * 0x1_0000_0000L;
+			final Map.Entry<Long, Long> entry = new SimpleEntry<>(first, second);
+			
+			if (random.nextInt(3) == 0) {
+				assertEquals(expected.remove(entry), set.remove(first, second));
+			} else {
+				assertEquals(expected.add(entry), set.add(first, second));
+			}
+			
+			assertEquals(expected.size(), set.size());
+		}
+		
+		for (long first = 0; first < 300; first++) {
+			for (long second = 0; second < 3; second++) {
+				assertEquals(expected.contains(new SimpleEntry<>(first, second * 0x1_0000_0000L)), set.contains(first, second * 0x1_0000_0000L));
+			}
+		}
+		
+		final Set<Map.Entry<Long, Long>> visited = new HashSet<>();
+		
+		set.forEach((first, second) -> visited.add(new SimpleEntry<>(first, second)));
+		
+		assertEquals(expected, visited);
+		
+		set.clear();
+		
+		assertTrue(set.isEmpty());
+		assertFalse(set.contains(0, 0));
+	}
+	
+	@Test
+	@Order(102)
+	public void testMap() {
+		final Random random = new Random(42);
+		final LongPairHashMap<Integer> map = new LongPairHashMap<>();
+		final Map<Map.Entry<Long, Long>, Integer> expected = new HashMap<>();
+		
+		for (int i = 0; i < 100000; i++) {
+			final long first = random.nextInt(300) - 150;
+			final long second = -random.nextInt(3);
+			final Map.Entry<Long, Long> entry = new SimpleEntry<>(first, second);
+			
+			if (random.nextInt(3) == 0) {
+				assertEquals(expected.remove(entry), map.remove(first, second));
+			} else {
+				assertEquals(expected.put(entry, i), map.put(first, second, i));
+			}
+			
+			assertEquals(expected.size(), map.size());
+			assertEquals(expected.get(entry), map.get(first, second));
+		}
+		
+		final Map<Map.Entry<Long, Long>, Integer> visited = new HashMap<>();
+		
+		map.forEach((first, second, value) -> visited.put(new SimpleEntry<>(first, second), value));
+		
+		assertEquals(expected, visited);
+		
+		map.clear();
+		
+		assertTrue(map.isEmpty());
+		assertNull(map.get(0, 0));
+		assertFalse(map.containsKey(0, 0));
+	}
+	
+}
@@ -0,0 +1,352 @@
+package de.mononoize.enigma.vector;
+
+import static de.mononoize.enigma.tools.CharTools.isInRange;
+import static de.mononoize.enigma.tools.CharTools.toChar;
+import static de.mononoize.enigma.tools.CharTools.toIndex;
+
+import java.util.Arrays;
+
+import org.apache.commons.lang3.Validate;
+
+import de.mononoize.enigma.machine.components.Plugboard;
+import de.mononoize.enigma.machine.components.Reflector;
+import de.mononoize.enigma.machine.components.Rotor;
+import de.mononoize.enigma.machine.components.Wiring;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * <p>Scores all 26 * 26 * 26 start positions of one wheel order with the Java Vector API.</p>
+ *
+ * <p>Each lane of a vector decrypts the ciphertext from a different start position, so that one lane group covers as
+ * many candidates as the preferred vector shape has {@code int} lanes (8 with AVX2, 16 with AVX-512). The rotor
+ * positions are stepped lane-wise without branches and the signal path is seven gather lookups into the rotor tables,
+ * which have the ring positions and the plugboard baked in. The letter frequencies of all lanes are accumulated in a
+ * lane-interleaved histogram of 26 * lanes counters, so that each update is a single gather/add/scatter with no
+ * conflicts between lanes, and the histogram stays in the L1 cache.</p>
+ *
+ * <p>The result is the number of coincidences of each start position as defined by
+ * {@link de.mononoize.enigma.analysis.IndexOfCoincidence#coincidences(int[])}, indexed by the packed position
+ * {@code p1 + 26 * p2 + 676 * p3}. A {@code VectorKeyScan} is immutable and can be shared between threads, e.g. to
+ * scan several wheel orders in parallel.</p>
+ *
+ * @author mononoize
+ */
+public final class VectorKeyScan {
+
+	/**
+	 * The {@code VectorKeyScan} builder.
+	 */
+	public static class Builder implements org.apache.commons.lang3.builder.Builder<VectorKeyScan> {
+
+		private Rotor m_rotor1;
+
+		private Rotor m_rotor2;
+
+		private Rotor m_rotor3;
+
+		private char[] m_ringPositions = { 'A', 'A', 'A' };
+
+		private Rotor m_rotor4 = Rotor.getRotorNeutral();
+
+		private char[] m_rotor4Setting = { 'A', 'A' };
+
+		private Reflector m_reflector;
+
+		private Plugboard m_plugboard = new Plugboard();
+
+		public Builder() {
+		}
+
+		public Builder setRotors(final Rotor rotor1, final Rotor rotor2, final Rotor rotor3) {
+			this.m_rotor1 = rotor1;
+			this.m_rotor2 = rotor2;
+			this.m_rotor3 = rotor3;
+			return this;
+		}
+
+		public Builder setRingPositions(final char ringPosition1, final char ringPosition2, final char ringPosition3) {
+			Validate.inclusiveBetween('A', 'Z', ringPosition1);
+			Validate.inclusiveBetween('A', 'Z', ringPosition2);
+			Validate.inclusiveBetween('A', 'Z', ringPosition3);
+
+			this.m_ringPositions = new char[] { ringPosition1, ringPosition2, ringPosition3 };
+			return this;
+		}
+
+		public Builder setRotor4(final Rotor rotor, final char ringPosition, final char position) {
+			Validate.inclusiveBetween('A', 'Z', ringPosition);
+			Validate.inclusiveBetween('A', 'Z', position);
+
+			this.m_rotor4 = rotor;
+			this.m_rotor4Setting = new char[] { ringPosition, position };
+			return this;
+		}
+
+		public Builder setReflector(final Reflector reflector) {
+			this.m_reflector = reflector;
+			return this;
+		}
+
+		public Builder addCables(final String cables) {
+			this.m_plugboard.addCables(cables);
+			return this;
+		}
+
+		@Override
+		public VectorKeyScan build() {
+			Validate.notNull(this.m_rotor1);
+			Validate.notNull(this.m_rotor2);
+			Validate.notNull(this.m_rotor3);
+			Validate.notNull(this.m_rotor4);
+			Validate.notNull(this.m_reflector);
+
+			return new VectorKeyScan(this);
+		}
+
+	}
+
+	/**
+	 * The number of distinct packed positions.
+	 */
+	public static final int SIZE = 26 * 26 * 26;
+
+	/**
+	 * The vector shape.
+	 */
+	private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+
+	/**
+	 * The forward mappings of the plugboard and the 1st (right) rotor for all positions.
+	 */
+	private final int[] m_rotor1Forward = new int[Wiring.TABLE_SIZE];
+
+	/**
+	 * The reverse mappings of the 1st (right) rotor and the plugboard for all positions.
+	 */
+	private final int[] m_rotor1Reverse = new int[Wiring.TABLE_SIZE];
+
+	/**
+	 * The forward mappings of the 2nd (middle) rotor for all positions.
+	 */
+	private final int[] m_rotor2Forward = new int[Wiring.TABLE_SIZE];
+
+	/**
+	 * The reverse mappings of the 2nd (middle) rotor for all positions.
+	 */
+	private final int[] m_rotor2Reverse = new int[Wiring.TABLE_SIZE];
+
+	/**
+	 * The forward mappings of the 3rd (left) rotor for all positions.
+	 */
+	private final int[] m_rotor3Forward = new int[Wiring.TABLE_SIZE];
+
+	/**
+	 * The reverse mappings of the 3rd (left) rotor for all positions.
+	 */
+	private final int[] m_rotor3Reverse = new int[Wiring.TABLE_SIZE];
+
+	/**
+	 * The combined mapping of the 4th (leftmost) rotor and the reflector.
+	 */
+	private final int[] m_reflector = new int[26];
+
+	/**
+	 * The notch positions of the 1st (right) rotor as bit mask.
+	 */
+	private final int m_rotor1Notches;
+
+	/**
+	 * The notch positions of the 2nd (middle) rotor as bit mask.
+	 */
+	private final int m_rotor2Notches;
+
+	/**
+	 * Constructs a new {@code VectorKeyScan}.
+	 *
+	 * @param builder The builder that provides the setting.
+	 */
+	private VectorKeyScan(final Builder builder) {
+		final Plugboard plugboard = builder.m_plugboard;
+		final int[] rotor1Forward = new int[Wiring.TABLE_SIZE];
+		final int[] rotor1Reverse = new int[Wiring.TABLE_SIZE];
+
+		builder.m_rotor1.getWiring().copyForwardTable(toIndex(builder.m_ringPositions[0]), rotor1Forward);
+		builder.m_rotor1.getWiring().copyReverseTable(toIndex(builder.m_ringPositions[0]), rotor1Reverse);
+
+		// The plugboard never steps, therefore it is folded into the tables of the 1st rotor.
+		for (int offset = 0; offset < Wiring.TABLE_SIZE; offset += 26) {
+			for (int i = 0; i < 26; i++) {
+				this.m_rotor1Forward[offset + i] = rotor1Forward[offset + toIndex(plugboard.getForward(toChar(i)))];
+				this.m_rotor1Reverse[offset + i] = toIndex(plugboard.getReverse(toChar(rotor1Reverse[offset + i])));
+			}
+		}
+
+		// The tables are copied as ints, which is what the gather operations of the Vector API read.
+		builder.m_rotor2.getWiring().copyForwardTable(toIndex(builder.m_ringPositions[1]), this.m_rotor2Forward);
+		builder.m_rotor2.getWiring().copyReverseTable(toIndex(builder.m_ringPositions[1]), this.m_rotor2Reverse);
+		builder.m_rotor3.getWiring().copyForwardTable(toIndex(builder.m_ringPositions[2]), this.m_rotor3Forward);
+		builder.m_rotor3.getWiring().copyReverseTable(toIndex(builder.m_ringPositions[2]), this.m_rotor3Reverse);
+
+		// The 4th rotor and the reflector never step, therefore the signal path through them is a fixed permutation.
+		final int[] rotor4Forward = new int[Wiring.TABLE_SIZE];
+		final int[] rotor4Reverse = new int[Wiring.TABLE_SIZE];
+		final int[] reflector = new int[Wiring.TABLE_SIZE];
+
+		builder.m_rotor4.getWiring().copyForwardTable(toIndex(builder.m_rotor4Setting[0]), rotor4Forward);
+		builder.m_rotor4.getWiring().copyReverseTable(toIndex(builder.m_rotor4Setting[0]), rotor4Reverse);
+		builder.m_reflector.getWiring().copyForwardTable(0, reflector);
+		final int rotor4Offset = toIndex(builder.m_rotor4Setting[1]) * 26;
+		final int reflectorOffset = toIndex(builder.m_reflector.getPosition()) * 26;
+
+		for (int i = 0; i < 26; i++) {
+			final int forward = rotor4Forward[rotor4Offset + i];
+			final int reflected = reflector[reflectorOffset + forward];
+			this.m_reflector[i] = rotor4Reverse[rotor4Offset + reflected];
+		}
+
+		this.m_rotor1Notches = mask(builder.m_rotor1.getNotches());
+		this.m_rotor2Notches = mask(builder.m_rotor2.getNotches());
+	}
+
+	/**
+	 * Converts the given notches into a bit mask.
+	 *
+	 * @param notches The notches.
+	 * @return The bit mask.
+	 */
+	private static int mask(final char[] notches) {
+		int result = 0;
+
+		for (final char notch : notches) {
+			result |= 1 << toIndex(notch);
+		}
+
+		return result;
+	}
+
+	/**
+	 * Returns the number of start positions that are decrypted together.
+	 *
+	 * @return The number of lanes of the preferred vector shape.
+	 */
+	public static int getLaneCount() {
+		return SPECIES.length();
+	}
+
+	/**
+	 * Decrypts the given ciphertext from all start positions and returns the number of coincidences of each
+	 * decryption. Characters that are not an element of the Latin alphabet are skipped.
+	 *
+	 * @param ciphertext The ciphertext.
+	 * @return The number of coincidences, indexed by the packed start position.
+	 */
+	public long[] scan(final String ciphertext) {
+		Validate.notNull(ciphertext);
+
+		final int[] letters = new int[ciphertext.length()];
+		int length = 0;
+
+		for (int i = 0; i < ciphertext.length(); i++) {
+			if (isInRange(ciphertext.charAt(i))) {
+				letters[length++] = toIndex(ciphertext.charAt(i));
+			}
+		}
+
+		return this.scan(Arrays.copyOf(letters, length));
+	}
+
+	/**
+	 * Decrypts the given letters from all start positions and returns the number of coincidences of each decryption.
+	 *
+	 * @param ciphertext The letter indices of the ciphertext, from 0 ('A') to 25 ('Z').
+	 * @return The number of coincidences, indexed by the packed start position.
+	 */
+	private long[] scan(final int[] ciphertext) {
+		final int lanes = SPECIES.length();
+		final int[] indices = new int[lanes];
+		final int[] counts = new int[26 * lanes];
+		final int[] start = new int[lanes];
+		final long[] result = new long[SIZE];
+
+		final IntVector iota = IntVector.zero(SPECIES).addIndex(1);
+		final IntVector rotor1Notches = IntVector.broadcast(SPECIES, this.m_rotor1Notches);
+		final IntVector rotor2Notches = IntVector.broadcast(SPECIES, this.m_rotor2Notches);
+
+		for (int base = 0; base < SIZE; base += lanes) {
+			// The last lane group is padded with the last position, whose results are dropped.
+			for (int lane = 0; lane < lanes; lane++) {
+				start[lane] = Math.min(base + lane, SIZE - 1);
+			}
+
+			final IntVector position = IntVector.fromArray(SPECIES, start, 0);
+			IntVector p3 = position.div(676);
+			IntVector p2 = position.sub(p3.mul(676)).div(26);
+			IntVector p1 = position.sub(p3.mul(676)).sub(p2.mul(26));
+
+			Arrays.fill(counts, 0);
+
+			for (final int letter : ciphertext) {
+				// STEP 1: Perform the stepping mechanism, including the double step of the 2nd rotor.
+				final IntVector rotor1IsNotchPosition = rotor1Notches.lanewise(VectorOperators.LSHR, p1).and(1);
+				final IntVector rotor2IsNotchPosition = rotor2Notches.lanewise(VectorOperators.LSHR, p2).and(1);
+
+				p1 = p1.add(1);
+				p1 = p1.blend(0, p1.compare(VectorOperators.EQ, 26));
+				p2 = p2.add(rotor1IsNotchPosition).add(rotor2IsNotchPosition);
+				p2 = p2.blend(p2.sub(26), p2.compare(VectorOperators.GE, 26));
+				p3 = p3.add(rotor2IsNotchPosition);
+				p3 = p3.blend(0, p3.compare(VectorOperators.EQ, 26));
+
+				// STEP 2: Perform the actual decryption.
+				final IntVector o1 = p1.mul(26);
+				final IntVector o2 = p2.mul(26);
+				final IntVector o3 = p3.mul(26);
+
+				IntVector c = gather(this.m_rotor1Forward, o1.add(letter), indices);
+				c = gather(this.m_rotor2Forward, o2.add(c), indices);
+				c = gather(this.m_rotor3Forward, o3.add(c), indices);
+				c = gather(this.m_reflector, c, indices);
+				c = gather(this.m_rotor3Reverse, o3.add(c), indices);
+				c = gather(this.m_rotor2Reverse, o2.add(c), indices);
+				c = gather(this.m_rotor1Reverse, o1.add(c), indices);
+
+				// STEP 3: Count the letter, each lane has its own column of the histogram.
+				final IntVector slots = c.mul(lanes).add(iota);
+
+				gather(counts, slots, indices).add(1).intoArray(counts, 0, indices, 0);
+			}
+
+			for (int lane = 0; (lane < lanes) && ((base + lane) < SIZE); lane++) {
+				long coincidences = 0;
+
+				for (int letter = 0; letter < 26; letter++) {
+					final long count = counts[(letter * lanes) + lane];
+					coincidences += count * (count - 1);
+				}
+
+				result[base + lane] = coincidences;
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Gathers the elements of the given table at the given indices. The indices are passed through the given array,
+	 * since this is what the gather operation of the Vector API takes.
+	 *
+	 * @param table The table.
+	 * @param index The indices.
+	 * @param indices The array of length {@code lanes} to pass the indices through.
+	 * @return The gathered elements.
+	 */
+	private static IntVector gather(final int[] table, final IntVector index, final int[] indices) {
+		index.intoArray(indices, 0);
+
+		return IntVector.fromArray(SPECIES, table, 0, indices, 0);
+	}
+
+}
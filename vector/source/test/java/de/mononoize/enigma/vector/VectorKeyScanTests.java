@@ -0,0 +1,83 @@
+package de.mononoize.enigma.vector;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.MethodOrderer.OrderAnnotation;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import de.mononoize.enigma.analysis.IndexOfCoincidence;
+import de.mononoize.enigma.machine.Enigma;
+import de.mononoize.enigma.machine.components.Reflector;
+import de.mononoize.enigma.machine.components.Rotor;
+import de.mononoize.enigma.tools.CharTools;
+
+/**
+ * Tests the {@code VectorKeyScan}.
+ * 
+ * @author mononoize
+ */
+@TestMethodOrder(OrderAnnotation.class)
+public class VectorKeyScanTests {
+
+	private static final String CABLES = "AV BS CG DL FU HZ IN KM OW RX";
+
+	@Test
+	@Order(101)
+	public void testBuilder() {
+		assertThrows(NullPointerException.class, () -> new VectorKeyScan.Builder().build());
+		assertThrows(IllegalArgumentException.class, () -> new VectorKeyScan.Builder().setRingPositions('A', 'a', 'A'));
+	}
+
+	@Test
+	@Order(102)
+	public void testEquivalence() {
+		final Random random = new Random(42);
+		final StringBuilder text = new StringBuilder();
+
+		for (int i = 0; i < 250; i++) {
+			text.append((random.nextInt(10) == 0) ? ' ' : (char) ('A' + random.nextInt(26)));
+		}
+
+		final String ciphertext = text.toString();
+		final long[] result = new VectorKeyScan.Builder() //
+				.setRotors(Rotor.getRotorVI(), Rotor.getRotorII(), Rotor.getRotorVIII()) //
+				.setRingPositions('C', 'Q', 'H') //
+				.setRotor4(Rotor.getRotorBeta(), 'E', 'K') //
+				.setReflector(Reflector.getReflectorBruno()) //
+				.addCables(CABLES) //
+				.build() //
+				.scan(ciphertext);
+
+		assertEquals(VectorKeyScan.SIZE, result.length);
+
+		// Covers the double step of both notches of rotor VI and VIII and the padded last lane group.
+		final int[] positions = { 0, 1, 25, 26 * 12 + 13, 26 * 25, 26 * 25 + 12, 5000, 12345, VectorKeyScan.SIZE - 1 };
+
+		for (final int position : positions) {
+			final String plaintext = new Enigma.Builder() //
+					.setRotor1(Rotor.getRotorVI(), 'C', (char) ('A' + (position % 26))) //
+					.setRotor2(Rotor.getRotorII(), 'Q', (char) ('A' + ((position / 26) % 26))) //
+					.setRotor3(Rotor.getRotorVIII(), 'H', (char) ('A' + (position / 676))) //
+					.setRotor4(Rotor.getRotorBeta(), 'E', 'K') //
+					.setReflector(Reflector.getReflectorBruno()) //
+					.addCables(CABLES) //
+					.build() //
+					.decode(ciphertext);
+			final int[] counts = new int[26];
+
+			for (int i = 0; i < plaintext.length(); i++) {
+				if (CharTools.isInRange(plaintext.charAt(i))) {
+					counts[plaintext.charAt(i) - 'A']++;
+				}
+			}
+
+			assertEquals(IndexOfCoincidence.coincidences(counts), result[position], "position " + position);
+		}
+	}
+
+}